@@ -0,0 +1,42 @@
+package org.gbif.api.benchmark;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.util.ClassificationUtils;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of building the higher classification map of a fully classified species usage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassificationUtilsBenchmark {
+
+  private NameUsage usage;
+
+  @Setup
+  public void setup() {
+    usage = Fixtures.nameUsage();
+  }
+
+  @Benchmark
+  public LinkedHashMap<Integer, String> higherClassificationMap() {
+    return ClassificationUtils.getHigherClassificationMap(usage);
+  }
+}
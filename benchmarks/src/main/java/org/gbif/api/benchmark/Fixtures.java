@@ -0,0 +1,138 @@
+package org.gbif.api.benchmark;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Continent;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.DatasetType;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.Language;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Origin;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Realistically populated model objects shared by the benchmarks.
+ * Dates are fixed so that runs on different days serialize identical documents.
+ */
+class Fixtures {
+
+  private static final UUID DATASET_KEY = UUID.fromString("7ddf754f-d193-4cc9-b351-99906754a03b");
+  private static final UUID ORG_KEY = UUID.fromString("7ce8aef0-9e92-11dc-8738-b8a03c50a862");
+  private static final UUID INSTALLATION_KEY = UUID.fromString("1a1d8b2c-3e3e-4b0f-8a42-7d1d9fcb2a11");
+  private static final Date MODIFIED = new Date(1400000000000L);
+
+  private Fixtures() {
+  }
+
+  static NameUsage nameUsage() {
+    NameUsage u = new NameUsage();
+    u.setKey(5231190);
+    u.setNubKey(5231190);
+    u.setDatasetKey(DATASET_KEY);
+    u.setScientificName("Passer domesticus (Linnaeus, 1758)");
+    u.setCanonicalName("Passer domesticus");
+    u.setAuthorship("(Linnaeus, 1758)");
+    u.setRank(Rank.SPECIES);
+    u.setTaxonomicStatus(TaxonomicStatus.ACCEPTED);
+    u.setOrigin(Origin.SOURCE);
+    u.setNumDescendants(12);
+    u.setKingdom("Animalia");
+    u.setKingdomKey(1);
+    u.setPhylum("Chordata");
+    u.setPhylumKey(44);
+    u.setClazz("Aves");
+    u.setClassKey(212);
+    u.setOrder("Passeriformes");
+    u.setOrderKey(729);
+    u.setFamily("Passeridae");
+    u.setFamilyKey(5264);
+    u.setGenus("Passer");
+    u.setGenusKey(2492321);
+    u.setSpecies("Passer domesticus");
+    u.setSpeciesKey(5231190);
+    u.setParent("Passer");
+    u.setParentKey(2492321);
+    u.setVernacularName("House Sparrow");
+    u.setPublishedIn("Syst. Nat. ed. 10: 183");
+    u.setModified(MODIFIED);
+    return u;
+  }
+
+  static Occurrence occurrence() {
+    Occurrence o = new Occurrence();
+    o.setKey(1234567890);
+    o.setDatasetKey(DATASET_KEY);
+    o.setPublishingOrgKey(ORG_KEY);
+    o.setPublishingCountry(Country.DENMARK);
+    o.setProtocol(EndpointType.DWC_ARCHIVE);
+    o.setBasisOfRecord(BasisOfRecord.HUMAN_OBSERVATION);
+    o.setIndividualCount(3);
+    o.setTaxonKey(5231190);
+    o.setScientificName("Passer domesticus (Linnaeus, 1758)");
+    o.setTaxonRank(Rank.SPECIES);
+    o.setKingdom("Animalia");
+    o.setKingdomKey(1);
+    o.setPhylum("Chordata");
+    o.setPhylumKey(44);
+    o.setClazz("Aves");
+    o.setClassKey(212);
+    o.setOrder("Passeriformes");
+    o.setOrderKey(729);
+    o.setFamily("Passeridae");
+    o.setFamilyKey(5264);
+    o.setGenus("Passer");
+    o.setGenusKey(2492321);
+    o.setSpecies("Passer domesticus");
+    o.setSpeciesKey(5231190);
+    o.setDecimalLatitude(55.6761);
+    o.setDecimalLongitude(12.5683);
+    o.setCoordinateUncertaintyInMeters(30d);
+    o.setContinent(Continent.EUROPE);
+    o.setCountry(Country.DENMARK);
+    o.setStateProvince("Hovedstaden");
+    o.setYear(2014);
+    o.setMonth(5);
+    o.setDay(13);
+    o.setEventDate(MODIFIED);
+    o.setModified(MODIFIED);
+    o.setLastInterpreted(MODIFIED);
+    o.setLastCrawled(MODIFIED);
+    o.setLicense(License.CC_BY_4_0);
+    o.addIssue(OccurrenceIssue.COORDINATE_ROUNDED);
+    o.addIssue(OccurrenceIssue.GEODETIC_DATUM_ASSUMED_WGS84);
+    o.setVerbatimField(DwcTerm.occurrenceID, "urn:catalog:DK:obs:123456");
+    o.setVerbatimField(DwcTerm.scientificName, "Passer domesticus");
+    o.setVerbatimField(DwcTerm.decimalLatitude, "55.6761");
+    o.setVerbatimField(DwcTerm.decimalLongitude, "12.5683");
+    o.setVerbatimField(DwcTerm.eventDate, "2014-05-13");
+    o.setVerbatimField(DwcTerm.countryCode, "DK");
+    o.setVerbatimField(DwcTerm.basisOfRecord, "HumanObservation");
+    o.setVerbatimField(DcTerm.modified, "2014-05-13T18:53:20Z");
+    return o;
+  }
+
+  static Dataset dataset() {
+    Dataset d = new Dataset();
+    d.setKey(DATASET_KEY);
+    d.setPublishingOrganizationKey(ORG_KEY);
+    d.setInstallationKey(INSTALLATION_KEY);
+    d.setType(DatasetType.OCCURRENCE);
+    d.setTitle("Danish bird observations");
+    d.setDescription("Citizen science observations of birds in Denmark collected since 1990.");
+    d.setLanguage(Language.DANISH);
+    d.setLicense(License.CC_BY_4_0);
+    d.setCreated(MODIFIED);
+    d.setModified(MODIFIED);
+    return d;
+  }
+}
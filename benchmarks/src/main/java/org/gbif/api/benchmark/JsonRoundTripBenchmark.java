@@ -0,0 +1,103 @@
+package org.gbif.api.benchmark;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.registry.Dataset;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of Jackson serialization and deserialization of the main model objects,
+ * using the mapper configuration of the webservice clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonRoundTripBenchmark {
+
+  private ObjectMapper mapper;
+  private Occurrence occurrence;
+  private NameUsage nameUsage;
+  private Dataset dataset;
+  private byte[] occurrenceJson;
+  private byte[] nameUsageJson;
+  private byte[] datasetJson;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = new ObjectMapper();
+    mapper.enable(DeserializationConfig.Feature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT);
+    mapper.disable(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES);
+    mapper.setSerializationInclusion(JsonSerialize.Inclusion.NON_NULL);
+
+    occurrence = Fixtures.occurrence();
+    nameUsage = Fixtures.nameUsage();
+    dataset = Fixtures.dataset();
+    occurrenceJson = mapper.writeValueAsBytes(occurrence);
+    nameUsageJson = mapper.writeValueAsBytes(nameUsage);
+    datasetJson = mapper.writeValueAsBytes(dataset);
+  }
+
+  @Benchmark
+  public byte[] writeOccurrence() throws IOException {
+    return mapper.writeValueAsBytes(occurrence);
+  }
+
+  @Benchmark
+  public Occurrence readOccurrence() throws IOException {
+    return mapper.readValue(occurrenceJson, Occurrence.class);
+  }
+
+  @Benchmark
+  public Occurrence roundTripOccurrence() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(occurrence), Occurrence.class);
+  }
+
+  @Benchmark
+  public byte[] writeNameUsage() throws IOException {
+    return mapper.writeValueAsBytes(nameUsage);
+  }
+
+  @Benchmark
+  public NameUsage readNameUsage() throws IOException {
+    return mapper.readValue(nameUsageJson, NameUsage.class);
+  }
+
+  @Benchmark
+  public NameUsage roundTripNameUsage() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(nameUsage), NameUsage.class);
+  }
+
+  @Benchmark
+  public byte[] writeDataset() throws IOException {
+    return mapper.writeValueAsBytes(dataset);
+  }
+
+  @Benchmark
+  public Dataset readDataset() throws IOException {
+    return mapper.readValue(datasetJson, Dataset.class);
+  }
+
+  @Benchmark
+  public Dataset roundTripDataset() throws IOException {
+    return mapper.readValue(mapper.writeValueAsBytes(dataset), Dataset.class);
+  }
+}
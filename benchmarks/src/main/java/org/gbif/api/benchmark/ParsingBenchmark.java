@@ -0,0 +1,114 @@
+package org.gbif.api.benchmark;
+
+import org.gbif.api.model.common.DOI;
+import org.gbif.api.util.DatasetKey;
+import org.gbif.api.util.IsoDateParsingUtils;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the small string parsers used when binding request parameters and reading records.
+ * Inputs are instance fields so the JIT cannot constant fold them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+  // more distinct ranges than the parser caches, so every call misses the cache
+  private static final int UNCACHED_RANGES = 4096;
+
+  public String dateRange = "2000-01,2010-12-31";
+  private final String[] dateRanges = new String[UNCACHED_RANGES];
+  private int nextRange;
+  public String date = "2014-06-23";
+  public String enumName = "preserved specimen";
+  public String iso2 = "DE";
+  public String iso3 = "DEU";
+  public String doi = "doi:10.15468/dl.ab12cd";
+  public String doiUrl = "https://doi.org/10.15468/dl.ab12cd";
+  public String datasetKey = "7ddf754f-d193-4cc9-b351-99906754a03b";
+  public String externalDatasetKey = "7ddf754f-d193-4cc9-b351-99906754a03b:catalogue-of-life";
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < dateRanges.length; i++) {
+      int year = 1800 + i % 200;
+      dateRanges[i] = String.format("%d-%02d-%02d,%d-12-31", year, i / 200 % 12 + 1, i / 2400 + 1, year + 10);
+    }
+  }
+
+  /**
+   * Repeated requests with the same range, answered by the range cache.
+   */
+  @Benchmark
+  public Range<Date> parseDateRangeCached() {
+    return IsoDateParsingUtils.parseDateRange(dateRange);
+  }
+
+  /**
+   * Distinct ranges that are parsed on every call.
+   */
+  @Benchmark
+  public Range<Date> parseDateRange() {
+    nextRange = (nextRange + 1) % dateRanges.length;
+    return IsoDateParsingUtils.parseDateRange(dateRanges[nextRange]);
+  }
+
+  @Benchmark
+  public Date parseDate() {
+    return IsoDateParsingUtils.parseDate(date);
+  }
+
+  @Benchmark
+  public BasisOfRecord lookupEnum() {
+    return VocabularyUtils.lookupEnum(enumName, BasisOfRecord.class);
+  }
+
+  @Benchmark
+  public void countryFromIsoCode(Blackhole bh) {
+    bh.consume(Country.fromIsoCode(iso2));
+    bh.consume(Country.fromIsoCode(iso3));
+  }
+
+  @Benchmark
+  public DOI parseDoi() {
+    return new DOI(doi);
+  }
+
+  @Benchmark
+  public DOI parseDoiUrl() {
+    return new DOI(doiUrl);
+  }
+
+  @Benchmark
+  public boolean isParsableDoi() {
+    return DOI.isParsable(doiUrl);
+  }
+
+  @Benchmark
+  public void datasetKeyFromString(Blackhole bh) {
+    bh.consume(DatasetKey.fromString(datasetKey));
+    bh.consume(DatasetKey.fromString(externalDatasetKey));
+  }
+}
@@ -0,0 +1,60 @@
+package org.gbif.api.benchmark;
+
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.util.SearchTypeValidator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of validating occurrence search parameter values as done for every search and download request.
+ * Each case is a parameter name and a value separated by the first equals sign.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchTypeValidatorBenchmark {
+
+  @Param({
+    "DECIMAL_LATITUDE=45.12",
+    "DECIMAL_LONGITUDE=-120.5,-100",
+    "YEAR=1900,2000",
+    "MONTH=4",
+    "EVENT_DATE=2000-01-10,2010-12-31",
+    "DATASET_KEY=7ddf754f-d193-4cc9-b351-99906754a03b",
+    "COUNTRY=DE",
+    "BASIS_OF_RECORD=PRESERVED_SPECIMEN",
+    "GEOMETRY=POLYGON((30 10, 10 20, 20 40, 40 40, 30 10))"
+  })
+  public String input;
+
+  private OccurrenceSearchParameter param;
+  private String value;
+
+  @Setup
+  public void setup() {
+    int idx = input.indexOf('=');
+    param = OccurrenceSearchParameter.valueOf(input.substring(0, idx));
+    value = input.substring(idx + 1);
+  }
+
+  @Benchmark
+  public OccurrenceSearchParameter validate() {
+    SearchTypeValidator.validate(param, value);
+    return param;
+  }
+}
@@ -0,0 +1,184 @@
+package org.gbif.api.jackson;
+
+import org.gbif.api.model.common.paging.PagingResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.JavaType;
+
+/**
+ * Reads a {@link PagingResponse} JSON document incrementally, so the results of large pages are processed one by one
+ * while the document is still being read instead of materializing the entire page first.
+ * <br/>
+ * The paging metadata found before the results array is available right away. Metadata that follows the results is
+ * only known once all results have been iterated. Unknown properties, e.g. the facets of a search response, are
+ * skipped. The reader is not thread safe and can only be iterated once.
+ *
+ * @param <T> the type of the results
+ */
+public class PagingResponseReader<T> implements Iterator<T>, Closeable {
+
+  private final ObjectMapper mapper;
+  private final JavaType type;
+  private final JsonParser jp;
+
+  private Long offset;
+  private Integer limit;
+  private Boolean endOfRecords;
+  private Long count;
+  // true while the parser is positioned inside the results array
+  private boolean inResults;
+  // the next result, read ahead by hasNext()
+  private T next;
+
+  /**
+   * Creates a reader on a stream, reading up to the first result.
+   *
+   * @throws IOException if the stream does not contain a JSON object
+   */
+  public PagingResponseReader(ObjectMapper mapper, InputStream in, Class<T> resultClass) throws IOException {
+    this(mapper, mapper.getJsonFactory().createJsonParser(in), mapper.constructType(resultClass));
+  }
+
+  /**
+   * Creates a reader on a parser positioned before or at the start of the response object, reading up to the first
+   * result. Use this constructor for generic result types.
+   *
+   * @throws IOException if the parser is not positioned at a JSON object
+   */
+  public PagingResponseReader(ObjectMapper mapper, JsonParser jp, JavaType resultType) throws IOException {
+    this.mapper = Preconditions.checkNotNull(mapper, "ObjectMapper required");
+    this.jp = Preconditions.checkNotNull(jp, "JsonParser required");
+    this.type = Preconditions.checkNotNull(resultType, "Result type required");
+    if (jp.getCurrentToken() == null) {
+      jp.nextToken();
+    }
+    if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected paging response object but found " + jp.getCurrentToken());
+    }
+    readProperties();
+  }
+
+  /**
+   * Reads properties until the results array is entered or the response object ends.
+   */
+  private void readProperties() throws IOException {
+    JsonToken token;
+    while ((token = jp.nextToken()) == JsonToken.FIELD_NAME) {
+      String name = jp.getCurrentName();
+      token = jp.nextToken();
+      if ("results".equals(name) && token == JsonToken.START_ARRAY) {
+        inResults = true;
+        return;
+      }
+      if (token == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      if ("offset".equals(name)) {
+        offset = jp.getLongValue();
+      } else if ("limit".equals(name)) {
+        limit = jp.getIntValue();
+      } else if ("endOfRecords".equals(name)) {
+        endOfRecords = jp.getBooleanValue();
+      } else if ("count".equals(name)) {
+        count = jp.getLongValue();
+      } else {
+        jp.skipChildren();
+      }
+    }
+    if (token != JsonToken.END_OBJECT) {
+      throw new IOException("Unexpected end of paging response");
+    }
+  }
+
+  /**
+   * @return the offset of the page, or null if not (yet) read
+   */
+  @Nullable
+  public Long getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return the limit of the page, or null if not (yet) read
+   */
+  @Nullable
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * @return the end of records flag, or null if not (yet) read
+   */
+  @Nullable
+  public Boolean getEndOfRecords() {
+    return endOfRecords;
+  }
+
+  /**
+   * @return the total count of results, or null if not (yet) read
+   */
+  @Nullable
+  public Long getCount() {
+    return count;
+  }
+
+  /**
+   * @throws IllegalStateException wrapping an IOException if the document cannot be read
+   */
+  @Override
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    try {
+      while (inResults) {
+        JsonToken token = jp.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+          inResults = false;
+          readProperties();
+        } else if (token == null) {
+          throw new IOException("Unexpected end of results");
+        } else if (token != JsonToken.VALUE_NULL) {
+          next = mapper.readValue(jp, type);
+          return true;
+        }
+      }
+      return false;
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read paging response", e);
+    }
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    T result = next;
+    next = null;
+    return result;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Closes the parser and the underlying stream.
+   */
+  @Override
+  public void close() throws IOException {
+    jp.close();
+  }
+}
@@ -1,13 +1,14 @@
 package org.gbif.api.jackson;
 
+import org.gbif.api.model.common.TermMap;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.terms.TermFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.collect.Lists;
 import org.codehaus.jackson.JsonParser;
@@ -18,32 +19,59 @@ import org.codehaus.jackson.map.JsonDeserializer;
 
 /**
  * Deserializes list of maps of terms values.
+ * The maps are built directly from the parser tokens and the terms of field names are cached by the deserializer.
  */
 public class TermMapListDeserializer extends JsonDeserializer<List<Map<Term, String>>> {
 
+  // only cache a reasonable number of distinct field names, e.g. in case of garbage input
+  private static final int MAX_CACHED_TERMS = 10000;
+
   private final TermFactory termFactory = TermFactory.instance();
+  private final ConcurrentMap<String, Term> terms = new ConcurrentHashMap<String, Term>();
 
   @Override
   public List<Map<Term, String>> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
-    if (jp.getCurrentToken() == JsonToken.START_ARRAY) {
-      JsonDeserializer<Object> deserializer =
-        ctxt.getDeserializerProvider().findTypedValueDeserializer(ctxt.getConfig(),
-                                                                  ctxt.constructType(List.class),null);
-      List<Map<String, String>> verbatimTerms = (List<Map<String, String>>) deserializer.deserialize(jp, ctxt);
-      List<Map<Term, String>> interpretedTerms = Lists.newArrayList();
-      for (Map<String, String> verbExtension : verbatimTerms) {
-        Map<Term, String> extension = new HashMap<Term, String>();
-        for (Entry<String, String> entry : verbExtension.entrySet()) {
-          Term term = termFactory.findTerm(entry.getKey());
-          if (term == null && ctxt.getConfig().isEnabled(Feature.FAIL_ON_UNKNOWN_PROPERTIES)) {
-            throw ctxt.mappingException("Term not found " + entry.getKey());
-          }
-          extension.put(term, entry.getValue());
+    if (jp.getCurrentToken() != JsonToken.START_ARRAY) {
+      throw ctxt.mappingException("Expected JSON array");
+    }
+    List<Map<Term, String>> interpretedTerms = Lists.newArrayList();
+    JsonToken token;
+    while ((token = jp.nextToken()) == JsonToken.START_OBJECT) {
+      Map<Term, String> extension = new TermMap();
+      while (jp.nextToken() == JsonToken.FIELD_NAME) {
+        Term term = term(jp.getCurrentName(), ctxt);
+        extension.put(term, value(jp.nextToken(), jp, ctxt));
+      }
+      interpretedTerms.add(extension);
+    }
+    if (token != JsonToken.END_ARRAY) {
+      throw ctxt.mappingException("Expected JSON object of term values");
+    }
+    return interpretedTerms;
+  }
+
+  private Term term(String name, DeserializationContext ctxt) throws IOException {
+    Term term = terms.get(name);
+    if (term == null) {
+      term = termFactory.findTerm(name);
+      if (term == null) {
+        if (ctxt.getConfig().isEnabled(Feature.FAIL_ON_UNKNOWN_PROPERTIES)) {
+          throw ctxt.mappingException("Term not found " + name);
         }
-        interpretedTerms.add(extension);
+      } else if (terms.size() < MAX_CACHED_TERMS) {
+        terms.put(name, term);
       }
-      return interpretedTerms;
     }
-    throw ctxt.mappingException("Expected JSON String");
+    return term;
+  }
+
+  private static String value(JsonToken token, JsonParser jp, DeserializationContext ctxt) throws IOException {
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token == null || !token.isScalarValue()) {
+      throw ctxt.mappingException("Expected scalar term value but found " + token);
+    }
+    return jp.getText();
   }
 }
@@ -6,33 +6,58 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.io.SerializedString;
 import org.codehaus.jackson.map.JsonSerializer;
 import org.codehaus.jackson.map.SerializationConfig.Feature;
 import org.codehaus.jackson.map.SerializerProvider;
 
 /**
  * Serializes list of maps of terms values.
+ * The qualified names of the terms are cached by the serializer as pre-encoded field names.
  */
 public class TermMapListSerializer extends JsonSerializer<List<Map<Term, String>>> {
 
+  // only cache a reasonable number of distinct terms, e.g. in case of many unknown terms
+  private static final int MAX_CACHED_TERMS = 10000;
+
+  private final ConcurrentMap<Term, SerializedString> names = new ConcurrentHashMap<Term, SerializedString>();
+
   @Override
   public void serialize(List<Map<Term, String>> value, JsonGenerator jgen, SerializerProvider provider)
     throws IOException {
-    if ((value == null || value.isEmpty()) && provider.getConfig().isEnabled(Feature.WRITE_EMPTY_JSON_ARRAYS)) {
-      jgen.writeStartArray();
-      jgen.writeEndArray();
+    if (value == null || value.isEmpty()) {
+      if (value != null || provider.getConfig().isEnabled(Feature.WRITE_EMPTY_JSON_ARRAYS)) {
+        jgen.writeStartArray();
+        jgen.writeEndArray();
+      } else {
+        jgen.writeNull();
+      }
     } else {
       jgen.writeStartArray();
       for (Map<Term, String> extension : value) {
         jgen.writeStartObject();
         for (Entry<Term, String> entry : extension.entrySet()) {
-          jgen.writeStringField(entry.getKey().qualifiedName(), entry.getValue());
+          jgen.writeFieldName(name(entry.getKey()));
+          jgen.writeString(entry.getValue());
         }
         jgen.writeEndObject();
       }
       jgen.writeEndArray();
     }
   }
+
+  private SerializedString name(Term term) {
+    SerializedString name = names.get(term);
+    if (name == null) {
+      name = new SerializedString(term.qualifiedName());
+      if (names.size() < MAX_CACHED_TERMS) {
+        names.put(term, name);
+      }
+    }
+    return name;
+  }
 }
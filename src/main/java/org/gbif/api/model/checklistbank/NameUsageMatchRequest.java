@@ -0,0 +1,243 @@
+package org.gbif.api.model.checklistbank;
+
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.util.ClassificationUtils;
+import org.gbif.api.vocabulary.Rank;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import org.codehaus.jackson.annotate.JsonProperty;
+
+/**
+ * The parameters of a single name match as used for batch matching,
+ * see {@link org.gbif.api.service.checklistbank.NameUsageMatchingService#matchAll(java.util.List)}.
+ */
+public class NameUsageMatchRequest implements LinneanClassification {
+
+  private String scientificName;
+  private Rank rank;
+  private boolean strict;
+  private boolean verbose;
+  // for LinneanClassification
+  private String kingdom;
+  private String phylum;
+  @JsonProperty("class")
+  private String clazz;
+  private String order;
+  private String family;
+  private String genus;
+  private String subgenus;
+  private String species;
+
+  public NameUsageMatchRequest() {
+  }
+
+  /**
+   * Creates a request with the same parameters as
+   * {@link org.gbif.api.service.checklistbank.NameUsageMatchingService#match}, copying the classification.
+   */
+  public NameUsageMatchRequest(String scientificName, @Nullable Rank rank,
+                               @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+    this.scientificName = scientificName;
+    this.rank = rank;
+    this.strict = strict;
+    this.verbose = verbose;
+    if (classification != null) {
+      kingdom = classification.getKingdom();
+      phylum = classification.getPhylum();
+      clazz = classification.getClazz();
+      order = classification.getOrder();
+      family = classification.getFamily();
+      genus = classification.getGenus();
+      subgenus = classification.getSubgenus();
+      species = classification.getSpecies();
+    }
+  }
+
+  /**
+   * @return the name to match against
+   */
+  public String getScientificName() {
+    return scientificName;
+  }
+
+  public void setScientificName(String scientificName) {
+    this.scientificName = scientificName;
+  }
+
+  /**
+   * @return the optional rank of the name to match
+   */
+  @Nullable
+  public Rank getRank() {
+    return rank;
+  }
+
+  public void setRank(Rank rank) {
+    this.rank = rank;
+  }
+
+  /**
+   * @return true if only the scientific name should be matched, ignoring the classification
+   */
+  public boolean isStrict() {
+    return strict;
+  }
+
+  public void setStrict(boolean strict) {
+    this.strict = strict;
+  }
+
+  /**
+   * @return true if verbose matching information, i.e. alternative matches, should be added
+   */
+  public boolean isVerbose() {
+    return verbose;
+  }
+
+  public void setVerbose(boolean verbose) {
+    this.verbose = verbose;
+  }
+
+  @Override
+  @Nullable
+  public String getKingdom() {
+    return kingdom;
+  }
+
+  @Override
+  public void setKingdom(String kingdom) {
+    this.kingdom = kingdom;
+  }
+
+  @Override
+  @Nullable
+  public String getPhylum() {
+    return phylum;
+  }
+
+  @Override
+  public void setPhylum(String phylum) {
+    this.phylum = phylum;
+  }
+
+  @Override
+  @Nullable
+  public String getClazz() {
+    return clazz;
+  }
+
+  @Override
+  public void setClazz(String clazz) {
+    this.clazz = clazz;
+  }
+
+  @Override
+  @Nullable
+  public String getOrder() {
+    return order;
+  }
+
+  @Override
+  public void setOrder(String order) {
+    this.order = order;
+  }
+
+  @Override
+  @Nullable
+  public String getFamily() {
+    return family;
+  }
+
+  @Override
+  public void setFamily(String family) {
+    this.family = family;
+  }
+
+  @Override
+  @Nullable
+  public String getGenus() {
+    return genus;
+  }
+
+  @Override
+  public void setGenus(String genus) {
+    this.genus = genus;
+  }
+
+  @Override
+  @Nullable
+  public String getSubgenus() {
+    return subgenus;
+  }
+
+  @Override
+  public void setSubgenus(String subgenus) {
+    this.subgenus = subgenus;
+  }
+
+  @Override
+  @Nullable
+  public String getSpecies() {
+    return species;
+  }
+
+  @Override
+  public void setSpecies(String species) {
+    this.species = species;
+  }
+
+  @Override
+  @Nullable
+  public String getHigherRank(Rank rank) {
+    return ClassificationUtils.getHigherRank(this, rank);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(scientificName, rank, strict, verbose, kingdom, phylum, clazz, order, family, genus,
+                            subgenus, species);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    final NameUsageMatchRequest other = (NameUsageMatchRequest) obj;
+    return Objects.equal(this.scientificName, other.scientificName)
+           && Objects.equal(this.rank, other.rank)
+           && this.strict == other.strict
+           && this.verbose == other.verbose
+           && Objects.equal(this.kingdom, other.kingdom)
+           && Objects.equal(this.phylum, other.phylum)
+           && Objects.equal(this.clazz, other.clazz)
+           && Objects.equal(this.order, other.order)
+           && Objects.equal(this.family, other.family)
+           && Objects.equal(this.genus, other.genus)
+           && Objects.equal(this.subgenus, other.subgenus)
+           && Objects.equal(this.species, other.species);
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this)
+      .add("scientificName", scientificName)
+      .add("rank", rank)
+      .add("strict", strict)
+      .add("verbose", verbose)
+      .add("kingdom", kingdom)
+      .add("phylum", phylum)
+      .add("clazz", clazz)
+      .add("order", order)
+      .add("family", family)
+      .add("genus", genus)
+      .add("subgenus", subgenus)
+      .add("species", species)
+      .toString();
+  }
+}
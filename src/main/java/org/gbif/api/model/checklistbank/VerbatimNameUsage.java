@@ -19,6 +19,7 @@ import org.gbif.api.jackson.ExtensionKeyDeserializer;
 import org.gbif.api.jackson.ExtensionSerializer;
 import org.gbif.api.jackson.TermMapListDeserializer;
 import org.gbif.api.jackson.TermMapListSerializer;
+import org.gbif.api.model.common.TermMap;
 import org.gbif.api.vocabulary.Extension;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.terms.TermFactory;
@@ -44,7 +45,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class VerbatimNameUsage {
   private Integer key;
   // the verbatim taxon fields for the usage
-  private Map<Term, String> fields = Maps.newHashMap();
+  private Map<Term, String> fields = new TermMap();
   // the verbatim extension records as read by a dwc star record, keyed on the extension
   private Map<Extension, List<Map<Term, String>>> extensions = Maps.newHashMap();
 
@@ -0,0 +1,320 @@
+package org.gbif.api.model.common;
+
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * A map of terms to verbatim values that stores the values of the Darwin Core, GBIF and Dublin Core terms in arrays
+ * sorted by the term ordinal, avoiding an entry object and the hashing of the term for every value.
+ * The arrays grow with the number of entries, so a record with a few terms only needs a few slots.
+ * All other terms, e.g. unknown ones, are kept in a regular hash map.
+ * <br/>
+ * Null keys and values are permitted like in a {@link HashMap} and the map is equal to any other map with the same
+ * entries. The map is not thread safe and the iteration order is the order of the term vocabularies and ordinals,
+ * followed by all other terms.
+ */
+public class TermMap extends AbstractMap<Term, String> {
+
+  private static final int GBIF_OFFSET = DwcTerm.values().length;
+  private static final int DC_OFFSET = GBIF_OFFSET + GbifTerm.values().length;
+  private static final int SIZE = DC_OFFSET + DcTerm.values().length;
+  private static final Term[] TERMS = new Term[SIZE];
+  private static final int INITIAL_CAPACITY = 8;
+
+  static {
+    for (DwcTerm t : DwcTerm.values()) {
+      TERMS[t.ordinal()] = t;
+    }
+    for (GbifTerm t : GbifTerm.values()) {
+      TERMS[GBIF_OFFSET + t.ordinal()] = t;
+    }
+    for (DcTerm t : DcTerm.values()) {
+      TERMS[DC_OFFSET + t.ordinal()] = t;
+    }
+  }
+
+  // sorted term indices of the known terms and their values, allocated on the first known term
+  private int[] indices;
+  private String[] values;
+  private int known;
+  // all other terms, allocated on the first unknown term
+  private Map<Term, String> others;
+  private transient Set<Entry<Term, String>> entrySet;
+
+  public TermMap() {
+  }
+
+  public TermMap(Map<? extends Term, ? extends String> map) {
+    int count = 0;
+    for (Term t : map.keySet()) {
+      if (index(t) >= 0) {
+        count++;
+      }
+    }
+    if (count > 0) {
+      indices = new int[count];
+      values = new String[count];
+    }
+    putAll(map);
+  }
+
+  /**
+   * @return the term index of the term or -1 if it is not stored in the arrays
+   */
+  private static int index(@Nullable Object term) {
+    if (term instanceof DwcTerm) {
+      return ((DwcTerm) term).ordinal();
+    } else if (term instanceof GbifTerm) {
+      return GBIF_OFFSET + ((GbifTerm) term).ordinal();
+    } else if (term instanceof DcTerm) {
+      return DC_OFFSET + ((DcTerm) term).ordinal();
+    }
+    return -1;
+  }
+
+  /**
+   * @return the array position of the term index, or (-(insertion point) - 1) if it is not present
+   */
+  private int position(int idx) {
+    return indices == null ? -1 : Arrays.binarySearch(indices, 0, known, idx);
+  }
+
+  /**
+   * @return the number of known term slots allocated
+   */
+  int capacity() {
+    return indices == null ? 0 : indices.length;
+  }
+
+  @Override
+  public int size() {
+    return known + (others == null ? 0 : others.size());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int idx = index(key);
+    if (idx >= 0) {
+      return position(idx) >= 0;
+    }
+    return others != null && others.containsKey(key);
+  }
+
+  @Override
+  public String get(Object key) {
+    int idx = index(key);
+    if (idx >= 0) {
+      int pos = position(idx);
+      return pos < 0 ? null : values[pos];
+    }
+    return others == null ? null : others.get(key);
+  }
+
+  @Override
+  public String put(Term key, String value) {
+    int idx = index(key);
+    if (idx >= 0) {
+      int pos = position(idx);
+      if (pos >= 0) {
+        String old = values[pos];
+        values[pos] = value;
+        return old;
+      }
+      insert(-pos - 1, idx, value);
+      return null;
+    }
+    if (others == null) {
+      others = new HashMap<Term, String>();
+    }
+    return others.put(key, value);
+  }
+
+  private void insert(int pos, int idx, String value) {
+    if (indices == null) {
+      indices = new int[INITIAL_CAPACITY];
+      values = new String[INITIAL_CAPACITY];
+    } else if (known == indices.length) {
+      int capacity = Math.min(SIZE, known + (known >> 1) + 1);
+      indices = Arrays.copyOf(indices, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    System.arraycopy(indices, pos, indices, pos + 1, known - pos);
+    System.arraycopy(values, pos, values, pos + 1, known - pos);
+    indices[pos] = idx;
+    values[pos] = value;
+    known++;
+  }
+
+  private void delete(int pos) {
+    known--;
+    System.arraycopy(indices, pos + 1, indices, pos, known - pos);
+    System.arraycopy(values, pos + 1, values, pos, known - pos);
+    values[known] = null;
+  }
+
+  @Override
+  public String remove(Object key) {
+    int idx = index(key);
+    if (idx >= 0) {
+      int pos = position(idx);
+      if (pos < 0) {
+        return null;
+      }
+      String old = values[pos];
+      delete(pos);
+      return old;
+    }
+    return others == null ? null : others.remove(key);
+  }
+
+  @Override
+  public void clear() {
+    indices = null;
+    values = null;
+    known = 0;
+    others = null;
+  }
+
+  @Override
+  public Set<Entry<Term, String>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<Term, String>> {
+
+    @Override
+    public Iterator<Entry<Term, String>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return TermMap.this.size();
+    }
+
+    @Override
+    public void clear() {
+      TermMap.this.clear();
+    }
+  }
+
+  private class EntryIterator implements Iterator<Entry<Term, String>> {
+    // array position of the next known term
+    private int next;
+    private int last = -1;
+    private Iterator<Entry<Term, String>> othersIter;
+    private boolean inOthers;
+
+    @Override
+    public boolean hasNext() {
+      if (next < known) {
+        return true;
+      }
+      if (othersIter == null && others != null) {
+        othersIter = others.entrySet().iterator();
+      }
+      return othersIter != null && othersIter.hasNext();
+    }
+
+    @Override
+    public Entry<Term, String> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (next < known) {
+        last = next++;
+        return new ArrayEntry(indices[last]);
+      }
+      inOthers = true;
+      return othersIter.next();
+    }
+
+    @Override
+    public void remove() {
+      if (inOthers) {
+        othersIter.remove();
+      } else {
+        if (last < 0) {
+          throw new IllegalStateException();
+        }
+        delete(last);
+        next = last;
+        last = -1;
+      }
+    }
+  }
+
+  /**
+   * An entry writing through to the value array.
+   */
+  private class ArrayEntry implements Entry<Term, String> {
+    private final int idx;
+
+    ArrayEntry(int idx) {
+      this.idx = idx;
+    }
+
+    @Override
+    public Term getKey() {
+      return TERMS[idx];
+    }
+
+    @Override
+    public String getValue() {
+      int pos = position(idx);
+      return pos < 0 ? null : values[pos];
+    }
+
+    @Override
+    public String setValue(String value) {
+      int pos = position(idx);
+      if (pos < 0) {
+        throw new IllegalStateException("Entry has been removed");
+      }
+      String old = values[pos];
+      values[pos] = value;
+      return old;
+    }
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> that = (Entry<?, ?>) obj;
+      String value = getValue();
+      return TERMS[idx].equals(that.getKey())
+        && (value == null ? that.getValue() == null : value.equals(that.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      String value = getValue();
+      return TERMS[idx].hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return TERMS[idx] + "=" + getValue();
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2014 Global Biodiversity Information Facility (GBIF)
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.api.model.metrics.cube;
+
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.Language;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+/**
+ * A typed address of a cube, the allocation free alternative to the {@link ReadBuilder} for high read rates.
+ * <br/>
+ * Values are kept in fixed size arrays indexed by the bit of their dimension as given by the {@link RollupResolver}
+ * of the cube: numbers and booleans as primitive longs, enumerations as their ordinal together with the constant,
+ * and UUIDs and strings as references. The set dimensions form the bit mask of the address, so the matching rollup
+ * is a single lookup. Addresses are meant to be reused by calling {@link #reset()} between reads.
+ */
+@NotThreadSafe
+public class CubeAddress {
+
+  private final RollupResolver resolver;
+  private final List<Dimension<?>> dimensions;
+  private final long[] primitives;
+  private final Object[] objects;
+  private long mask;
+  // 0 if not yet computed
+  private int hash;
+
+  /**
+   * Creates an empty address of the cube described by the resolver.
+   */
+  public CubeAddress(RollupResolver resolver) {
+    this.resolver = Preconditions.checkNotNull(resolver, "Resolver cannot be null");
+    dimensions = resolver.getDimensions();
+    primitives = new long[dimensions.size()];
+    objects = new Object[dimensions.size()];
+  }
+
+  /**
+   * Creates a copy of the given address, e.g. to keep it after the original is reused.
+   */
+  public CubeAddress(CubeAddress other) {
+    resolver = other.resolver;
+    dimensions = other.dimensions;
+    primitives = other.primitives.clone();
+    objects = other.objects.clone();
+    mask = other.mask;
+    hash = other.hash;
+  }
+
+  /**
+   * Adds an country type dimension to the address.
+   */
+  public CubeAddress at(Dimension<Country> dim, Country value) {
+    Preconditions.checkNotNull(value, "Dimension cannot be null");
+    return set(dim, value.ordinal(), value);
+  }
+
+  /**
+   * Adds an language type dimension to the address.
+   */
+  public CubeAddress at(Dimension<Language> dim, Language value) {
+    Preconditions.checkNotNull(value, "Dimension cannot be null");
+    return set(dim, value.ordinal(), value);
+  }
+
+  /**
+   * Adds an enumerated type dimension to the address.
+   */
+  public CubeAddress at(Dimension<? extends Enum<?>> dim, Enum<?> value) {
+    Preconditions.checkNotNull(value, "Dimension cannot be null");
+    return set(dim, value.ordinal(), value);
+  }
+
+  /**
+   * Adds a boolean typed dimension to the address, false being 0 and true 1.
+   */
+  public CubeAddress at(Dimension<Boolean> dim, boolean value) {
+    return set(dim, value ? 1 : 0, null);
+  }
+
+  /**
+   * Adds a double typed dimension to the address.
+   */
+  public CubeAddress at(Dimension<Double> dim, double value) {
+    return set(dim, Double.doubleToLongBits(value), null);
+  }
+
+  /**
+   * Adds a float typed dimension to the address.
+   */
+  public CubeAddress at(Dimension<Float> dim, float value) {
+    return set(dim, Float.floatToIntBits(value), null);
+  }
+
+  /**
+   * Adds an integer typed dimension to the address.
+   */
+  public CubeAddress at(Dimension<Integer> dim, int value) {
+    return set(dim, value, null);
+  }
+
+  /**
+   * Adds an String typed dimension to the address.
+   */
+  public CubeAddress at(Dimension<String> dim, String value) {
+    Preconditions.checkNotNull(value, "Dimension cannot be null");
+    return set(dim, 0, value);
+  }
+
+  /**
+   * Adds a UUID typed dimension to the address.
+   */
+  public CubeAddress at(Dimension<UUID> dim, UUID value) {
+    Preconditions.checkNotNull(value, "Dimension cannot be null");
+    return set(dim, 0, value);
+  }
+
+  private CubeAddress set(Dimension<?> dim, long primitive, @Nullable Object object) {
+    int bit = bit(dim);
+    primitives[bit] = primitive;
+    objects[bit] = object;
+    mask |= 1L << bit;
+    hash = 0;
+    return this;
+  }
+
+  private int bit(Dimension<?> dim) {
+    // the cube constants are usually passed, so try identity before the lookup
+    for (int i = 0; i < dimensions.size(); i++) {
+      if (dimensions.get(i) == dim) {
+        return i;
+      }
+    }
+    return resolver.bit(dim);
+  }
+
+  /**
+   * Removes all dimensions, so the address can be reused.
+   */
+  public CubeAddress reset() {
+    Arrays.fill(objects, null);
+    Arrays.fill(primitives, 0);
+    mask = 0;
+    hash = 0;
+    return this;
+  }
+
+  /**
+   * @return The dimensions of the cube in the order of their bits
+   */
+  public List<Dimension<?>> getDimensions() {
+    return dimensions;
+  }
+
+  /**
+   * @return The bit mask of the dimensions set, as used by the {@link RollupResolver}
+   */
+  public long getMask() {
+    return mask;
+  }
+
+  /**
+   * @return True if the dimension with the given bit is set
+   */
+  public boolean isSet(int bit) {
+    return (mask & 1L << bit) != 0;
+  }
+
+  /**
+   * @return The primitive value of the dimension with the given bit: numbers, the ordinal of enumerations or 0 and 1
+   * for booleans. Doubles and floats are given as their raw bits.
+   */
+  public long getPrimitive(int bit) {
+    return primitives[bit];
+  }
+
+  /**
+   * @return The UUID, string or enumeration constant of the dimension with the given bit, null for other types
+   */
+  @Nullable
+  public Object getObject(int bit) {
+    return objects[bit];
+  }
+
+  /**
+   * @return The address in the string encoding of the {@link ReadBuilder}
+   */
+  public Map<Dimension<?>, String> build() {
+    Map<Dimension<?>, String> address = Maps.newHashMap();
+    for (int i = 0; i < dimensions.size(); i++) {
+      if (isSet(i)) {
+        address.put(dimensions.get(i), stringValue(i));
+      }
+    }
+    return address;
+  }
+
+  private String stringValue(int bit) {
+    if (objects[bit] != null) {
+      return ReadBuilder.addressValue(objects[bit]);
+    }
+    Class<?> type = dimensions.get(bit).getType();
+    if (Boolean.class.equals(type)) {
+      return String.valueOf(primitives[bit] != 0);
+    } else if (Double.class.equals(type)) {
+      return String.valueOf(Double.longBitsToDouble(primitives[bit]));
+    } else if (Float.class.equals(type)) {
+      return String.valueOf(Float.intBitsToFloat((int) primitives[bit]));
+    }
+    return String.valueOf((int) primitives[bit]);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof CubeAddress)) {
+      return false;
+    }
+    CubeAddress that = (CubeAddress) obj;
+    return mask == that.mask && dimensions.equals(that.dimensions) && Arrays.equals(primitives, that.primitives)
+           && Arrays.equals(objects, that.objects);
+  }
+
+  @Override
+  public int hashCode() {
+    if (hash == 0) {
+      int h = Long.hashCode(mask);
+      for (int i = 0; i < primitives.length; i++) {
+        if (isSet(i)) {
+          h = 31 * h + (objects[i] == null ? Long.hashCode(primitives[i]) : objects[i].hashCode());
+        }
+      }
+      hash = h == 0 ? 1 : h;
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return Objects.toStringHelper(this).add("address", build()).toString();
+  }
+}
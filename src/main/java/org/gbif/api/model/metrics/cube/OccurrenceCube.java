@@ -40,6 +40,7 @@ public class OccurrenceCube {
   public static final Dimension<TypeStatus> TYPE_STATUS = new Dimension<TypeStatus>("typeStatus", TypeStatus.class);
   public static final Dimension<OccurrenceIssue> ISSUE = new Dimension<OccurrenceIssue>("issue", OccurrenceIssue.class);
 
+  // the position of a dimension defines its bit in the ROLLUP_RESOLVER, only append new dimensions
   public static final List<Dimension<?>> DIMENSIONS = ImmutableList.<Dimension<?>>of(COUNTRY, IS_GEOREFERENCED,
          BASIS_OF_RECORD, PUBLISHING_COUNTRY, DATASET_KEY, TAXON_KEY, PROTOCOL, YEAR, TYPE_STATUS, ISSUE
   );
@@ -91,6 +92,8 @@ public class OccurrenceCube {
     new Rollup(YEAR)
     );
 
+  public static final RollupResolver ROLLUP_RESOLVER = new RollupResolver(DIMENSIONS, ROLLUPS);
+
   // Not intended for instantiation
   private OccurrenceCube() {
   }
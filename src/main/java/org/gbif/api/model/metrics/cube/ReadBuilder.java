@@ -15,11 +15,15 @@ package org.gbif.api.model.metrics.cube;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.Language;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
@@ -31,6 +35,16 @@ public class ReadBuilder {
 
   private final Map<Dimension<?>, String> address = Maps.newHashMap();
 
+  public ReadBuilder() {
+  }
+
+  /**
+   * Creates a builder starting with a copy of the address of the given builder.
+   */
+  public ReadBuilder(ReadBuilder other) {
+    address.putAll(other.address);
+  }
+
   /**
    * Adds an country type dimension to the address.
    */
@@ -108,6 +122,58 @@ public class ReadBuilder {
     return this;
   }
 
+  /**
+   * Lists all values of a dimension with a finite type, i.e. booleans and enumerations.
+   * Booleans are listed as false, true and enumerations in the order of their constants.
+   *
+   * @return The values of the dimension in the order used by slices
+   * @throws IllegalArgumentException Should the dimension not have a finite type
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> List<T> sliceValues(Dimension<T> dim) {
+    Class<T> type = dim.getType();
+    if (Boolean.class.equals(type)) {
+      return (List<T>) ImmutableList.of(false, true);
+    }
+    if (type != null && type.isEnum()) {
+      return Arrays.asList(type.getEnumConstants());
+    }
+    throw new IllegalArgumentException("Dimension " + dim.getKey() + " has no finite set of values");
+  }
+
+  /**
+   * Builds one address for each value of the given dimension, all sharing the current address.
+   *
+   * @return The addresses in the order of {@link #sliceValues(Dimension)}
+   * @throws IllegalArgumentException Should the dimension not have a finite type
+   */
+  public <T> List<ReadBuilder> slice(Dimension<T> dim) {
+    List<T> values = sliceValues(dim);
+    List<ReadBuilder> slice = Lists.newArrayListWithCapacity(values.size());
+    for (T value : values) {
+      ReadBuilder b = new ReadBuilder(this);
+      b.address.put(dim, addressValue(value));
+      slice.add(b);
+    }
+    return slice;
+  }
+
+  /**
+   * Encodes a dimension value the same way as the typed at methods do, e.g. a country as its 2 letter code.
+   *
+   * @return The value as used in built addresses
+   */
+  public static String addressValue(Object value) {
+    if (value instanceof Country) {
+      return ((Country) value).getIso2LetterCode();
+    } else if (value instanceof Language) {
+      return ((Language) value).getIso2LetterCode();
+    } else if (value instanceof Enum) {
+      return ((Enum<?>) value).name();
+    }
+    return String.valueOf(value);
+  }
+
   /**
    * @return The built address.
    */
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2014 Global Biodiversity Information Facility (GBIF)
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.api.model.metrics.cube;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Resolves addresses to the rollups of a cube in constant time.
+ * Each dimension is given a bit by its position in the list of dimensions, so a set of dimensions is a bit mask.
+ * The rollup maintained for every possible mask is precomputed, as well as the cheapest rollup covering it, i.e.
+ * the rollup with the fewest dimensions that includes all dimensions of the mask.
+ * An address without an exact rollup can be aggregated from its covering rollup by summing over the values of the
+ * additional dimensions.
+ * <br/>
+ * Instances are immutable and thread safe.
+ */
+public class RollupResolver {
+
+  // the tables hold an entry for every mask, 2^20 entries at most
+  private static final int MAX_DIMENSIONS = 20;
+
+  private final List<Dimension<?>> dimensions;
+  private final Map<Dimension<?>, Integer> bits;
+  private final Rollup[] exact;
+  private final Rollup[] covering;
+
+  /**
+   * @param dimensions All dimensions of the cube, their position defines their bit and therefore must not change
+   * @param rollups The rollups of the cube
+   * @throws IllegalArgumentException Should a rollup use an unknown dimension
+   */
+  public RollupResolver(List<Dimension<?>> dimensions, List<Rollup> rollups) {
+    Preconditions.checkArgument(dimensions.size() <= MAX_DIMENSIONS, "At most %s dimensions are supported",
+                                MAX_DIMENSIONS);
+    this.dimensions = ImmutableList.copyOf(dimensions);
+    ImmutableMap.Builder<Dimension<?>, Integer> builder = ImmutableMap.builder();
+    for (int i = 0; i < dimensions.size(); i++) {
+      builder.put(dimensions.get(i), i);
+    }
+    bits = builder.build();
+
+    exact = new Rollup[1 << dimensions.size()];
+    covering = new Rollup[exact.length];
+    int[] rollupMasks = new int[rollups.size()];
+    for (int i = 0; i < rollups.size(); i++) {
+      rollupMasks[i] = (int) mask(rollups.get(i).getDimensions());
+      exact[rollupMasks[i]] = rollups.get(i);
+    }
+    for (int mask = 0; mask < exact.length; mask++) {
+      int best = -1;
+      for (int i = 0; i < rollupMasks.length; i++) {
+        // the rollup must include all dimensions of the mask, the first of equal size wins
+        if ((rollupMasks[i] & mask) == mask
+            && (best < 0 || Integer.bitCount(rollupMasks[i]) < Integer.bitCount(rollupMasks[best]))) {
+          best = i;
+        }
+      }
+      covering[mask] = best < 0 ? null : rollups.get(best);
+    }
+  }
+
+  /**
+   * @return All dimensions of the cube in the order of their bits
+   */
+  public List<Dimension<?>> getDimensions() {
+    return dimensions;
+  }
+
+  /**
+   * @return The bit of the dimension within masks
+   * @throws IllegalArgumentException Should the dimension not belong to the cube
+   */
+  public int bit(Dimension<?> dimension) {
+    Integer bit = bits.get(dimension);
+    if (bit == null) {
+      throw new IllegalArgumentException("Unknown dimension " + dimension);
+    }
+    return bit;
+  }
+
+  /**
+   * @return The bit mask of the given dimensions
+   * @throws IllegalArgumentException Should any dimension not belong to the cube
+   */
+  public long mask(Collection<? extends Dimension<?>> dimensions) {
+    long mask = 0;
+    for (Dimension<?> dim : dimensions) {
+      mask |= 1L << bit(dim);
+    }
+    return mask;
+  }
+
+  /**
+   * @return The dimensions of the given bit mask
+   */
+  public List<Dimension<?>> dimensions(long mask) {
+    ImmutableList.Builder<Dimension<?>> builder = ImmutableList.builder();
+    for (int i = 0; i < dimensions.size(); i++) {
+      if ((mask & 1L << i) != 0) {
+        builder.add(dimensions.get(i));
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return The rollup maintained for exactly the dimensions of the mask or null if there is none
+   */
+  @Nullable
+  public Rollup rollup(long mask) {
+    return isValid(mask) ? exact[(int) mask] : null;
+  }
+
+  /**
+   * @return The rollup with the fewest dimensions that includes all dimensions of the mask or null if there is none
+   */
+  @Nullable
+  public Rollup coveringRollup(long mask) {
+    return isValid(mask) ? covering[(int) mask] : null;
+  }
+
+  /**
+   * @return The rollup maintained for exactly the dimensions of the address
+   * @throws IllegalArgumentException Should the address not exist in the cube
+   */
+  public Rollup resolve(ReadBuilder address) {
+    Rollup rollup = rollup(mask(address.build().keySet()));
+    if (rollup == null) {
+      throw new IllegalArgumentException("No rollup exists for dimensions " + address.build().keySet());
+    }
+    return rollup;
+  }
+
+  /**
+   * @return The cheapest rollup that the address can be read or aggregated from or null if there is none
+   */
+  @Nullable
+  public Rollup coveringRollup(ReadBuilder address) {
+    Long mask = maskOrNull(address.build().keySet());
+    return mask == null ? null : coveringRollup(mask);
+  }
+
+  /**
+   * @return True if the address can be read from a rollup directly, i.e. without aggregation
+   */
+  public boolean isAddressable(ReadBuilder address) {
+    Long mask = maskOrNull(address.build().keySet());
+    return mask != null && rollup(mask) != null;
+  }
+
+  @Nullable
+  private Long maskOrNull(Collection<Dimension<?>> dimensions) {
+    for (Dimension<?> dim : dimensions) {
+      if (!bits.containsKey(dim)) {
+        return null;
+      }
+    }
+    return mask(dimensions);
+  }
+
+  private boolean isValid(long mask) {
+    return mask >= 0 && mask < exact.length;
+  }
+}
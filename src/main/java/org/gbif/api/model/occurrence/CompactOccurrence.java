@@ -0,0 +1,805 @@
+package org.gbif.api.model.occurrence;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.common.TermMap;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Continent;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.EstablishmentMeans;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.LifeStage;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.Sex;
+import org.gbif.api.vocabulary.TypeStatus;
+import org.gbif.dwc.terms.Term;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * A read only, memory efficient representation of an {@link Occurrence} for bulk processing of millions of records.
+ * <br/>
+ * Numbers, dates and keys are stored as primitives with a bitmap flagging the non null ones, the names of the higher
+ * taxa are interned and empty lists and maps are not stored at all.
+ * The conversion to and from an {@link Occurrence} is lossless, only null lists and maps become empty ones.
+ * Non empty collections are shared shallowly, so the nested objects must not be modified while in use.
+ */
+public class CompactOccurrence {
+
+  private static final Interner<String> NAMES = Interners.newWeakInterner();
+  private static final OccurrenceIssue[] ISSUES = OccurrenceIssue.values();
+
+  // bits of the present primitive values
+  private static final int KEY = 0;
+  private static final int CRAWL_ID = 1;
+  private static final int INDIVIDUAL_COUNT = 2;
+  private static final int TAXON_KEY = 3;
+  private static final int KINGDOM_KEY = 4;
+  private static final int PHYLUM_KEY = 5;
+  private static final int CLASS_KEY = 6;
+  private static final int ORDER_KEY = 7;
+  private static final int FAMILY_KEY = 8;
+  private static final int GENUS_KEY = 9;
+  private static final int SUBGENUS_KEY = 10;
+  private static final int SPECIES_KEY = 11;
+  private static final int YEAR = 12;
+  private static final int MONTH = 13;
+  private static final int DAY = 14;
+  private static final int LONGITUDE = 15;
+  private static final int LATITUDE = 16;
+  private static final int COORDINATE_PRECISION = 17;
+  private static final int COORDINATE_UNCERTAINTY = 18;
+  private static final int COORDINATE_ACCURACY = 19;
+  private static final int ELEVATION = 20;
+  private static final int ELEVATION_ACCURACY = 21;
+  private static final int DEPTH = 22;
+  private static final int DEPTH_ACCURACY = 23;
+  private static final int LAST_CRAWLED = 24;
+  private static final int LAST_PARSED = 25;
+  private static final int DATE_IDENTIFIED = 26;
+  private static final int EVENT_DATE = 27;
+  private static final int MODIFIED = 28;
+  private static final int LAST_INTERPRETED = 29;
+  private static final int DATASET_KEY = 30;
+  private static final int PUBLISHING_ORG_KEY = 31;
+
+  static {
+    Preconditions.checkState(ISSUES.length <= Long.SIZE, "Issues do not fit into a long bitmask");
+  }
+
+  private final int present;
+
+  private final int key;
+  private final int crawlId;
+  private final int individualCount;
+  private final int taxonKey;
+  private final int kingdomKey;
+  private final int phylumKey;
+  private final int classKey;
+  private final int orderKey;
+  private final int familyKey;
+  private final int genusKey;
+  private final int subgenusKey;
+  private final int speciesKey;
+  private final int year;
+  private final int month;
+  private final int day;
+
+  private final double decimalLongitude;
+  private final double decimalLatitude;
+  private final double coordinatePrecision;
+  private final double coordinateUncertaintyInMeters;
+  private final double coordinateAccuracy;
+  private final double elevation;
+  private final double elevationAccuracy;
+  private final double depth;
+  private final double depthAccuracy;
+
+  private final long lastCrawled;
+  private final long lastParsed;
+  private final long dateIdentified;
+  private final long eventDate;
+  private final long modified;
+  private final long lastInterpreted;
+
+  private final long datasetKeyMsb;
+  private final long datasetKeyLsb;
+  private final long publishingOrgKeyMsb;
+  private final long publishingOrgKeyLsb;
+
+  private final long issues;
+
+  private final Country publishingCountry;
+  private final EndpointType protocol;
+  private final BasisOfRecord basisOfRecord;
+  private final Sex sex;
+  private final LifeStage lifeStage;
+  private final EstablishmentMeans establishmentMeans;
+  private final Rank taxonRank;
+  private final Continent continent;
+  private final Country country;
+  private final TypeStatus typeStatus;
+  private final License license;
+
+  private final String scientificName;
+  private final String kingdom;
+  private final String phylum;
+  private final String clazz;
+  private final String order;
+  private final String family;
+  private final String genus;
+  private final String subgenus;
+  private final String species;
+  private final String genericName;
+  private final String specificEpithet;
+  private final String infraspecificEpithet;
+  private final String stateProvince;
+  private final String waterBody;
+  private final String typifiedName;
+  private final URI references;
+
+  // null if empty, unmodifiable copies otherwise
+  private final Map<Term, String> verbatimFields;
+  private final Map<Extension, List<Map<Term, String>>> extensions;
+  private final List<Identifier> identifiers;
+  private final List<MediaObject> media;
+  private final List<FactOrMeasurment> facts;
+  private final List<OccurrenceRelation> relations;
+
+  /**
+   * Creates a compact copy of an occurrence.
+   */
+  @SuppressWarnings("deprecation")
+  public CompactOccurrence(Occurrence occ) {
+    int bits = 0;
+    key = intValue(occ.getKey());
+    bits |= bit(KEY, occ.getKey());
+    crawlId = intValue(occ.getCrawlId());
+    bits |= bit(CRAWL_ID, occ.getCrawlId());
+    individualCount = intValue(occ.getIndividualCount());
+    bits |= bit(INDIVIDUAL_COUNT, occ.getIndividualCount());
+    taxonKey = intValue(occ.getTaxonKey());
+    bits |= bit(TAXON_KEY, occ.getTaxonKey());
+    kingdomKey = intValue(occ.getKingdomKey());
+    bits |= bit(KINGDOM_KEY, occ.getKingdomKey());
+    phylumKey = intValue(occ.getPhylumKey());
+    bits |= bit(PHYLUM_KEY, occ.getPhylumKey());
+    classKey = intValue(occ.getClassKey());
+    bits |= bit(CLASS_KEY, occ.getClassKey());
+    orderKey = intValue(occ.getOrderKey());
+    bits |= bit(ORDER_KEY, occ.getOrderKey());
+    familyKey = intValue(occ.getFamilyKey());
+    bits |= bit(FAMILY_KEY, occ.getFamilyKey());
+    genusKey = intValue(occ.getGenusKey());
+    bits |= bit(GENUS_KEY, occ.getGenusKey());
+    subgenusKey = intValue(occ.getSubgenusKey());
+    bits |= bit(SUBGENUS_KEY, occ.getSubgenusKey());
+    speciesKey = intValue(occ.getSpeciesKey());
+    bits |= bit(SPECIES_KEY, occ.getSpeciesKey());
+    year = intValue(occ.getYear());
+    bits |= bit(YEAR, occ.getYear());
+    month = intValue(occ.getMonth());
+    bits |= bit(MONTH, occ.getMonth());
+    day = intValue(occ.getDay());
+    bits |= bit(DAY, occ.getDay());
+
+    decimalLongitude = doubleValue(occ.getDecimalLongitude());
+    bits |= bit(LONGITUDE, occ.getDecimalLongitude());
+    decimalLatitude = doubleValue(occ.getDecimalLatitude());
+    bits |= bit(LATITUDE, occ.getDecimalLatitude());
+    coordinatePrecision = doubleValue(occ.getCoordinatePrecision());
+    bits |= bit(COORDINATE_PRECISION, occ.getCoordinatePrecision());
+    coordinateUncertaintyInMeters = doubleValue(occ.getCoordinateUncertaintyInMeters());
+    bits |= bit(COORDINATE_UNCERTAINTY, occ.getCoordinateUncertaintyInMeters());
+    coordinateAccuracy = doubleValue(occ.getCoordinateAccuracy());
+    bits |= bit(COORDINATE_ACCURACY, occ.getCoordinateAccuracy());
+    elevation = doubleValue(occ.getElevation());
+    bits |= bit(ELEVATION, occ.getElevation());
+    elevationAccuracy = doubleValue(occ.getElevationAccuracy());
+    bits |= bit(ELEVATION_ACCURACY, occ.getElevationAccuracy());
+    depth = doubleValue(occ.getDepth());
+    bits |= bit(DEPTH, occ.getDepth());
+    depthAccuracy = doubleValue(occ.getDepthAccuracy());
+    bits |= bit(DEPTH_ACCURACY, occ.getDepthAccuracy());
+
+    lastCrawled = time(occ.getLastCrawled());
+    bits |= bit(LAST_CRAWLED, occ.getLastCrawled());
+    lastParsed = time(occ.getLastParsed());
+    bits |= bit(LAST_PARSED, occ.getLastParsed());
+    dateIdentified = time(occ.getDateIdentified());
+    bits |= bit(DATE_IDENTIFIED, occ.getDateIdentified());
+    eventDate = time(occ.getEventDate());
+    bits |= bit(EVENT_DATE, occ.getEventDate());
+    modified = time(occ.getModified());
+    bits |= bit(MODIFIED, occ.getModified());
+    lastInterpreted = time(occ.getLastInterpreted());
+    bits |= bit(LAST_INTERPRETED, occ.getLastInterpreted());
+
+    UUID uuid = occ.getDatasetKey();
+    datasetKeyMsb = uuid == null ? 0 : uuid.getMostSignificantBits();
+    datasetKeyLsb = uuid == null ? 0 : uuid.getLeastSignificantBits();
+    bits |= bit(DATASET_KEY, uuid);
+    uuid = occ.getPublishingOrgKey();
+    publishingOrgKeyMsb = uuid == null ? 0 : uuid.getMostSignificantBits();
+    publishingOrgKeyLsb = uuid == null ? 0 : uuid.getLeastSignificantBits();
+    bits |= bit(PUBLISHING_ORG_KEY, uuid);
+    present = bits;
+
+    long issueBits = 0;
+    for (OccurrenceIssue issue : occ.getIssues()) {
+      issueBits |= 1L << issue.ordinal();
+    }
+    issues = issueBits;
+
+    publishingCountry = occ.getPublishingCountry();
+    protocol = occ.getProtocol();
+    basisOfRecord = occ.getBasisOfRecord();
+    sex = occ.getSex();
+    lifeStage = occ.getLifeStage();
+    establishmentMeans = occ.getEstablishmentMeans();
+    taxonRank = occ.getTaxonRank();
+    continent = occ.getContinent();
+    country = occ.getCountry();
+    typeStatus = occ.getTypeStatus();
+    license = occ.getLicense();
+
+    scientificName = occ.getScientificName();
+    kingdom = intern(occ.getKingdom());
+    phylum = intern(occ.getPhylum());
+    clazz = intern(occ.getClazz());
+    order = intern(occ.getOrder());
+    family = intern(occ.getFamily());
+    genus = intern(occ.getGenus());
+    subgenus = intern(occ.getSubgenus());
+    species = intern(occ.getSpecies());
+    genericName = intern(occ.getGenericName());
+    specificEpithet = occ.getSpecificEpithet();
+    infraspecificEpithet = occ.getInfraspecificEpithet();
+    stateProvince = intern(occ.getStateProvince());
+    waterBody = intern(occ.getWaterBody());
+    typifiedName = occ.getTypifiedName();
+    references = occ.getReferences();
+
+    verbatimFields = compact(occ.getVerbatimFields());
+    extensions = compactExtensions(occ.getExtensions());
+    identifiers = compact(occ.getIdentifiers());
+    media = compact(occ.getMedia());
+    facts = compact(occ.getFacts());
+    relations = compact(occ.getRelations());
+  }
+
+  private static int bit(int bit, @Nullable Object value) {
+    return value == null ? 0 : 1 << bit;
+  }
+
+  private static int intValue(@Nullable Integer value) {
+    return value == null ? 0 : value;
+  }
+
+  private static double doubleValue(@Nullable Double value) {
+    return value == null ? 0 : value;
+  }
+
+  private static long time(@Nullable Date date) {
+    return date == null ? 0 : date.getTime();
+  }
+
+  @Nullable
+  private static String intern(@Nullable String name) {
+    return name == null ? null : NAMES.intern(name);
+  }
+
+  @Nullable
+  private static <T> List<T> compact(@Nullable List<T> list) {
+    return list == null || list.isEmpty() ? null : ImmutableList.copyOf(list);
+  }
+
+  /**
+   * Copies the map into an unmodifiable term map, which keeps null values unlike an immutable map.
+   */
+  @Nullable
+  private static Map<Term, String> compact(@Nullable Map<Term, String> map) {
+    return map == null || map.isEmpty() ? null : Collections.unmodifiableMap(new TermMap(map));
+  }
+
+  @Nullable
+  private static Map<Extension, List<Map<Term, String>>> compactExtensions(
+    @Nullable Map<Extension, List<Map<Term, String>>> extensions
+  ) {
+    if (extensions == null || extensions.isEmpty()) {
+      return null;
+    }
+    Map<Extension, List<Map<Term, String>>> copy = Maps.newEnumMap(Extension.class);
+    for (Map.Entry<Extension, List<Map<Term, String>>> ext : extensions.entrySet()) {
+      List<Map<Term, String>> rows = Lists.newArrayList();
+      if (ext.getValue() != null) {
+        for (Map<Term, String> row : ext.getValue()) {
+          rows.add(row == null ? null : Collections.unmodifiableMap(new TermMap(row)));
+        }
+      }
+      copy.put(ext.getKey(), Collections.unmodifiableList(rows));
+    }
+    return Collections.unmodifiableMap(copy);
+  }
+
+  private boolean has(int bit) {
+    return (present & 1 << bit) != 0;
+  }
+
+  @Nullable
+  private Integer integer(int bit, int value) {
+    return has(bit) ? value : null;
+  }
+
+  @Nullable
+  private Double decimal(int bit, double value) {
+    return has(bit) ? value : null;
+  }
+
+  @Nullable
+  private Date date(int bit, long time) {
+    return has(bit) ? new Date(time) : null;
+  }
+
+  private static <T> List<T> list(@Nullable List<T> list) {
+    return list == null ? ImmutableList.<T>of() : list;
+  }
+
+  /**
+   * @return a new, modifiable occurrence equal to the one this compact copy was created from
+   */
+  @SuppressWarnings("deprecation")
+  public Occurrence toOccurrence() {
+    Occurrence occ = new Occurrence();
+    occ.setKey(getKey());
+    occ.setDatasetKey(getDatasetKey());
+    occ.setPublishingOrgKey(getPublishingOrgKey());
+    occ.setPublishingCountry(publishingCountry);
+    occ.setProtocol(protocol);
+    occ.setLastCrawled(getLastCrawled());
+    occ.setLastParsed(getLastParsed());
+    occ.setCrawlId(getCrawlId());
+    occ.setVerbatimFields(verbatimFields == null ? new TermMap() : new TermMap(verbatimFields));
+    Map<Extension, List<Map<Term, String>>> ext = Maps.newHashMap();
+    if (extensions != null) {
+      for (Map.Entry<Extension, List<Map<Term, String>>> e : extensions.entrySet()) {
+        List<Map<Term, String>> rows = Lists.newArrayList();
+        for (Map<Term, String> row : e.getValue()) {
+          rows.add(row == null ? null : new TermMap(row));
+        }
+        ext.put(e.getKey(), rows);
+      }
+    }
+    occ.setExtensions(ext);
+
+    occ.setBasisOfRecord(basisOfRecord);
+    occ.setIndividualCount(getIndividualCount());
+    occ.setSex(sex);
+    occ.setLifeStage(lifeStage);
+    occ.setEstablishmentMeans(establishmentMeans);
+    occ.setTaxonKey(getTaxonKey());
+    occ.setKingdomKey(getKingdomKey());
+    occ.setPhylumKey(getPhylumKey());
+    occ.setClassKey(getClassKey());
+    occ.setOrderKey(getOrderKey());
+    occ.setFamilyKey(getFamilyKey());
+    occ.setGenusKey(getGenusKey());
+    occ.setSubgenusKey(getSubgenusKey());
+    occ.setSpeciesKey(getSpeciesKey());
+    occ.setScientificName(scientificName);
+    occ.setKingdom(kingdom);
+    occ.setPhylum(phylum);
+    occ.setClazz(clazz);
+    occ.setOrder(order);
+    occ.setFamily(family);
+    occ.setGenus(genus);
+    occ.setSubgenus(subgenus);
+    occ.setSpecies(species);
+    occ.setGenericName(genericName);
+    occ.setSpecificEpithet(specificEpithet);
+    occ.setInfraspecificEpithet(infraspecificEpithet);
+    occ.setTaxonRank(taxonRank);
+    occ.setDateIdentified(getDateIdentified());
+    occ.setDecimalLongitude(getDecimalLongitude());
+    occ.setDecimalLatitude(getDecimalLatitude());
+    occ.setCoordinatePrecision(getCoordinatePrecision());
+    occ.setCoordinateUncertaintyInMeters(getCoordinateUncertaintyInMeters());
+    occ.setCoordinateAccuracy(getCoordinateAccuracy());
+    occ.setElevation(getElevation());
+    occ.setElevationAccuracy(getElevationAccuracy());
+    occ.setDepth(getDepth());
+    occ.setDepthAccuracy(getDepthAccuracy());
+    occ.setContinent(continent);
+    occ.setCountry(country);
+    occ.setStateProvince(stateProvince);
+    occ.setWaterBody(waterBody);
+    occ.setYear(getYear());
+    occ.setMonth(getMonth());
+    occ.setDay(getDay());
+    occ.setEventDate(getEventDate());
+    occ.setTypeStatus(typeStatus);
+    occ.setTypifiedName(typifiedName);
+    occ.setIssues(getIssues());
+    occ.setModified(getModified());
+    occ.setLastInterpreted(getLastInterpreted());
+    occ.setReferences(references);
+    occ.setLicense(license);
+    occ.setIdentifiers(Lists.newArrayList(getIdentifiers()));
+    occ.setMedia(Lists.newArrayList(getMedia()));
+    occ.setFacts(Lists.newArrayList(getFacts()));
+    occ.setRelations(Lists.newArrayList(getRelations()));
+    return occ;
+  }
+
+  @Nullable
+  public Integer getKey() {
+    return integer(KEY, key);
+  }
+
+  @Nullable
+  public UUID getDatasetKey() {
+    return has(DATASET_KEY) ? new UUID(datasetKeyMsb, datasetKeyLsb) : null;
+  }
+
+  @Nullable
+  public UUID getPublishingOrgKey() {
+    return has(PUBLISHING_ORG_KEY) ? new UUID(publishingOrgKeyMsb, publishingOrgKeyLsb) : null;
+  }
+
+  @Nullable
+  public Country getPublishingCountry() {
+    return publishingCountry;
+  }
+
+  @Nullable
+  public EndpointType getProtocol() {
+    return protocol;
+  }
+
+  @Nullable
+  public Date getLastCrawled() {
+    return date(LAST_CRAWLED, lastCrawled);
+  }
+
+  @Nullable
+  public Date getLastParsed() {
+    return date(LAST_PARSED, lastParsed);
+  }
+
+  @Nullable
+  public Integer getCrawlId() {
+    return integer(CRAWL_ID, crawlId);
+  }
+
+  /**
+   * @return the unmodifiable verbatim fields
+   */
+  public Map<Term, String> getVerbatimFields() {
+    return verbatimFields == null ? Collections.<Term, String>emptyMap() : verbatimFields;
+  }
+
+  /**
+   * @return the unmodifiable verbatim extension data
+   */
+  public Map<Extension, List<Map<Term, String>>> getExtensions() {
+    return extensions == null ? Collections.<Extension, List<Map<Term, String>>>emptyMap() : extensions;
+  }
+
+  @Nullable
+  public BasisOfRecord getBasisOfRecord() {
+    return basisOfRecord;
+  }
+
+  @Nullable
+  public Integer getIndividualCount() {
+    return integer(INDIVIDUAL_COUNT, individualCount);
+  }
+
+  @Nullable
+  public Sex getSex() {
+    return sex;
+  }
+
+  @Nullable
+  public LifeStage getLifeStage() {
+    return lifeStage;
+  }
+
+  @Nullable
+  public EstablishmentMeans getEstablishmentMeans() {
+    return establishmentMeans;
+  }
+
+  @Nullable
+  public Integer getTaxonKey() {
+    return integer(TAXON_KEY, taxonKey);
+  }
+
+  @Nullable
+  public Integer getKingdomKey() {
+    return integer(KINGDOM_KEY, kingdomKey);
+  }
+
+  @Nullable
+  public Integer getPhylumKey() {
+    return integer(PHYLUM_KEY, phylumKey);
+  }
+
+  @Nullable
+  public Integer getClassKey() {
+    return integer(CLASS_KEY, classKey);
+  }
+
+  @Nullable
+  public Integer getOrderKey() {
+    return integer(ORDER_KEY, orderKey);
+  }
+
+  @Nullable
+  public Integer getFamilyKey() {
+    return integer(FAMILY_KEY, familyKey);
+  }
+
+  @Nullable
+  public Integer getGenusKey() {
+    return integer(GENUS_KEY, genusKey);
+  }
+
+  @Nullable
+  public Integer getSubgenusKey() {
+    return integer(SUBGENUS_KEY, subgenusKey);
+  }
+
+  @Nullable
+  public Integer getSpeciesKey() {
+    return integer(SPECIES_KEY, speciesKey);
+  }
+
+  @Nullable
+  public String getScientificName() {
+    return scientificName;
+  }
+
+  @Nullable
+  public String getKingdom() {
+    return kingdom;
+  }
+
+  @Nullable
+  public String getPhylum() {
+    return phylum;
+  }
+
+  @Nullable
+  public String getClazz() {
+    return clazz;
+  }
+
+  @Nullable
+  public String getOrder() {
+    return order;
+  }
+
+  @Nullable
+  public String getFamily() {
+    return family;
+  }
+
+  @Nullable
+  public String getGenus() {
+    return genus;
+  }
+
+  @Nullable
+  public String getSubgenus() {
+    return subgenus;
+  }
+
+  @Nullable
+  public String getSpecies() {
+    return species;
+  }
+
+  @Nullable
+  public String getGenericName() {
+    return genericName;
+  }
+
+  @Nullable
+  public String getSpecificEpithet() {
+    return specificEpithet;
+  }
+
+  @Nullable
+  public String getInfraspecificEpithet() {
+    return infraspecificEpithet;
+  }
+
+  @Nullable
+  public Rank getTaxonRank() {
+    return taxonRank;
+  }
+
+  @Nullable
+  public Date getDateIdentified() {
+    return date(DATE_IDENTIFIED, dateIdentified);
+  }
+
+  @Nullable
+  public Double getDecimalLongitude() {
+    return decimal(LONGITUDE, decimalLongitude);
+  }
+
+  @Nullable
+  public Double getDecimalLatitude() {
+    return decimal(LATITUDE, decimalLatitude);
+  }
+
+  /**
+   * @return true if both decimal latitude and longitude exist, without boxing them
+   */
+  public boolean hasCoordinate() {
+    return has(LATITUDE) && has(LONGITUDE);
+  }
+
+  @Nullable
+  public Double getCoordinatePrecision() {
+    return decimal(COORDINATE_PRECISION, coordinatePrecision);
+  }
+
+  @Nullable
+  public Double getCoordinateUncertaintyInMeters() {
+    return decimal(COORDINATE_UNCERTAINTY, coordinateUncertaintyInMeters);
+  }
+
+  /**
+   * @deprecated to be removed in the public v2 of the API, see {@link Occurrence#getCoordinateAccuracy()}
+   */
+  @Nullable
+  @Deprecated
+  public Double getCoordinateAccuracy() {
+    return decimal(COORDINATE_ACCURACY, coordinateAccuracy);
+  }
+
+  @Nullable
+  public Double getElevation() {
+    return decimal(ELEVATION, elevation);
+  }
+
+  @Nullable
+  public Double getElevationAccuracy() {
+    return decimal(ELEVATION_ACCURACY, elevationAccuracy);
+  }
+
+  @Nullable
+  public Double getDepth() {
+    return decimal(DEPTH, depth);
+  }
+
+  @Nullable
+  public Double getDepthAccuracy() {
+    return decimal(DEPTH_ACCURACY, depthAccuracy);
+  }
+
+  @Nullable
+  public Continent getContinent() {
+    return continent;
+  }
+
+  @Nullable
+  public Country getCountry() {
+    return country;
+  }
+
+  @Nullable
+  public String getStateProvince() {
+    return stateProvince;
+  }
+
+  @Nullable
+  public String getWaterBody() {
+    return waterBody;
+  }
+
+  @Nullable
+  public Integer getYear() {
+    return integer(YEAR, year);
+  }
+
+  @Nullable
+  public Integer getMonth() {
+    return integer(MONTH, month);
+  }
+
+  @Nullable
+  public Integer getDay() {
+    return integer(DAY, day);
+  }
+
+  @Nullable
+  public Date getEventDate() {
+    return date(EVENT_DATE, eventDate);
+  }
+
+  @Nullable
+  public TypeStatus getTypeStatus() {
+    return typeStatus;
+  }
+
+  @Nullable
+  public String getTypifiedName() {
+    return typifiedName;
+  }
+
+  /**
+   * @return a new set of the issues found for this occurrence
+   */
+  public Set<OccurrenceIssue> getIssues() {
+    Set<OccurrenceIssue> set = EnumSet.noneOf(OccurrenceIssue.class);
+    for (long bits = issues; bits != 0; bits &= bits - 1) {
+      set.add(ISSUES[Long.numberOfTrailingZeros(bits)]);
+    }
+    return set;
+  }
+
+  /**
+   * @return true if the issue was found for this occurrence, without creating a set
+   */
+  public boolean hasIssue(OccurrenceIssue issue) {
+    return (issues & 1L << issue.ordinal()) != 0;
+  }
+
+  @Nullable
+  public Date getModified() {
+    return date(MODIFIED, modified);
+  }
+
+  @Nullable
+  public Date getLastInterpreted() {
+    return date(LAST_INTERPRETED, lastInterpreted);
+  }
+
+  @Nullable
+  public URI getReferences() {
+    return references;
+  }
+
+  @Nullable
+  public License getLicense() {
+    return license;
+  }
+
+  public List<Identifier> getIdentifiers() {
+    return list(identifiers);
+  }
+
+  public List<MediaObject> getMedia() {
+    return list(media);
+  }
+
+  public List<FactOrMeasurment> getFacts() {
+    return list(facts);
+  }
+
+  public List<OccurrenceRelation> getRelations() {
+    return list(relations);
+  }
+}
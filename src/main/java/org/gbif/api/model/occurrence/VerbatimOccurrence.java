@@ -16,6 +16,7 @@ import org.gbif.api.jackson.ExtensionKeyDeserializer;
 import org.gbif.api.jackson.ExtensionSerializer;
 import org.gbif.api.jackson.TermMapListDeserializer;
 import org.gbif.api.jackson.TermMapListSerializer;
+import org.gbif.api.model.common.TermMap;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.EndpointType;
 import org.gbif.api.vocabulary.Extension;
@@ -56,7 +57,7 @@ public class VerbatimOccurrence {
   private Integer crawlId;
 
   // the verbatim fields for the occurrence
-  private Map<Term, String> verbatimFields = Maps.newHashMap();
+  private Map<Term, String> verbatimFields = new TermMap();
   // verbatim extension data
   private Map<Extension, List<Map<Term, String>>> extensions = Maps.newHashMap();
 
@@ -46,6 +46,20 @@ public class IsNotNullPredicate implements Predicate {
     }
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (!(obj instanceof IsNotNullPredicate)) {
+      return false;
+    }
+
+    IsNotNullPredicate that = (IsNotNullPredicate) obj;
+    return Objects.equal(this.parameter, that.parameter);
+  }
+
   @Override
   public int hashCode() {
     return Objects.hashCode(parameter);
@@ -12,51 +12,99 @@
  */
 package org.gbif.api.model.occurrence.predicate;
 
-import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
 import org.gbif.api.util.SearchTypeValidator;
 
+import java.util.concurrent.ExecutionException;
 import javax.validation.constraints.NotNull;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 import org.codehaus.jackson.annotate.JsonCreator;
+import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.annotate.JsonProperty;
 
 /**
  * This predicate checks if an occurrence location falls within the given WKT geometry {@code value}.
+ * The parsed geometry is prepared for fast repeated point tests and shared by all predicates with the same WKT
+ * through a cache bounded by the total number of vertices.
  */
 public class WithinPredicate implements Predicate {
 
+  private static final long MAX_CACHED_VERTICES = 2000000;
+  private static final Cache<String, PreparedGeometry> GEOMETRY_CACHE = CacheBuilder.newBuilder()
+    .maximumWeight(MAX_CACHED_VERTICES)
+    .weigher((String wkt, PreparedGeometry g) -> g.getGeometry().getNumPoints() + 1)
+    .build();
+
   @NotNull
   private final String geometry;
 
+  // resolved from the cache on first use, so predicates do not keep evicted geometries alive
+  private transient volatile PreparedGeometry prepared;
+
   /**
-   * Builds a new within predicate for a single, simple geometry as
+   * Builds a new within predicate for a geometry as
    * <a href="http://en.wikipedia.org/wiki/Well-known_text">Well Known Text</a> (WKT).
-   * Multi geometries like MULTIPOLYGON are not supported and multiple predicates should be used instead.
    * <br/>
-   * The validation implemented does a basic syntax check for the following simple geometries, but does not
+   * The validation implemented does a basic syntax check for the following geometries, but does not
    * verify that the resulting geometries are topologically valid (see the OGC SFS specification).
    * <ul>
    *   <li>POINT</li>
    *   <li>LINESTRING</li>
    *   <li>POLYGON</li>
    *   <li>LINEARRING</li>
+   *   <li>MULTIPOLYGON</li>
    * </ul>
    * @param geometry
    */
   @JsonCreator
   public WithinPredicate(@JsonProperty("geometry") String geometry) {
     Preconditions.checkNotNull(geometry, "<geometry> may not be null");
-    // make sure its a valid WKT
-    SearchTypeValidator.validate(OccurrenceSearchParameter.GEOMETRY, geometry);
     this.geometry = geometry;
+    // make sure its a valid WKT, parsing it only once for all predicates with the same geometry
+    prepare(geometry);
+  }
+
+  private static PreparedGeometry prepare(final String wkt) {
+    try {
+      return GEOMETRY_CACHE.get(wkt, () -> PreparedGeometryFactory.prepare(SearchTypeValidator.parseGeometry(wkt)));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
   }
 
   public String getGeometry() {
     return geometry;
   }
 
+  /**
+   * @return the parsed geometry prepared for repeated spatial tests, shared with other predicates and thread safe
+   */
+  @JsonIgnore
+  public PreparedGeometry getPreparedGeometry() {
+    PreparedGeometry p = prepared;
+    if (p == null) {
+      p = prepare(geometry);
+      prepared = p;
+    }
+    return p;
+  }
+
+  /**
+   * @return the bounding box of the geometry which must not be modified
+   */
+  @JsonIgnore
+  public Envelope getEnvelope() {
+    return getPreparedGeometry().getGeometry().getEnvelopeInternal();
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
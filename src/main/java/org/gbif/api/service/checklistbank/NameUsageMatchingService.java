@@ -16,11 +16,15 @@
 package org.gbif.api.service.checklistbank;
 
 import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.checklistbank.NameUsageMatchRequest;
 import org.gbif.api.model.common.LinneanClassification;
 import org.gbif.api.vocabulary.Rank;
 
+import java.util.List;
 import javax.annotation.Nullable;
 
+import com.google.common.collect.Lists;
+
 /**
  * A lookup service that fuzzy matches classified scientific names against a body of names.
  * In GBIF this is in particular used for a Nub Lookup service that binds occurrence names and other external records
@@ -45,4 +49,20 @@ public interface NameUsageMatchingService {
   NameUsageMatch match(String scientificName, @Nullable Rank rank, @Nullable LinneanClassification classification,
     boolean strict, boolean verbose);
 
+  /**
+   * Matches many names at once, e.g. to reduce the number of remote calls.
+   * The default implementation matches the names one by one, implementations are encouraged to do better.
+   *
+   * @param requests the names to match
+   *
+   * @return the matches in the order of the requests, never null
+   */
+  default List<NameUsageMatch> matchAll(List<NameUsageMatchRequest> requests) {
+    List<NameUsageMatch> matches = Lists.newArrayListWithCapacity(requests.size());
+    for (NameUsageMatchRequest r : requests) {
+      matches.add(match(r.getScientificName(), r.getRank(), r, r.isStrict(), r.isVerbose()));
+    }
+    return matches;
+  }
+
 }
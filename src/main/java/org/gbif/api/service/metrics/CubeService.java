@@ -12,6 +12,7 @@
  */
 package org.gbif.api.service.metrics;
 
+import org.gbif.api.model.metrics.cube.Dimension;
 import org.gbif.api.model.metrics.cube.ReadBuilder;
 import org.gbif.api.model.metrics.cube.Rollup;
 
@@ -33,6 +34,38 @@ public interface CubeService {
    */
   long get(ReadBuilder addressBuilder) throws IllegalArgumentException;
 
+  /**
+   * Looks up the cube values of many addresses at once.
+   * The default implementation looks up each address with {@link #get(ReadBuilder)}, implementations should override
+   * it to resolve the rollup only once for all addresses sharing the same dimensions.
+   *
+   * @param addressBuilders To obtain the addresses at which to look up from the cube
+   * @return The values in the order of the given addresses
+   * @throws IllegalArgumentException Should any addressBuilder provide an address that does not exist in the cube
+   */
+  default long[] getAll(List<ReadBuilder> addressBuilders) throws IllegalArgumentException {
+    long[] results = new long[addressBuilders.size()];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = get(addressBuilders.get(i));
+    }
+    return results;
+  }
+
+  /**
+   * Looks up the cube values for every value of one dimension at an otherwise fixed address, e.g. the counts of all
+   * basis of records within a country.
+   * The default implementation looks up all addresses of {@link ReadBuilder#slice(Dimension)} with
+   * {@link #getAll(List)}, implementations should override it to resolve the rollup only once for the whole slice.
+   *
+   * @param addressBuilder To obtain the fixed part of the address, not including the sliced dimension
+   * @param dimension The dimension to slice by, which must have a finite type, i.e. a boolean or an enumeration
+   * @return The values in the order of {@link ReadBuilder#sliceValues(Dimension)}
+   * @throws IllegalArgumentException Should the dimension not be sliceable or the addresses not exist in the cube
+   */
+  default long[] getSlice(ReadBuilder addressBuilder, Dimension<?> dimension) throws IllegalArgumentException {
+    return getAll(addressBuilder.slice(dimension));
+  }
+
   /**
    * Provides the list of rollups thus specifying the available combinations of addressable dimensions for a cube.
    *
@@ -6,9 +6,12 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.regex.Pattern;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Range;
 
 import static org.gbif.api.model.common.search.SearchConstants.QUERY_WILDCARD;
@@ -19,6 +22,22 @@ import static org.gbif.api.util.SearchTypeValidator.buildRange;
  */
 public class IsoDateParsingUtils {
   private static Pattern SIMPLE_ISO_PATTERN = Pattern.compile("\\d{4}(?:-\\d{2}(?:-\\d{2})?)?");
+
+  /**
+   * Scan result for values that are not plain dates and need to be parsed with a date format.
+   */
+  private static final long NOT_PLAIN = -1;
+
+  /**
+   * Scan result for plain dates with a month or day that does not exist.
+   */
+  private static final long INVALID = -2;
+
+  /**
+   * Recently parsed date ranges.
+   * The cache assumes the default time zone of the JVM does not change.
+   */
+  private static final Cache<String, ParsedRange> RANGE_CACHE = CacheBuilder.newBuilder().maximumSize(1000).build();
   /**
    * Enumerations with the allowed date formats by the occurrence search service.
    */
@@ -62,6 +81,13 @@ public class IsoDateParsingUtils {
      * Try to parse a string with the current date format.
      */
     public Date parseDate(String value) throws ParseException {
+      long scanned = scan(value);
+      if (scanned >= 0 && formatOf(scanned) == this) {
+        Date date = toDate(scanned, false);
+        if (date != null) {
+          return date;
+        }
+      }
       ParsePosition position = new ParsePosition(0);
       Date date = getDateFormat().parse(value, position);
       if (position.getIndex() != value.length()) {
@@ -84,8 +110,12 @@ public class IsoDateParsingUtils {
    * @throws IllegalArgumentException in case of unparsable dates
    */
   public static IsoDateFormat getFirstDateFormatMatch(String value) throws IllegalArgumentException {
+    long scanned = scan(value);
+    if (scanned >= 0) {
+      return formatOf(scanned);
+    }
     // at least 4 digits for a year must exist
-    if (SIMPLE_ISO_PATTERN.matcher(value).find()) {
+    if (scanned == NOT_PLAIN && SIMPLE_ISO_PATTERN.matcher(value).find()) {
       for (IsoDateFormat dateFormat : IsoDateFormat.values()) {
         if (dateFormat.isValidDate(value)) {
           return dateFormat;
@@ -105,6 +135,13 @@ public class IsoDateParsingUtils {
     if (Strings.isNullOrEmpty(value)) {
       throw new IllegalArgumentException("Date parameter can't be null or empty");
     }
+    long scanned = scan(value);
+    if (scanned >= 0) {
+      Date date = toDate(scanned, false);
+      if (date != null) {
+        return date;
+      }
+    }
     try {
       return getFirstDateFormatMatch(value).parseDate(value);
 
@@ -128,17 +165,45 @@ public class IsoDateParsingUtils {
     if (Strings.isNullOrEmpty(value)) {
       throw new IllegalArgumentException("Date parameter can't be null or empty");
     }
+    ParsedRange range = RANGE_CACHE.getIfPresent(value);
+    if (range == null) {
+      range = parseRange(value);
+      RANGE_CACHE.put(value, range);
+    }
+    // always return new instances as dates are mutable
+    return buildRange(range.lower == null ? null : new Date(range.lower),
+                      range.upper == null ? null : new Date(range.upper));
+  }
+
+  private static ParsedRange parseRange(String value) {
     final String[] dateValues = value.split(",");
     if (dateValues.length != 2) {
       throw new IllegalArgumentException("Date value must be a single value or a range");
     }
 
     final Date lowerDate = parseDate(dateValues[0]);
+    final Date upperDate = parseUpperDate(dateValues[1]);
+
+    // validates the range
+    buildRange(lowerDate, upperDate);
+    return new ParsedRange(lowerDate, upperDate);
+  }
 
-    Date upperDate = parseDate(dateValues[1]);
+  /**
+   * Parses the upper limit of a range using the highest possible date according to the precision given.
+   */
+  private static Date parseUpperDate(String value) {
+    long scanned = scan(value);
+    if (scanned >= 0) {
+      Date date = toDate(scanned, true);
+      if (date != null) {
+        return date;
+      }
+    }
+    Date upperDate = parseDate(value);
     // in case we have a real upper date check its precision and use the highest possible date, not lowest
     if (upperDate != null) {
-      final IsoDateFormat upperDateFormat = getFirstDateFormatMatch(dateValues[1]);
+      final IsoDateFormat upperDateFormat = getFirstDateFormatMatch(value);
       if (upperDateFormat == IsoDateFormat.YEAR_MONTH) {
         upperDate = toLastDayOfMonth(upperDate);
 
@@ -146,8 +211,124 @@ public class IsoDateParsingUtils {
         upperDate = toLastDayOfYear(upperDate);
       }
     }
+    return upperDate;
+  }
+
+  /**
+   * Immutable copy of a parsed date range with null for unbound limits.
+   */
+  private static final class ParsedRange {
+    private final Long lower;
+    private final Long upper;
+
+    private ParsedRange(Date lower, Date upper) {
+      this.lower = lower == null ? null : lower.getTime();
+      this.upper = upper == null ? null : upper.getTime();
+    }
+  }
+
+  /**
+   * Scans plain ISO dates of the form yyyy, yyyy-M or yyyy-M-d with 1 or 2 digit months and days in a single pass
+   * and checks the month and day exist. Any other value, e.g. with surrounding whitespace, is left to the date formats.
+   *
+   * @return the date packed as yyyyMMdd with a zero month or day for lower precisions, NOT_PLAIN or INVALID
+   */
+  private static long scan(String value) {
+    if (value == null || value.length() < 4 || value.length() > 10) {
+      return NOT_PLAIN;
+    }
+    int year = 0;
+    for (int i = 0; i < 4; i++) {
+      int digit = value.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return NOT_PLAIN;
+      }
+      year = year * 10 + digit;
+    }
+    int[] parts = {0, 0};
+    int idx = 4;
+    for (int p = 0; p < 2 && idx < value.length(); p++) {
+      if (value.charAt(idx) != '-') {
+        return NOT_PLAIN;
+      }
+      idx++;
+      int start = idx;
+      while (idx < value.length() && idx - start < 3 && value.charAt(idx) >= '0' && value.charAt(idx) <= '9') {
+        parts[p] = parts[p] * 10 + value.charAt(idx) - '0';
+        idx++;
+      }
+      if (idx == start || idx - start > 2) {
+        return NOT_PLAIN;
+      }
+    }
+    if (idx != value.length() || year == 0) {
+      return NOT_PLAIN;
+    }
+    int month = parts[0];
+    int day = parts[1];
+    boolean hasMonth = value.length() > 4;
+    boolean hasDay = hasMonth && value.indexOf('-', 5) > 0;
+    if (hasMonth && (month < 1 || month > 12)) {
+      return INVALID;
+    }
+    if (hasDay) {
+      if (year == 1582 && month == 10) {
+        // the switch from the julian to the gregorian calendar is left to the date formats
+        return NOT_PLAIN;
+      }
+      if (day < 1 || day > daysInMonth(year, month)) {
+        return INVALID;
+      }
+    }
+    return year * 10000L + month * 100 + day;
+  }
+
+  /**
+   * @return the number of days in a month of the default gregorian calendar with julian leap years before 1582
+   */
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = year < 1582 ? year % 4 == 0 : (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
 
-    return buildRange(lowerDate, upperDate);
+  private static IsoDateFormat formatOf(long scanned) {
+    if (scanned % 100 != 0) {
+      return IsoDateFormat.FULL;
+    }
+    return scanned % 10000 != 0 ? IsoDateFormat.YEAR_MONTH : IsoDateFormat.YEAR;
+  }
+
+  /**
+   * Creates the date for a scanned value at midnight in the default time zone.
+   *
+   * @param last if true the last day of the month or year is used for dates without a day
+   * @return the date or null if the default calendar is no gregorian one
+   */
+  private static Date toDate(long scanned, boolean last) {
+    Calendar calendar = Calendar.getInstance();
+    if (!(calendar instanceof GregorianCalendar)) {
+      return null;
+    }
+    int year = (int) (scanned / 10000);
+    int month = (int) (scanned / 100 % 100);
+    int day = (int) (scanned % 100);
+    calendar.clear();
+    calendar.set(year, month == 0 ? 0 : month - 1, day == 0 ? 1 : day);
+    if (last && day == 0) {
+      int field = month == 0 ? Calendar.DAY_OF_YEAR : Calendar.DAY_OF_MONTH;
+      calendar.set(field, calendar.getActualMaximum(field));
+    }
+    return calendar.getTime();
   }
 
   /**
@@ -8,20 +8,20 @@ import org.gbif.api.vocabulary.Language;
 import java.time.temporal.Temporal;
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.Polygon;
-import com.vividsolutions.jts.io.ParseException;
-import com.vividsolutions.jts.io.WKTReader;
 
 import static org.gbif.api.model.common.search.SearchConstants.QUERY_WILDCARD;
 
@@ -33,8 +33,6 @@ public class SearchTypeValidator {
   private static final Pattern BOOLEAN = Pattern.compile("^(true|false)$", Pattern.CASE_INSENSITIVE);
   // this regex matches a double with an optional dot separated fracture and negative signing
   private static final String DEC = "-?\\d+(?:\\.\\d+)?";
-  private static final String DECIMAL = "(" + DEC + ")";
-
   private static final String DECIMAL_OR_WILDCARD = "(" + DEC + "|\\*)";
 
   private static final Range<Double> LATITUDE_RNG = Range.closed(-90.0, 90.0);
@@ -44,7 +42,7 @@ public class SearchTypeValidator {
 
   private static final String LONGITUDE_ERROR_MSG = "%s is not valid value, longitude must be between -180 and 180.";
 
-  private static final String WILD_CARD = "*";
+  private static final char WILD_CARD = '*';
 
   /**
    * Matches ranges in formats
@@ -70,24 +68,29 @@ public class SearchTypeValidator {
    */
   private static final Pattern DECIMAL_RANGE_PATTERN = Pattern.compile(
     "^" + DECIMAL_OR_WILDCARD + "\\s*,\\s*" + DECIMAL_OR_WILDCARD + "$", Pattern.CASE_INSENSITIVE);
+  private static final long NOT_PLAIN = Long.MIN_VALUE;
+
   /**
-   * Matches without groups a space delimited coordinate pair allowing prefixing or trailing whitespace: 10.12 -90.12
+   * Validates a single value of a given search parameter.
    */
-  private static final String WKT_COORD = "\\s*" + DECIMAL + "\\s+" + DECIMAL + "\\s*";
+  private interface ValueValidator {
+
+    /**
+     * @throws IllegalArgumentException if the value is invalid
+     */
+    void validate(String value);
+  }
 
   /**
-   * Matches without groups a comma separated list of coordinates enclosed in brackets:
-   * (10.12 -90.12, 30 10, 10 20, 20 40)
+   * Validators for all occurrence search parameters, compiled once.
    */
-  private static final String WKT_LINE = "\\s*\\(" + WKT_COORD + "(?:," + WKT_COORD + ")*\\)\\s*";
+  private static final Map<OccurrenceSearchParameter, ValueValidator> OCC_VALIDATORS = compileOccurrenceValidators();
 
-  private static final String WKT_POLYGON = "\\(" + WKT_LINE + "(?:," + WKT_LINE + ")*\\)";
-
-  private static final List<Pattern> WKT_PATTERNS = ImmutableList.of(
-    Pattern.compile("^POINT\\s*\\(" + WKT_COORD + "\\)$", Pattern.CASE_INSENSITIVE),
-    Pattern.compile("^(?:LINESTRING|LINEARRING)\\s*" + WKT_LINE + "$", Pattern.CASE_INSENSITIVE),
-    Pattern.compile("^POLYGON\\s*" + WKT_POLYGON + "$", Pattern.CASE_INSENSITIVE),
-    Pattern.compile("^MULTIPOLYGON\\s*\\(" + WKT_POLYGON + "(?:," + WKT_POLYGON + ")*\\)$", Pattern.CASE_INSENSITIVE));
+  /**
+   * Validators of all other search parameters, compiled on first use. Parameters are enums, so the map stays small.
+   */
+  private static final ConcurrentMap<SearchParameter, ValueValidator> VALIDATORS =
+    new ConcurrentHashMap<SearchParameter, ValueValidator>();
 
   /**
    * Private default constructor.
@@ -181,6 +184,22 @@ public class SearchTypeValidator {
     throw new IllegalArgumentException("Invalid integer range: " + value);
   }
 
+  /**
+   * Parses and validates a simple WKT geometry as accepted by the {@link OccurrenceSearchParameter#GEOMETRY}.
+   * Polygons must be topologically valid and have an area.
+   *
+   * @return the parsed geometry
+   * @throws IllegalArgumentException if the value is no valid simple WKT geometry
+   */
+  public static Geometry parseGeometry(String wellKnownText) {
+    Geometry geometry = WktParser.parse(wellKnownText);
+    // Calculating the area > 0 ensures that polygons that are representing lines or points are invalidated
+    if (geometry instanceof Polygon && (!geometry.isValid() || geometry.getArea() == 0.0)) {
+      throw new IllegalArgumentException("Invalid polygon " + wellKnownText);
+    }
+    return geometry;
+  }
+
   /**
    * Validates that a given parameter value matches the expected type of the parameter as defined by
    * {@link SearchParameter#type()} and throws an IllegalArgumentException otherwise.
@@ -190,69 +209,210 @@ public class SearchTypeValidator {
    * @throws IllegalArgumentException if the value cannot be converted to the expected type
    */
   public static void validate(SearchParameter param, String value) throws IllegalArgumentException {
-    final Class<?> pType = param.type();
-
+    ValueValidator validator = param instanceof OccurrenceSearchParameter ? OCC_VALIDATORS.get(param)
+      : VALIDATORS.computeIfAbsent(param, SearchTypeValidator::compile);
     try {
-      if (OccurrenceSearchParameter.GEOMETRY == param) {
-        validateGeometry(value);
+      validator.validate(value);
+    } catch (NullPointerException e) {
+      // some parsers throw NPE but we want IllegalArgumentException
+      throw new IllegalArgumentException("Value " + value + " invalid for filter parameter " + param, e);
+    }
+  }
 
+  /**
+   * Builds a validator for the given parameter that dispatches on the parameter type only once.
+   * The validators try a plain, exception free scan of the value first and only fall back to the
+   * more expensive parsing for values in other formats, e.g. ranges.
+   */
+  private static ValueValidator compile(SearchParameter param) {
+    if (OccurrenceSearchParameter.GEOMETRY == param) {
+      return SearchTypeValidator::validateGeometry;
+    }
+    final ValueValidator typeValidator = compileType(param);
+    // All the parameters except by GEOMETRY accept the wild card value
+    return value -> {
+      if (!isWildcard(value)) {
+        typeValidator.validate(value);
       }
-      // All the parameters except by GEOMETRY accept the wild card value
-      if (!WILD_CARD.equalsIgnoreCase(Strings.nullToEmpty(value).trim())) {
-        if (OccurrenceSearchParameter.DECIMAL_LATITUDE == param) {
-          validateLatitude(value);
+    };
+  }
 
-        } else if (OccurrenceSearchParameter.DECIMAL_LONGITUDE == param) {
-          validateLongitude(value);
+  private static ValueValidator compileType(final SearchParameter param) {
+    final Class<?> pType = param.type();
 
-        } else if (UUID.class.isAssignableFrom(pType)) {
-          UUID.fromString(value);
+    if (OccurrenceSearchParameter.DECIMAL_LATITUDE == param) {
+      return value -> validateCoordinate(value, LATITUDE_RNG, LATITUDE_ERROR_MSG);
 
-        } else if (Double.class.isAssignableFrom(pType)) {
-          validateDouble(value);
+    } else if (OccurrenceSearchParameter.DECIMAL_LONGITUDE == param) {
+      return value -> validateCoordinate(value, LONGITUDE_RNG, LONGITUDE_ERROR_MSG);
 
-        } else if (Integer.class.isAssignableFrom(pType)) {
-          Collection<Integer> intsFound = validateInteger(value);
-          if (OccurrenceSearchParameter.MONTH == param) {
-            validateMonth(intsFound);
-          }
-
-        } else if (Boolean.class.isAssignableFrom(pType)) {
-          // we cannot use Boolean.parseBoolean as this accepted anything as false
-          if (!BOOLEAN.matcher(value).find()) {
-            throw new IllegalArgumentException("Value " + value + " is no valid boolean");
-          }
-
-        } else if (Country.class.isAssignableFrom(pType)) {
-          // iso codes expected
-          Preconditions.checkNotNull(Country.fromIsoCode(value));
-
-        } else if (Language.class.isAssignableFrom(pType)) {
-          // iso codes expected
-          Preconditions.checkNotNull(Language.fromIsoCode(value));
-
-        } else if (Enum.class.isAssignableFrom(pType)) {
-          // enum value expected, cast to enum
-          @SuppressWarnings("unchecked")
-          Class<? extends Enum<?>> eType = (Class<? extends Enum<?>>) pType;
-          Preconditions.checkNotNull(VocabularyUtils.lookupEnum(value, eType));
-
-        } else if (Date.class.isAssignableFrom(pType) || Temporal.class.isAssignableFrom(pType)) {
-          // ISO date strings
-          validateDate(value);
-
-        } else if (!String.class.isAssignableFrom(pType)) {
-          // any string allowed
-          // an unexpected data type - update this method!!
-          throw new IllegalArgumentException("Unknown SearchParameter data type " + pType.getCanonicalName());
+    } else if (UUID.class.isAssignableFrom(pType)) {
+      return SearchTypeValidator::validateUuid;
+
+    } else if (Double.class.isAssignableFrom(pType)) {
+      return value -> {
+        if (value == null || !isPlainDecimal(value)) {
+          validateDouble(value);
         }
+      };
+
+    } else if (Integer.class.isAssignableFrom(pType)) {
+      if (OccurrenceSearchParameter.MONTH == param) {
+        return SearchTypeValidator::validateMonth;
       }
-    } catch (NullPointerException e) {
-      // Preconditions.checkNotNull throws NPE but we want IllegalArgumentException
-      throw new IllegalArgumentException("Value " + value + " invalid for filter parameter " + param, e);
+      return value -> {
+        if (value == null || parsePlainInteger(value) == NOT_PLAIN) {
+          validateInteger(value);
+        }
+      };
+
+    } else if (Boolean.class.isAssignableFrom(pType)) {
+      return value -> {
+        // we cannot use Boolean.parseBoolean as this accepted anything as false
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value) && !BOOLEAN.matcher(value).find()) {
+          throw new IllegalArgumentException("Value " + value + " is no valid boolean");
+        }
+      };
+
+    } else if (Country.class.isAssignableFrom(pType)) {
+      // iso codes expected
+      return value -> {
+        if (Country.fromIsoCode(value) == null) {
+          throw invalidValue(param, value);
+        }
+      };
+
+    } else if (Language.class.isAssignableFrom(pType)) {
+      // iso codes expected
+      return value -> {
+        if (Language.fromIsoCode(value) == null) {
+          throw invalidValue(param, value);
+        }
+      };
+
+    } else if (Enum.class.isAssignableFrom(pType)) {
+      // enum value expected, cast to enum
+      @SuppressWarnings("unchecked")
+      final Class<? extends Enum<?>> eType = (Class<? extends Enum<?>>) pType;
+      return value -> {
+        if (VocabularyUtils.lookupEnum(value, eType) == null) {
+          throw invalidValue(param, value);
+        }
+      };
+
+    } else if (Date.class.isAssignableFrom(pType) || Temporal.class.isAssignableFrom(pType)) {
+      // ISO date strings
+      return SearchTypeValidator::validateDate;
+
+    } else if (String.class.isAssignableFrom(pType)) {
+      // any string allowed
+      return value -> { };
+    }
+    // an unexpected data type - update this method!!
+    return value -> {
+      throw new IllegalArgumentException("Unknown SearchParameter data type " + pType.getCanonicalName());
+    };
+  }
+
+  private static Map<OccurrenceSearchParameter, ValueValidator> compileOccurrenceValidators() {
+    Map<OccurrenceSearchParameter, ValueValidator> validators =
+      new EnumMap<OccurrenceSearchParameter, ValueValidator>(OccurrenceSearchParameter.class);
+    for (OccurrenceSearchParameter param : OccurrenceSearchParameter.values()) {
+      validators.put(param, compile(param));
     }
+    return validators;
   }
 
+  private static IllegalArgumentException invalidValue(SearchParameter param, String value) {
+    return new IllegalArgumentException("Value " + value + " invalid for filter parameter " + param);
+  }
+
+  /**
+   * @return true if the trimmed value is the wildcard, without creating new strings
+   */
+  private static boolean isWildcard(String value) {
+    if (value == null) {
+      return false;
+    }
+    int start = 0;
+    int end = value.length();
+    while (start < end && value.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && value.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return end - start == 1 && value.charAt(start) == WILD_CARD;
+  }
+
+  /**
+   * @return the index of the first non ASCII digit at or after start
+   */
+  private static int scanDigits(String value, int start) {
+    int idx = start;
+    while (idx < value.length() && value.charAt(idx) >= '0' && value.charAt(idx) <= '9') {
+      idx++;
+    }
+    return idx;
+  }
+
+  /**
+   * @return true if the value is a plain decimal of the form -?\d+(\.\d+)? which is always a valid double
+   */
+  private static boolean isPlainDecimal(String value) {
+    int idx = value.startsWith("-") ? 1 : 0;
+    int end = scanDigits(value, idx);
+    if (end == idx) {
+      return false;
+    }
+    if (end == value.length()) {
+      return true;
+    }
+    if (value.charAt(end) != '.') {
+      return false;
+    }
+    int fraction = scanDigits(value, end + 1);
+    return fraction > end + 1 && fraction == value.length();
+  }
+
+  /**
+   * Parses a plain integer of the form -?\d{1,9} which always fits into an int.
+   *
+   * @return the parsed value or NOT_PLAIN for any other value
+   */
+  private static long parsePlainInteger(String value) {
+    boolean negative = value.startsWith("-");
+    int idx = negative ? 1 : 0;
+    int end = scanDigits(value, idx);
+    if (end == idx || end != value.length() || end - idx > 9) {
+      return NOT_PLAIN;
+    }
+    long result = 0;
+    for (; idx < end; idx++) {
+      result = result * 10 + (value.charAt(idx) - '0');
+    }
+    return negative ? -result : result;
+  }
+
+  /**
+   * @return true if the value is a UUID in its canonical 8-4-4-4-12 hex digit form
+   */
+  private static boolean isCanonicalUuid(String value) {
+    if (value.length() != 36) {
+      return false;
+    }
+    for (int idx = 0; idx < 36; idx++) {
+      char c = value.charAt(idx);
+      if (idx == 8 || idx == 13 || idx == 18 || idx == 23) {
+        if (c != '-') {
+          return false;
+        }
+      } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+        return false;
+      }
+    }
+    return true;
+  }
 
   /**
    * @return the parsed double or null for wildcards
@@ -334,35 +494,7 @@ public class SearchTypeValidator {
    * are accepted.
    */
   private static void validateGeometry(String wellKnownText) {
-    validateGeometrySyntax(wellKnownText);
-    try {
-      Geometry geometry = new WKTReader().read(wellKnownText);
-      // Calculating the area > 0 ensures that polygons that are representing lines or points are invalidated
-      if (geometry instanceof Polygon && (!geometry.isValid() || geometry.getArea() == 0.0)) {
-        throw new IllegalArgumentException("Invalid polygon " + wellKnownText);
-      }
-    } catch (ParseException e) {
-      throw new IllegalArgumentException("Invalid simple WKT: " + wellKnownText);
-    }
-  }
-
-  /**
-   * Verify that we have indeed a wellKnownText parameter.
-   * See <a href="http://en.wikipedia.org/wiki/Well-known_text">wikipedia</a> for basic WKT specs.
-   * The validation implemented does a basic syntax check for the following geometries, but does not
-   * verify that the resulting geometries are topologically valid (see the OGC SFS specification).
-   */
-  private static void validateGeometrySyntax(String wellKnownText) {
-    if (Strings.isNullOrEmpty(wellKnownText)) {
-      throw new IllegalArgumentException("Well Known Text cannot be empty or null");
-    }
-    // test all 4 supported geometry types with their respective regex - one must match!
-    for (Pattern regex : WKT_PATTERNS) {
-      if (regex.matcher(wellKnownText).find()) {
-        return;
-      }
-    }
-    throw new IllegalArgumentException("Invalid simple WKT: " + wellKnownText);
+    parseGeometry(wellKnownText);
   }
 
   /**
@@ -391,17 +523,38 @@ public class SearchTypeValidator {
   }
 
   /**
-   * Validates if the parameter is a valid latitude value.
+   * Validates a single month or a range of months.
+   */
+  private static void validateMonth(String value) {
+    long month = value == null ? NOT_PLAIN : parsePlainInteger(value);
+    if (month == NOT_PLAIN) {
+      validateMonth(validateInteger(value));
+    } else if (month < 1 || month > 12) {
+      throw new IllegalArgumentException("Month needs to be between 1 - 12");
+    }
+  }
+
+  /**
+   * Validates if the value is a valid UUID.
    */
-  private static void validateLatitude(String value) {
-    validateDoubleInRange(value, LATITUDE_RNG, LATITUDE_ERROR_MSG);
+  private static void validateUuid(String value) {
+    if (value == null || !isCanonicalUuid(value)) {
+      UUID.fromString(value);
+    }
   }
 
   /**
-   * Validates if the parameter is a valid longitude value.
+   * Validates a latitude or longitude, checking plain decimals without any exception handling.
    */
-  private static void validateLongitude(String value) {
-    validateDoubleInRange(value, LONGITUDE_RNG, LONGITUDE_ERROR_MSG);
+  private static void validateCoordinate(String value, Range<Double> range, String errorMsg) {
+    if (value != null && isPlainDecimal(value)) {
+      double coordinate = Double.parseDouble(value);
+      if (coordinate < range.lowerEndpoint() || coordinate > range.upperEndpoint()) {
+        throw new IllegalArgumentException(String.format(errorMsg, value));
+      }
+    } else {
+      validateDoubleInRange(value, range, errorMsg);
+    }
   }
 
   private static void validateMonth(Collection<Integer> months) {
@@ -17,12 +17,16 @@ import org.gbif.api.vocabulary.EndpointType;
 import org.gbif.api.vocabulary.IdentifierType;
 import org.gbif.api.vocabulary.TechnicalInstallationType;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.common.reflect.ClassPath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +35,16 @@ public final class VocabularyUtils {
 
   private static final Logger LOG = LoggerFactory.getLogger(VocabularyUtils.class);
 
+  /**
+   * Lazily built name index per enumeration class used by {@link #lookupEnum(String, Class)}.
+   */
+  private static final ClassValue<EnumIndex<?>> ENUM_INDICES = new ClassValue<EnumIndex<?>>() {
+    @Override
+    protected EnumIndex<?> computeValue(Class<?> type) {
+      return new EnumIndex<Enum<?>>((Enum<?>[]) type.getEnumConstants());
+    }
+  };
+
   public static ContactType parseContactType(String type) {
     return (ContactType) lookupEnum(type, ContactType.class);
   }
@@ -60,17 +74,35 @@ public final class VocabularyUtils {
     if (Strings.isNullOrEmpty(name)) {
       return null;
     }
-    final String normedType = name.toUpperCase().replaceAll("[. _-]", "");
-    T[] values = vocab.getEnumConstants();
-    if (values != null) {
-      for (T val : values) {
-        final String normedVal = val.name().toUpperCase().replaceAll("[. _-]", "");
-        if (normedType.equals(normedVal)) {
-          return val;
+    T val = index(vocab).get(name);
+    if (val == null) {
+      throw new IllegalArgumentException("Cannot parse " + name + " into a known " + vocab.getSimpleName());
+    }
+    return val;
+  }
+
+  /**
+   * Looks up enumeration values for all given strings, see {@link #lookupEnum(String, Class)}.
+   *
+   * @param names the enum members names to lookup
+   * @param vocab the enumeration class
+   * @return the matching enum members in the order of the given names, with null for null or empty names
+   * @throws IllegalArgumentException if any name cannot be parsed into a known name
+   */
+  public static <T extends Enum<?>> List<T> lookupAll(Collection<String> names, Class<T> vocab) {
+    EnumIndex<T> idx = index(vocab);
+    List<T> values = new ArrayList<T>(names.size());
+    for (String name : names) {
+      T val = null;
+      if (!Strings.isNullOrEmpty(name)) {
+        val = idx.get(name);
+        if (val == null) {
+          throw new IllegalArgumentException("Cannot parse " + name + " into a known " + vocab.getSimpleName());
         }
       }
+      values.add(val);
     }
-    throw new IllegalArgumentException("Cannot parse " + name + " into a known " + vocab.getSimpleName());
+    return values;
   }
 
   /**
@@ -84,13 +116,108 @@ public final class VocabularyUtils {
    * @return instance of com.google.common.base.Optional, never null.
    */
   public static <T extends Enum<?>> Optional<T> lookup(String name, Class<T> vocab) {
-    T result = null;
-    // this try/catch in needed until we replace all calls to lookupEnum() in favor of this method
-    try{
-      result = lookupEnum(name, vocab);
+    if (Strings.isNullOrEmpty(name)) {
+      return Optional.absent();
+    }
+    return Optional.fromNullable(index(vocab).get(name));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends Enum<?>> EnumIndex<T> index(Class<T> vocab) {
+    return (EnumIndex<T>) ENUM_INDICES.get(vocab);
+  }
+
+  /**
+   * Normalizes names by upper casing them and removing dots, spaces, underscores and dashes.
+   */
+  private static String normalize(String name) {
+    return name.toUpperCase().replaceAll("[. _-]", "");
+  }
+
+  /**
+   * Open addressing hash table of the normalized enum member names of a single enumeration.
+   * Lookups of ASCII names normalize and hash the name on the fly without creating any new objects.
+   */
+  private static final class EnumIndex<T extends Enum<?>> {
+    private final String[] keys;
+    private final Object[] values;
+    private final Map<String, T> byKey;
+    private final int mask;
+
+    EnumIndex(@Nullable T[] constants) {
+      Map<String, T> map = Maps.newHashMap();
+      if (constants != null) {
+        for (T val : constants) {
+          String key = normalize(val.name());
+          // keep the first member in case of clashes
+          if (!map.containsKey(key)) {
+            map.put(key, val);
+          }
+        }
+      }
+      byKey = map;
+      int size = Integer.highestOneBit(Math.max(map.size(), 1) * 4 - 1) << 1;
+      mask = size - 1;
+      keys = new String[size];
+      values = new Object[size];
+      for (Map.Entry<String, T> e : map.entrySet()) {
+        int slot = e.getKey().hashCode() & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = e.getKey();
+        values[slot] = e.getValue();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(String name) {
+      // hash the normalized name, same as normalize(name).hashCode()
+      int hash = 0;
+      for (int i = 0; i < name.length(); i++) {
+        char c = name.charAt(i);
+        if (c > 127) {
+          // leave upper casing of non ASCII characters to the JDK
+          return byKey.get(normalize(name));
+        }
+        if (!isSeparator(c)) {
+          hash = 31 * hash + upper(c);
+        }
+      }
+      int slot = hash & mask;
+      while (keys[slot] != null) {
+        if (matches(keys[slot], name)) {
+          return (T) values[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      return null;
+    }
+
+    /**
+     * @return true if the normalized version of the ASCII name equals the key
+     */
+    private static boolean matches(String key, String name) {
+      int k = 0;
+      for (int i = 0; i < name.length(); i++) {
+        char c = name.charAt(i);
+        if (!isSeparator(c)) {
+          if (k >= key.length() || key.charAt(k) != upper(c)) {
+            return false;
+          }
+          k++;
+        }
+      }
+      return k == key.length();
+    }
+
+    private static boolean isSeparator(char c) {
+      return c == '.' || c == ' ' || c == '_' || c == '-';
+    }
+
+    private static char upper(char c) {
+      return c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
     }
-    catch (IllegalArgumentException iaEx){/*ignore*/}
-    return Optional.fromNullable(result);
   }
 
   /**
@@ -0,0 +1,229 @@
+package org.gbif.api.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Strings;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Polygon;
+
+/**
+ * Parser for the simple <a href="http://en.wikipedia.org/wiki/Well-known_text">Well Known Text</a> geometries
+ * supported by the occurrence search: POINT, LINESTRING, LINEARRING, POLYGON and MULTIPOLYGON.
+ * <br/>
+ * The text is validated and the JTS geometry built in a single pass without regular expressions or intermediate
+ * strings, so even polygons with hundreds of thousands of vertices are parsed in linear time.
+ * Keywords are case insensitive, whitespace is allowed between all tokens and coordinates are plain decimals
+ * without exponents, e.g. -12.345.
+ */
+public class WktParser {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+  // powers of ten that are exactly representable as doubles
+  private static final double[] POW10 = new double[23];
+  // mantissas up to 15 digits are exact as doubles, so one division gives a correctly rounded result
+  private static final int MAX_FAST_DIGITS = 15;
+
+  static {
+    POW10[0] = 1;
+    for (int i = 1; i < POW10.length; i++) {
+      POW10[i] = POW10[i - 1] * 10;
+    }
+  }
+
+  private final String wkt;
+  private final int len;
+  private int pos;
+
+  private WktParser(String wkt) {
+    this.wkt = wkt;
+    this.len = wkt.length();
+  }
+
+  /**
+   * Parses a simple WKT geometry.
+   *
+   * @param wkt the well known text
+   *
+   * @return the parsed geometry
+   *
+   * @throws IllegalArgumentException if the text is not a valid simple WKT geometry
+   */
+  public static Geometry parse(String wkt) {
+    if (Strings.isNullOrEmpty(wkt)) {
+      throw new IllegalArgumentException("Well Known Text cannot be empty or null");
+    }
+    return new WktParser(wkt).parseGeometry();
+  }
+
+  private Geometry parseGeometry() {
+    skipWhitespace();
+    Geometry geometry;
+    if (keyword("POINT")) {
+      expect('(');
+      Coordinate c = coordinate();
+      expect(')');
+      geometry = GEOMETRY_FACTORY.createPoint(c);
+
+    } else if (keyword("LINESTRING")) {
+      geometry = GEOMETRY_FACTORY.createLineString(coordinates());
+
+    } else if (keyword("LINEARRING")) {
+      geometry = GEOMETRY_FACTORY.createLinearRing(coordinates());
+
+    } else if (keyword("POLYGON")) {
+      geometry = polygon();
+
+    } else if (keyword("MULTIPOLYGON")) {
+      List<Polygon> polygons = new ArrayList<Polygon>();
+      expect('(');
+      do {
+        polygons.add(polygon());
+      } while (consume(','));
+      expect(')');
+      geometry = GEOMETRY_FACTORY.createMultiPolygon(polygons.toArray(new Polygon[polygons.size()]));
+
+    } else {
+      throw invalid();
+    }
+    skipWhitespace();
+    if (pos != len) {
+      throw invalid();
+    }
+    return geometry;
+  }
+
+  private Polygon polygon() {
+    expect('(');
+    LinearRing shell = GEOMETRY_FACTORY.createLinearRing(coordinates());
+    List<LinearRing> holes = new ArrayList<LinearRing>();
+    while (consume(',')) {
+      holes.add(GEOMETRY_FACTORY.createLinearRing(coordinates()));
+    }
+    expect(')');
+    return GEOMETRY_FACTORY.createPolygon(shell, holes.toArray(new LinearRing[holes.size()]));
+  }
+
+  /**
+   * Parses a comma separated list of coordinates enclosed in brackets.
+   */
+  private Coordinate[] coordinates() {
+    expect('(');
+    List<Coordinate> coords = new ArrayList<Coordinate>();
+    do {
+      coords.add(coordinate());
+    } while (consume(','));
+    expect(')');
+    return coords.toArray(new Coordinate[coords.size()]);
+  }
+
+  /**
+   * Parses a whitespace separated x y pair.
+   */
+  private Coordinate coordinate() {
+    skipWhitespace();
+    double x = number();
+    int start = pos;
+    skipWhitespace();
+    if (pos == start) {
+      throw invalid();
+    }
+    double y = number();
+    return new Coordinate(x, y);
+  }
+
+  /**
+   * Parses a decimal of the form -?\d+(\.\d+)?
+   */
+  private double number() {
+    int start = pos;
+    boolean negative = pos < len && wkt.charAt(pos) == '-';
+    if (negative) {
+      pos++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    int intStart = pos;
+    while (pos < len && isDigit(wkt.charAt(pos))) {
+      mantissa = mantissa * 10 + (wkt.charAt(pos++) - '0');
+      digits++;
+    }
+    if (pos == intStart) {
+      throw invalid();
+    }
+    if (pos < len && wkt.charAt(pos) == '.') {
+      pos++;
+      int fractionStart = pos;
+      while (pos < len && isDigit(wkt.charAt(pos))) {
+        mantissa = mantissa * 10 + (wkt.charAt(pos++) - '0');
+        digits++;
+      }
+      fractionDigits = pos - fractionStart;
+      if (fractionDigits == 0) {
+        throw invalid();
+      }
+    }
+    if (digits > MAX_FAST_DIGITS || fractionDigits >= POW10.length) {
+      // too long for an exact conversion, the mantissa might even have overflown
+      return Double.parseDouble(wkt.substring(start, pos));
+    }
+    double value = mantissa / POW10[fractionDigits];
+    return negative ? -value : value;
+  }
+
+  /**
+   * Consumes the given keyword ignoring case, which must be followed by whitespace or a bracket.
+   */
+  private boolean keyword(String keyword) {
+    int end = pos + keyword.length();
+    if (end <= len && wkt.regionMatches(true, pos, keyword, 0, keyword.length())
+        && (end == len || wkt.charAt(end) == '(' || isWhitespace(wkt.charAt(end)))) {
+      pos = end;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Consumes the next non whitespace character if it is the given one.
+   */
+  private boolean consume(char c) {
+    skipWhitespace();
+    if (pos < len && wkt.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char c) {
+    if (!consume(c)) {
+      throw invalid();
+    }
+  }
+
+  private void skipWhitespace() {
+    while (pos < len && isWhitespace(wkt.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * @return true for the same characters as the regular expression \s
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private IllegalArgumentException invalid() {
+    return new IllegalArgumentException("Invalid simple WKT: " + wkt);
+  }
+}
@@ -0,0 +1,394 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.ParsedName;
+import org.gbif.api.service.checklistbank.NameParser;
+import org.gbif.api.vocabulary.NamePart;
+import org.gbif.api.vocabulary.NameType;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A front-end to a {@link NameParser} that parses many names in parallel on a fork join pool and memoizes the parsed
+ * names, as large checklists contain the same name strings many times.
+ * <br/>
+ * Names are parsed quietly, see {@link NameParser#parseQuietly(String, Rank)}. The memoized names are shared by all
+ * callers and therefore immutable, all their setters throw an {@link UnsupportedOperationException}.
+ * The number of names parsed, the rate of unparsable names and the throughput of the bulk methods are recorded,
+ * see {@link #stats()}.
+ */
+public class BulkNameParser {
+
+  private final NameParser parser;
+  private final ForkJoinPool pool;
+  private final Cache<Key, ParsedName> cache;
+  private final LongAdder names = new LongAdder();
+  private final LongAdder unparsable = new LongAdder();
+  private final LongAdder bulkNames = new LongAdder();
+  private final LongAdder bulkNanos = new LongAdder();
+
+  /**
+   * Creates a bulk parser using the common fork join pool.
+   *
+   * @param parser the parser to delegate to, which must be thread safe
+   * @param maxSize maximum number of memoized names
+   */
+  public BulkNameParser(NameParser parser, long maxSize) {
+    this(parser, maxSize, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param parser the parser to delegate to, which must be thread safe
+   * @param maxSize maximum number of memoized names
+   * @param pool the pool to parse on
+   */
+  public BulkNameParser(NameParser parser, long maxSize, ForkJoinPool pool) {
+    Preconditions.checkArgument(maxSize > 0, "maxSize must be positive");
+    this.parser = Preconditions.checkNotNull(parser, "parser may not be null");
+    this.pool = Preconditions.checkNotNull(pool, "pool may not be null");
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+  }
+
+  /**
+   * Parses a single name quietly, reusing a memoized result if present.
+   *
+   * @return the shared, immutable parsed name or null for a null name
+   */
+  @Nullable
+  public ParsedName parse(@Nullable String scientificName, @Nullable Rank rank) {
+    if (scientificName == null) {
+      return null;
+    }
+    ParsedName pn;
+    try {
+      pn = cache.get(new Key(scientificName, rank), () -> new FrozenParsedName(parser.parseQuietly(scientificName,
+                                                                                                     rank)));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+    names.increment();
+    if (!pn.isParsed()) {
+      unparsable.increment();
+    }
+    return pn;
+  }
+
+  /**
+   * Parses all names of unknown rank in parallel.
+   *
+   * @return the shared, immutable parsed names in the order of the given names, null for null names
+   */
+  public List<ParsedName> parseAll(Collection<String> scientificNames) {
+    return parseAll(scientificNames.stream());
+  }
+
+  /**
+   * Parses all names of a given rank in parallel.
+   *
+   * @return the shared, immutable parsed names in the order of the given names, null for null names
+   */
+  public List<ParsedName> parseAll(Collection<String> scientificNames, @Nullable Rank rank) {
+    return parseAll(scientificNames.stream(), rank);
+  }
+
+  /**
+   * Parses all names of unknown rank in parallel.
+   *
+   * @return the shared, immutable parsed names in the encounter order of the given names, null for null names
+   */
+  public List<ParsedName> parseAll(Stream<String> scientificNames) {
+    return parseAll(scientificNames, null);
+  }
+
+  /**
+   * Parses all names of a given rank in parallel.
+   *
+   * @return the shared, immutable parsed names in the encounter order of the given names, null for null names
+   */
+  public List<ParsedName> parseAll(Stream<String> scientificNames, @Nullable Rank rank) {
+    long start = System.nanoTime();
+    List<ParsedName> parsed;
+    try {
+      // a parallel stream executes in the pool its terminal operation is started from
+      parsed = pool.submit(() -> scientificNames.parallel()
+        .map(n -> parse(n, rank))
+        .collect(Collectors.toList())).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw Throwables.propagate(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+    bulkNanos.add(System.nanoTime() - start);
+    bulkNames.add(parsed.size());
+    return parsed;
+  }
+
+  /**
+   * @return the statistics of all names parsed so far
+   */
+  public Stats stats() {
+    return new Stats(names.sum(), unparsable.sum(), cache.stats().hitRate(), bulkNames.sum(), bulkNanos.sum());
+  }
+
+  /**
+   * Removes all memoized names.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Parser statistics.
+   */
+  public static class Stats {
+    private final long names;
+    private final long unparsable;
+    private final double hitRate;
+    private final long bulkNames;
+    private final long bulkNanos;
+
+    private Stats(long names, long unparsable, double hitRate, long bulkNames, long bulkNanos) {
+      this.names = names;
+      this.unparsable = unparsable;
+      this.hitRate = hitRate;
+      this.bulkNames = bulkNames;
+      this.bulkNanos = bulkNanos;
+    }
+
+    /**
+     * @return the number of non null names parsed, including memoized ones
+     */
+    public long getNames() {
+      return names;
+    }
+
+    /**
+     * @return the number of names that could not be parsed
+     */
+    public long getUnparsable() {
+      return unparsable;
+    }
+
+    /**
+     * @return the ratio of unparsable names, 0 if no names have been parsed
+     */
+    public double getUnparsableRate() {
+      return names == 0 ? 0 : (double) unparsable / names;
+    }
+
+    /**
+     * @return the ratio of names taken from the memo
+     */
+    public double getHitRate() {
+      return hitRate;
+    }
+
+    /**
+     * @return the names parsed per second by the bulk methods, measured by their elapsed time
+     */
+    public double getNamesPerSecond() {
+      return bulkNanos == 0 ? 0 : bulkNames * 1e9 / bulkNanos;
+    }
+
+    @Override
+    public String toString() {
+      return Objects.toStringHelper(this)
+        .add("names", names)
+        .add("unparsable", unparsable)
+        .add("unparsableRate", getUnparsableRate())
+        .add("hitRate", hitRate)
+        .add("namesPerSecond", getNamesPerSecond())
+        .toString();
+    }
+  }
+
+  private static final class Key {
+    private final String name;
+    private final Rank rank;
+
+    Key(String name, @Nullable Rank rank) {
+      this.name = name;
+      this.rank = rank;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) obj;
+      return name.equals(that.name) && rank == that.rank;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * name.hashCode() + (rank == null ? 0 : rank.hashCode());
+    }
+  }
+
+  /**
+   * An immutable copy of a parsed name.
+   */
+  private static final class FrozenParsedName extends ParsedName {
+    private final boolean frozen;
+
+    FrozenParsedName(ParsedName pn) {
+      super(pn.getType(), pn.getGenusOrAbove(), pn.getInfraGeneric(), pn.getSpecificEpithet(),
+            pn.getInfraSpecificEpithet(), pn.getNotho(), pn.getRank(), pn.getAuthorship(), pn.getYear(),
+            pn.getBracketAuthorship(), pn.getBracketYear(), pn.getCultivarEpithet(), pn.getStrain(), pn.getSensu(),
+            pn.getNomStatus(), pn.getRemarks());
+      super.setKey(pn.getKey());
+      super.setScientificName(pn.getScientificName());
+      super.setParsed(pn.isParsed());
+      super.setAuthorsParsed(pn.isAuthorsParsed());
+      frozen = true;
+    }
+
+    private void check() {
+      if (frozen) {
+        throw new UnsupportedOperationException("Shared parsed names cannot be modified");
+      }
+    }
+
+    @Override
+    public void setAuthorship(String authorship) {
+      check();
+      super.setAuthorship(authorship);
+    }
+
+    @Override
+    public void setBracketAuthorship(String bracketAuthorship) {
+      check();
+      super.setBracketAuthorship(bracketAuthorship);
+    }
+
+    @Override
+    public void setBracketYear(String bracketYear) {
+      check();
+      super.setBracketYear(bracketYear);
+    }
+
+    @Override
+    public void setCultivarEpithet(String cultivarEpithet) {
+      check();
+      super.setCultivarEpithet(cultivarEpithet);
+    }
+
+    @Override
+    public void setStrain(String strain) {
+      check();
+      super.setStrain(strain);
+    }
+
+    @Override
+    public void setNomStatus(String nomStatus) {
+      check();
+      super.setNomStatus(nomStatus);
+    }
+
+    @Override
+    public void setNotho(NamePart notho) {
+      check();
+      super.setNotho(notho);
+    }
+
+    @Override
+    public void setRemarks(String remarks) {
+      check();
+      super.setRemarks(remarks);
+    }
+
+    @Override
+    public void setSensu(String sensu) {
+      check();
+      super.setSensu(sensu);
+    }
+
+    @Override
+    public void setType(NameType type) {
+      check();
+      super.setType(type);
+    }
+
+    @Override
+    public void setYear(String year) {
+      check();
+      super.setYear(year);
+    }
+
+    @Override
+    public void setRank(Rank rank) {
+      check();
+      super.setRank(rank);
+    }
+
+    @Override
+    public void setKey(Integer key) {
+      check();
+      super.setKey(key);
+    }
+
+    @Override
+    public void setScientificName(String scientificName) {
+      check();
+      super.setScientificName(scientificName);
+    }
+
+    @Override
+    public void setAuthorsParsed(boolean authorsParsed) {
+      check();
+      super.setAuthorsParsed(authorsParsed);
+    }
+
+    @Override
+    public void setParsed(boolean parsed) {
+      check();
+      super.setParsed(parsed);
+    }
+
+    @Override
+    public void setGenusOrAbove(String genusOrAbove) {
+      check();
+      super.setGenusOrAbove(genusOrAbove);
+    }
+
+    @Override
+    public void setHybridFormula(boolean hybrid) {
+      check();
+      super.setHybridFormula(hybrid);
+    }
+
+    @Override
+    public void setInfraGeneric(String infraGeneric) {
+      check();
+      super.setInfraGeneric(infraGeneric);
+    }
+
+    @Override
+    public void setInfraSpecificEpithet(String infraSpecies) {
+      check();
+      super.setInfraSpecificEpithet(infraSpecies);
+    }
+
+    @Override
+    public void setSpecificEpithet(String species) {
+      check();
+      super.setSpecificEpithet(species);
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.checklistbank.NameUsageMatchRequest;
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.service.checklistbank.NameUsageMatchingService;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A {@link NameUsageMatchingService} decorator that caches matches, e.g. for the interpretation of occurrences
+ * where few distinct names are shared by very many records.
+ * <br/>
+ * Matches are cached by the scientific name with normalized whitespace, the rank, the classification with blank names
+ * ignored and the strict and verbose flags. The cache is bounded in size and entries expire after a fixed time, as
+ * the backbone changes. Concurrent lookups of the same uncached name result in a single match by the delegate only.
+ * Batches are matched by a single {@link NameUsageMatchingService#matchAll(List)} call for all uncached names.
+ * Null matches of the delegate are passed on without being cached.
+ * <br/>
+ * Cached matches are shared and must not be modified.
+ */
+public class CachingNameUsageMatchingService implements NameUsageMatchingService {
+
+  private static final CharMatcher WHITESPACE = CharMatcher.WHITESPACE;
+
+  private final NameUsageMatchingService delegate;
+  private final LoadingCache<MatchKey, NameUsageMatch> cache;
+
+  /**
+   * @param delegate the service matching uncached names
+   * @param maxSize maximum number of cached matches
+   * @param ttl time after which a cached match expires
+   * @param unit time unit of the ttl
+   */
+  public CachingNameUsageMatchingService(NameUsageMatchingService delegate, long maxSize, long ttl, TimeUnit unit) {
+    Preconditions.checkArgument(maxSize > 0, "maxSize must be positive");
+    Preconditions.checkArgument(ttl > 0, "ttl must be positive");
+    this.delegate = Preconditions.checkNotNull(delegate, "delegate may not be null");
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(ttl, unit)
+      .recordStats()
+      .build(new CacheLoader<MatchKey, NameUsageMatch>() {
+        @Override
+        public NameUsageMatch load(MatchKey key) {
+          NameUsageMatchRequest r = key.request;
+          return CachingNameUsageMatchingService.this.delegate.match(r.getScientificName(), r.getRank(), r,
+                                                                     r.isStrict(), r.isVerbose());
+        }
+      });
+  }
+
+  @Override
+  public NameUsageMatch match(String scientificName, @Nullable Rank rank,
+                              @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+    try {
+      return cache.get(new MatchKey(new NameUsageMatchRequest(scientificName, rank, classification, strict,
+                                                              verbose)));
+    } catch (CacheLoader.InvalidCacheLoadException e) {
+      // the delegate returned null, which is never cached
+      return null;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * Matches all uncached names with a single call to the delegate.
+   * Duplicate requests are matched once.
+   */
+  @Override
+  public List<NameUsageMatch> matchAll(List<NameUsageMatchRequest> requests) {
+    List<MatchKey> keys = Lists.newArrayListWithCapacity(requests.size());
+    for (NameUsageMatchRequest r : requests) {
+      keys.add(new MatchKey(r));
+    }
+    Map<MatchKey, NameUsageMatch> matches = new HashMap<MatchKey, NameUsageMatch>(cache.getAllPresent(keys));
+    Set<MatchKey> uncached = new LinkedHashSet<MatchKey>();
+    for (MatchKey key : keys) {
+      if (!matches.containsKey(key)) {
+        uncached.add(key);
+      }
+    }
+    if (!uncached.isEmpty()) {
+      matches.putAll(load(uncached));
+    }
+    List<NameUsageMatch> result = Lists.newArrayListWithCapacity(keys.size());
+    for (MatchKey key : keys) {
+      result.add(matches.get(key));
+    }
+    return result;
+  }
+
+  /**
+   * Matches the keys with a single call to the delegate and caches all non null matches.
+   *
+   * @return the matches by key, including null matches
+   */
+  private Map<MatchKey, NameUsageMatch> load(Collection<MatchKey> keys) {
+    List<NameUsageMatchRequest> requests = Lists.newArrayListWithCapacity(keys.size());
+    for (MatchKey key : keys) {
+      requests.add(key.request);
+    }
+    List<NameUsageMatch> matches = delegate.matchAll(requests);
+    Preconditions.checkState(matches != null && matches.size() == requests.size(),
+                             "Delegate returned the wrong number of matches");
+    Map<MatchKey, NameUsageMatch> result = new HashMap<MatchKey, NameUsageMatch>();
+    int i = 0;
+    for (MatchKey key : keys) {
+      NameUsageMatch match = matches.get(i++);
+      if (match != null) {
+        cache.put(key, match);
+      }
+      result.put(key, match);
+    }
+    return result;
+  }
+
+  /**
+   * @return the hit and miss statistics of the cache and the load statistics of single matches
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * @return the approximate number of cached matches
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Removes all cached matches, e.g. after the backbone has been rebuilt.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Nullable
+  private static String normalize(@Nullable String name) {
+    return Strings.emptyToNull(name == null ? null : WHITESPACE.trimAndCollapseFrom(name, ' '));
+  }
+
+  /**
+   * A normalized copy of a match request, immutable as it is never exposed other than to the delegate.
+   */
+  private static final class MatchKey {
+    private final NameUsageMatchRequest request;
+    private final int hash;
+
+    MatchKey(NameUsageMatchRequest r) {
+      request = new NameUsageMatchRequest();
+      request.setScientificName(normalize(r.getScientificName()));
+      request.setRank(r.getRank());
+      request.setStrict(r.isStrict());
+      request.setVerbose(r.isVerbose());
+      request.setKingdom(normalize(r.getKingdom()));
+      request.setPhylum(normalize(r.getPhylum()));
+      request.setClazz(normalize(r.getClazz()));
+      request.setOrder(normalize(r.getOrder()));
+      request.setFamily(normalize(r.getFamily()));
+      request.setGenus(normalize(r.getGenus()));
+      request.setSubgenus(normalize(r.getSubgenus()));
+      request.setSpecies(normalize(r.getSpecies()));
+      hash = request.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof MatchKey && hash == ((MatchKey) obj).hash && request.equals(((MatchKey) obj).request);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,547 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.service.checklistbank.NameUsageService;
+import org.gbif.api.util.ClassificationUtils;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+/**
+ * A compact, read-only copy of a taxonomy answering the tree queries of the {@link NameUsageService} locally, e.g. for
+ * offline processing of a checklist or the backbone. The tree queries share the signatures of the service methods,
+ * but the snapshot is no complete service.
+ * <br/>
+ * Usages are stored in primitive arrays ordered by their key: the indexes of the parent and accepted usage, the rank
+ * and taxonomic status ordinals and the codes of the scientific and canonical name in a shared name dictionary.
+ * Accepted children and synonyms are grouped in compressed offset arrays, so parents, children and synonyms are
+ * found without any object lookups. References to usages missing from the snapshot are dropped, accepted usages
+ * without a parent in the snapshot are its roots.
+ * <br/>
+ * Only the key, names, rank, status, parent, accepted usage and the classification derived from the parents are kept.
+ * Vernacular names are not stored and the locale is ignored.
+ * <br/>
+ * A snapshot can be written to a memory mapped file and restored from it. It is immutable and thread safe.
+ */
+public class TaxonomySnapshot {
+
+  private static final int MAGIC = 0x47544158;
+  private static final int VERSION = 1;
+  private static final int NONE = -1;
+  private static final Rank[] RANKS = Rank.values();
+  private static final TaxonomicStatus[] STATUSES = TaxonomicStatus.values();
+
+  static {
+    // ordinals are stored in a byte, shifted by one to encode null as 0
+    Preconditions.checkState(RANKS.length < Byte.MAX_VALUE && STATUSES.length < Byte.MAX_VALUE);
+  }
+
+  private final UUID datasetKey;
+  private final String[] names;
+  private final int[] keys;
+  private final int[] parents;
+  private final int[] accepted;
+  private final int[] scientificNames;
+  private final int[] canonicalNames;
+  private final byte[] ranks;
+  private final byte[] statuses;
+  private final int[] childOffsets;
+  private final int[] children;
+  private final int[] synonymOffsets;
+  private final int[] synonyms;
+  private final int[] roots;
+
+  /**
+   * Validates the usage columns and derives the children, synonyms and roots.
+   * All indexes refer to the position of a usage in the keys, which must be strictly ascending.
+   *
+   * @throws IllegalArgumentException if the columns are inconsistent or the parents form a cycle
+   */
+  private TaxonomySnapshot(@Nullable UUID datasetKey, String[] names, int[] keys, int[] parents, int[] accepted,
+                           int[] scientificNames, int[] canonicalNames, byte[] ranks, byte[] statuses) {
+    int n = keys.length;
+    Preconditions.checkArgument(parents.length == n && accepted.length == n && scientificNames.length == n
+                                && canonicalNames.length == n && ranks.length == n && statuses.length == n,
+                                "Usage columns differ in length");
+    for (int i = 0; i < n; i++) {
+      Preconditions.checkArgument(i == 0 || keys[i - 1] < keys[i], "Usage keys not strictly ascending");
+      Preconditions.checkArgument(parents[i] >= NONE && parents[i] < n, "Invalid parent of usage %s", keys[i]);
+      Preconditions.checkArgument(accepted[i] >= NONE && accepted[i] < n, "Invalid accepted usage of %s", keys[i]);
+      Preconditions.checkArgument(scientificNames[i] >= NONE && scientificNames[i] < names.length
+                                  && canonicalNames[i] >= NONE && canonicalNames[i] < names.length,
+                                  "Invalid name of usage %s", keys[i]);
+      Preconditions.checkArgument(ranks[i] >= 0 && ranks[i] <= RANKS.length, "Invalid rank of usage %s", keys[i]);
+      Preconditions.checkArgument(statuses[i] >= 0 && statuses[i] <= STATUSES.length,
+                                  "Invalid status of usage %s", keys[i]);
+    }
+    this.datasetKey = datasetKey;
+    this.names = names;
+    this.keys = keys;
+    this.parents = parents;
+    this.accepted = accepted;
+    this.scientificNames = scientificNames;
+    this.canonicalNames = canonicalNames;
+    this.ranks = ranks;
+    this.statuses = statuses;
+    checkAcyclic();
+
+    int[] childOf = new int[n];
+    int[] synonymOf = new int[n];
+    int rootCount = 0;
+    for (int i = 0; i < n; i++) {
+      boolean synonym = isSynonym(i);
+      childOf[i] = synonym ? NONE : parents[i];
+      synonymOf[i] = synonym ? accepted[i] : NONE;
+      if (!synonym && parents[i] == NONE) {
+        rootCount++;
+      }
+    }
+    childOffsets = offsets(childOf);
+    children = group(childOf, childOffsets);
+    synonymOffsets = offsets(synonymOf);
+    synonyms = group(synonymOf, synonymOffsets);
+    roots = new int[rootCount];
+    for (int i = 0, r = 0; i < n; i++) {
+      if (!isSynonym(i) && parents[i] == NONE) {
+        roots[r++] = i;
+      }
+    }
+  }
+
+  /**
+   * Builds a snapshot of all given usages, which can be given in any order.
+   *
+   * @throws IllegalArgumentException if a usage has no key, keys are duplicated or the parents form a cycle
+   */
+  public static TaxonomySnapshot build(Iterable<? extends NameUsage> usages) {
+    return build(usages.iterator());
+  }
+
+  /**
+   * Builds a snapshot of all remaining usages of an iterator, e.g. a stream of a large checklist.
+   *
+   * @throws IllegalArgumentException if a usage has no key, keys are duplicated or the parents form a cycle
+   */
+  public static TaxonomySnapshot build(Iterator<? extends NameUsage> usages) {
+    Map<String, Integer> dictionary = new HashMap<String, Integer>();
+    List<String> names = new ArrayList<String>();
+    int capacity = 1024;
+    int[] keys = new int[capacity];
+    Integer[] parentKeys = new Integer[capacity];
+    Integer[] acceptedKeys = new Integer[capacity];
+    int[] scientificNames = new int[capacity];
+    int[] canonicalNames = new int[capacity];
+    byte[] ranks = new byte[capacity];
+    byte[] statuses = new byte[capacity];
+    UUID datasetKey = null;
+    boolean commonDataset = true;
+
+    int n = 0;
+    while (usages.hasNext()) {
+      NameUsage u = usages.next();
+      Preconditions.checkArgument(u.getKey() != null, "Name usage without key");
+      if (n == capacity) {
+        capacity *= 2;
+        keys = Arrays.copyOf(keys, capacity);
+        parentKeys = Arrays.copyOf(parentKeys, capacity);
+        acceptedKeys = Arrays.copyOf(acceptedKeys, capacity);
+        scientificNames = Arrays.copyOf(scientificNames, capacity);
+        canonicalNames = Arrays.copyOf(canonicalNames, capacity);
+        ranks = Arrays.copyOf(ranks, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+      }
+      keys[n] = u.getKey();
+      parentKeys[n] = u.getParentKey();
+      acceptedKeys[n] = u.getAcceptedKey();
+      scientificNames[n] = encode(u.getScientificName(), dictionary, names);
+      canonicalNames[n] = encode(u.getCanonicalName(), dictionary, names);
+      ranks[n] = (byte) (u.getRank() == null ? 0 : u.getRank().ordinal() + 1);
+      statuses[n] = (byte) (u.getTaxonomicStatus() == null ? 0 : u.getTaxonomicStatus().ordinal() + 1);
+      if (n == 0) {
+        datasetKey = u.getDatasetKey();
+      } else if (commonDataset && !Objects.equal(datasetKey, u.getDatasetKey())) {
+        commonDataset = false;
+      }
+      n++;
+    }
+
+    // sort by key, keeping the original position in the lower bits
+    long[] sorted = new long[n];
+    for (int i = 0; i < n; i++) {
+      sorted[i] = (long) keys[i] << 32 | i;
+    }
+    Arrays.sort(sorted);
+    int[] sortedKeys = new int[n];
+    for (int s = 0; s < n; s++) {
+      sortedKeys[s] = (int) (sorted[s] >> 32);
+      Preconditions.checkArgument(s == 0 || sortedKeys[s - 1] != sortedKeys[s], "Duplicate name usage key %s",
+                                  sortedKeys[s]);
+    }
+    int[] parents = new int[n];
+    int[] accepted = new int[n];
+    int[] sortedScientific = new int[n];
+    int[] sortedCanonical = new int[n];
+    byte[] sortedRanks = new byte[n];
+    byte[] sortedStatuses = new byte[n];
+    for (int s = 0; s < n; s++) {
+      int i = (int) sorted[s];
+      parents[s] = indexOf(sortedKeys, parentKeys[i]);
+      accepted[s] = indexOf(sortedKeys, acceptedKeys[i]);
+      sortedScientific[s] = scientificNames[i];
+      sortedCanonical[s] = canonicalNames[i];
+      sortedRanks[s] = ranks[i];
+      sortedStatuses[s] = statuses[i];
+    }
+    return new TaxonomySnapshot(commonDataset ? datasetKey : null, names.toArray(new String[names.size()]),
+                                sortedKeys, parents, accepted, sortedScientific, sortedCanonical, sortedRanks,
+                                sortedStatuses);
+  }
+
+  /**
+   * @return the number of usages in the snapshot
+   */
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * @return true if the snapshot contains a usage with the given key
+   */
+  public boolean contains(int taxonKey) {
+    return Arrays.binarySearch(keys, taxonKey) >= 0;
+  }
+
+  /**
+   * @return the dataset key shared by all usages or null if they come from different datasets
+   */
+  @Nullable
+  public UUID getDatasetKey() {
+    return datasetKey;
+  }
+
+  /**
+   * Lists the keys of all parents without creating any usages.
+   *
+   * @return the parent keys starting with the root and ending with the direct parent or null for an unknown key
+   */
+  @Nullable
+  public int[] parentKeys(int taxonKey) {
+    int i = Arrays.binarySearch(keys, taxonKey);
+    if (i < 0) {
+      return null;
+    }
+    int depth = 0;
+    for (int p = parents[i]; p != NONE; p = parents[p]) {
+      depth++;
+    }
+    int[] result = new int[depth];
+    for (int p = parents[i]; p != NONE; p = parents[p]) {
+      result[--depth] = keys[p];
+    }
+    return result;
+  }
+
+  /**
+   * @return the rank of the usage or null if unknown
+   */
+  @Nullable
+  public Rank getRank(int taxonKey) {
+    int i = Arrays.binarySearch(keys, taxonKey);
+    return i < 0 ? null : rank(i);
+  }
+
+  /**
+   * @return the canonical name of the usage or null if unknown
+   */
+  @Nullable
+  public String getCanonicalName(int taxonKey) {
+    int i = Arrays.binarySearch(keys, taxonKey);
+    return i < 0 ? null : name(canonicalNames[i]);
+  }
+
+  /**
+   * Creates a usage with its key, names, rank, status, parent, accepted usage and classification.
+   *
+   * @return the usage or null for an unknown key
+   */
+  @Nullable
+  public NameUsage get(int taxonKey, @Nullable Locale locale) {
+    int i = Arrays.binarySearch(keys, taxonKey);
+    return i < 0 ? null : usage(i);
+  }
+
+  /**
+   * @return all parents starting with the root, or an empty list for an unknown key
+   */
+  public List<NameUsage> listParents(int taxonKey, Locale locale) {
+    int[] parentKeys = parentKeys(taxonKey);
+    if (parentKeys == null) {
+      return Collections.emptyList();
+    }
+    List<NameUsage> result = new ArrayList<NameUsage>(parentKeys.length);
+    for (int key : parentKeys) {
+      result.add(usage(Arrays.binarySearch(keys, key)));
+    }
+    return result;
+  }
+
+  /**
+   * Lists the accepted children ordered by their key.
+   */
+  public PagingResponse<NameUsage> listChildren(int parentKey, Locale locale, @Nullable Pageable page) {
+    int i = Arrays.binarySearch(keys, parentKey);
+    return i < 0 ? page(children, 0, 0, page) : page(children, childOffsets[i], childOffsets[i + 1], page);
+  }
+
+  /**
+   * Lists the synonyms of an accepted usage ordered by their key.
+   */
+  public PagingResponse<NameUsage> listSynonyms(int taxonKey, Locale locale, @Nullable Pageable page) {
+    int i = Arrays.binarySearch(keys, taxonKey);
+    return i < 0 ? page(synonyms, 0, 0, page) : page(synonyms, synonymOffsets[i], synonymOffsets[i + 1], page);
+  }
+
+  /**
+   * Lists the accepted usages without a parent ordered by their key.
+   * The result is empty if the snapshot is of a different dataset.
+   */
+  public PagingResponse<NameUsage> listRoot(UUID datasetKey, Locale locale, @Nullable Pageable page) {
+    if (this.datasetKey != null && !this.datasetKey.equals(datasetKey)) {
+      return page(roots, 0, 0, page);
+    }
+    return page(roots, 0, roots.length, page);
+  }
+
+  /**
+   * Writes the snapshot to a memory mapped file, replacing any existing content.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public void snapshot(File file) throws IOException {
+    List<byte[]> encoded = new ArrayList<byte[]>(names.length);
+    long size = 2 * 4 + 1 + 16 + 4;
+    for (String name : names) {
+      encoded.add(name.getBytes(Charsets.UTF_8));
+      size += 4 + encoded.get(encoded.size() - 1).length;
+    }
+    size += 4 + 5L * 4 * keys.length + 2L * keys.length;
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Taxonomy too large for a snapshot: " + size + " bytes");
+    }
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.putInt(MAGIC).putInt(VERSION);
+      buffer.put((byte) (datasetKey == null ? 0 : 1));
+      buffer.putLong(datasetKey == null ? 0 : datasetKey.getMostSignificantBits());
+      buffer.putLong(datasetKey == null ? 0 : datasetKey.getLeastSignificantBits());
+      buffer.putInt(encoded.size());
+      for (byte[] name : encoded) {
+        putBytes(buffer, name);
+      }
+      buffer.putInt(keys.length);
+      for (int[] column : new int[][] {keys, parents, accepted, scientificNames, canonicalNames}) {
+        buffer.asIntBuffer().put(column);
+        buffer.position(buffer.position() + 4 * column.length);
+      }
+      buffer.put(ranks).put(statuses);
+      buffer.force();
+    }
+  }
+
+  /**
+   * Restores a snapshot from a file written by {@link #snapshot(File)}.
+   *
+   * @throws IOException if the file cannot be read or is not a valid taxonomy snapshot
+   */
+  public static TaxonomySnapshot restore(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("Not a taxonomy snapshot: " + file);
+      }
+      boolean hasDataset = buffer.get() != 0;
+      UUID datasetKey = new UUID(buffer.getLong(), buffer.getLong());
+      String[] names = new String[buffer.getInt()];
+      for (int i = 0; i < names.length; i++) {
+        names[i] = getString(buffer);
+      }
+      int n = buffer.getInt();
+      int[][] columns = new int[5][];
+      for (int c = 0; c < columns.length; c++) {
+        columns[c] = new int[n];
+        buffer.asIntBuffer().get(columns[c]);
+        buffer.position(buffer.position() + 4 * n);
+      }
+      byte[] ranks = new byte[n];
+      byte[] statuses = new byte[n];
+      buffer.get(ranks).get(statuses);
+      return new TaxonomySnapshot(hasDataset ? datasetKey : null, names, columns[0], columns[1], columns[2],
+                                  columns[3], columns[4], ranks, statuses);
+    } catch (BufferUnderflowException | IllegalArgumentException | IllegalStateException
+      | NegativeArraySizeException e) {
+      throw new IOException("Corrupt taxonomy snapshot: " + file, e);
+    }
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length).put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+  private static int encode(@Nullable String name, Map<String, Integer> dictionary, List<String> names) {
+    if (name == null) {
+      return NONE;
+    }
+    Integer code = dictionary.get(name);
+    if (code == null) {
+      code = names.size();
+      dictionary.put(name, code);
+      names.add(name);
+    }
+    return code;
+  }
+
+  private static int indexOf(int[] sortedKeys, @Nullable Integer key) {
+    if (key == null) {
+      return NONE;
+    }
+    int i = Arrays.binarySearch(sortedKeys, key);
+    return i < 0 ? NONE : i;
+  }
+
+  /**
+   * @return the offsets of the usages grouped by the referenced index, with an extra end offset
+   */
+  private static int[] offsets(int[] refs) {
+    int[] offsets = new int[refs.length + 1];
+    for (int ref : refs) {
+      if (ref != NONE) {
+        offsets[ref + 1]++;
+      }
+    }
+    for (int i = 0; i < refs.length; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    return offsets;
+  }
+
+  /**
+   * @return the usages grouped by the referenced index, ordered by their own index within a group
+   */
+  private static int[] group(int[] refs, int[] offsets) {
+    int[] grouped = new int[offsets[refs.length]];
+    int[] next = Arrays.copyOf(offsets, refs.length);
+    for (int i = 0; i < refs.length; i++) {
+      if (refs[i] != NONE) {
+        grouped[next[refs[i]]++] = i;
+      }
+    }
+    return grouped;
+  }
+
+  /**
+   * Follows the parents of all usages once, marking usages on the current path and those already verified.
+   */
+  private void checkAcyclic() {
+    byte[] state = new byte[keys.length];
+    int[] path = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      int length = 0;
+      int p = i;
+      while (p != NONE && state[p] == 0) {
+        state[p] = 1;
+        path[length++] = p;
+        p = parents[p];
+      }
+      Preconditions.checkArgument(p == NONE || state[p] == 2, "Cycle in the parents of usage %s", keys[i]);
+      for (int j = 0; j < length; j++) {
+        state[path[j]] = 2;
+      }
+    }
+  }
+
+  private boolean isSynonym(int i) {
+    return statuses[i] != 0 && STATUSES[statuses[i] - 1].isSynonym();
+  }
+
+  @Nullable
+  private Rank rank(int i) {
+    return ranks[i] == 0 ? null : RANKS[ranks[i] - 1];
+  }
+
+  @Nullable
+  private String name(int code) {
+    return code == NONE ? null : names[code];
+  }
+
+  private PagingResponse<NameUsage> page(int[] usages, int from, int to, @Nullable Pageable page) {
+    Pageable p = page == null ? new PagingRequest() : page;
+    List<NameUsage> results = new ArrayList<NameUsage>();
+    for (long i = from + p.getOffset(); i < to && results.size() < p.getLimit(); i++) {
+      results.add(usage(usages[(int) i]));
+    }
+    return new PagingResponse<NameUsage>(p, (long) (to - from), results);
+  }
+
+  /**
+   * Creates a usage with its classification taken from the parents, or the accepted usage and its parents for a
+   * synonym. The classification uses canonical names and the lowest usage of each rank.
+   */
+  private NameUsage usage(int i) {
+    NameUsage u = new NameUsage();
+    u.setKey(keys[i]);
+    u.setDatasetKey(datasetKey);
+    u.setScientificName(name(scientificNames[i]));
+    u.setCanonicalName(name(canonicalNames[i]));
+    u.setRank(rank(i));
+    u.setTaxonomicStatus(statuses[i] == 0 ? null : STATUSES[statuses[i] - 1]);
+    if (parents[i] != NONE) {
+      u.setParentKey(keys[parents[i]]);
+      u.setParent(name(scientificNames[parents[i]]));
+    }
+    if (accepted[i] != NONE) {
+      u.setAcceptedKey(keys[accepted[i]]);
+      u.setAccepted(name(scientificNames[accepted[i]]));
+    }
+    int start = isSynonym(i) && accepted[i] != NONE ? accepted[i] : i;
+    for (int c = start; c != NONE; c = parents[c]) {
+      Rank rank = rank(c);
+      if (rank != null && ClassificationUtils.getHigherRank(u, rank) == null) {
+        String name = name(canonicalNames[c]);
+        ClassificationUtils.setHigherRank(u, rank, name == null ? name(scientificNames[c]) : name, keys[c]);
+      }
+    }
+    return u;
+  }
+}
@@ -0,0 +1,116 @@
+package org.gbif.api.util.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Reads primitive values written by a {@link BinaryOutput}.
+ */
+class BinaryInput {
+
+  // a varint of a long never exceeds 10 bytes
+  private static final int MAX_VARINT_BYTES = 10;
+  // strings up to this length are read into an array of their size at once
+  private static final int MAX_PREALLOCATED = 8192;
+
+  private final InputStream in;
+
+  BinaryInput(InputStream in) {
+    this.in = in;
+  }
+
+  int readByte() throws IOException {
+    int b = in.read();
+    if (b < 0) {
+      throw new EOFException();
+    }
+    return b;
+  }
+
+  /**
+   * Reads an unsigned varint.
+   */
+  long readVarLong() throws IOException {
+    long value = 0;
+    for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << (7 * i);
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * Reads an unsigned varint that must fit into a non negative int, e.g. a length.
+   */
+  int readVarInt() throws IOException {
+    long value = readVarLong();
+    if (value < 0 || value > Integer.MAX_VALUE) {
+      throw new IOException("Invalid length " + value);
+    }
+    return (int) value;
+  }
+
+  /**
+   * Reads a signed varint.
+   */
+  long readZigZag() throws IOException {
+    long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  long readLong() throws IOException {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | readByte();
+    }
+    return value;
+  }
+
+  double readDouble() throws IOException {
+    return Double.longBitsToDouble(readLong());
+  }
+
+  String readString() throws IOException {
+    return readUtf8(readVarInt());
+  }
+
+  @Nullable
+  String readNullableString() throws IOException {
+    int length = readVarInt();
+    return length == 0 ? null : readUtf8(length - 1);
+  }
+
+  /**
+   * Long strings are buffered as they are read, so a corrupt length cannot allocate more than the remaining input.
+   */
+  private String readUtf8(int length) throws IOException {
+    if (length <= MAX_PREALLOCATED) {
+      byte[] bytes = new byte[length];
+      ByteStreams.readFully(in, bytes);
+      return new String(bytes, Charsets.UTF_8);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_PREALLOCATED);
+    if (ByteStreams.copy(ByteStreams.limit(in, length), bytes) < length) {
+      throw new EOFException("String of " + length + " bytes truncated");
+    }
+    return new String(bytes.toByteArray(), Charsets.UTF_8);
+  }
+
+  UUID readUuid() throws IOException {
+    return new UUID(readLong(), readLong());
+  }
+
+  void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,86 @@
+package org.gbif.api.util.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Writes primitive values in the compact binary encoding read by {@link BinaryInput}.
+ * Unsigned numbers are written as base 128 varints, signed numbers are zigzag encoded first so that small negative
+ * numbers stay small. Doubles are written as their 8 raw bytes and strings as their varint length and UTF-8 bytes.
+ */
+class BinaryOutput {
+
+  private final OutputStream out;
+
+  BinaryOutput(OutputStream out) {
+    this.out = out;
+  }
+
+  void writeByte(int b) throws IOException {
+    out.write(b);
+  }
+
+  /**
+   * Writes an unsigned varint.
+   */
+  void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  /**
+   * Writes a signed varint.
+   */
+  void writeZigZag(long value) throws IOException {
+    writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  void writeLong(long value) throws IOException {
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      out.write((int) (value >>> shift));
+    }
+  }
+
+  void writeDouble(double value) throws IOException {
+    writeLong(Double.doubleToLongBits(value));
+  }
+
+  void writeString(String value) throws IOException {
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    writeVarLong(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Writes a string that might be null, using the length 0 for null.
+   */
+  void writeNullableString(@Nullable String value) throws IOException {
+    if (value == null) {
+      writeVarLong(0);
+    } else {
+      byte[] bytes = value.getBytes(Charsets.UTF_8);
+      writeVarLong(bytes.length + 1L);
+      out.write(bytes);
+    }
+  }
+
+  void writeUuid(UUID value) throws IOException {
+    writeLong(value.getMostSignificantBits());
+    writeLong(value.getLeastSignificantBits());
+  }
+
+  void flush() throws IOException {
+    out.flush();
+  }
+
+  void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,174 @@
+package org.gbif.api.util.codec;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A nullable property of a record type in the binary schema, accessed by its getter and setter.
+ * A list of fields is written as a bitmap of the non null fields followed by their values in list order.
+ *
+ * @param <O> the record type
+ */
+final class Field<O> {
+
+  /**
+   * The binary encoding of a value.
+   */
+  private enum Kind {
+    INT, DOUBLE, STRING, DATE, ENUM, UUID, URI
+  }
+
+  private static final int MAX_FIELDS = 64;
+
+  private final Kind kind;
+  private final Enum<?>[] constants;
+  private final Function<O, ?> getter;
+  private final BiConsumer<O, Object> setter;
+
+  private Field(Kind kind, Enum<?>[] constants, Function<O, ?> getter, BiConsumer<O, Object> setter) {
+    this.kind = kind;
+    this.constants = constants;
+    this.getter = getter;
+    this.setter = setter;
+  }
+
+  static <O> Field<O> ints(Function<O, Integer> getter, BiConsumer<O, Integer> setter) {
+    return new Field<O>(Kind.INT, null, getter, (o, v) -> setter.accept(o, (Integer) v));
+  }
+
+  static <O> Field<O> doubles(Function<O, Double> getter, BiConsumer<O, Double> setter) {
+    return new Field<O>(Kind.DOUBLE, null, getter, (o, v) -> setter.accept(o, (Double) v));
+  }
+
+  static <O> Field<O> strings(Function<O, String> getter, BiConsumer<O, String> setter) {
+    return new Field<O>(Kind.STRING, null, getter, (o, v) -> setter.accept(o, (String) v));
+  }
+
+  static <O> Field<O> dates(Function<O, Date> getter, BiConsumer<O, Date> setter) {
+    return new Field<O>(Kind.DATE, null, getter, (o, v) -> setter.accept(o, (Date) v));
+  }
+
+  static <O> Field<O> uuids(Function<O, UUID> getter, BiConsumer<O, UUID> setter) {
+    return new Field<O>(Kind.UUID, null, getter, (o, v) -> setter.accept(o, (UUID) v));
+  }
+
+  static <O> Field<O> uris(Function<O, URI> getter, BiConsumer<O, URI> setter) {
+    return new Field<O>(Kind.URI, null, getter, (o, v) -> setter.accept(o, (URI) v));
+  }
+
+  /**
+   * Enumerations are written as their ordinal.
+   */
+  static <O, E extends Enum<E>> Field<O> enums(Class<E> type, Function<O, E> getter, BiConsumer<O, E> setter) {
+    return new Field<O>(Kind.ENUM, type.getEnumConstants(), getter, (o, v) -> setter.accept(o, type.cast(v)));
+  }
+
+  /**
+   * Makes sure the non null bitmap of the fields fits into a long.
+   *
+   * @return an immutable list of the fields in the given order
+   */
+  @SafeVarargs
+  static <O> List<Field<O>> schema(Field<O>... fields) {
+    Preconditions.checkArgument(fields.length <= MAX_FIELDS, "At most %s fields are supported", MAX_FIELDS);
+    ImmutableList.Builder<Field<O>> schema = ImmutableList.builder();
+    for (Field<O> field : fields) {
+      schema.add(field);
+    }
+    return schema.build();
+  }
+
+  static <O> void writeAll(BinaryOutput out, List<Field<O>> fields, O record) throws IOException {
+    long bitmap = 0;
+    Object[] values = new Object[fields.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = fields.get(i).getter.apply(record);
+      if (values[i] != null) {
+        bitmap |= 1L << i;
+      }
+    }
+    out.writeVarLong(bitmap);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        fields.get(i).write(out, values[i]);
+      }
+    }
+  }
+
+  static <O> void readAll(BinaryInput in, List<Field<O>> fields, O record) throws IOException {
+    long bitmap = in.readVarLong();
+    if (fields.size() < MAX_FIELDS && bitmap >>> fields.size() != 0) {
+      throw new IOException("Unknown fields in bitmap " + Long.toBinaryString(bitmap));
+    }
+    for (int i = 0; i < fields.size(); i++) {
+      if ((bitmap & 1L << i) != 0) {
+        fields.get(i).setter.accept(record, fields.get(i).read(in));
+      }
+    }
+  }
+
+  private void write(BinaryOutput out, Object value) throws IOException {
+    switch (kind) {
+      case INT:
+        out.writeZigZag((Integer) value);
+        break;
+      case DOUBLE:
+        out.writeDouble((Double) value);
+        break;
+      case STRING:
+        out.writeString((String) value);
+        break;
+      case DATE:
+        out.writeZigZag(((Date) value).getTime());
+        break;
+      case ENUM:
+        out.writeVarLong(((Enum<?>) value).ordinal());
+        break;
+      case UUID:
+        out.writeUuid((UUID) value);
+        break;
+      case URI:
+        out.writeString(value.toString());
+        break;
+      default:
+        throw new IllegalStateException("Unknown field kind " + kind);
+    }
+  }
+
+  private Object read(BinaryInput in) throws IOException {
+    switch (kind) {
+      case INT:
+        return (int) in.readZigZag();
+      case DOUBLE:
+        return in.readDouble();
+      case STRING:
+        return in.readString();
+      case DATE:
+        return new Date(in.readZigZag());
+      case ENUM:
+        long ordinal = in.readVarLong();
+        if (ordinal >= constants.length) {
+          throw new IOException("Invalid ordinal " + ordinal + " of " + constants[0].getDeclaringClass().getName());
+        }
+        return constants[(int) ordinal];
+      case UUID:
+        return in.readUuid();
+      case URI:
+        try {
+          return URI.create(in.readString());
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Invalid URI", e);
+        }
+      default:
+        throw new IllegalStateException("Unknown field kind " + kind);
+    }
+  }
+}
@@ -0,0 +1,469 @@
+package org.gbif.api.util.codec;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.common.TermMap;
+import org.gbif.api.model.occurrence.FactOrMeasurment;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.OccurrenceRelation;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Continent;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.EstablishmentMeans;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.LifeStage;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.Sex;
+import org.gbif.api.vocabulary.TypeStatus;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.TermFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * A compact, versioned binary encoding of {@link VerbatimOccurrence} and {@link Occurrence} records for bulk transfer,
+ * e.g. through queues and caches, as a faster and much smaller alternative to JSON.
+ * <br/>
+ * The schema is defined in Java only. Each record is written as bitmaps of its non null properties followed by their
+ * values: integers as zigzag varints, dates as varint milliseconds, enumerations as their ordinal and the issues as a
+ * single bitmask. Verbatim terms are dictionary coded per stream, i.e. the qualified name of a term is only written
+ * the first time it is used and referenced by a number afterwards.
+ * <br/>
+ * As enumerations are written as ordinals the encoding is tied to the API version. The {@link #VERSION} must be
+ * increased whenever the schema or the order of enumeration constants changes, and older streams are rejected.
+ */
+public class OccurrenceCodec {
+
+  public static final int VERSION = 1;
+  // GOCC
+  private static final int MAGIC = 0x474F4343;
+  private static final int END = 0;
+  private static final int VERBATIM = 1;
+  private static final int OCCURRENCE = 2;
+
+  private static final List<Field<VerbatimOccurrence>> VERBATIM_FIELDS = Field.schema(
+    Field.ints(VerbatimOccurrence::getKey, VerbatimOccurrence::setKey),
+    Field.uuids(VerbatimOccurrence::getDatasetKey, VerbatimOccurrence::setDatasetKey),
+    Field.uuids(VerbatimOccurrence::getPublishingOrgKey, VerbatimOccurrence::setPublishingOrgKey),
+    Field.enums(Country.class, VerbatimOccurrence::getPublishingCountry, VerbatimOccurrence::setPublishingCountry),
+    Field.enums(EndpointType.class, VerbatimOccurrence::getProtocol, VerbatimOccurrence::setProtocol),
+    Field.dates(VerbatimOccurrence::getLastCrawled, VerbatimOccurrence::setLastCrawled),
+    Field.dates(VerbatimOccurrence::getLastParsed, VerbatimOccurrence::setLastParsed),
+    Field.ints(VerbatimOccurrence::getCrawlId, VerbatimOccurrence::setCrawlId));
+
+  @SuppressWarnings("deprecation")
+  private static final List<Field<Occurrence>> OCCURRENCE_FIELDS = Field.schema(
+    Field.enums(BasisOfRecord.class, Occurrence::getBasisOfRecord, Occurrence::setBasisOfRecord),
+    Field.ints(Occurrence::getIndividualCount, Occurrence::setIndividualCount),
+    Field.enums(Sex.class, Occurrence::getSex, Occurrence::setSex),
+    Field.enums(LifeStage.class, Occurrence::getLifeStage, Occurrence::setLifeStage),
+    Field.enums(EstablishmentMeans.class, Occurrence::getEstablishmentMeans, Occurrence::setEstablishmentMeans),
+    Field.ints(Occurrence::getTaxonKey, Occurrence::setTaxonKey),
+    Field.ints(Occurrence::getKingdomKey, Occurrence::setKingdomKey),
+    Field.ints(Occurrence::getPhylumKey, Occurrence::setPhylumKey),
+    Field.ints(Occurrence::getClassKey, Occurrence::setClassKey),
+    Field.ints(Occurrence::getOrderKey, Occurrence::setOrderKey),
+    Field.ints(Occurrence::getFamilyKey, Occurrence::setFamilyKey),
+    Field.ints(Occurrence::getGenusKey, Occurrence::setGenusKey),
+    Field.ints(Occurrence::getSubgenusKey, Occurrence::setSubgenusKey),
+    Field.ints(Occurrence::getSpeciesKey, Occurrence::setSpeciesKey),
+    Field.strings(Occurrence::getScientificName, Occurrence::setScientificName),
+    Field.strings(Occurrence::getKingdom, Occurrence::setKingdom),
+    Field.strings(Occurrence::getPhylum, Occurrence::setPhylum),
+    Field.strings(Occurrence::getClazz, Occurrence::setClazz),
+    Field.strings(Occurrence::getOrder, Occurrence::setOrder),
+    Field.strings(Occurrence::getFamily, Occurrence::setFamily),
+    Field.strings(Occurrence::getGenus, Occurrence::setGenus),
+    Field.strings(Occurrence::getSubgenus, Occurrence::setSubgenus),
+    Field.strings(Occurrence::getSpecies, Occurrence::setSpecies),
+    Field.strings(Occurrence::getGenericName, Occurrence::setGenericName),
+    Field.strings(Occurrence::getSpecificEpithet, Occurrence::setSpecificEpithet),
+    Field.strings(Occurrence::getInfraspecificEpithet, Occurrence::setInfraspecificEpithet),
+    Field.enums(Rank.class, Occurrence::getTaxonRank, Occurrence::setTaxonRank),
+    Field.dates(Occurrence::getDateIdentified, Occurrence::setDateIdentified),
+    Field.doubles(Occurrence::getDecimalLongitude, Occurrence::setDecimalLongitude),
+    Field.doubles(Occurrence::getDecimalLatitude, Occurrence::setDecimalLatitude),
+    Field.doubles(Occurrence::getCoordinatePrecision, Occurrence::setCoordinatePrecision),
+    Field.doubles(Occurrence::getCoordinateUncertaintyInMeters, Occurrence::setCoordinateUncertaintyInMeters),
+    Field.doubles(Occurrence::getCoordinateAccuracy, Occurrence::setCoordinateAccuracy),
+    Field.doubles(Occurrence::getElevation, Occurrence::setElevation),
+    Field.doubles(Occurrence::getElevationAccuracy, Occurrence::setElevationAccuracy),
+    Field.doubles(Occurrence::getDepth, Occurrence::setDepth),
+    Field.doubles(Occurrence::getDepthAccuracy, Occurrence::setDepthAccuracy),
+    Field.enums(Continent.class, Occurrence::getContinent, Occurrence::setContinent),
+    Field.enums(Country.class, Occurrence::getCountry, Occurrence::setCountry),
+    Field.strings(Occurrence::getStateProvince, Occurrence::setStateProvince),
+    Field.strings(Occurrence::getWaterBody, Occurrence::setWaterBody),
+    Field.ints(Occurrence::getYear, Occurrence::setYear),
+    Field.ints(Occurrence::getMonth, Occurrence::setMonth),
+    Field.ints(Occurrence::getDay, Occurrence::setDay),
+    Field.dates(Occurrence::getEventDate, Occurrence::setEventDate),
+    Field.enums(TypeStatus.class, Occurrence::getTypeStatus, Occurrence::setTypeStatus),
+    Field.strings(Occurrence::getTypifiedName, Occurrence::setTypifiedName),
+    Field.dates(Occurrence::getModified, Occurrence::setModified),
+    Field.dates(Occurrence::getLastInterpreted, Occurrence::setLastInterpreted),
+    Field.uris(Occurrence::getReferences, Occurrence::setReferences),
+    Field.enums(License.class, Occurrence::getLicense, Occurrence::setLicense));
+
+  private static final List<Field<Identifier>> IDENTIFIER_FIELDS = Field.schema(
+    Field.strings(Identifier::getIdentifier, Identifier::setIdentifier),
+    Field.strings(Identifier::getTitle, Identifier::setTitle),
+    Field.enums(IdentifierType.class, Identifier::getType, Identifier::setType));
+
+  private static final List<Field<MediaObject>> MEDIA_FIELDS = Field.schema(
+    Field.enums(MediaType.class, MediaObject::getType, MediaObject::setType),
+    Field.strings(MediaObject::getFormat, MediaObject::setFormat),
+    Field.uris(MediaObject::getIdentifier, MediaObject::setIdentifier),
+    Field.uris(MediaObject::getReferences, MediaObject::setReferences),
+    Field.strings(MediaObject::getTitle, MediaObject::setTitle),
+    Field.strings(MediaObject::getDescription, MediaObject::setDescription),
+    Field.strings(MediaObject::getSource, MediaObject::setSource),
+    Field.strings(MediaObject::getAudience, MediaObject::setAudience),
+    Field.dates(MediaObject::getCreated, MediaObject::setCreated),
+    Field.strings(MediaObject::getCreator, MediaObject::setCreator),
+    Field.strings(MediaObject::getContributor, MediaObject::setContributor),
+    Field.strings(MediaObject::getPublisher, MediaObject::setPublisher),
+    Field.strings(MediaObject::getLicense, MediaObject::setLicense),
+    Field.strings(MediaObject::getRightsHolder, MediaObject::setRightsHolder));
+
+  private static final List<Field<FactOrMeasurment>> FACT_FIELDS = Field.schema(
+    Field.strings(FactOrMeasurment::getId, FactOrMeasurment::setId),
+    Field.strings(FactOrMeasurment::getType, FactOrMeasurment::setType),
+    Field.strings(FactOrMeasurment::getValue, FactOrMeasurment::setValue),
+    Field.strings(FactOrMeasurment::getUnit, FactOrMeasurment::setUnit),
+    Field.strings(FactOrMeasurment::getAccuracy, FactOrMeasurment::setAccuracy),
+    Field.strings(FactOrMeasurment::getMethod, FactOrMeasurment::setMethod),
+    Field.strings(FactOrMeasurment::getDeterminedBy, FactOrMeasurment::setDeterminedBy),
+    Field.strings(FactOrMeasurment::getDeterminedDate, FactOrMeasurment::setDeterminedDate),
+    Field.strings(FactOrMeasurment::getRemarks, FactOrMeasurment::setRemarks));
+
+  private static final List<Field<OccurrenceRelation>> RELATION_FIELDS = Field.schema(
+    Field.strings(OccurrenceRelation::getId, OccurrenceRelation::setId),
+    Field.ints(OccurrenceRelation::getOccurrenceId, OccurrenceRelation::setOccurrenceId),
+    Field.ints(OccurrenceRelation::getRelatedOccurrenceId, OccurrenceRelation::setRelatedOccurrenceId),
+    Field.strings(OccurrenceRelation::getType, OccurrenceRelation::setType),
+    Field.strings(OccurrenceRelation::getAccordingTo, OccurrenceRelation::setAccordingTo),
+    Field.strings(OccurrenceRelation::getEstablishedDate, OccurrenceRelation::setEstablishedDate),
+    Field.strings(OccurrenceRelation::getRemarks, OccurrenceRelation::setRemarks));
+
+  private static final OccurrenceIssue[] ISSUES = OccurrenceIssue.values();
+  private static final Extension[] EXTENSIONS = Extension.values();
+
+  static {
+    Preconditions.checkState(ISSUES.length <= 64, "Issues do not fit into a long bitmask");
+  }
+
+  private OccurrenceCodec() {
+  }
+
+  /**
+   * Encodes a single verbatim or interpreted occurrence.
+   */
+  public static byte[] encode(VerbatimOccurrence record) {
+    return encodeAll(Collections.singletonList(record));
+  }
+
+  /**
+   * Encodes many verbatim or interpreted occurrences, sharing the term dictionary.
+   */
+  public static byte[] encodeAll(Iterable<? extends VerbatimOccurrence> records) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (Writer writer = new Writer(bytes)) {
+      for (VerbatimOccurrence record : records) {
+        writer.write(record);
+      }
+    } catch (IOException e) {
+      // impossible writing into memory
+      throw Throwables.propagate(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes a single record written by {@link #encode(VerbatimOccurrence)}.
+   *
+   * @return the record, an {@link Occurrence} if an interpreted occurrence was encoded
+   *
+   * @throws IOException if the bytes are no valid encoding of a single record
+   */
+  public static VerbatimOccurrence decode(byte[] bytes) throws IOException {
+    List<VerbatimOccurrence> records = decodeAll(bytes);
+    if (records.size() != 1) {
+      throw new IOException("Expected a single record but found " + records.size());
+    }
+    return records.get(0);
+  }
+
+  /**
+   * Decodes all records written by {@link #encodeAll(Iterable)}.
+   *
+   * @throws IOException if the bytes are no valid encoding
+   */
+  public static List<VerbatimOccurrence> decodeAll(byte[] bytes) throws IOException {
+    List<VerbatimOccurrence> records = new ArrayList<VerbatimOccurrence>();
+    try (Reader reader = new Reader(new ByteArrayInputStream(bytes))) {
+      VerbatimOccurrence record;
+      while ((record = reader.read()) != null) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Writes records to a stream, which is ended when the writer is closed.
+   * Not thread safe.
+   */
+  public static class Writer implements Closeable, Flushable {
+    private final BinaryOutput out;
+    private final Map<Term, Integer> terms = new HashMap<Term, Integer>();
+
+    /**
+     * @param out the stream to write to, which should be buffered
+     */
+    public Writer(OutputStream out) throws IOException {
+      this.out = new BinaryOutput(out);
+      this.out.writeLong((long) MAGIC << 32 | VERSION);
+    }
+
+    public void write(VerbatimOccurrence record) throws IOException {
+      Preconditions.checkNotNull(record, "Record may not be null");
+      boolean interpreted = record instanceof Occurrence;
+      out.writeByte(interpreted ? OCCURRENCE : VERBATIM);
+      Field.writeAll(out, VERBATIM_FIELDS, record);
+      writeTerms(record.getVerbatimFields());
+      writeExtensions(record.getExtensions());
+      if (interpreted) {
+        Occurrence occ = (Occurrence) record;
+        Field.writeAll(out, OCCURRENCE_FIELDS, occ);
+        long issues = 0;
+        for (OccurrenceIssue issue : occ.getIssues()) {
+          issues |= 1L << issue.ordinal();
+        }
+        out.writeVarLong(issues);
+        writeList(IDENTIFIER_FIELDS, occ.getIdentifiers());
+        writeList(MEDIA_FIELDS, occ.getMedia());
+        writeList(FACT_FIELDS, occ.getFacts());
+        writeList(RELATION_FIELDS, occ.getRelations());
+      }
+    }
+
+    private void writeTerms(@Nullable Map<Term, String> fields) throws IOException {
+      if (fields == null) {
+        out.writeVarLong(0);
+        return;
+      }
+      out.writeVarLong(fields.size());
+      for (Map.Entry<Term, String> field : fields.entrySet()) {
+        Integer code = terms.get(field.getKey());
+        if (code == null) {
+          // 0 introduces a new term, referenced by its number from then on
+          out.writeVarLong(0);
+          out.writeString(field.getKey().qualifiedName());
+          terms.put(field.getKey(), terms.size() + 1);
+        } else {
+          out.writeVarLong(code);
+        }
+        out.writeNullableString(field.getValue());
+      }
+    }
+
+    private void writeExtensions(@Nullable Map<Extension, List<Map<Term, String>>> extensions) throws IOException {
+      if (extensions == null) {
+        out.writeVarLong(0);
+        return;
+      }
+      out.writeVarLong(extensions.size());
+      for (Map.Entry<Extension, List<Map<Term, String>>> ext : extensions.entrySet()) {
+        out.writeVarLong(ext.getKey().ordinal());
+        List<Map<Term, String>> rows = ext.getValue() == null ? Collections.<Map<Term, String>>emptyList()
+                                                              : ext.getValue();
+        out.writeVarLong(rows.size());
+        for (Map<Term, String> row : rows) {
+          writeTerms(row);
+        }
+      }
+    }
+
+    private <T> void writeList(List<Field<T>> fields, @Nullable List<T> values) throws IOException {
+      if (values == null) {
+        out.writeVarLong(0);
+        return;
+      }
+      out.writeVarLong(values.size());
+      for (T value : values) {
+        Field.writeAll(out, fields, value);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    /**
+     * Ends the stream and closes the underlying output stream.
+     */
+    @Override
+    public void close() throws IOException {
+      out.writeByte(END);
+      out.close();
+    }
+  }
+
+  /**
+   * Reads records from a stream written by a {@link Writer}.
+   * Not thread safe.
+   */
+  public static class Reader implements Closeable {
+    private final BinaryInput in;
+    private final List<Term> terms = new ArrayList<Term>();
+    private boolean ended;
+
+    /**
+     * @param in the stream to read from, which should be buffered
+     *
+     * @throws IOException if the stream does not start with a supported header
+     */
+    public Reader(InputStream in) throws IOException {
+      this.in = new BinaryInput(in);
+      long header = this.in.readLong();
+      if (header >>> 32 != MAGIC) {
+        throw new IOException("Not an occurrence stream");
+      }
+      if ((int) header != VERSION) {
+        throw new IOException("Unsupported occurrence stream version " + (int) header);
+      }
+    }
+
+    /**
+     * @return the next record, an {@link Occurrence} for interpreted records, or null at the end of the stream
+     *
+     * @throws IOException if the stream is corrupt or ends unexpectedly
+     */
+    @Nullable
+    public VerbatimOccurrence read() throws IOException {
+      if (ended) {
+        return null;
+      }
+      int type;
+      try {
+        type = in.readByte();
+      } catch (EOFException e) {
+        throw new IOException("Occurrence stream ended unexpectedly", e);
+      }
+      if (type == END) {
+        ended = true;
+        return null;
+      }
+      if (type != VERBATIM && type != OCCURRENCE) {
+        throw new IOException("Unknown record type " + type);
+      }
+
+      VerbatimOccurrence record = type == OCCURRENCE ? new Occurrence() : new VerbatimOccurrence();
+      Field.readAll(in, VERBATIM_FIELDS, record);
+      record.setVerbatimFields(readTerms());
+      record.setExtensions(readExtensions());
+      if (type == OCCURRENCE) {
+        Occurrence occ = (Occurrence) record;
+        Field.readAll(in, OCCURRENCE_FIELDS, occ);
+        long issues = in.readVarLong();
+        Set<OccurrenceIssue> issueSet = EnumSet.noneOf(OccurrenceIssue.class);
+        for (int i = 0; i < 64 && issues >>> i != 0; i++) {
+          if ((issues & 1L << i) != 0) {
+            if (i >= ISSUES.length) {
+              throw new IOException("Invalid issue ordinal " + i);
+            }
+            issueSet.add(ISSUES[i]);
+          }
+        }
+        occ.setIssues(issueSet);
+        occ.setIdentifiers(readList(IDENTIFIER_FIELDS, Identifier::new));
+        occ.setMedia(readList(MEDIA_FIELDS, MediaObject::new));
+        occ.setFacts(readList(FACT_FIELDS, FactOrMeasurment::new));
+        occ.setRelations(readList(RELATION_FIELDS, OccurrenceRelation::new));
+      }
+      return record;
+    }
+
+    private Map<Term, String> readTerms() throws IOException {
+      int size = in.readVarInt();
+      Map<Term, String> fields = new TermMap();
+      for (int i = 0; i < size; i++) {
+        int code = in.readVarInt();
+        Term term;
+        if (code == 0) {
+          term = TermFactory.instance().findTerm(in.readString());
+          terms.add(term);
+        } else if (code <= terms.size()) {
+          term = terms.get(code - 1);
+        } else {
+          throw new IOException("Unknown term number " + code);
+        }
+        fields.put(term, in.readNullableString());
+      }
+      return fields;
+    }
+
+    private Map<Extension, List<Map<Term, String>>> readExtensions() throws IOException {
+      int size = in.readVarInt();
+      Map<Extension, List<Map<Term, String>>> extensions = Maps.newHashMapWithExpectedSize(size);
+      for (int i = 0; i < size; i++) {
+        int ordinal = in.readVarInt();
+        if (ordinal >= EXTENSIONS.length) {
+          throw new IOException("Invalid extension ordinal " + ordinal);
+        }
+        int rows = in.readVarInt();
+        List<Map<Term, String>> data = Lists.newArrayListWithCapacity(Math.min(rows, 1024));
+        for (int r = 0; r < rows; r++) {
+          data.add(readTerms());
+        }
+        extensions.put(EXTENSIONS[ordinal], data);
+      }
+      return extensions;
+    }
+
+    private <T> List<T> readList(List<Field<T>> fields, Supplier<T> constructor) throws IOException {
+      int size = in.readVarInt();
+      List<T> values = Lists.newArrayListWithCapacity(Math.min(size, 1024));
+      for (int i = 0; i < size; i++) {
+        T value = constructor.get();
+        Field.readAll(in, fields, value);
+        values.add(value);
+      }
+      return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package org.gbif.api.util.download;
+
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.occurrence.Download;
+import org.gbif.api.model.occurrence.DownloadRequest;
+import org.gbif.api.service.occurrence.DownloadRequestService;
+import org.gbif.api.service.registry.OccurrenceDownloadService;
+import org.gbif.api.util.predicate.PredicateFingerprint;
+
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DownloadRequestService} decorator that avoids recomputing downloads with an equivalent filter.
+ * Requests are identified by the {@link PredicateFingerprint} of their predicate and format. If a download with the
+ * same fingerprint is still running or has succeeded within the maximum age, its key is returned instead of
+ * creating a new download.
+ * <br/>
+ * Fingerprints of the downloads created or reused are cached. For unknown fingerprints the most recent downloads
+ * listed by the {@link OccurrenceDownloadService} are searched before a new download is created.
+ * Concurrent requests with the same fingerprint create a single download only.
+ * <br/>
+ * Note that a reused download keeps its original creator and notification addresses, so the decorator is best
+ * suited for requests that do not rely on them.
+ */
+public class ReusingDownloadRequestService implements DownloadRequestService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReusingDownloadRequestService.class);
+  private static final int PAGE_SIZE = 100;
+  private static final Set<Download.Status> REUSABLE_STATUSES;
+
+  static {
+    Set<Download.Status> statuses = EnumSet.copyOf(Download.Status.EXECUTING_STATUSES);
+    statuses.add(Download.Status.SUCCEEDED);
+    REUSABLE_STATUSES = statuses;
+  }
+
+  private final DownloadRequestService delegate;
+  private final OccurrenceDownloadService downloadService;
+  private final long maxAge;
+  private final int lookback;
+  private final Cache<String, String> keys;
+
+  /**
+   * @param delegate the service creating new downloads
+   * @param downloadService used to look up existing downloads
+   * @param maxAge maximum age of a download to be reused, as the data changes over time
+   * @param unit time unit of the maxAge
+   * @param lookback maximum number of recent downloads searched for an unknown fingerprint, 0 to disable
+   */
+  public ReusingDownloadRequestService(DownloadRequestService delegate, OccurrenceDownloadService downloadService,
+                                       long maxAge, TimeUnit unit, int lookback) {
+    Preconditions.checkArgument(maxAge > 0, "maxAge must be positive");
+    Preconditions.checkArgument(lookback >= 0, "lookback must not be negative");
+    this.delegate = Preconditions.checkNotNull(delegate, "delegate may not be null");
+    this.downloadService = Preconditions.checkNotNull(downloadService, "downloadService may not be null");
+    this.maxAge = unit.toMillis(maxAge);
+    this.lookback = lookback;
+    this.keys = CacheBuilder.newBuilder().maximumSize(10000).expireAfterWrite(maxAge, unit).build();
+  }
+
+  @Override
+  public void cancel(@NotNull String downloadKey) {
+    delegate.cancel(downloadKey);
+  }
+
+  /**
+   * Returns the key of a reusable download with an equivalent filter and format or creates a new download.
+   */
+  @Override
+  public String create(@NotNull final DownloadRequest downloadRequest) {
+    final String fingerprint = PredicateFingerprint.fingerprint(downloadRequest.getPredicate(),
+                                                                downloadRequest.getFormat());
+    String key = keys.getIfPresent(fingerprint);
+    if (key != null) {
+      if (isReusable(downloadService.get(key))) {
+        LOG.debug("Reuse download {} for request {}", key, downloadRequest);
+        return key;
+      }
+      keys.invalidate(fingerprint);
+    }
+    try {
+      return keys.get(fingerprint, () -> findOrCreate(fingerprint, downloadRequest));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  @Nullable
+  @Override
+  public InputStream getResult(String downloadKey) {
+    return delegate.getResult(downloadKey);
+  }
+
+  /**
+   * Removes all cached fingerprints, e.g. after the occurrence index has been rebuilt.
+   */
+  public void invalidateAll() {
+    keys.invalidateAll();
+  }
+
+  private String findOrCreate(String fingerprint, DownloadRequest downloadRequest) {
+    String key = find(fingerprint);
+    if (key != null) {
+      LOG.debug("Reuse existing download {} for request {}", key, downloadRequest);
+      return key;
+    }
+    return delegate.create(downloadRequest);
+  }
+
+  /**
+   * Searches the most recent downloads for a reusable one with the given fingerprint.
+   */
+  @Nullable
+  private String find(String fingerprint) {
+    PagingRequest page = new PagingRequest(0, Math.min(PAGE_SIZE, Math.max(lookback, 1)));
+    long searched = 0;
+    while (searched < lookback) {
+      PagingResponse<Download> resp = downloadService.list(page, REUSABLE_STATUSES);
+      for (Download d : resp.getResults()) {
+        if (isReusable(d) && fingerprint.equals(fingerprint(d))) {
+          return d.getKey();
+        }
+      }
+      searched += resp.getResults().size();
+      if (resp.isEndOfRecords() || resp.getResults().isEmpty()) {
+        break;
+      }
+      page.nextPage();
+    }
+    return null;
+  }
+
+  /**
+   * @return the fingerprint of a listed download or null if its stored request cannot be fingerprinted
+   */
+  @Nullable
+  private static String fingerprint(Download download) {
+    try {
+      return PredicateFingerprint.fingerprint(download.getRequest().getPredicate(), download.getRequest().getFormat());
+    } catch (IllegalArgumentException | NullPointerException e) {
+      LOG.warn("Cannot fingerprint request of download {}: {}", download.getKey(), e.getMessage());
+      return null;
+    }
+  }
+
+  private boolean isReusable(@Nullable Download download) {
+    return download != null && download.getRequest() != null && download.getCreated() != null
+           && REUSABLE_STATUSES.contains(download.getStatus())
+           && System.currentTimeMillis() - download.getCreated().getTime() <= maxAge;
+  }
+}
@@ -4,18 +4,35 @@ import org.gbif.api.model.common.paging.PagingRequest;
 import org.gbif.api.model.common.paging.PagingResponse;
 import org.gbif.api.model.registry.NetworkEntity;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Iterator over registry entities from paging responses that filters out deleted entities.
+ * By default pages are loaded synchronously once the current page is used up.
+ * Use {@link #prefetch(Executor, int)}, or {@link Iterables#prefetch(Iterable, Executor, int)} for the iterables of the
+ * public factory, to load the following pages in the background instead.
+ * <br/>
+ * Empty pages that are not flagged as the end of records are skipped and paging continues with the next page.
  */
 abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
     private static final Logger LOG = LoggerFactory.getLogger(EntityPager.class);
     private final int pageSize;
+    private Executor executor;
+    private int prefetchPages;
 
     /**
      * @param pageSize to use when talking to the registry
@@ -25,13 +42,99 @@ abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
         this.pageSize = pageSize;
     }
 
-    class ResponseIterator implements Iterator<T>{
+    /**
+     * Switches this pager into an asynchronous mode that requests up to the given number of pages ahead
+     * of the page currently being iterated over. Entities are still returned in order and filtered as usual.
+     * Affects only iterators created after this call.
+     *
+     * @param executor the executor used to load pages in the background, null to switch back to synchronous paging
+     * @param pages maximum number of pages requested ahead, i.e. the size of the page buffer
+     */
+    public void prefetch(@Nullable Executor executor, int pages) {
+        Preconditions.checkArgument(executor == null || pages > 0, "pages must at least be 1");
+        this.executor = executor;
+        this.prefetchPages = pages;
+    }
+
+    /**
+     * Source of consecutive pages.
+     */
+    interface PageSource<T> {
+        PagingResponse<T> next();
+    }
+
+    /**
+     * Loads the next page only when asked for it.
+     */
+    class SyncPageSource implements PageSource<T> {
         private final PagingRequest page = new PagingRequest(0, pageSize);
+
+        @Override
+        public PagingResponse<T> next() {
+            LOG.debug("Loading page {}-{}", page.getOffset(), page.getOffset()+page.getLimit());
+            PagingResponse<T> resp = nextPage(page);
+            page.nextPage();
+            return resp;
+        }
+    }
+
+    /**
+     * Keeps a bounded buffer of pages requested in the background.
+     * As page offsets are known in advance, requests do not need to wait for the previous page to arrive.
+     */
+    class PrefetchPageSource implements PageSource<T> {
+        private final Executor exec;
+        private final int bufferSize;
+        private final Deque<Future<PagingResponse<T>>> buffer = new ArrayDeque<Future<PagingResponse<T>>>();
+        private long offset = 0;
+
+        PrefetchPageSource(Executor exec, int bufferSize) {
+            this.exec = exec;
+            this.bufferSize = bufferSize;
+            fill();
+        }
+
+        private void fill() {
+            while (buffer.size() < bufferSize) {
+                final PagingRequest page = new PagingRequest(offset, pageSize);
+                LOG.debug("Requesting page {}-{}", page.getOffset(), page.getOffset()+page.getLimit());
+                buffer.add(CompletableFuture.supplyAsync(() -> nextPage(page), exec));
+                offset += pageSize;
+            }
+        }
+
+        @Override
+        public PagingResponse<T> next() {
+            PagingResponse<T> resp;
+            try {
+                resp = buffer.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for registry page", e);
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+            if (resp.isEndOfRecords()) {
+                // no need for any pages beyond this one
+                for (Future<PagingResponse<T>> f : buffer) {
+                    f.cancel(false);
+                }
+                buffer.clear();
+            } else {
+                fill();
+            }
+            return resp;
+        }
+    }
+
+    class ResponseIterator implements Iterator<T>{
+        private final PageSource<T> source;
         private PagingResponse<T> resp = null;
         private Iterator<T> iter;
         private T next;
 
-        public ResponseIterator() {
+        public ResponseIterator(PageSource<T> source) {
+            this.source = source;
             loadPage();
             next = nextEntity();
         }
@@ -60,28 +163,37 @@ abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
                         // no more records to load, stop!
                         return null;
                     } else {
+                        // pages might be empty without being the last one
                         loadPage();
+                        continue;
                     }
                 }
                 T entity = iter.next();
-                if (entity.getDeleted() != null) {
-                    LOG.debug("Ignore deleted entity {}: {}", entity.getKey(), entity.getTitle().replaceAll("\n", " "));
-                } else if (!exclude(entity)) {
+                if (accept(entity)) {
                     return entity;
                 }
             }
         }
 
         private void loadPage() {
-            LOG.debug("Loading page {}-{}", page.getOffset(), page.getOffset()+page.getLimit());
-            resp = nextPage(page);
+            resp = source.next();
             iter = resp.getResults().iterator();
-            page.nextPage();
         }
     }
 
     abstract PagingResponse<T> nextPage(PagingRequest page);
 
+    /**
+     * @return true if the entity is neither deleted nor excluded
+     */
+    boolean accept(T entity) {
+        if (entity.getDeleted() != null) {
+            LOG.debug("Ignore deleted entity {}: {}", entity.getKey(), entity.getTitle().replaceAll("\n", " "));
+            return false;
+        }
+        return !exclude(entity);
+    }
+
     /**
      * Override this method to implement other exclusion filters.
      */
@@ -91,7 +203,21 @@ abstract class EntityPager<T extends NetworkEntity> implements Iterable<T> {
 
     @Override
     public Iterator<T> iterator() {
-        return new ResponseIterator();
+        if (executor == null) {
+            return new ResponseIterator(new SyncPageSource());
+        }
+        return new ResponseIterator(new PrefetchPageSource(executor, prefetchPages));
+    }
+
+    /**
+     * Returns a stream over all entities which can be split by offset ranges for parallel processing.
+     * Each split pages through its own slice of records, so parallel streams query the registry concurrently.
+     * Splitting relies on the total count reported by the registry, without it the stream is processed sequentially.
+     *
+     * @param parallel if true a parallel stream is returned
+     */
+    public Stream<T> stream(boolean parallel) {
+        return StreamSupport.stream(new PagingSpliterator<T>(this, pageSize), parallel);
     }
 
 }
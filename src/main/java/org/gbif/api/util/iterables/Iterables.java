@@ -13,8 +13,11 @@ import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.DatasetType;
 
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,31 +56,54 @@ public class Iterables {
     public static Iterable<Dataset> datasets(@Nullable UUID key, @Nullable DatasetType type,
                                              DatasetService ds, OrganizationService os, InstallationService is,
                                              NetworkService ns, NodeService nos, int pageSize) {
+        return datasets(key, type, new RegistryKeyResolver(ds, os, is, ns, nos), pageSize);
+    }
+
+    /**
+     * Returns a dataset iterable by resolving the type of the given registry key first with the given resolver.
+     * In case of an organization key the published datasets will be returned.
+     *
+     * @param key a valid dataset, organization, installation, node or network key. If null all datasets will be iterated over
+     * @param resolver the resolver, potentially caching, to identify the type of key with
+     * @param pageSize to use when talking to the registry
+     * @throws IllegalArgumentException if given key is not existing
+     */
+    public static Iterable<Dataset> datasets(@Nullable UUID key, @Nullable DatasetType type,
+                                             RegistryKeyResolver resolver, int pageSize) {
         if (key == null) {
             LOG.info("Iterate over all {} datasets", type == null ? "" : type);
-            return new DatasetPager(ds, type, pageSize);
-
-        } else if (isDataset(key, ds)) {
-            LOG.info("Iterate over dataset {}", key);
-            return ImmutableList.of(ds.get(key));
-
-        } else if (isOrganization(key, os)) {
-            LOG.info("Iterate over all {} datasets published by {}", type == null ? "" : type, key);
-            return new OrgPublishingPager(os, key, type, pageSize);
-
-        } else if (isInstallation(key, is)) {
-            LOG.info("Iterate over all {} datasets hosted by installation {}", type == null ? "" : type, key);
-            return new InstallationPager(is, key, type, pageSize);
-
-        } else if (isNode(key, nos)) {
-            LOG.info("Iterate over all {} datasets endorsed by node {}", type == null ? "" : type, key);
-            return new NetworkPager(ns, key, type, pageSize);
+            return new DatasetPager(resolver.ds, type, pageSize);
+        }
 
-        } else if (isNetwork(key, ns)) {
-            LOG.info("Iterate over all {} datasets belonging to network {}", type == null ? "" : type, key);
-            return new NodeDatasetPager(nos, key, type, pageSize);
+        RegistryKeyResolver.Resolution resolution = resolver.resolveEntity(key);
+        if (resolution == null) {
+            throw new IllegalArgumentException("Given key is no valid GBIF registry key: " + key);
+        }
+        switch (resolution.type) {
+            case DATASET:
+                LOG.info("Iterate over dataset {}", key);
+                // reuse the dataset loaded to resolve the key
+                return ImmutableList.of(resolution.entity == null ? resolver.ds.get(key) : (Dataset) resolution.entity);
+
+            case ORGANIZATION:
+                LOG.info("Iterate over all {} datasets published by {}", type == null ? "" : type, key);
+                return new OrgPublishingPager(resolver.os, key, type, pageSize);
+
+            case INSTALLATION:
+                LOG.info("Iterate over all {} datasets hosted by installation {}", type == null ? "" : type, key);
+                return new InstallationPager(resolver.is, key, type, pageSize);
+
+            case NODE:
+                LOG.info("Iterate over all {} datasets endorsed by node {}", type == null ? "" : type, key);
+                return new NodeDatasetPager(resolver.nos, key, type, pageSize);
+
+            case NETWORK:
+                LOG.info("Iterate over all {} datasets belonging to network {}", type == null ? "" : type, key);
+                return new NetworkPager(resolver.ns, key, type, pageSize);
+
+            default:
+                throw new IllegalArgumentException("Given key is no valid GBIF registry key: " + key);
         }
-        throw new IllegalArgumentException("Given key is no valid GBIF registry key: " + key);
     }
 
     /**
@@ -88,6 +114,18 @@ public class Iterables {
         return new DatasetPager(service, type, PagingConstants.DEFAULT_PARAM_LIMIT);
     }
 
+    /**
+     * Stream variant of {@link #datasets(DatasetType, DatasetService)} that can be split by offset ranges
+     * and consumed in parallel.
+     *
+     * @param type an optional filter to just include the given dataset type
+     * @param parallel if true a parallel stream is returned
+     */
+    public static Stream<Dataset> datasetStream(@Nullable DatasetType type, DatasetService service, boolean parallel) {
+        LOG.info("Stream over all {} datasets", type == null ? "" : type);
+        return new DatasetPager(service, type, PagingConstants.DEFAULT_PARAM_LIMIT).stream(parallel);
+    }
+
     /**
      * @param key a valid organization key
      * @param type an optional filter to just include the given dataset type
@@ -150,6 +188,19 @@ public class Iterables {
         return new OrganizationPager(service, country, PagingConstants.DEFAULT_PARAM_LIMIT);
     }
 
+    /**
+     * Stream variant of {@link #organizations(Country, OrganizationService)} that can be split by offset ranges
+     * and consumed in parallel.
+     *
+     * @param country an optional country filter
+     * @param parallel if true a parallel stream is returned
+     */
+    public static Stream<Organization> organizationStream(@Nullable Country country, OrganizationService service,
+                                                          boolean parallel) {
+        LOG.info("Stream over all organizations {}", country == null ? "" : "from country "+country);
+        return new OrganizationPager(service, country, PagingConstants.DEFAULT_PARAM_LIMIT).stream(parallel);
+    }
+
     /**
      * @param nodeKey a valid endorsing node key
      */
@@ -166,23 +217,31 @@ public class Iterables {
         return new NodePager(service, PagingConstants.DEFAULT_PARAM_LIMIT);
     }
 
-    private static boolean isDataset(UUID key, DatasetService ds) {
-        return ds.get(key) != null;
-    }
-
-    private static boolean isOrganization(UUID key, OrganizationService os) {
-        return os.get(key) != null;
-    }
-
-    private static boolean isInstallation(UUID key, InstallationService is) {
-        return is.get(key) != null;
-    }
-
-    private static boolean isNetwork(UUID key, NetworkService ns) {
-        return ns.get(key) != null;
+    /**
+     * Stream over all endorsing nodes that can be split by offset ranges and consumed in parallel.
+     *
+     * @param parallel if true a parallel stream is returned
+     */
+    public static Stream<Node> nodeStream(NodeService service, boolean parallel) {
+        LOG.info("Stream over all nodes");
+        return new NodePager(service, PagingConstants.DEFAULT_PARAM_LIMIT).stream(parallel);
     }
 
-    private static boolean isNode(UUID key, NodeService ns) {
-        return ns.get(key) != null;
+    /**
+     * Makes the registry iterables returned by this factory load the following pages in the background while
+     * iterating, see {@link EntityPager#prefetch(Executor, int)}. Any other iterable, e.g. the single dataset of a
+     * dataset key, is returned unchanged.
+     *
+     * @param iterable an iterable returned by this factory
+     * @param executor the executor used to load pages in the background
+     * @param pages maximum number of pages requested ahead
+     * @return the given iterable
+     */
+    public static <T> Iterable<T> prefetch(Iterable<T> iterable, Executor executor, int pages) {
+        Preconditions.checkNotNull(executor, "executor can't be null");
+        if (iterable instanceof EntityPager) {
+            ((EntityPager<?>) iterable).prefetch(executor, pages);
+        }
+        return iterable;
     }
 }
@@ -0,0 +1,117 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.NetworkEntity;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spliterator over a pager that can be split by offset ranges, each split paging through its own slice.
+ * Splitting requires the total count of records which is taken from the first page loaded.
+ * If the registry does not report a count the spliterator cannot be split and is consumed sequentially.
+ */
+class PagingSpliterator<T extends NetworkEntity> implements Spliterator<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(PagingSpliterator.class);
+    private static final long UNKNOWN = -1;
+
+    private final EntityPager<T> pager;
+    private final int pageSize;
+    // offset of the next page to be loaded
+    private long offset;
+    // exclusive end offset of this slice
+    private long end;
+    private boolean started;
+    private boolean lastPage;
+    private Iterator<T> iter;
+
+    PagingSpliterator(EntityPager<T> pager, int pageSize) {
+        this.pager = pager;
+        this.pageSize = pageSize;
+        this.offset = 0;
+        this.end = UNKNOWN;
+        this.started = false;
+    }
+
+    private PagingSpliterator(EntityPager<T> pager, int pageSize, long offset, long end, @Nullable Iterator<T> iter) {
+        this.pager = pager;
+        this.pageSize = pageSize;
+        this.offset = offset;
+        this.end = end;
+        this.iter = iter;
+        this.started = true;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (true) {
+            if (iter == null || !iter.hasNext()) {
+                if (!loadPage()) {
+                    return false;
+                }
+                continue;
+            }
+            T entity = iter.next();
+            if (pager.accept(entity)) {
+                action.accept(entity);
+                return true;
+            }
+        }
+    }
+
+    private boolean loadPage() {
+        if (lastPage || (end != UNKNOWN && offset >= end)) {
+            iter = null;
+            return false;
+        }
+        LOG.debug("Loading page {}-{}", offset, offset + pageSize);
+        PagingResponse<T> resp = pager.nextPage(new PagingRequest(offset, pageSize));
+        if (end == UNKNOWN && resp.getCount() != null) {
+            end = resp.getCount();
+        }
+        started = true;
+        offset += pageSize;
+        lastPage = resp.isEndOfRecords();
+        iter = resp.getResults().iterator();
+        return true;
+    }
+
+    /**
+     * Splits off the current page and the first half of the remaining pages, keeping the rest of the slice.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        if (!started) {
+            // we need the total count to split
+            loadPage();
+        }
+        if (end == UNKNOWN || lastPage) {
+            return null;
+        }
+        long pages = (end - offset + pageSize - 1) / pageSize;
+        if (pages < 2) {
+            return null;
+        }
+        long mid = offset + (pages / 2) * pageSize;
+        Spliterator<T> prefix = new PagingSpliterator<T>(pager, pageSize, offset, mid, iter);
+        offset = mid;
+        iter = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end == UNKNOWN ? Long.MAX_VALUE : Math.max(0, end - offset);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
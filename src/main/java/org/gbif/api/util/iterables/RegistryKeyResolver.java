@@ -0,0 +1,193 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.service.registry.DatasetService;
+import org.gbif.api.service.registry.InstallationService;
+import org.gbif.api.service.registry.NetworkService;
+import org.gbif.api.service.registry.NodeService;
+import org.gbif.api.service.registry.OrganizationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves a registry key to the type of entity it identifies by asking the registry services in turn.
+ * Resolved types are kept in a size bounded cache with an expiry time, unknown keys are never cached.
+ * If an executor is given all services are queried concurrently and the first entity found wins.
+ */
+public class RegistryKeyResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(RegistryKeyResolver.class);
+
+    /**
+     * The registry entity types a key can be resolved to.
+     */
+    public enum EntityType {
+        DATASET, ORGANIZATION, INSTALLATION, NODE, NETWORK
+    }
+
+    final DatasetService ds;
+    final OrganizationService os;
+    final InstallationService is;
+    final NetworkService ns;
+    final NodeService nos;
+    private final Cache<UUID, EntityType> cache;
+    private final Executor executor;
+
+    /**
+     * Creates a sequential resolver without any cache.
+     */
+    public RegistryKeyResolver(DatasetService ds, OrganizationService os, InstallationService is,
+                               NetworkService ns, NodeService nos) {
+        this(ds, os, is, ns, nos, 0, 0, TimeUnit.SECONDS, null);
+    }
+
+    /**
+     * @param maxSize maximum number of cached keys, 0 to disable caching
+     * @param ttl time a resolved key is kept in the cache
+     * @param unit time unit of the ttl
+     * @param executor if given all lookups for a key are executed concurrently on it
+     */
+    public RegistryKeyResolver(DatasetService ds, OrganizationService os, InstallationService is,
+                               NetworkService ns, NodeService nos,
+                               long maxSize, long ttl, TimeUnit unit, @Nullable Executor executor) {
+        Preconditions.checkArgument(maxSize >= 0, "maxSize must not be negative");
+        this.ds = ds;
+        this.os = os;
+        this.is = is;
+        this.ns = ns;
+        this.nos = nos;
+        this.executor = executor;
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxSize);
+        if (ttl > 0) {
+            builder.expireAfterWrite(ttl, unit);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * The entity type of a key together with the entity loaded to find it, which is null for cached types.
+     */
+    static class Resolution {
+        final EntityType type;
+        @Nullable
+        final Object entity;
+
+        Resolution(EntityType type, @Nullable Object entity) {
+            this.type = type;
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * @return the entity type of the given key or null if the key is not known to the registry
+     */
+    @Nullable
+    public EntityType resolve(UUID key) {
+        Resolution resolution = resolveEntity(key);
+        return resolution == null ? null : resolution.type;
+    }
+
+    /**
+     * Like {@link #resolve(UUID)}, but keeps the entity loaded while resolving an uncached key so callers
+     * do not need to load it again.
+     */
+    @Nullable
+    Resolution resolveEntity(UUID key) {
+        Preconditions.checkNotNull(key, "key can't be null");
+        EntityType type = cache.getIfPresent(key);
+        if (type != null) {
+            return new Resolution(type, null);
+        }
+        Resolution resolution = executor == null ? resolveSequentially(key) : resolveConcurrently(key);
+        if (resolution != null) {
+            cache.put(key, resolution.type);
+        }
+        return resolution;
+    }
+
+    /**
+     * Removes all cached keys.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Resolution resolveSequentially(UUID key) {
+        for (EntityType type : EntityType.values()) {
+            Object entity = load(type, key);
+            if (entity != null) {
+                return new Resolution(type, entity);
+            }
+        }
+        return null;
+    }
+
+    private Resolution resolveConcurrently(final UUID key) {
+        CompletionService<Resolution> completion = new ExecutorCompletionService<Resolution>(executor);
+        List<Future<Resolution>> futures = new ArrayList<Future<Resolution>>();
+        for (final EntityType type : EntityType.values()) {
+            futures.add(completion.submit(new Callable<Resolution>() {
+                @Override
+                public Resolution call() {
+                    Object entity = load(type, key);
+                    return entity == null ? null : new Resolution(type, entity);
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Resolution resolution = completion.take().get();
+                if (resolution != null) {
+                    return resolution;
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving registry key " + key, e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            for (Future<Resolution> f : futures) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return the entity of the given type with the key or null if it does not exist
+     */
+    @Nullable
+    private Object load(EntityType type, UUID key) {
+        LOG.debug("Check if {} is a {}", key, type);
+        switch (type) {
+            case DATASET:
+                return ds.get(key);
+            case ORGANIZATION:
+                return os.get(key);
+            case INSTALLATION:
+                return is.get(key);
+            case NODE:
+                return nos.get(key);
+            case NETWORK:
+                return ns.get(key);
+            default:
+                throw new IllegalArgumentException("Unknown entity type " + type);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.gbif.api.util.metrics;
+
+import org.gbif.api.model.metrics.cube.CubeAddress;
+import org.gbif.api.model.metrics.cube.Dimension;
+import org.gbif.api.model.metrics.cube.ReadBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes the values of a cube dimension into consecutive integer codes.
+ * Values can be looked up by their typed value, their {@link ReadBuilder} string or from a {@link CubeAddress}.
+ * Not thread safe.
+ */
+abstract class Dictionary {
+
+  /**
+   * @param openBits the bits available for codes of dimensions without a finite set of values
+   *
+   * @return a new dictionary for the dimension
+   */
+  static Dictionary of(Dimension<?> dim, int openBits) {
+    Class<?> type = dim.getType();
+    if (Boolean.class.equals(type) || type.isEnum()) {
+      return new FiniteDictionary(ReadBuilder.sliceValues(dim));
+    } else if (Integer.class.equals(type)) {
+      return new IntDictionary(1 << openBits);
+    } else if (UUID.class.equals(type) || String.class.equals(type)) {
+      return new ObjectDictionary(type, 1 << openBits);
+    }
+    throw new IllegalArgumentException("Unsupported cube dimension type " + type);
+  }
+
+  /**
+   * @return the number of bits needed for all codes
+   */
+  abstract int bits();
+
+  /**
+   * @return the code of the typed value or -1 if unknown
+   */
+  abstract int code(Object value);
+
+  /**
+   * @return the code of the value encoded as in a {@link ReadBuilder} address or -1 if unknown
+   */
+  abstract int code(String addressValue);
+
+  /**
+   * @return the code of the value of the given dimension bit of the address or -1 if unknown
+   */
+  abstract int code(CubeAddress address, int bit);
+
+  /**
+   * @return the code of the typed value, adding it if unknown
+   *
+   * @throws IllegalStateException if the dictionary is full
+   */
+  abstract int add(Object value);
+
+  /**
+   * @return the code of the value encoded as in a {@link ReadBuilder} address, adding it if unknown
+   */
+  abstract int addAddressValue(String addressValue);
+
+  /**
+   * @return all values encoded as in a {@link ReadBuilder} address in the order of their codes
+   */
+  abstract List<String> addressValues();
+
+  private static IllegalStateException full(int capacity) {
+    return new IllegalStateException("More than " + capacity + " distinct values for a cube dimension");
+  }
+
+  /**
+   * Booleans and enumerations, which use the order of {@link ReadBuilder#sliceValues(Dimension)} as codes,
+   * i.e. 0 for false and 1 for true and the ordinal of enumeration constants.
+   */
+  private static class FiniteDictionary extends Dictionary {
+    private final List<String> values = new ArrayList<String>();
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+
+    private FiniteDictionary(List<?> constants) {
+      for (Object c : constants) {
+        String value = ReadBuilder.addressValue(c);
+        codes.put(value, values.size());
+        values.add(value);
+      }
+    }
+
+    @Override
+    int bits() {
+      return Math.max(1, 32 - Integer.numberOfLeadingZeros(values.size() - 1));
+    }
+
+    @Override
+    int code(Object value) {
+      if (value instanceof Boolean) {
+        return (Boolean) value ? 1 : 0;
+      }
+      return ((Enum<?>) value).ordinal();
+    }
+
+    @Override
+    int code(String addressValue) {
+      Integer code = codes.get(addressValue);
+      return code == null ? -1 : code;
+    }
+
+    @Override
+    int code(CubeAddress address, int bit) {
+      return (int) address.getPrimitive(bit);
+    }
+
+    @Override
+    int add(Object value) {
+      return code(value);
+    }
+
+    @Override
+    int addAddressValue(String addressValue) {
+      return code(addressValue);
+    }
+
+    @Override
+    List<String> addressValues() {
+      return values;
+    }
+  }
+
+  /**
+   * Integers, looked up in a primitive map without boxing.
+   */
+  private static class IntDictionary extends Dictionary {
+    // maps the unsigned value to its code + 1, as absent keys give 0
+    private final LongCountMap codes = new LongCountMap();
+    private final int capacity;
+    private int[] values = new int[16];
+    private int size;
+
+    private IntDictionary(int capacity) {
+      this.capacity = capacity;
+    }
+
+    @Override
+    int bits() {
+      return Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private int code(int value) {
+      return (int) codes.get(value & 0xFFFFFFFFL) - 1;
+    }
+
+    @Override
+    int code(Object value) {
+      return code(((Integer) value).intValue());
+    }
+
+    @Override
+    int code(String addressValue) {
+      try {
+        return code(Integer.parseInt(addressValue));
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+
+    @Override
+    int code(CubeAddress address, int bit) {
+      return code((int) address.getPrimitive(bit));
+    }
+
+    @Override
+    int add(Object value) {
+      int v = (Integer) value;
+      int code = code(v);
+      if (code < 0) {
+        if (size == capacity) {
+          throw full(capacity);
+        }
+        if (size == values.length) {
+          values = Arrays.copyOf(values, size * 2);
+        }
+        code = size;
+        values[size++] = v;
+        codes.add(v & 0xFFFFFFFFL, code + 1);
+      }
+      return code;
+    }
+
+    @Override
+    int addAddressValue(String addressValue) {
+      return add(Integer.valueOf(addressValue));
+    }
+
+    @Override
+    List<String> addressValues() {
+      List<String> list = new ArrayList<String>(size);
+      for (int i = 0; i < size; i++) {
+        list.add(String.valueOf(values[i]));
+      }
+      return list;
+    }
+  }
+
+  /**
+   * UUIDs and strings, looked up in a hash map.
+   */
+  private static class ObjectDictionary extends Dictionary {
+    private final Map<Object, Integer> codes = new HashMap<Object, Integer>();
+    private final List<Object> values = new ArrayList<Object>();
+    private final Class<?> type;
+    private final int capacity;
+
+    private ObjectDictionary(Class<?> type, int capacity) {
+      this.type = type;
+      this.capacity = capacity;
+    }
+
+    @Override
+    int bits() {
+      return Integer.numberOfTrailingZeros(capacity);
+    }
+
+    @Override
+    int code(Object value) {
+      Integer code = codes.get(value);
+      return code == null ? -1 : code;
+    }
+
+    @Override
+    int code(String addressValue) {
+      try {
+        return code(parse(addressValue));
+      } catch (IllegalArgumentException e) {
+        return -1;
+      }
+    }
+
+    @Override
+    int code(CubeAddress address, int bit) {
+      return code(address.getObject(bit));
+    }
+
+    @Override
+    int add(Object value) {
+      Integer code = codes.get(value);
+      if (code == null) {
+        if (values.size() == capacity) {
+          throw full(capacity);
+        }
+        code = values.size();
+        codes.put(value, code);
+        values.add(value);
+      }
+      return code;
+    }
+
+    @Override
+    int addAddressValue(String addressValue) {
+      return add(parse(addressValue));
+    }
+
+    private Object parse(String addressValue) {
+      return UUID.class.equals(type) ? UUID.fromString(addressValue) : addressValue;
+    }
+
+    @Override
+    List<String> addressValues() {
+      List<String> list = new ArrayList<String>(values.size());
+      for (Object v : values) {
+        list.add(v.toString());
+      }
+      return list;
+    }
+  }
+}
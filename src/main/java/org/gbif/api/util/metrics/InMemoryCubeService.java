@@ -0,0 +1,469 @@
+package org.gbif.api.util.metrics;
+
+import org.gbif.api.model.metrics.cube.CubeAddress;
+import org.gbif.api.model.metrics.cube.Dimension;
+import org.gbif.api.model.metrics.cube.OccurrenceCube;
+import org.gbif.api.model.metrics.cube.ReadBuilder;
+import org.gbif.api.model.metrics.cube.Rollup;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.service.metrics.CubeService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An embeddable {@link CubeService} for the {@link OccurrenceCube}, counting occurrences in memory.
+ * <br/>
+ * All dimension values are dictionary encoded into small integer codes. Boolean and enumeration dimensions use the
+ * order of {@link ReadBuilder#sliceValues(Dimension)} as codes, all other dimensions number their values in order of
+ * appearance. Reads by a {@link CubeAddress} look up typed values directly, without any string conversion.
+ * For each rollup the codes of a cell are packed into a single long, which keys a primitive hash map of counts.
+ * Occurrences count once for each value of the multi valued dimensions, i.e. for each of their issues and each taxon
+ * key of their classification, and are not counted in rollups with a dimension they have no value for.
+ * <br/>
+ * Counts are maintained incrementally by adding and removing occurrences. The whole cube can be written to a memory
+ * mapped snapshot file and restored from it, avoiding a recount after a restart.
+ * <br/>
+ * Reads and updates are thread safe, reads run concurrently.
+ */
+public class InMemoryCubeService implements CubeService {
+
+  // codes of dimensions without a finite set of values, e.g. taxon keys, use at most 24 bits
+  private static final int OPEN_DIMENSION_BITS = 24;
+  private static final int MAGIC = 0x47435542;
+  private static final int VERSION = 1;
+
+  private static final Map<Dimension<?>, Function<Occurrence, ?>> VALUES =
+    ImmutableMap.<Dimension<?>, Function<Occurrence, ?>>builder()
+      .put(OccurrenceCube.COUNTRY, Occurrence::getCountry)
+      .put(OccurrenceCube.IS_GEOREFERENCED, o -> o.getDecimalLatitude() != null && o.getDecimalLongitude() != null
+                                                 && !o.hasSpatialIssue())
+      .put(OccurrenceCube.BASIS_OF_RECORD, Occurrence::getBasisOfRecord)
+      .put(OccurrenceCube.PUBLISHING_COUNTRY, Occurrence::getPublishingCountry)
+      .put(OccurrenceCube.DATASET_KEY, Occurrence::getDatasetKey)
+      .put(OccurrenceCube.TAXON_KEY, o -> Arrays.asList(o.getKingdomKey(), o.getPhylumKey(), o.getClassKey(),
+        o.getOrderKey(), o.getFamilyKey(), o.getGenusKey(), o.getSubgenusKey(), o.getSpeciesKey(), o.getTaxonKey()))
+      .put(OccurrenceCube.PROTOCOL, Occurrence::getProtocol)
+      .put(OccurrenceCube.YEAR, Occurrence::getYear)
+      .put(OccurrenceCube.TYPE_STATUS, Occurrence::getTypeStatus)
+      .put(OccurrenceCube.ISSUE, Occurrence::getIssues)
+      .build();
+
+  private final List<Dimension<?>> dimensions = OccurrenceCube.DIMENSIONS;
+  private final Dictionary[] dictionaries;
+  private final List<RollupCounts> rollups = new ArrayList<RollupCounts>();
+  // rollups indexed by the bit mask of their dimensions
+  private final RollupCounts[] byMask;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private long total;
+
+  /**
+   * Creates an empty cube.
+   */
+  public InMemoryCubeService() {
+    int[] widths = new int[dimensions.size()];
+    dictionaries = new Dictionary[dimensions.size()];
+    for (int i = 0; i < dimensions.size(); i++) {
+      dictionaries[i] = Dictionary.of(dimensions.get(i), OPEN_DIMENSION_BITS);
+      widths[i] = dictionaries[i].bits();
+    }
+
+    byMask = new RollupCounts[1 << dimensions.size()];
+    for (Rollup rollup : OccurrenceCube.ROLLUPS) {
+      RollupCounts counts = new RollupCounts(rollup, widths);
+      rollups.add(counts);
+      byMask[(int) counts.mask] = counts;
+    }
+  }
+
+  /**
+   * Adds an occurrence to all counts.
+   */
+  public void add(Occurrence occurrence) {
+    update(Collections.singleton(occurrence), 1);
+  }
+
+  /**
+   * Adds all occurrences to the counts, taking the write lock only once.
+   */
+  public void addAll(Iterable<Occurrence> occurrences) {
+    update(occurrences, 1);
+  }
+
+  /**
+   * Removes a previously added occurrence from all counts, e.g. before adding its updated version.
+   */
+  public void remove(Occurrence occurrence) {
+    update(Collections.singleton(occurrence), -1);
+  }
+
+  /**
+   * Encodes all occurrences before any count is changed, so a null occurrence or a full dictionary fails the whole
+   * update and leaves the counts untouched. Values added to the dictionaries before the failure stay without counts.
+   */
+  private void update(Iterable<Occurrence> occurrences, long delta) {
+    lock.writeLock().lock();
+    try {
+      List<int[][]> encoded = new ArrayList<int[][]>();
+      for (Occurrence occurrence : occurrences) {
+        Preconditions.checkNotNull(occurrence, "Occurrence may not be null");
+        int[][] codes = new int[dimensions.size()][];
+        for (int i = 0; i < codes.length; i++) {
+          codes[i] = codes(i, VALUES.get(dimensions.get(i)).apply(occurrence), delta > 0);
+        }
+        encoded.add(codes);
+      }
+      for (int[][] codes : encoded) {
+        for (RollupCounts rollup : rollups) {
+          rollup.add(codes, 0, 0L, delta);
+        }
+      }
+      total += delta * encoded.size();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the distinct codes of a single or multi valued value, adding new values to the dictionary if requested
+   */
+  private int[] codes(int dim, Object value, boolean create) {
+    Collection<?> values = value instanceof Collection ? (Collection<?>) value : Collections.singleton(value);
+    int[] codes = new int[values.size()];
+    int size = 0;
+    for (Object v : values) {
+      if (v != null) {
+        int code = create ? dictionaries[dim].add(v) : dictionaries[dim].code(v);
+        if (code >= 0 && !contains(codes, size, code)) {
+          codes[size++] = code;
+        }
+      }
+    }
+    return size == codes.length ? codes : Arrays.copyOf(codes, size);
+  }
+
+  private static boolean contains(int[] codes, int size, int code) {
+    for (int i = 0; i < size; i++) {
+      if (codes[i] == code) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Looks up the count of an address. An empty address returns the count of all occurrences.
+   */
+  @Override
+  public long get(ReadBuilder addressBuilder) throws IllegalArgumentException {
+    Map<Dimension<?>, String> address = addressBuilder.build();
+    lock.readLock().lock();
+    try {
+      return address.isEmpty() ? total : read(resolve(address.keySet(), null), address);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Looks up the count of a typed address without any allocation. An empty address returns the count of all
+   * occurrences.
+   *
+   * @throws IllegalArgumentException Should the address not belong to the occurrence cube or not exist in it
+   */
+  public long get(CubeAddress address) throws IllegalArgumentException {
+    Preconditions.checkArgument(address.getDimensions().equals(dimensions), "Address of a different cube");
+    long mask = address.getMask();
+    RollupCounts rollup = mask == 0 ? null : byMask[(int) mask];
+    if (mask != 0 && rollup == null) {
+      throw new IllegalArgumentException("No rollup exists for dimensions "
+                                         + OccurrenceCube.ROLLUP_RESOLVER.dimensions(mask));
+    }
+    lock.readLock().lock();
+    try {
+      if (rollup == null) {
+        return total;
+      }
+      long key = rollup.key(address, dictionaries);
+      return key < 0 ? 0 : rollup.counts.get(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long[] getAll(List<ReadBuilder> addressBuilders) throws IllegalArgumentException {
+    long[] results = new long[addressBuilders.size()];
+    lock.readLock().lock();
+    try {
+      for (int i = 0; i < results.length; i++) {
+        Map<Dimension<?>, String> address = addressBuilders.get(i).build();
+        // the rollup is a plain array lookup by the mask of the address
+        results[i] = address.isEmpty() ? total : read(resolve(address.keySet(), null), address);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return results;
+  }
+
+  @Override
+  public long[] getSlice(ReadBuilder addressBuilder, Dimension<?> dimension) throws IllegalArgumentException {
+    Map<Dimension<?>, String> address = addressBuilder.build();
+    Preconditions.checkArgument(!address.containsKey(dimension), "The address already contains dimension %s",
+                                dimension.getKey());
+    int size = ReadBuilder.sliceValues(dimension).size();
+    RollupCounts rollup = resolve(address.keySet(), dimension);
+    long[] results = new long[size];
+    lock.readLock().lock();
+    try {
+      long key = rollup.key(address, dictionaries);
+      if (key >= 0) {
+        // codes of finite dimensions are their position in the slice
+        int shift = rollup.shift(dimension);
+        for (int i = 0; i < size; i++) {
+          results[i] = rollup.counts.get(key | (long) i << shift);
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return results;
+  }
+
+  @Override
+  public List<Rollup> getSchema() {
+    return OccurrenceCube.ROLLUPS;
+  }
+
+  private RollupCounts resolve(Collection<Dimension<?>> address, Dimension<?> sliced) {
+    long mask = OccurrenceCube.ROLLUP_RESOLVER.mask(address);
+    if (sliced != null) {
+      mask |= 1L << OccurrenceCube.ROLLUP_RESOLVER.bit(sliced);
+    }
+    RollupCounts rollup = byMask[(int) mask];
+    if (rollup == null) {
+      throw new IllegalArgumentException("No rollup exists for dimensions "
+                                         + OccurrenceCube.ROLLUP_RESOLVER.dimensions(mask));
+    }
+    return rollup;
+  }
+
+  private long read(RollupCounts rollup, Map<Dimension<?>, String> address) {
+    long key = rollup.key(address, dictionaries);
+    return key < 0 ? 0 : rollup.counts.get(key);
+  }
+
+  /**
+   * Writes all counts and dictionaries to a memory mapped file, replacing any existing content.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public void snapshot(File file) throws IOException {
+    lock.readLock().lock();
+    try {
+      List<List<byte[]>> values = new ArrayList<List<byte[]>>(dictionaries.length);
+      long size = 3 * 4 + 8;
+      for (int i = 0; i < dictionaries.length; i++) {
+        size += 4 + 4 + dimensions.get(i).getKey().getBytes(Charsets.UTF_8).length;
+        List<byte[]> encoded = new ArrayList<byte[]>();
+        for (String value : dictionaries[i].addressValues()) {
+          encoded.add(value.getBytes(Charsets.UTF_8));
+          size += 4 + encoded.get(encoded.size() - 1).length;
+        }
+        values.add(encoded);
+      }
+      size += 4;
+      for (RollupCounts rollup : rollups) {
+        size += 8 + 4 + 16L * rollup.counts.size();
+      }
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Cube too large for a snapshot: " + size + " bytes");
+      }
+
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                  StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(total).putInt(dictionaries.length);
+        for (int i = 0; i < dictionaries.length; i++) {
+          putBytes(buffer, dimensions.get(i).getKey().getBytes(Charsets.UTF_8));
+          buffer.putInt(values.get(i).size());
+          for (byte[] value : values.get(i)) {
+            putBytes(buffer, value);
+          }
+        }
+        buffer.putInt(rollups.size());
+        for (RollupCounts rollup : rollups) {
+          buffer.putLong(rollup.mask).putInt(rollup.counts.size());
+          for (int slot = 0; slot < rollup.counts.slots(); slot++) {
+            if (rollup.counts.keyAt(slot) >= 0) {
+              buffer.putLong(rollup.counts.keyAt(slot)).putLong(rollup.counts.countAt(slot));
+            }
+          }
+        }
+        buffer.force();
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Restores a cube from a snapshot file written by {@link #snapshot(File)}.
+   *
+   * @throws IOException if the file cannot be read or is not a snapshot of the current cube definition
+   */
+  public static InMemoryCubeService restore(File file) throws IOException {
+    InMemoryCubeService cube = new InMemoryCubeService();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("Not a cube snapshot: " + file);
+      }
+      cube.total = buffer.getLong();
+      if (buffer.getInt() != cube.dimensions.size()) {
+        throw new IOException("Snapshot dimensions differ from the cube: " + file);
+      }
+      for (int i = 0; i < cube.dimensions.size(); i++) {
+        if (!cube.dimensions.get(i).getKey().equals(getString(buffer))) {
+          throw new IOException("Snapshot dimensions differ from the cube: " + file);
+        }
+        Dictionary dictionary = cube.dictionaries[i];
+        int count = buffer.getInt();
+        for (int code = 0; code < count; code++) {
+          // values of finite dimensions are already present and must have the same code
+          if (dictionary.addAddressValue(getString(buffer)) != code) {
+            throw new IOException("Snapshot values differ from the cube dimension " + cube.dimensions.get(i).getKey());
+          }
+        }
+      }
+      int rollupCount = buffer.getInt();
+      for (int r = 0; r < rollupCount; r++) {
+        long mask = buffer.getLong();
+        RollupCounts rollup = mask >= 0 && mask < cube.byMask.length ? cube.byMask[(int) mask] : null;
+        if (rollup == null) {
+          throw new IOException("Snapshot rollups differ from the cube: " + file);
+        }
+        int entries = buffer.getInt();
+        for (int e = 0; e < entries; e++) {
+          rollup.counts.add(buffer.getLong(), buffer.getLong());
+        }
+      }
+    } catch (BufferUnderflowException | IllegalArgumentException | IllegalStateException e) {
+      throw new IOException("Corrupt cube snapshot: " + file, e);
+    }
+    return cube;
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putInt(bytes.length).put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+  /**
+   * The counts of a rollup keyed by the packed codes of its dimensions.
+   */
+  private static class RollupCounts {
+    private final long mask;
+    // positions of the rollup dimensions within the cube dimensions and the bit offset of their codes
+    private final int[] dims;
+    private final int[] shifts;
+    private final LongCountMap counts = new LongCountMap();
+
+    private RollupCounts(Rollup rollup, int[] widths) {
+      mask = OccurrenceCube.ROLLUP_RESOLVER.mask(rollup.getDimensions());
+      dims = new int[rollup.getDimensions().size()];
+      shifts = new int[dims.length];
+      int shift = 0;
+      int i = 0;
+      for (int dim = 0; dim < widths.length; dim++) {
+        if ((mask & 1L << dim) != 0) {
+          dims[i] = dim;
+          shifts[i++] = shift;
+          shift += widths[dim];
+        }
+      }
+      // keys must stay positive
+      Preconditions.checkState(shift < 64, "Dimension codes of rollup %s exceed 63 bits", rollup);
+    }
+
+    /**
+     * Adds the delta to all cells of the cartesian product of the codes.
+     */
+    private void add(int[][] codes, int i, long key, long delta) {
+      if (i == dims.length) {
+        counts.add(key, delta);
+        return;
+      }
+      for (int code : codes[dims[i]]) {
+        add(codes, i + 1, key | (long) code << shifts[i], delta);
+      }
+    }
+
+    /**
+     * @return the packed key of the address, ignoring dimensions missing from it, or -1 for unknown values
+     */
+    private long key(Map<Dimension<?>, String> address, Dictionary[] dictionaries) {
+      long key = 0;
+      for (int i = 0; i < dims.length; i++) {
+        String value = address.get(OccurrenceCube.DIMENSIONS.get(dims[i]));
+        if (value != null) {
+          int code = dictionaries[dims[i]].code(value);
+          if (code < 0) {
+            return -1;
+          }
+          key |= (long) code << shifts[i];
+        }
+      }
+      return key;
+    }
+
+    /**
+     * @return the packed key of the typed address or -1 for unknown values
+     */
+    private long key(CubeAddress address, Dictionary[] dictionaries) {
+      long key = 0;
+      for (int i = 0; i < dims.length; i++) {
+        int code = dictionaries[dims[i]].code(address, dims[i]);
+        if (code < 0) {
+          return -1;
+        }
+        key |= (long) code << shifts[i];
+      }
+      return key;
+    }
+
+    private int shift(Dimension<?> dimension) {
+      int bit = OccurrenceCube.ROLLUP_RESOLVER.bit(dimension);
+      for (int i = 0; i < dims.length; i++) {
+        if (dims[i] == bit) {
+          return shifts[i];
+        }
+      }
+      throw new IllegalArgumentException("Dimension " + dimension.getKey() + " is not part of rollup");
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package org.gbif.api.util.metrics;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from non negative long keys to long counts, avoiding any boxing.
+ * Not thread safe.
+ */
+class LongCountMap {
+
+  private static final long EMPTY = -1L;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private long[] counts;
+  private int shift;
+  private int size;
+
+  LongCountMap() {
+    allocate(16);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    counts = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    shift = 64 - Integer.numberOfTrailingZeros(capacity);
+  }
+
+  private int slot(long key) {
+    int mask = keys.length - 1;
+    int i = (int) ((key * GOLDEN_RATIO) >>> shift);
+    while (keys[i] != EMPTY && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  /**
+   * @return the count of the key, 0 if absent
+   */
+  long get(long key) {
+    int i = slot(key);
+    return keys[i] == key ? counts[i] : 0;
+  }
+
+  /**
+   * Adds the delta to the count of the key, creating it if absent.
+   */
+  void add(long key, long delta) {
+    int i = slot(key);
+    if (keys[i] == EMPTY) {
+      keys[i] = key;
+      size++;
+    }
+    counts[i] += delta;
+    if (size * 2 > keys.length) {
+      rehash();
+    }
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    long[] oldCounts = counts;
+    allocate(keys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        counts[slot] = oldCounts[i];
+      }
+    }
+  }
+
+  /**
+   * @return the number of keys
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of slots, which can be iterated with {@link #keyAt(int)} and {@link #countAt(int)}
+   */
+  int slots() {
+    return keys.length;
+  }
+
+  /**
+   * @return the key of the slot or a negative number for an empty slot
+   */
+  long keyAt(int slot) {
+    return keys[slot];
+  }
+
+  long countAt(int slot) {
+    return counts[slot];
+  }
+}
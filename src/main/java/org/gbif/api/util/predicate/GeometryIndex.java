@@ -0,0 +1,130 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.predicate.CompoundPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+/**
+ * An index over the geometries of many {@link WithinPredicate}s answering which of them cover a point.
+ * The envelopes of all geometries are kept in a packed R-tree (STR-tree), so a lookup only tests the few prepared
+ * geometries whose envelope contains the point instead of all of them.
+ * Points on the boundary of a geometry are covered by it, like in the {@link PredicateCompiler}.
+ * <br/>
+ * The index is immutable and thread safe once built.
+ */
+public class GeometryIndex {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private final STRtree tree = new STRtree();
+  private final int size;
+
+  /**
+   * @param geometries the geometries to index, duplicates are indexed only once
+   */
+  public GeometryIndex(Collection<WithinPredicate> geometries) {
+    Preconditions.checkNotNull(geometries, "Geometries may not be null");
+    Set<WithinPredicate> distinct = new LinkedHashSet<WithinPredicate>(geometries);
+    for (WithinPredicate within : distinct) {
+      tree.insert(within.getEnvelope(), within);
+    }
+    size = distinct.size();
+    // building the tree up front makes all later queries read only
+    tree.build();
+  }
+
+  /**
+   * Builds an index of all geometries found anywhere in the predicate tree, i.e. all {@link WithinPredicate}s and
+   * the values of equals and in predicates on the {@link OccurrenceSearchParameter#GEOMETRY}.
+   * Note that the index ignores how the geometries are combined, including negations.
+   *
+   * @param predicate the predicate tree
+   *
+   * @return the index of all geometries of the tree
+   */
+  public static GeometryIndex of(Predicate predicate) {
+    List<WithinPredicate> geometries = new ArrayList<WithinPredicate>();
+    collect(predicate, geometries);
+    return new GeometryIndex(geometries);
+  }
+
+  private static void collect(Predicate predicate, List<WithinPredicate> geometries) {
+    if (predicate instanceof CompoundPredicate) {
+      for (Predicate p : ((CompoundPredicate) predicate).getPredicates()) {
+        collect(p, geometries);
+      }
+
+    } else if (predicate instanceof NotPredicate) {
+      collect(((NotPredicate) predicate).getPredicate(), geometries);
+
+    } else if (predicate instanceof WithinPredicate) {
+      geometries.add((WithinPredicate) predicate);
+
+    } else if (predicate instanceof EqualsPredicate
+               && OccurrenceSearchParameter.GEOMETRY == ((EqualsPredicate) predicate).getKey()) {
+      geometries.add(new WithinPredicate(((EqualsPredicate) predicate).getValue()));
+
+    } else if (predicate instanceof InPredicate
+               && OccurrenceSearchParameter.GEOMETRY == ((InPredicate) predicate).getKey()) {
+      for (String wkt : ((InPredicate) predicate).getValues()) {
+        geometries.add(new WithinPredicate(wkt));
+      }
+    }
+  }
+
+  /**
+   * @return true if any of the indexed geometries covers the point
+   */
+  public boolean covers(double latitude, double longitude) {
+    if (size == 0) {
+      return false;
+    }
+    Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+    for (Object candidate : tree.query(point.getEnvelopeInternal())) {
+      if (((WithinPredicate) candidate).getPreparedGeometry().covers(point)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return all indexed geometries covering the point, possibly empty
+   */
+  public List<WithinPredicate> coveringGeometries(double latitude, double longitude) {
+    List<WithinPredicate> covering = new ArrayList<WithinPredicate>();
+    if (size > 0) {
+      Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+      for (Object candidate : tree.query(point.getEnvelopeInternal())) {
+        if (((WithinPredicate) candidate).getPreparedGeometry().covers(point)) {
+          covering.add((WithinPredicate) candidate);
+        }
+      }
+    }
+    return covering;
+  }
+
+  /**
+   * @return the number of distinct geometries indexed
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,129 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Reads the values of occurrence search parameters from an {@link Occurrence}.
+ * Most parameters map to a single interpreted property, some are derived from several properties
+ * and a few are only available as verbatim terms.
+ * Multi valued parameters return an {@link Iterable} of values which may contain nulls.
+ */
+final class OccurrenceFields {
+
+  private static final Map<OccurrenceSearchParameter, Function<Occurrence, ?>> EXTRACTORS = buildExtractors();
+
+  private static final Set<OccurrenceSearchParameter> MULTI_VALUED = EnumSet.of(OccurrenceSearchParameter.TAXON_KEY,
+                                                                                OccurrenceSearchParameter.ISSUE,
+                                                                                OccurrenceSearchParameter.MEDIA_TYPE);
+
+  private static final Set<OccurrenceSearchParameter> VERBATIM = EnumSet.of(OccurrenceSearchParameter.INSTITUTION_CODE,
+                                                                            OccurrenceSearchParameter.COLLECTION_CODE,
+                                                                            OccurrenceSearchParameter.CATALOG_NUMBER,
+                                                                            OccurrenceSearchParameter.RECORDED_BY,
+                                                                            OccurrenceSearchParameter.RECORD_NUMBER,
+                                                                            OccurrenceSearchParameter.OCCURRENCE_ID,
+                                                                            OccurrenceSearchParameter.ORGANISM_ID,
+                                                                            OccurrenceSearchParameter.LOCALITY);
+
+  private OccurrenceFields() {
+  }
+
+  /**
+   * @return the function reading the parameter value(s) from an occurrence
+   * @throws IllegalArgumentException if the parameter cannot be read from an occurrence
+   */
+  static Function<Occurrence, ?> extractor(OccurrenceSearchParameter param) {
+    Function<Occurrence, ?> extractor = EXTRACTORS.get(param);
+    if (extractor == null) {
+      throw new IllegalArgumentException("Search parameter " + param + " cannot be evaluated against occurrences");
+    }
+    return extractor;
+  }
+
+  /**
+   * @return true if the extractor of the parameter returns an Iterable of values
+   */
+  static boolean isMultiValued(OccurrenceSearchParameter param) {
+    return MULTI_VALUED.contains(param);
+  }
+
+  /**
+   * @return a relative cost of reading the parameter, 1 for a simple property
+   */
+  static int cost(OccurrenceSearchParameter param) {
+    return MULTI_VALUED.contains(param) || VERBATIM.contains(param) ? 2 : 1;
+  }
+
+  private static Function<Occurrence, String> verbatim(final Term term) {
+    return o -> o.getVerbatimField(term);
+  }
+
+  private static Map<OccurrenceSearchParameter, Function<Occurrence, ?>> buildExtractors() {
+    Map<OccurrenceSearchParameter, Function<Occurrence, ?>> map =
+      new EnumMap<OccurrenceSearchParameter, Function<Occurrence, ?>>(OccurrenceSearchParameter.class);
+    map.put(OccurrenceSearchParameter.DATASET_KEY, Occurrence::getDatasetKey);
+    map.put(OccurrenceSearchParameter.YEAR, Occurrence::getYear);
+    map.put(OccurrenceSearchParameter.MONTH, Occurrence::getMonth);
+    map.put(OccurrenceSearchParameter.EVENT_DATE, Occurrence::getEventDate);
+    map.put(OccurrenceSearchParameter.LAST_INTERPRETED, Occurrence::getLastInterpreted);
+    map.put(OccurrenceSearchParameter.DECIMAL_LATITUDE, Occurrence::getDecimalLatitude);
+    map.put(OccurrenceSearchParameter.DECIMAL_LONGITUDE, Occurrence::getDecimalLongitude);
+    map.put(OccurrenceSearchParameter.COUNTRY, Occurrence::getCountry);
+    map.put(OccurrenceSearchParameter.CONTINENT, Occurrence::getContinent);
+    map.put(OccurrenceSearchParameter.PUBLISHING_COUNTRY, Occurrence::getPublishingCountry);
+    map.put(OccurrenceSearchParameter.ELEVATION, Occurrence::getElevation);
+    map.put(OccurrenceSearchParameter.DEPTH, Occurrence::getDepth);
+    map.put(OccurrenceSearchParameter.INSTITUTION_CODE, verbatim(DwcTerm.institutionCode));
+    map.put(OccurrenceSearchParameter.COLLECTION_CODE, verbatim(DwcTerm.collectionCode));
+    map.put(OccurrenceSearchParameter.CATALOG_NUMBER, verbatim(DwcTerm.catalogNumber));
+    map.put(OccurrenceSearchParameter.RECORDED_BY, verbatim(DwcTerm.recordedBy));
+    map.put(OccurrenceSearchParameter.RECORD_NUMBER, verbatim(DwcTerm.recordNumber));
+    map.put(OccurrenceSearchParameter.BASIS_OF_RECORD, Occurrence::getBasisOfRecord);
+    // a taxon key matches any rank of the classification
+    map.put(OccurrenceSearchParameter.TAXON_KEY, o -> Arrays.asList(o.getTaxonKey(), o.getKingdomKey(),
+      o.getPhylumKey(), o.getClassKey(), o.getOrderKey(), o.getFamilyKey(), o.getGenusKey(), o.getSubgenusKey(),
+      o.getSpeciesKey()));
+    map.put(OccurrenceSearchParameter.KINGDOM_KEY, Occurrence::getKingdomKey);
+    map.put(OccurrenceSearchParameter.PHYLUM_KEY, Occurrence::getPhylumKey);
+    map.put(OccurrenceSearchParameter.CLASS_KEY, Occurrence::getClassKey);
+    map.put(OccurrenceSearchParameter.ORDER_KEY, Occurrence::getOrderKey);
+    map.put(OccurrenceSearchParameter.FAMILY_KEY, Occurrence::getFamilyKey);
+    map.put(OccurrenceSearchParameter.GENUS_KEY, Occurrence::getGenusKey);
+    map.put(OccurrenceSearchParameter.SUBGENUS_KEY, Occurrence::getSubgenusKey);
+    map.put(OccurrenceSearchParameter.SPECIES_KEY, Occurrence::getSpeciesKey);
+    map.put(OccurrenceSearchParameter.SCIENTIFIC_NAME, Occurrence::getScientificName);
+    map.put(OccurrenceSearchParameter.HAS_COORDINATE,
+            o -> o.getDecimalLatitude() != null && o.getDecimalLongitude() != null);
+    map.put(OccurrenceSearchParameter.HAS_GEOSPATIAL_ISSUE, Occurrence::hasSpatialIssue);
+    map.put(OccurrenceSearchParameter.ISSUE, Occurrence::getIssues);
+    map.put(OccurrenceSearchParameter.TYPE_STATUS, Occurrence::getTypeStatus);
+    map.put(OccurrenceSearchParameter.MEDIA_TYPE, o -> Lists.transform(o.getMedia(), MediaObject::getType));
+    map.put(OccurrenceSearchParameter.OCCURRENCE_ID, verbatim(DwcTerm.occurrenceID));
+    map.put(OccurrenceSearchParameter.ESTABLISHMENT_MEANS, Occurrence::getEstablishmentMeans);
+    // only known if both countries are known
+    map.put(OccurrenceSearchParameter.REPATRIATED, o -> o.getCountry() == null || o.getPublishingCountry() == null
+      ? null : o.getCountry() != o.getPublishingCountry());
+    map.put(OccurrenceSearchParameter.ORGANISM_ID, verbatim(DwcTerm.organismID));
+    map.put(OccurrenceSearchParameter.STATE_PROVINCE, Occurrence::getStateProvince);
+    map.put(OccurrenceSearchParameter.WATER_BODY, Occurrence::getWaterBody);
+    map.put(OccurrenceSearchParameter.LOCALITY, verbatim(DwcTerm.locality));
+    map.put(OccurrenceSearchParameter.PROTOCOL, Occurrence::getProtocol);
+    map.put(OccurrenceSearchParameter.LICENSE, Occurrence::getLicense);
+    map.put(OccurrenceSearchParameter.PUBLISHING_ORG, Occurrence::getPublishingOrgKey);
+    // GEOMETRY is evaluated on the coordinates and CRAWL_ID is a UUID parameter while occurrences hold an integer
+    return map;
+  }
+}
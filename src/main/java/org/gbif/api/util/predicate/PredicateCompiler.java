@@ -0,0 +1,546 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.predicate.CompoundPredicate;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.LikePredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.SimplePredicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.util.IsoDateParsingUtils;
+import org.gbif.api.util.SearchTypeValidator;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.vocabulary.Country;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+
+/**
+ * Compiles occurrence download {@link Predicate} trees into {@link java.util.function.Predicate}s that evaluate
+ * them in memory against {@link Occurrence} objects, e.g. to filter a stream of occurrences.
+ * <br/>
+ * All values are parsed once at compile time: {@link InPredicate} values become hash sets,
+ * {@link LikePredicate} patterns are compiled or reduced to plain string comparisons and {@link WithinPredicate}
+ * geometries are prepared for fast repeated point tests. Disjunctions of many geometries share a {@link GeometryIndex}.
+ * The children of conjunctions and disjunctions are evaluated cheapest first so that expensive tests, e.g. geometries,
+ * are skipped whenever a cheaper one already decides the result.
+ * <br/>
+ * Matching follows the occurrence search: missing values never match, a wildcard value matches any existing value,
+ * a taxon key matches any rank of the classification and single dates match the whole period given, e.g. a year.
+ * A {@link NotPredicate} is a plain negation and therefore includes records without a value.
+ * The {@link OccurrenceSearchParameter#CRAWL_ID} cannot be evaluated as occurrences do not keep the crawl uuid.
+ */
+public class PredicateCompiler {
+
+  private static final String WILDCARD = "*";
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  // relative costs used to order the evaluation of compound predicates
+  private static final int COST_SIMPLE = 1;
+  private static final int COST_SET = 2;
+  private static final int COST_PATTERN = 8;
+  private static final int COST_GEOMETRY = 10;
+  // disjunctions with at least this many geometries are evaluated with a spatial index
+  private static final int MIN_INDEXED_GEOMETRIES = 4;
+
+  /**
+   * A compiled predicate together with its estimated evaluation cost.
+   */
+  private static class Compiled {
+    private final java.util.function.Predicate<Occurrence> test;
+    private final int cost;
+
+    private Compiled(java.util.function.Predicate<Occurrence> test, int cost) {
+      this.test = test;
+      this.cost = cost;
+    }
+  }
+
+  /**
+   * Internal leaf replacing many geometries of a disjunction by their index.
+   */
+  private static class GeometryIndexPredicate implements Predicate {
+    private final GeometryIndex index;
+
+    private GeometryIndexPredicate(GeometryIndex index) {
+      this.index = index;
+    }
+  }
+
+  private PredicateCompiler() {
+  }
+
+  /**
+   * Compiles the given predicate tree into a predicate that can be evaluated against occurrences.
+   * The returned predicate is immutable and thread safe.
+   *
+   * @param predicate the predicate tree to compile
+   *
+   * @return the compiled predicate
+   *
+   * @throws IllegalArgumentException if the predicate or any of its values cannot be evaluated against occurrences
+   */
+  public static java.util.function.Predicate<Occurrence> compile(Predicate predicate) {
+    return compileNode(predicate).test;
+  }
+
+  private static Compiled compileNode(Predicate predicate) {
+    if (predicate == null) {
+      throw new IllegalArgumentException("Predicate may not be null");
+    }
+    if (predicate instanceof ConjunctionPredicate) {
+      return compileConjunction((CompoundPredicate) predicate);
+
+    } else if (predicate instanceof DisjunctionPredicate) {
+      return compileDisjunction((CompoundPredicate) predicate);
+
+    } else if (predicate instanceof NotPredicate) {
+      Compiled negated = compileNode(((NotPredicate) predicate).getPredicate());
+      return new Compiled(negated.test.negate(), negated.cost);
+
+    } else if (predicate instanceof EqualsPredicate) {
+      SimplePredicate p = (SimplePredicate) predicate;
+      return compileEquals(p.getKey(), p.getValue());
+
+    } else if (predicate instanceof LikePredicate) {
+      SimplePredicate p = (SimplePredicate) predicate;
+      return compileLike(p.getKey(), p.getValue());
+
+    } else if (predicate instanceof GreaterThanPredicate) {
+      SimplePredicate p = (SimplePredicate) predicate;
+      return compileComparison(p.getKey(), p.getValue(), Comparison.GREATER);
+
+    } else if (predicate instanceof GreaterThanOrEqualsPredicate) {
+      SimplePredicate p = (SimplePredicate) predicate;
+      return compileComparison(p.getKey(), p.getValue(), Comparison.GREATER_OR_EQUAL);
+
+    } else if (predicate instanceof LessThanPredicate) {
+      SimplePredicate p = (SimplePredicate) predicate;
+      return compileComparison(p.getKey(), p.getValue(), Comparison.LESS);
+
+    } else if (predicate instanceof LessThanOrEqualsPredicate) {
+      SimplePredicate p = (SimplePredicate) predicate;
+      return compileComparison(p.getKey(), p.getValue(), Comparison.LESS_OR_EQUAL);
+
+    } else if (predicate instanceof InPredicate) {
+      InPredicate p = (InPredicate) predicate;
+      return compileIn(p.getKey(), p.getValues());
+
+    } else if (predicate instanceof WithinPredicate) {
+      return compileWithin((WithinPredicate) predicate);
+
+    } else if (predicate instanceof IsNotNullPredicate) {
+      return compileIsNotNull(((IsNotNullPredicate) predicate).getParameter());
+
+    } else if (predicate instanceof GeometryIndexPredicate) {
+      return compileGeometryIndex(((GeometryIndexPredicate) predicate).index);
+    }
+    throw new IllegalArgumentException("Unknown predicate type " + predicate.getClass().getName());
+  }
+
+  /**
+   * Compiles the children of a compound predicate and sorts them by their cost, cheapest first.
+   */
+  private static Compiled[] compileChildren(CompoundPredicate predicate) {
+    List<Compiled> children = new ArrayList<Compiled>(predicate.getPredicates().size());
+    for (Predicate p : predicate.getPredicates()) {
+      children.add(compileNode(p));
+    }
+    children.sort(Comparator.comparingInt(c -> c.cost));
+    return children.toArray(new Compiled[children.size()]);
+  }
+
+  private static int sumCost(Compiled[] children) {
+    int cost = 0;
+    for (Compiled c : children) {
+      cost += c.cost;
+    }
+    return cost;
+  }
+
+  private static Compiled compileConjunction(CompoundPredicate predicate) {
+    final Compiled[] children = compileChildren(predicate);
+    if (children.length == 1) {
+      return children[0];
+    }
+    return new Compiled(o -> {
+      for (Compiled c : children) {
+        if (!c.test.test(o)) {
+          return false;
+        }
+      }
+      return true;
+    }, sumCost(children));
+  }
+
+  private static Compiled compileDisjunction(CompoundPredicate predicate) {
+    List<WithinPredicate> geometries = new ArrayList<WithinPredicate>();
+    List<Predicate> others = new ArrayList<Predicate>();
+    for (Predicate p : predicate.getPredicates()) {
+      if (p instanceof WithinPredicate) {
+        geometries.add((WithinPredicate) p);
+      } else {
+        others.add(p);
+      }
+    }
+    if (geometries.size() >= MIN_INDEXED_GEOMETRIES) {
+      // a single lookup in a spatial index replaces testing each geometry in turn
+      others.add(new GeometryIndexPredicate(new GeometryIndex(geometries)));
+      predicate = new DisjunctionPredicate(others);
+    }
+    final Compiled[] children = compileChildren(predicate);
+    if (children.length == 1) {
+      return children[0];
+    }
+    return new Compiled(o -> {
+      for (Compiled c : children) {
+        if (c.test.test(o)) {
+          return true;
+        }
+      }
+      return false;
+    }, sumCost(children));
+  }
+
+  /**
+   * Builds a test on the value(s) of a parameter. Missing values never match and
+   * multi valued parameters match if any of their values does.
+   */
+  private static Compiled onValues(OccurrenceSearchParameter param,
+                                   final java.util.function.Predicate<Object> valueTest, int cost) {
+    final Function<Occurrence, ?> extractor = OccurrenceFields.extractor(param);
+    int totalCost = cost + OccurrenceFields.cost(param);
+    if (OccurrenceFields.isMultiValued(param)) {
+      return new Compiled(o -> {
+        Object values = extractor.apply(o);
+        if (values != null) {
+          for (Object v : (Iterable<?>) values) {
+            if (v != null && valueTest.test(v)) {
+              return true;
+            }
+          }
+        }
+        return false;
+      }, totalCost);
+    }
+    return new Compiled(o -> {
+      Object v = extractor.apply(o);
+      return v != null && valueTest.test(v);
+    }, totalCost);
+  }
+
+  private static Compiled compileIsNotNull(OccurrenceSearchParameter param) {
+    return onValues(param, v -> !(v instanceof String) || !((String) v).isEmpty(), COST_SIMPLE);
+  }
+
+  private static Compiled compileEquals(OccurrenceSearchParameter param, String value) {
+    if (OccurrenceSearchParameter.GEOMETRY == param) {
+      return compileWithin(new WithinPredicate(value));
+    }
+    if (WILDCARD.equals(value.trim())) {
+      return compileIsNotNull(param);
+    }
+    if (isRangeType(param)) {
+      return rangeParser(param).compileEquals(param, value);
+    }
+    final Object expected = parseValue(param, value);
+    return onValues(param, expected::equals, COST_SIMPLE);
+  }
+
+  private static Compiled compileIn(OccurrenceSearchParameter param, Collection<String> values) {
+    if (OccurrenceSearchParameter.GEOMETRY == param) {
+      List<Predicate> within = new ArrayList<Predicate>(values.size());
+      for (String v : values) {
+        within.add(new WithinPredicate(v));
+      }
+      return compileDisjunction(new DisjunctionPredicate(within));
+    }
+    if (isRangeType(param)) {
+      return rangeParser(param).compileIn(param, values);
+    }
+    final Set<Object> expected = new HashSet<Object>();
+    for (String value : values) {
+      if (WILDCARD.equals(value.trim())) {
+        return compileIsNotNull(param);
+      }
+      expected.add(parseValue(param, value));
+    }
+    return onValues(param, expected::contains, COST_SET);
+  }
+
+  private enum Comparison {
+    GREATER, GREATER_OR_EQUAL, LESS, LESS_OR_EQUAL
+  }
+
+  private static Compiled compileComparison(OccurrenceSearchParameter param, String value, Comparison comparison) {
+    if (!isRangeType(param)) {
+      throw new IllegalArgumentException("Only equals comparisons are allowed for search parameter " + param);
+    }
+    if (value.indexOf(',') >= 0) {
+      throw new IllegalArgumentException("Comparisons require a single value: " + value);
+    }
+    return rangeParser(param).compileComparison(param, value, comparison);
+  }
+
+  private static BoundType flip(BoundType type) {
+    return type == BoundType.CLOSED ? BoundType.OPEN : BoundType.CLOSED;
+  }
+
+  /**
+   * Translates the Hive LIKE syntax with _ matching a single and % matching any number of characters.
+   * Patterns without wildcards or with a single trailing % are reduced to string comparisons.
+   */
+  private static Compiled compileLike(OccurrenceSearchParameter param, String value) {
+    int firstWildcard = indexOfWildcard(value, 0);
+    if (firstWildcard < 0) {
+      return onValues(param, value::equals, COST_SIMPLE);
+    }
+    if (firstWildcard == value.length() - 1 && value.charAt(firstWildcard) == '%') {
+      final String prefix = value.substring(0, firstWildcard);
+      return onValues(param, v -> ((String) v).startsWith(prefix), COST_SIMPLE);
+    }
+    StringBuilder regex = new StringBuilder();
+    int start = 0;
+    for (int idx = firstWildcard; idx >= 0; idx = indexOfWildcard(value, start)) {
+      if (idx > start) {
+        regex.append(Pattern.quote(value.substring(start, idx)));
+      }
+      regex.append(value.charAt(idx) == '%' ? ".*" : ".");
+      start = idx + 1;
+    }
+    if (start < value.length()) {
+      regex.append(Pattern.quote(value.substring(start)));
+    }
+    final Pattern pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+    return onValues(param, v -> pattern.matcher((String) v).matches(), COST_PATTERN);
+  }
+
+  private static int indexOfWildcard(String value, int start) {
+    for (int idx = start; idx < value.length(); idx++) {
+      char c = value.charAt(idx);
+      if (c == '%' || c == '_') {
+        return idx;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Prepares the geometry for repeated point in polygon tests, rejecting points outside of its envelope first.
+   * Points on the boundary are included.
+   */
+  private static Compiled compileWithin(WithinPredicate within) {
+    final PreparedGeometry prepared = within.getPreparedGeometry();
+    final Envelope envelope = within.getEnvelope();
+    return new Compiled(o -> {
+      Double lat = o.getDecimalLatitude();
+      Double lng = o.getDecimalLongitude();
+      return lat != null && lng != null && envelope.covers(lng, lat)
+             && prepared.covers(GEOMETRY_FACTORY.createPoint(new Coordinate(lng, lat)));
+    }, COST_GEOMETRY + prepared.getGeometry().getNumPoints() / 10);
+  }
+
+  private static Compiled compileGeometryIndex(final GeometryIndex index) {
+    return new Compiled(o -> {
+      Double lat = o.getDecimalLatitude();
+      Double lng = o.getDecimalLongitude();
+      return lat != null && lng != null && index.covers(lat, lng);
+    }, COST_GEOMETRY * 2);
+  }
+
+  /**
+   * @return true for numerical and date parameters which accept ranges
+   */
+  private static boolean isRangeType(OccurrenceSearchParameter param) {
+    return Number.class.isAssignableFrom(param.type()) || Date.class.isAssignableFrom(param.type());
+  }
+
+  private static boolean isSingleValue(Range<?> range) {
+    return range.hasLowerBound() && range.hasUpperBound() && range.lowerEndpoint().equals(range.upperEndpoint())
+           && range.lowerBoundType() == BoundType.CLOSED
+           && range.upperBoundType() == BoundType.CLOSED;
+  }
+
+  private static RangeParser<?> rangeParser(OccurrenceSearchParameter param) {
+    if (Date.class.isAssignableFrom(param.type())) {
+      return DATE_RANGES;
+    }
+    return Integer.class.equals(param.type()) ? INTEGER_RANGES : DECIMAL_RANGES;
+  }
+
+  /**
+   * Parses a single value or a comma separated range of a numerical or date parameter into a typed range.
+   */
+  private abstract static class RangeParser<C extends Comparable<? super C>> {
+    private final Class<C> type;
+
+    RangeParser(Class<C> type) {
+      this.type = type;
+    }
+
+    abstract Range<C> parse(String value);
+
+    Compiled compileEquals(OccurrenceSearchParameter param, String value) {
+      final Range<C> range = parse(value);
+      return onValues(param, v -> range.contains(type.cast(v)), COST_SIMPLE);
+    }
+
+    /**
+     * Single values go into a hash set, only real ranges are tested one by one.
+     */
+    Compiled compileIn(OccurrenceSearchParameter param, Collection<String> values) {
+      final Set<C> expected = new HashSet<C>();
+      final List<Range<C>> ranges = new ArrayList<Range<C>>();
+      for (String value : values) {
+        if (WILDCARD.equals(value.trim())) {
+          return compileIsNotNull(param);
+        }
+        Range<C> range = parse(value);
+        if (isSingleValue(range)) {
+          expected.add(range.lowerEndpoint());
+        } else {
+          ranges.add(range);
+        }
+      }
+      if (ranges.isEmpty()) {
+        return onValues(param, expected::contains, COST_SET);
+      }
+      return onValues(param, v -> {
+        C value = type.cast(v);
+        if (expected.contains(value)) {
+          return true;
+        }
+        for (Range<C> r : ranges) {
+          if (r.contains(value)) {
+            return true;
+          }
+        }
+        return false;
+      }, COST_SET + ranges.size());
+    }
+
+    /**
+     * Compares with the whole period of a value like equals does, e.g. a year. Values are greater than the period if
+     * they are above its upper end, and less or equal if they are below its upper end.
+     */
+    Compiled compileComparison(OccurrenceSearchParameter param, String value, Comparison comparison) {
+      Range<C> period = parse(value);
+      if (!period.hasLowerBound() || !period.hasUpperBound()) {
+        throw new IllegalArgumentException("Comparisons require a single value: " + value);
+      }
+      final Range<C> range;
+      switch (comparison) {
+        case GREATER:
+          range = Range.downTo(period.upperEndpoint(), flip(period.upperBoundType()));
+          break;
+        case GREATER_OR_EQUAL:
+          range = Range.downTo(period.lowerEndpoint(), period.lowerBoundType());
+          break;
+        case LESS:
+          range = Range.upTo(period.lowerEndpoint(), flip(period.lowerBoundType()));
+          break;
+        default:
+          range = Range.upTo(period.upperEndpoint(), period.upperBoundType());
+      }
+      return onValues(param, v -> range.contains(type.cast(v)), COST_SIMPLE);
+    }
+  }
+
+  /**
+   * Date values cover the whole period of their precision, i.e. 2010-02 includes all of February.
+   */
+  private static final RangeParser<Date> DATE_RANGES = new RangeParser<Date>(Date.class) {
+    @Override
+    Range<Date> parse(String value) {
+      String val = value.trim();
+      Range<Date> dates = IsoDateParsingUtils.parseDateRange(val.indexOf(',') >= 0 ? val : val + ',' + val);
+      Date lower = dates.hasLowerBound() ? dates.lowerEndpoint() : null;
+      // the upper date is the start of the last day included
+      Date upper = dates.hasUpperBound() ? nextDay(dates.upperEndpoint()) : null;
+      if (lower == null) {
+        return upper == null ? Range.<Date>all() : Range.lessThan(upper);
+      }
+      return upper == null ? Range.atLeast(lower) : Range.closedOpen(lower, upper);
+    }
+  };
+
+  private static final RangeParser<Integer> INTEGER_RANGES = new RangeParser<Integer>(Integer.class) {
+    @Override
+    Range<Integer> parse(String value) {
+      String val = value.trim();
+      return val.indexOf(',') >= 0 ? SearchTypeValidator.parseIntegerRange(val)
+        : Range.singleton(Integer.valueOf(val));
+    }
+  };
+
+  private static final RangeParser<Double> DECIMAL_RANGES = new RangeParser<Double>(Double.class) {
+    @Override
+    Range<Double> parse(String value) {
+      String val = value.trim();
+      return val.indexOf(',') >= 0 ? SearchTypeValidator.parseDecimalRange(val)
+        : Range.singleton(Double.valueOf(val));
+    }
+  };
+
+  static Date nextDay(Date date) {
+    Calendar cal = Calendar.getInstance();
+    cal.setTime(date);
+    cal.add(Calendar.DAY_OF_MONTH, 1);
+    return cal.getTime();
+  }
+
+  /**
+   * Converts a single value of a non numerical parameter into the type returned by its extractor.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object parseValue(OccurrenceSearchParameter param, String value) {
+    Class<?> type = param.type();
+    if (UUID.class.equals(type)) {
+      return UUID.fromString(value.trim());
+
+    } else if (Boolean.class.equals(type)) {
+      return Boolean.valueOf(value.trim());
+
+    } else if (Country.class.equals(type)) {
+      Country country = Country.fromIsoCode(value.trim());
+      if (country == null) {
+        throw new IllegalArgumentException("Invalid country code " + value);
+      }
+      return country;
+
+    } else if (Enum.class.isAssignableFrom(type)) {
+      Object val = VocabularyUtils.lookupEnum(value, (Class<? extends Enum<?>>) type);
+      if (val == null) {
+        throw new IllegalArgumentException("Value " + value + " invalid for filter parameter " + param);
+      }
+      return val;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,158 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.DownloadFormat;
+import org.gbif.api.model.occurrence.predicate.CompoundPredicate;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.SimplePredicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.util.VocabularyUtils;
+import org.gbif.api.util.WktParser;
+import org.gbif.api.vocabulary.Country;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.vividsolutions.jts.io.WKTWriter;
+
+/**
+ * Builds a canonical, order insensitive fingerprint of a download filter and format.
+ * Predicates which only differ in the order of compound children or in values, in redundant nesting or in the
+ * notation of values, e.g. country codes or enumeration names, share the same fingerprint.
+ * <br/>
+ * The predicate is first rewritten by the {@link PredicateNormalizer}, then serialized into a canonical string
+ * with sorted children and values which is finally hashed with SHA-256. Values and children are prefixed with their
+ * length, so delimiters within values cannot make different predicates serialize alike.
+ */
+public class PredicateFingerprint {
+
+  private static final Joiner COMMA_JOINER = Joiner.on(',');
+  private static final String WILDCARD = "*";
+  // a missing predicate selects all records
+  private static final String ALL = "all";
+
+  private PredicateFingerprint() {
+  }
+
+  /**
+   * @param predicate the download filter, null for all records
+   * @param format the download format
+   *
+   * @return the hex encoded SHA-256 fingerprint of the canonical filter and format
+   */
+  public static String fingerprint(@Nullable Predicate predicate, DownloadFormat format) {
+    Preconditions.checkNotNull(format, "Download format may not be null");
+    String canonical = format.name() + '|' + canonical(predicate);
+    return Hashing.sha256().hashString(canonical, Charsets.UTF_8).toString();
+  }
+
+  /**
+   * @return the canonical string of the normalized predicate, equal for equivalent predicates
+   */
+  static String canonical(@Nullable Predicate predicate) {
+    return predicate == null ? ALL : write(PredicateNormalizer.normalize(predicate));
+  }
+
+  private static String write(Predicate predicate) {
+    if (predicate instanceof CompoundPredicate) {
+      List<String> children = new ArrayList<String>();
+      for (Predicate p : ((CompoundPredicate) predicate).getPredicates()) {
+        children.add(prefixed(write(p)));
+      }
+      Collections.sort(children);
+      return (predicate instanceof ConjunctionPredicate ? "and(" : "or(") + COMMA_JOINER.join(children) + ')';
+
+    } else if (predicate instanceof NotPredicate) {
+      return "not(" + write(((NotPredicate) predicate).getPredicate()) + ')';
+
+    } else if (predicate instanceof InPredicate) {
+      InPredicate in = (InPredicate) predicate;
+      List<String> values = new ArrayList<String>();
+      for (String v : in.getValues()) {
+        values.add(prefixed(canonicalValue(in.getKey(), v)));
+      }
+      Collections.sort(values);
+      return "in(" + in.getKey().name() + "=[" + COMMA_JOINER.join(values) + "])";
+
+    } else if (predicate instanceof SimplePredicate) {
+      SimplePredicate sp = (SimplePredicate) predicate;
+      return name(predicate) + '(' + sp.getKey().name() + '=' + prefixed(canonicalValue(sp.getKey(), sp.getValue()))
+             + ')';
+
+    } else if (predicate instanceof WithinPredicate) {
+      return "within(" + prefixed(canonicalGeometry(((WithinPredicate) predicate).getGeometry())) + ')';
+
+    } else if (predicate instanceof IsNotNullPredicate) {
+      return "isNotNull(" + ((IsNotNullPredicate) predicate).getParameter().name() + ')';
+    }
+    throw new IllegalArgumentException("Unknown predicate type " + predicate.getClass().getName());
+  }
+
+  /**
+   * @return the string prefixed with its length, e.g. 3:a,b
+   */
+  private static String prefixed(String value) {
+    return value.length() + ":" + value;
+  }
+
+  /**
+   * @return the simple class name without the Predicate suffix, e.g. Equals
+   */
+  private static String name(Predicate predicate) {
+    String name = predicate.getClass().getSimpleName();
+    return name.endsWith("Predicate") ? name.substring(0, name.length() - "Predicate".length()) : name;
+  }
+
+  /**
+   * Converts values into a canonical notation for their type, leaving any other value, e.g. strings, untouched.
+   */
+  @SuppressWarnings("unchecked")
+  private static String canonicalValue(OccurrenceSearchParameter key, String value) {
+    String val = value.trim();
+    if (WILDCARD.equals(val)) {
+      return val;
+    }
+    Class<?> type = key.type();
+    if (OccurrenceSearchParameter.GEOMETRY == key) {
+      return canonicalGeometry(val);
+
+    } else if (Country.class.equals(type)) {
+      Country country = Country.fromIsoCode(val);
+      return country == null ? val : country.getIso2LetterCode();
+
+    } else if (Enum.class.isAssignableFrom(type)) {
+      Enum<?> e = VocabularyUtils.lookupEnum(val, (Class<? extends Enum<?>>) type);
+      return e == null ? val : e.name();
+
+    } else if (UUID.class.equals(type)) {
+      return UUID.fromString(val).toString();
+
+    } else if (Boolean.class.equals(type)) {
+      return val.toLowerCase();
+
+    } else if (String.class.equals(type)) {
+      return value;
+    }
+    // numbers and dates, possibly ranges
+    return val.replaceAll("\\s*,\\s*", ",");
+  }
+
+  private static String canonicalGeometry(String wkt) {
+    try {
+      return new WKTWriter().write(WktParser.parse(wkt));
+    } catch (IllegalArgumentException e) {
+      return wkt.trim();
+    }
+  }
+}
@@ -0,0 +1,312 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.predicate.CompoundPredicate;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.SimplePredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.util.IsoDateParsingUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+
+/**
+ * Rewrites {@link Predicate} trees into smaller, equivalent trees.
+ * The following rewrites are applied:
+ * <ul>
+ *   <li>{@link NotPredicate}s are pushed down to the leaves using De Morgan's laws and double negations removed</li>
+ *   <li>nested conjunctions and disjunctions are flattened and compounds with a single child replaced by it</li>
+ *   <li>duplicate children of compounds and duplicate values of {@link InPredicate}s are removed</li>
+ *   <li>equals and in predicates on the same key within a disjunction are merged into a single in predicate</li>
+ *   <li>multiple lower or upper bounds on the same key within a conjunction are reduced to the tightest ones and
+ *   numerical bounds of single valued keys are merged into a single range equals predicate,
+ *   e.g. {@code year >= 1990 and year < 2000} becomes {@code year = 1990,1999}</li>
+ * </ul>
+ * Negated comparisons are not inverted, as a negation also matches records without any value.
+ * The rewrites are deterministic, so equal trees always result in equal normalized trees.
+ */
+public class PredicateNormalizer {
+
+  private PredicateNormalizer() {
+  }
+
+  /**
+   * @param predicate the predicate tree to normalize
+   *
+   * @return the normalized predicate, which might be the given instance if nothing could be rewritten
+   */
+  public static Predicate normalize(Predicate predicate) {
+    Preconditions.checkNotNull(predicate, "Predicate may not be null");
+    return normalize(predicate, false);
+  }
+
+  private static Predicate normalize(Predicate predicate, boolean negated) {
+    if (predicate instanceof NotPredicate) {
+      return normalize(((NotPredicate) predicate).getPredicate(), !negated);
+    }
+
+    if (predicate instanceof ConjunctionPredicate || predicate instanceof DisjunctionPredicate) {
+      // De Morgan: a negated conjunction is a disjunction of negations and vice versa
+      boolean conjunction = predicate instanceof ConjunctionPredicate != negated;
+      List<Predicate> children = new ArrayList<Predicate>();
+      for (Predicate child : ((CompoundPredicate) predicate).getPredicates()) {
+        Predicate normalized = normalize(child, negated);
+        if (conjunction ? normalized instanceof ConjunctionPredicate : normalized instanceof DisjunctionPredicate) {
+          children.addAll(((CompoundPredicate) normalized).getPredicates());
+        } else {
+          children.add(normalized);
+        }
+      }
+      return conjunction ? conjunction(children) : disjunction(children);
+    }
+
+    Predicate leaf = normalizeLeaf(predicate);
+    return negated ? new NotPredicate(leaf) : leaf;
+  }
+
+  /**
+   * Removes duplicate values from in predicates and turns them into equals predicates for a single value.
+   */
+  private static Predicate normalizeLeaf(Predicate predicate) {
+    if (predicate instanceof InPredicate) {
+      InPredicate in = (InPredicate) predicate;
+      Set<String> values = new LinkedHashSet<String>(in.getValues());
+      if (values.size() == 1 && OccurrenceSearchParameter.GEOMETRY != in.getKey()) {
+        return new EqualsPredicate(in.getKey(), values.iterator().next());
+      }
+      if (values.size() < in.getValues().size()) {
+        return new InPredicate(in.getKey(), values);
+      }
+    }
+    return predicate;
+  }
+
+  private static Predicate conjunction(List<Predicate> children) {
+    List<Predicate> predicates = mergeBounds(new ArrayList<Predicate>(new LinkedHashSet<Predicate>(children)));
+    return predicates.size() == 1 ? predicates.get(0) : new ConjunctionPredicate(predicates);
+  }
+
+  private static Predicate disjunction(List<Predicate> children) {
+    List<Predicate> predicates = mergeEquals(new ArrayList<Predicate>(new LinkedHashSet<Predicate>(children)));
+    return predicates.size() == 1 ? predicates.get(0) : new DisjunctionPredicate(predicates);
+  }
+
+  /**
+   * Merges all equals and in predicates with the same key into one in predicate,
+   * placed at the position of the first predicate merged.
+   */
+  private static List<Predicate> mergeEquals(List<Predicate> predicates) {
+    Map<OccurrenceSearchParameter, Set<String>> values = new LinkedHashMap<OccurrenceSearchParameter, Set<String>>();
+    Map<OccurrenceSearchParameter, Integer> counts = new LinkedHashMap<OccurrenceSearchParameter, Integer>();
+    for (Predicate p : predicates) {
+      OccurrenceSearchParameter key = mergeableKey(p);
+      if (key != null) {
+        Set<String> keyValues = values.get(key);
+        if (keyValues == null) {
+          keyValues = new LinkedHashSet<String>();
+          values.put(key, keyValues);
+          counts.put(key, 0);
+        }
+        keyValues.addAll(p instanceof InPredicate ? ((InPredicate) p).getValues()
+                                                   : Collections.singleton(((SimplePredicate) p).getValue()));
+        counts.put(key, counts.get(key) + 1);
+      }
+    }
+
+    List<Predicate> merged = new ArrayList<Predicate>(predicates.size());
+    for (Predicate p : predicates) {
+      OccurrenceSearchParameter key = mergeableKey(p);
+      if (key == null || counts.get(key) == 1) {
+        merged.add(p);
+      } else if (values.containsKey(key)) {
+        // first predicate of the key, replace all of them
+        merged.add(normalizeLeaf(new InPredicate(key, values.remove(key))));
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * @return the key of equals or in predicates that can be merged or null for any other predicate
+   */
+  private static OccurrenceSearchParameter mergeableKey(Predicate p) {
+    OccurrenceSearchParameter key = null;
+    if (p instanceof EqualsPredicate) {
+      key = ((EqualsPredicate) p).getKey();
+    } else if (p instanceof InPredicate) {
+      key = ((InPredicate) p).getKey();
+    }
+    return OccurrenceSearchParameter.GEOMETRY == key ? null : key;
+  }
+
+  /**
+   * The tightest lower and upper bound found for a key.
+   */
+  private static class Bounds {
+    private final List<Predicate> originals = new ArrayList<Predicate>();
+    private SimplePredicate lower;
+    private SimplePredicate upper;
+    // true if some value cannot be compared, e.g. a range
+    private boolean incomparable;
+  }
+
+  /**
+   * Reduces all comparisons with the same key to the tightest lower and upper bound,
+   * placed at the position of the first comparison of the key.
+   */
+  private static List<Predicate> mergeBounds(List<Predicate> predicates) {
+    Map<OccurrenceSearchParameter, Bounds> bounds = new LinkedHashMap<OccurrenceSearchParameter, Bounds>();
+    for (Predicate p : predicates) {
+      if (isLowerBound(p) || isUpperBound(p)) {
+        SimplePredicate sp = (SimplePredicate) p;
+        Bounds b = bounds.get(sp.getKey());
+        if (b == null) {
+          b = new Bounds();
+          bounds.put(sp.getKey(), b);
+        }
+        b.originals.add(p);
+        try {
+          if (isLowerBound(p)) {
+            b.lower = b.lower == null || compareBounds(sp, b.lower) > 0 ? sp : b.lower;
+          } else {
+            b.upper = b.upper == null || compareBounds(sp, b.upper) < 0 ? sp : b.upper;
+          }
+        } catch (IllegalArgumentException e) {
+          b.incomparable = true;
+        }
+      }
+    }
+
+    List<Predicate> merged = new ArrayList<Predicate>(predicates.size());
+    for (Predicate p : predicates) {
+      if (isLowerBound(p) || isUpperBound(p)) {
+        OccurrenceSearchParameter key = ((SimplePredicate) p).getKey();
+        Bounds b = bounds.remove(key);
+        if (b != null) {
+          // first comparison of the key, replace all of them
+          merged.addAll(b.originals.size() == 1 || b.incomparable ? b.originals : toPredicates(key, b));
+        }
+      } else {
+        merged.add(p);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Turns the tightest bounds into a single range equals predicate for numbers with a non empty closed range,
+   * otherwise keeps the bounds. Bounds of multi valued keys are kept, as they might be met by different values.
+   */
+  private static List<Predicate> toPredicates(OccurrenceSearchParameter key, Bounds b) {
+    List<Predicate> result = new ArrayList<Predicate>(2);
+    if (b.lower != null && b.upper != null && Number.class.isAssignableFrom(key.type())
+        && !OccurrenceFields.isMultiValued(key)) {
+      try {
+        String lower = closedValue(b.lower, 1);
+        String upper = closedValue(b.upper, -1);
+        if (lower != null && upper != null && compare(key, lower, upper) <= 0) {
+          result.add(new EqualsPredicate(key, lower + ',' + upper));
+          return result;
+        }
+      } catch (IllegalArgumentException e) {
+        return b.originals;
+      }
+    }
+    if (b.lower != null) {
+      result.add(b.lower);
+    }
+    if (b.upper != null) {
+      result.add(b.upper);
+    }
+    return result;
+  }
+
+  /**
+   * @return the value of the bound as an inclusive limit, or null if an exclusive decimal or an exclusive integer at
+   *   the end of the integer range cannot be expressed as such
+   */
+  private static String closedValue(SimplePredicate bound, int step) {
+    if (bound instanceof GreaterThanOrEqualsPredicate || bound instanceof LessThanOrEqualsPredicate) {
+      return bound.getValue().trim();
+    }
+    if (Integer.class.equals(bound.getKey().type())) {
+      try {
+        return String.valueOf(Math.addExact(Integer.parseInt(bound.getValue().trim()), step));
+      } catch (ArithmeticException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static boolean isLowerBound(Predicate p) {
+    return p instanceof GreaterThanPredicate || p instanceof GreaterThanOrEqualsPredicate;
+  }
+
+  private static boolean isUpperBound(Predicate p) {
+    return p instanceof LessThanPredicate || p instanceof LessThanOrEqualsPredicate;
+  }
+
+  /**
+   * Compares two bounds of the same direction, an exclusive bound being tighter than an inclusive one
+   * with the same value.
+   *
+   * @return a positive number if the first bound is higher
+   */
+  private static int compareBounds(SimplePredicate b1, SimplePredicate b2) {
+    if (Date.class.isAssignableFrom(b1.getKey().type())) {
+      return dateLimit(b1).compareTo(dateLimit(b2));
+    }
+    int cmp = compare(b1.getKey(), b1.getValue(), b2.getValue());
+    if (cmp != 0) {
+      return cmp;
+    }
+    boolean exclusive1 = b1 instanceof GreaterThanPredicate || b1 instanceof LessThanPredicate;
+    boolean exclusive2 = b2 instanceof GreaterThanPredicate || b2 instanceof LessThanPredicate;
+    if (exclusive1 == exclusive2) {
+      return 0;
+    }
+    // an exclusive lower bound is higher, an exclusive upper bound is lower
+    return (exclusive1 ? 1 : -1) * (isLowerBound(b1) ? 1 : -1);
+  }
+
+  private static int compare(OccurrenceSearchParameter key, String v1, String v2) {
+    if (Integer.class.equals(key.type())) {
+      return Integer.valueOf(v1.trim()).compareTo(Integer.valueOf(v2.trim()));
+    }
+    return Double.valueOf(v1.trim()).compareTo(Double.valueOf(v2.trim()));
+  }
+
+  /**
+   * Date comparisons cover the whole period of their value like the {@link PredicateCompiler} does,
+   * e.g. {@code <= 2010} includes all of 2010.
+   *
+   * @return the inclusive lower or exclusive upper limit of a date bound
+   */
+  private static Date dateLimit(SimplePredicate bound) {
+    String value = bound.getValue().trim();
+    Range<Date> period = IsoDateParsingUtils.parseDateRange(value + ',' + value);
+    if (!period.hasLowerBound() || !period.hasUpperBound()) {
+      throw new IllegalArgumentException("Comparisons require a single value: " + value);
+    }
+    boolean start = bound instanceof GreaterThanOrEqualsPredicate || bound instanceof LessThanPredicate;
+    return start ? period.lowerEndpoint() : PredicateCompiler.nextDay(period.upperEndpoint());
+  }
+}
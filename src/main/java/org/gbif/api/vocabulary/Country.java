@@ -20,7 +20,6 @@ import java.util.Set;
 import javax.annotation.Nullable;
 
 import com.google.common.base.Function;
-import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
@@ -1345,6 +1344,11 @@ public enum Country {
   public static final Set<String> CUSTOM_CODES;
   public static final List<Country> OFFICIAL_COUNTRIES;
 
+  /**
+   * All countries indexed by their packed 2 and 3 letter codes, see {@link IsoCodes}.
+   */
+  private static final Country[] ISO_INDEX = new Country[IsoCodes.SLOTS];
+
   private final String alpha2;
   private final String alpha3;
   private final int numericalCode;
@@ -1360,6 +1364,11 @@ public enum Country {
     }
     OFFICIAL_COUNTRIES = ImmutableList.copyOf(officials);
 
+    for (Country c : Country.values()) {
+      indexCode(c.alpha2, c);
+      indexCode(c.alpha3, c);
+    }
+
     Set<String> custom = Sets.newHashSet("AA", "ZZ");
     // QM-QZ
     for (char c = 'M'; c <= 'Z'; c++) {
@@ -1386,6 +1395,14 @@ public enum Country {
     CUSTOM_CODES = ImmutableSet.copyOf(custom);
   }
 
+  private static void indexCode(String code, Country c) {
+    int idx = IsoCodes.index(code);
+    // keep the first country in case of duplicates
+    if (idx >= 0 && ISO_INDEX[idx] == null) {
+      ISO_INDEX[idx] = c;
+    }
+  }
+
   public static boolean isCustomCode(String code) {
     return code != null && CUSTOM_CODES.contains(code.toUpperCase());
   }
@@ -1395,15 +1412,21 @@ public enum Country {
    * @return the matching country or null
    */
   public static Country fromIsoCode(String code) {
-    if (!Strings.isNullOrEmpty(code)) {
-      String codeUpper = code.toUpperCase().trim();
-      for (Country c : Country.values()) {
-        if (codeUpper.equals(c.getIso2LetterCode()) || codeUpper.equals(c.getIso3LetterCode())) {
-          return c;
-        }
-      }
-    }
-    return null;
+    int idx = IsoCodes.index(code);
+    return idx < 0 ? null : ISO_INDEX[idx];
+  }
+
+  /**
+   * Looks up a country by the code found in a range of characters, e.g. in a parser buffer, without creating a string.
+   *
+   * @param code the characters containing a case insensitive 2 or 3 letter code
+   * @param start the index of the first character of the code
+   * @param end the index after the last character of the code
+   * @return the matching country or null
+   */
+  public static Country fromIsoCode(CharSequence code, int start, int end) {
+    int idx = IsoCodes.index(code, start, end);
+    return idx < 0 ? null : ISO_INDEX[idx];
   }
 
   /**
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Global Biodiversity Information Facility (GBIF)
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gbif.api.vocabulary;
+
+/**
+ * Packs case insensitive 2 and 3 letter ISO codes into a dense integer, used as a direct index into lookup tables.
+ * 2 letter codes occupy the slots 0-675, 3 letter codes the following 17576 slots.
+ */
+final class IsoCodes {
+
+  private static final int LETTERS = 26;
+  private static final int ALPHA2_SLOTS = LETTERS * LETTERS;
+
+  /**
+   * The size of a table indexed by {@link #index(CharSequence, int, int)}.
+   */
+  static final int SLOTS = ALPHA2_SLOTS + LETTERS * LETTERS * LETTERS;
+
+  private IsoCodes() {
+  }
+
+  /**
+   * Computes the table index of the code found in the given range, ignoring surrounding whitespace.
+   *
+   * @return the index or -1 if the range does not hold a 2 or 3 letter ASCII code
+   */
+  static int index(CharSequence code, int start, int end) {
+    while (start < end && code.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && code.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    int len = end - start;
+    if (len != 2 && len != 3) {
+      return -1;
+    }
+    int idx = 0;
+    for (int i = start; i < end; i++) {
+      int letter = letter(code.charAt(i));
+      if (letter < 0) {
+        return -1;
+      }
+      idx = idx * LETTERS + letter;
+    }
+    return len == 2 ? idx : ALPHA2_SLOTS + idx;
+  }
+
+  /**
+   * @return the table index of the given code or -1 if it is no 2 or 3 letter ASCII code
+   */
+  static int index(String code) {
+    return code == null ? -1 : index(code, 0, code.length());
+  }
+
+  private static int letter(char c) {
+    if (c >= 'A' && c <= 'Z') {
+      return c - 'A';
+    }
+    if (c >= 'a' && c <= 'z') {
+      return c - 'a';
+    }
+    return -1;
+  }
+}
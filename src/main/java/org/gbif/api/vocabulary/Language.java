@@ -18,9 +18,9 @@ package org.gbif.api.vocabulary;
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
+import java.util.MissingResourceException;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonGenerator;
@@ -975,10 +975,33 @@ public enum Language {
 
   public static final List<Language> LANGUAGES;
 
+  /**
+   * All languages indexed by their packed 2 and 3 letter codes, see {@link IsoCodes}.
+   */
+  private static final Language[] ISO_INDEX = new Language[IsoCodes.SLOTS];
+
   private final String code;
 
   static {
     LANGUAGES = ImmutableList.copyOf(Language.values());
+    for (Language language : Language.values()) {
+      indexCode(language.getIso2LetterCode(), language);
+    }
+    for (Language language : Language.values()) {
+      try {
+        indexCode(language.getIso3LetterCode(), language);
+      } catch (MissingResourceException e) {
+        // no 3 letter code known to the JDK
+      }
+    }
+  }
+
+  private static void indexCode(String code, Language language) {
+    int idx = IsoCodes.index(code);
+    // keep the first language in case of duplicates
+    if (idx >= 0 && ISO_INDEX[idx] == null) {
+      ISO_INDEX[idx] = language;
+    }
   }
 
   /**
@@ -987,23 +1010,21 @@ public enum Language {
    * @return the matching language or UNKNOWN
    */
   public static Language fromIsoCode(String code) {
-    if (!Strings.isNullOrEmpty(code)) {
-      String codeLower = code.toLowerCase().trim();
-      if (codeLower.length() == 2){
-        for (Language language : Language.values()) {
-          if (codeLower.equals(language.getIso2LetterCode())) {
-            return language;
-          }
-        }
-      } else if (codeLower.length() == 3) {
-        for (Language language : Language.values()) {
-          if (codeLower.equals(language.getIso3LetterCode())) {
-            return language;
-          }
-        }
-      }
-    }
-    return UNKNOWN;
+    int idx = IsoCodes.index(code);
+    return idx < 0 || ISO_INDEX[idx] == null ? UNKNOWN : ISO_INDEX[idx];
+  }
+
+  /**
+   * Looks up a language by the code found in a range of characters, e.g. in a parser buffer, without creating a string.
+   *
+   * @param code the characters containing a case insensitive 2 or 3 letter code
+   * @param start the index of the first character of the code
+   * @param end the index after the last character of the code
+   * @return the matching language or UNKNOWN
+   */
+  public static Language fromIsoCode(CharSequence code, int start, int end) {
+    int idx = IsoCodes.index(code, start, end);
+    return idx < 0 || ISO_INDEX[idx] == null ? UNKNOWN : ISO_INDEX[idx];
   }
 
   Language(String code) {
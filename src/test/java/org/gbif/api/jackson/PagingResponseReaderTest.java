@@ -0,0 +1,105 @@
+package org.gbif.api.jackson;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.vocabulary.IdentifierType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagingResponseReaderTest {
+
+  // identifiers serialize a derived identifierLink property
+  private static final ObjectMapper MAPPER =
+    new ObjectMapper().configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private static PagingResponseReader<Identifier> reader(String json) throws IOException {
+    return new PagingResponseReader<Identifier>(MAPPER, new ByteArrayInputStream(json.getBytes(Charsets.UTF_8)),
+                                                Identifier.class);
+  }
+
+  @Test
+  public void testRead() throws IOException {
+    List<Identifier> ids = Lists.newArrayList();
+    for (int i = 0; i < 1000; i++) {
+      Identifier id = new Identifier();
+      id.setTitle("Identifier " + i);
+      id.setIdentifier("id" + i);
+      id.setType(IdentifierType.URL);
+      ids.add(id);
+    }
+    PagingResponse<Identifier> resp = new PagingResponse<Identifier>(2000, 1000, 5000L, ids);
+    String json = MAPPER.writeValueAsString(resp);
+
+    try (PagingResponseReader<Identifier> reader = reader(json)) {
+      assertEquals(2000L, (long) reader.getOffset());
+      assertEquals(1000, (int) reader.getLimit());
+      assertEquals(5000L, (long) reader.getCount());
+      assertFalse(reader.getEndOfRecords());
+      List<Identifier> read = Lists.newArrayList(reader);
+      assertEquals(ids, read);
+      assertFalse(reader.hasNext());
+    }
+  }
+
+  @Test
+  public void testTrailingMetadata() throws IOException {
+    String json = "{\"results\":[{\"identifier\":\"a\"},null,{\"identifier\":\"b\"}],\"facets\":[{\"counts\":[]}],"
+                  + "\"offset\":0,\"limit\":20,\"endOfRecords\":true,\"count\":2}";
+    try (PagingResponseReader<Identifier> reader = reader(json)) {
+      assertNull(reader.getCount());
+      assertEquals("a", reader.next().getIdentifier());
+      assertEquals("b", reader.next().getIdentifier());
+      assertFalse(reader.hasNext());
+      assertEquals(0L, (long) reader.getOffset());
+      assertEquals(20, (int) reader.getLimit());
+      assertEquals(2L, (long) reader.getCount());
+      assertTrue(reader.getEndOfRecords());
+    }
+  }
+
+  @Test
+  public void testGenericResults() throws IOException {
+    String json = "{\"offset\":0,\"limit\":2,\"results\":[{\"a\":1},{\"b\":2}]}";
+    PagingResponseReader<Map<String, Integer>> reader = new PagingResponseReader<Map<String, Integer>>(
+      MAPPER, MAPPER.getJsonFactory().createJsonParser(json),
+      MAPPER.getTypeFactory().constructType(new TypeReference<Map<String, Integer>>() {}));
+    assertEquals(1, (int) reader.next().get("a"));
+    assertEquals(2, (int) reader.next().get("b"));
+    assertFalse(reader.hasNext());
+    assertNull(reader.getCount());
+  }
+
+  @Test
+  public void testNoResults() throws IOException {
+    PagingResponseReader<Identifier> reader = reader("{\"offset\":0,\"limit\":20,\"count\":0}");
+    assertFalse(reader.hasNext());
+    assertEquals(0L, (long) reader.getCount());
+  }
+
+  @Test(expected = IOException.class)
+  public void testNoObject() throws IOException {
+    reader("[1,2]");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTruncated() throws IOException {
+    PagingResponseReader<Identifier> reader = reader("{\"results\":[{\"identifier\":\"a\"},{\"ident");
+    reader.next();
+    reader.next();
+  }
+}
@@ -0,0 +1,77 @@
+package org.gbif.api.jackson;
+
+import org.gbif.api.model.common.TermMap;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.TermFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TermMapListSerdeTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  public void testRoundtrip() throws IOException {
+    TermsWrapper w = new TermsWrapper();
+    for (int i = 0; i < 3; i++) {
+      Map<Term, String> row = Maps.newHashMap();
+      row.put(DcTerm.identifier, "http://www.gbif.org/" + i);
+      row.put(DwcTerm.scientificName, "Abies alba");
+      row.put(TermFactory.instance().findTerm("http://example.org/terms/height"), "1" + i);
+      row.put(DcTerm.title, null);
+      w.rows.add(row);
+    }
+    w.rows.add(Maps.<Term, String>newHashMap());
+
+    String json = MAPPER.writeValueAsString(w);
+    TermsWrapper w2 = MAPPER.readValue(json, TermsWrapper.class);
+    assertEquals(w.rows, w2.rows);
+    assertTrue(w2.rows.get(0) instanceof TermMap);
+    assertEquals(w.rows, MAPPER.readValue(MAPPER.writeValueAsString(w2), TermsWrapper.class).rows);
+
+    w.rows.clear();
+    assertEquals("{\"rows\":[]}", MAPPER.writeValueAsString(w));
+    assertTrue(MAPPER.readValue("{\"rows\":[]}", TermsWrapper.class).rows.isEmpty());
+    assertNull(MAPPER.readValue("{\"rows\":null}", TermsWrapper.class).rows);
+  }
+
+  @Test
+  public void testScalarValues() throws IOException {
+    TermsWrapper w = MAPPER.readValue("{\"rows\":[{\"dwc:individualCount\":12,\"dwc:occurrenceID\":true}]}",
+                                      TermsWrapper.class);
+    assertEquals("12", w.rows.get(0).get(DwcTerm.individualCount));
+    assertEquals("true", w.rows.get(0).get(DwcTerm.occurrenceID));
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void testNestedValue() throws IOException {
+    MAPPER.readValue("{\"rows\":[{\"dwc:occurrenceID\":{\"a\":1}}]}", TermsWrapper.class);
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void testNoArray() throws IOException {
+    MAPPER.readValue("{\"rows\":{\"dwc:occurrenceID\":\"1\"}}", TermsWrapper.class);
+  }
+
+  public static class TermsWrapper {
+    @JsonSerialize(using = TermMapListSerializer.class)
+    @JsonDeserialize(using = TermMapListDeserializer.class)
+    public List<Map<Term, String>> rows = Lists.newArrayList();
+  }
+}
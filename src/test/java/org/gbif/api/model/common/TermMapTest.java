@@ -0,0 +1,116 @@
+package org.gbif.api.model.common;
+
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.GbifTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.TermFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TermMapTest {
+
+  private static final Term UNKNOWN = TermFactory.instance().findTerm("http://example.org/terms/height");
+
+  @Test
+  public void testMapContract() {
+    Map<Term, String> expected = new HashMap<Term, String>();
+    Map<Term, String> map = new TermMap();
+    assertTrue(map.isEmpty());
+    assertEquals(expected, map);
+
+    for (Map<Term, String> m : new Map[] {expected, map}) {
+      assertNull(m.put(DwcTerm.scientificName, "Abies"));
+      assertEquals("Abies", m.put(DwcTerm.scientificName, "Abies alba"));
+      m.put(GbifTerm.gbifID, "17");
+      m.put(DcTerm.modified, null);
+      m.put(UNKNOWN, "12");
+      m.put(null, "null key");
+    }
+    assertEquals(5, map.size());
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertEquals("Abies alba", map.get(DwcTerm.scientificName));
+    assertEquals("12", map.get(UNKNOWN));
+    assertEquals("null key", map.get(null));
+    assertNull(map.get(DcTerm.modified));
+    assertTrue(map.containsKey(DcTerm.modified));
+    assertFalse(map.containsKey(DcTerm.created));
+    assertNull(map.get("scientificName"));
+
+    assertEquals("17", map.remove(GbifTerm.gbifID));
+    assertNull(map.remove(GbifTerm.gbifID));
+    assertEquals("12", map.remove(UNKNOWN));
+    assertEquals(3, map.size());
+    assertEquals(map, new TermMap(map));
+    assertEquals(new HashMap<Term, String>(map), map);
+  }
+
+  @Test
+  public void testIterator() {
+    Map<Term, String> map = new TermMap();
+    map.put(DcTerm.modified, "2015");
+    map.put(UNKNOWN, "12");
+    map.put(DwcTerm.scientificName, "Abies alba");
+    map.put(DwcTerm.country, "DE");
+
+    // known terms in vocabulary order first
+    Iterator<Map.Entry<Term, String>> iter = map.entrySet().iterator();
+    Map.Entry<Term, String> e = iter.next();
+    assertEquals(DwcTerm.values()[Math.min(DwcTerm.scientificName.ordinal(), DwcTerm.country.ordinal())], e.getKey());
+    e.setValue("X");
+    iter.next();
+    assertEquals(DcTerm.modified, iter.next().getKey());
+    iter.remove();
+    assertEquals(UNKNOWN, iter.next().getKey());
+    iter.remove();
+    assertFalse(iter.hasNext());
+
+    assertEquals(2, map.size());
+    assertEquals("X", map.get(e.getKey()));
+    assertFalse(map.containsKey(DcTerm.modified));
+    assertFalse(map.containsKey(UNKNOWN));
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.entrySet().iterator().hasNext());
+  }
+
+  @Test
+  public void testFootprint() {
+    TermMap map = new TermMap();
+    assertEquals(0, map.capacity());
+    map.put(DwcTerm.scientificName, "Abies alba");
+    map.put(GbifTerm.gbifID, "17");
+    map.put(DcTerm.modified, "2015");
+    // slots grow with the entries, not with the size of the vocabularies
+    assertTrue(map.capacity() < 10);
+
+    // copies are sized to their known terms
+    Map<Term, String> source = new HashMap<Term, String>(map);
+    source.put(UNKNOWN, "12");
+    assertEquals(3, new TermMap(source).capacity());
+
+    int count = 0;
+    for (DwcTerm t : DwcTerm.values()) {
+      map.put(t, t.simpleName());
+      count++;
+    }
+    assertEquals(count + 2, map.size());
+    assertTrue(map.capacity() < 2 * map.size());
+    for (DwcTerm t : DwcTerm.values()) {
+      assertEquals(t.simpleName(), map.get(t));
+    }
+    assertEquals("17", map.get(GbifTerm.gbifID));
+  }
+}
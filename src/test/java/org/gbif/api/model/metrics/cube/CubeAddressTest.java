@@ -0,0 +1,79 @@
+package org.gbif.api.model.metrics.cube;
+
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CubeAddressTest {
+
+  private static final UUID DATASET_KEY = UUID.fromString("7ddf754f-d193-4cc9-b351-99906754a03b");
+
+  private static CubeAddress address() {
+    return new CubeAddress(OccurrenceCube.ROLLUP_RESOLVER);
+  }
+
+  @Test
+  public void testBuild() {
+    CubeAddress a = address().at(OccurrenceCube.COUNTRY, Country.GERMANY)
+      .at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.OBSERVATION)
+      .at(OccurrenceCube.IS_GEOREFERENCED, true)
+      .at(OccurrenceCube.YEAR, 1998)
+      .at(OccurrenceCube.DATASET_KEY, DATASET_KEY);
+    ReadBuilder b = new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.GERMANY)
+      .at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.OBSERVATION)
+      .at(OccurrenceCube.IS_GEOREFERENCED, true)
+      .at(OccurrenceCube.YEAR, 1998)
+      .at(OccurrenceCube.DATASET_KEY, DATASET_KEY);
+    assertEquals(b.build(), a.build());
+  }
+
+  @Test
+  public void testTypedValues() {
+    CubeAddress a = address().at(OccurrenceCube.COUNTRY, Country.GERMANY)
+      .at(OccurrenceCube.IS_GEOREFERENCED, true)
+      .at(OccurrenceCube.YEAR, -500);
+    int country = OccurrenceCube.ROLLUP_RESOLVER.bit(OccurrenceCube.COUNTRY);
+    int year = OccurrenceCube.ROLLUP_RESOLVER.bit(OccurrenceCube.YEAR);
+    assertEquals(Country.GERMANY.ordinal(), a.getPrimitive(country));
+    assertEquals(Country.GERMANY, a.getObject(country));
+    assertEquals(-500, a.getPrimitive(year));
+    assertEquals(1, a.getPrimitive(OccurrenceCube.ROLLUP_RESOLVER.bit(OccurrenceCube.IS_GEOREFERENCED)));
+    assertEquals(OccurrenceCube.ROLLUP_RESOLVER.mask(a.build().keySet()), a.getMask());
+    assertTrue(a.isSet(year));
+    assertFalse(a.isSet(OccurrenceCube.ROLLUP_RESOLVER.bit(OccurrenceCube.TAXON_KEY)));
+  }
+
+  @Test
+  public void testReset() {
+    CubeAddress a = address().at(OccurrenceCube.COUNTRY, Country.GERMANY);
+    int hash = a.hashCode();
+    a.reset();
+    assertEquals(0, a.getMask());
+    assertTrue(a.build().isEmpty());
+    assertEquals(address(), a);
+
+    a.at(OccurrenceCube.COUNTRY, Country.GERMANY);
+    assertEquals(hash, a.hashCode());
+  }
+
+  @Test
+  public void testEquals() {
+    CubeAddress a = address().at(OccurrenceCube.COUNTRY, Country.GERMANY).at(OccurrenceCube.YEAR, 2000);
+    CubeAddress b = address().at(OccurrenceCube.YEAR, 2000).at(OccurrenceCube.COUNTRY, Country.GERMANY);
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+
+    CubeAddress copy = new CubeAddress(a);
+    a.at(OccurrenceCube.YEAR, 2001);
+    assertNotEquals(a, b);
+    assertEquals(b, copy);
+  }
+}
@@ -3,6 +3,7 @@ package org.gbif.api.model.metrics.cube;
 import org.gbif.api.vocabulary.Country;
 import org.gbif.api.vocabulary.Kingdom;
 
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.Test;
@@ -116,4 +117,30 @@ public class ReadBuilderTest {
     assertEquals(8, b.build().size());
     assertEquals("DE", b.build().get(new CountryDimension()));
   }
+
+  @Test
+  public void testSlice() {
+    ReadBuilder b = new ReadBuilder().at(new StringDimension(), "1");
+
+    List<ReadBuilder> slice = b.slice(new BooleanDimension());
+    assertEquals(2, slice.size());
+    assertEquals("false", slice.get(0).build().get(new BooleanDimension()));
+    assertEquals("true", slice.get(1).build().get(new BooleanDimension()));
+    assertEquals("1", slice.get(1).build().get(new StringDimension()));
+    // the original address is untouched
+    assertEquals(1, b.build().size());
+
+    slice = b.slice(new CountryDimension());
+    assertEquals(Country.values().length, slice.size());
+    assertEquals(ReadBuilder.sliceValues(new CountryDimension()).size(), slice.size());
+    assertEquals(Country.values()[0].getIso2LetterCode(), slice.get(0).build().get(new CountryDimension()));
+
+    slice = b.slice(new EnumDimension());
+    assertEquals(Kingdom.values()[3].name(), slice.get(3).build().get(new EnumDimension()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSliceInfinite() {
+    new ReadBuilder().slice(new IntDimension());
+  }
 }
@@ -0,0 +1,83 @@
+package org.gbif.api.model.metrics.cube;
+
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RollupResolverTest {
+
+  private static final RollupResolver RESOLVER = OccurrenceCube.ROLLUP_RESOLVER;
+
+  @Test
+  public void testBits() {
+    List<Dimension<?>> dims = OccurrenceCube.DIMENSIONS;
+    for (int i = 0; i < dims.size(); i++) {
+      assertEquals(i, RESOLVER.bit(dims.get(i)));
+    }
+    long mask = RESOLVER.mask(Arrays.asList(OccurrenceCube.COUNTRY, OccurrenceCube.YEAR));
+    assertEquals(1L | 1L << 7, mask);
+    assertEquals(Arrays.asList(OccurrenceCube.COUNTRY, OccurrenceCube.YEAR), RESOLVER.dimensions(mask));
+  }
+
+  @Test
+  public void testExactRollups() {
+    for (Rollup rollup : OccurrenceCube.ROLLUPS) {
+      assertSame(rollup, RESOLVER.rollup(RESOLVER.mask(rollup.getDimensions())));
+      assertSame(rollup, RESOLVER.coveringRollup(RESOLVER.mask(rollup.getDimensions())));
+    }
+    assertNull(RESOLVER.rollup(RESOLVER.mask(Arrays.asList(OccurrenceCube.YEAR, OccurrenceCube.COUNTRY))));
+    assertNull(RESOLVER.rollup(-1));
+  }
+
+  @Test
+  public void testResolve() {
+    ReadBuilder b = new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)
+      .at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.OBSERVATION);
+    assertTrue(RESOLVER.isAddressable(b));
+    assertEquals(ImmutableSet.of(OccurrenceCube.COUNTRY, OccurrenceCube.BASIS_OF_RECORD),
+                 RESOLVER.resolve(b).getDimensions());
+
+    // the count of all records comes from a single dimension rollup
+    assertFalse(RESOLVER.isAddressable(new ReadBuilder()));
+    assertEquals(1, RESOLVER.coveringRollup(new ReadBuilder()).getDimensions().size());
+  }
+
+  @Test
+  public void testCoveringRollup() {
+    ReadBuilder b = new ReadBuilder().at(OccurrenceCube.ISSUE, OccurrenceIssue.ZERO_COORDINATE)
+      .at(OccurrenceCube.IS_GEOREFERENCED, true);
+    // no rollup contains both
+    assertFalse(RESOLVER.isAddressable(b));
+    assertNull(RESOLVER.coveringRollup(b));
+
+    b = new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)
+      .at(OccurrenceCube.DATASET_KEY, UUID.randomUUID());
+    assertFalse(RESOLVER.isAddressable(b));
+    assertEquals(ImmutableSet.of(OccurrenceCube.COUNTRY, OccurrenceCube.DATASET_KEY, OccurrenceCube.IS_GEOREFERENCED),
+                 RESOLVER.coveringRollup(b).getDimensions());
+
+    // unknown dimensions
+    ReadBuilder unknown = new ReadBuilder().at(new Dimension<String>("unknown", String.class), "x");
+    assertFalse(RESOLVER.isAddressable(unknown));
+    assertNull(RESOLVER.coveringRollup(unknown));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testResolveUnknown() {
+    RESOLVER.resolve(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)
+                       .at(OccurrenceCube.YEAR, 2000));
+  }
+}
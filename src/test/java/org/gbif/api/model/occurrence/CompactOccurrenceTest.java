@@ -0,0 +1,139 @@
+package org.gbif.api.model.occurrence;
+
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactOccurrenceTest {
+
+  private static Occurrence occurrence() {
+    Occurrence o = new Occurrence();
+    o.setKey(17);
+    o.setDatasetKey(UUID.randomUUID());
+    o.setLastCrawled(new Date());
+    o.setBasisOfRecord(BasisOfRecord.OBSERVATION);
+    o.setIndividualCount(0);
+    o.setTaxonKey(5284884);
+    o.setKingdomKey(6);
+    o.setKingdom("Plantae");
+    o.setFamily(new String("Pinaceae"));
+    o.setScientificName("Abies alba Mill.");
+    o.setTaxonRank(Rank.SPECIES);
+    o.setDecimalLatitude(0d);
+    o.setDecimalLongitude(-12.123456789);
+    o.setDepth(-0d);
+    o.setCountry(Country.GERMANY);
+    o.setYear(-200);
+    o.setMonth(1);
+    o.setEventDate(new Date(-123456789L));
+    o.setReferences(URI.create("http://www.gbif.org"));
+    o.setIssues(Sets.newHashSet(OccurrenceIssue.ZERO_COORDINATE,
+                                OccurrenceIssue.values()[OccurrenceIssue.values().length - 1]));
+    o.getVerbatimFields().put(DwcTerm.scientificName, "Abies alba");
+
+    MediaObject m = new MediaObject();
+    m.setType(MediaType.StillImage);
+    m.setIdentifier(URI.create("http://www.gbif.org/image.jpg"));
+    o.getMedia().add(m);
+
+    Map<Term, String> row = Maps.newHashMap();
+    row.put(DwcTerm.scientificName, "Abies alba");
+    List<Map<Term, String>> rows = Lists.newArrayList();
+    rows.add(row);
+    o.getExtensions().put(Extension.MULTIMEDIA, rows);
+    return o;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    Occurrence o = occurrence();
+    CompactOccurrence c = new CompactOccurrence(o);
+    assertEquals(o, c.toOccurrence());
+    assertEquals(new Occurrence(), new CompactOccurrence(new Occurrence()).toOccurrence());
+  }
+
+  @Test
+  public void testGetters() {
+    CompactOccurrence c = new CompactOccurrence(occurrence());
+    assertEquals(17, (int) c.getKey());
+    assertEquals(0, (int) c.getIndividualCount());
+    assertEquals(0d, c.getDecimalLatitude(), 0);
+    assertEquals(-200, (int) c.getYear());
+    assertNull(c.getDay());
+    assertNull(c.getPhylumKey());
+    assertNull(c.getElevation());
+    assertNull(c.getModified());
+    assertNull(c.getPublishingOrgKey());
+    assertTrue(c.hasCoordinate());
+    assertTrue(c.hasIssue(OccurrenceIssue.ZERO_COORDINATE));
+    assertFalse(c.hasIssue(OccurrenceIssue.COUNTRY_INVALID));
+    assertEquals(2, c.getIssues().size());
+    assertTrue(c.getIdentifiers().isEmpty());
+    assertEquals(1, c.getMedia().size());
+    assertEquals("Abies alba", c.getVerbatimFields().get(DwcTerm.scientificName));
+  }
+
+  @Test
+  public void testSharedValues() {
+    CompactOccurrence c1 = new CompactOccurrence(occurrence());
+    CompactOccurrence c2 = new CompactOccurrence(occurrence());
+    assertSame(c1.getFamily(), c2.getFamily());
+    assertSame(c1.getFacts(), c2.getFacts());
+  }
+
+  @Test
+  public void testIndependentCopy() {
+    Occurrence o = occurrence();
+    CompactOccurrence c = new CompactOccurrence(o);
+    o.getVerbatimFields().put(DwcTerm.scientificName, "Picea abies");
+    o.getExtensions().get(Extension.MULTIMEDIA).get(0).put(DwcTerm.scientificName, "Picea abies");
+    o.getExtensions().remove(Extension.MULTIMEDIA);
+    assertEquals("Abies alba", c.getVerbatimFields().get(DwcTerm.scientificName));
+    assertEquals("Abies alba", c.getExtensions().get(Extension.MULTIMEDIA).get(0).get(DwcTerm.scientificName));
+
+    // converted occurrences do not share the compact maps either
+    Occurrence copy = c.toOccurrence();
+    copy.getVerbatimFields().clear();
+    copy.getExtensions().get(Extension.MULTIMEDIA).get(0).clear();
+    assertEquals("Abies alba", c.getVerbatimFields().get(DwcTerm.scientificName));
+    assertEquals("Abies alba", c.getExtensions().get(Extension.MULTIMEDIA).get(0).get(DwcTerm.scientificName));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnlyVerbatim() {
+    new CompactOccurrence(occurrence()).getVerbatimFields().clear();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnlyExtensions() {
+    new CompactOccurrence(occurrence()).getExtensions().get(Extension.MULTIMEDIA).get(0).clear();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testReadOnly() {
+    new CompactOccurrence(occurrence()).getMedia().clear();
+  }
+}
@@ -1,8 +1,12 @@
 package org.gbif.api.model.occurrence.predicate;
 
+import com.vividsolutions.jts.geom.Envelope;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
 public class WithinPredicateTest {
 
   @Test(expected = IllegalArgumentException.class)
@@ -31,4 +35,20 @@ public class WithinPredicateTest {
     new WithinPredicate("POLYGON((179.285633734761433 50.81429697072722,179.600130309538514 50.798132663162107,180.0 50.825202656741141,-179.985731034706419 50.826168623278733, -179.642658093259286 50.834515997684633,-179.213664117412264 50.840857544117746,-178.7279984347023 50.826278814839625,-178.18429064642126 50.835108820227447,-177.626082523252393 50.840296631141818,-177.281988535498328 50.84873307871495,-176.949746239857888 50.883467289729275,-176.575684847926823 50.897294242619274,-176.127962223114366 50.924620402620064,-175.652080455589555 50.939334905055667,-175.273524893328727 50.974885720657632,-174.953998887058816 50.994017072564915,-174.647106506277254 51.021893624709776,-174.381271904822 51.060428690965757,-174.070421464310328 51.104412619164805,-173.661690945262905 51.122361268681786,-173.331784287347801 51.180862127649284,-172.887853474191161 51.22026407106295,-172.465963098482518 51.286885463232927,-172.103965362763148 51.338599894354971,-171.720301515516752 51.414551938641459,-171.02702263179421 51.541888686354838,-170.239907432369876 51.663804845702394,-169.490823908597832 51.784024983094064,-169.048296238087829 51.861803024546383,-168.592315747356281 51.926757505741527,-168.038856395403599 52.004949878585705,-167.609922845361069 52.106467506540987,-167.268741702403673 52.209264183553259,-166.933349406060614 52.330721472541548,-166.576957484856194 52.420146740924224,-165.840385099285669 52.639382909126418,-165.243282703307955 52.763235337449807,-164.758868721681495 52.902710864974594,-164.212015256737658 53.029837785931782,-163.557731651875741 53.2025619381387,-162.868676455672102 53.394554815024875,-162.361385589077059 53.53091870703313,-161.850308447693749 53.693786378492476,-161.364049802570065 53.830832171491551,-160.943181977316613 53.960157700003833,-160.519101958939927 54.087736861048505,-160.111984004790514 54.208007547997724,-159.615201267284903 54.357105257809799,-159.171938355126628 54.467178920037519,-158.70591507526737 54.63037130943772,-158.175828466374213 54.777735740158391,-157.643687630564017 54.94301613034483,-157.248181299504523 55.07946181594771,-156.853611138812965 55.185184589781237,-156.460345482681731 55.33086132556744,-156.063573715817114 55.475096271825826,-155.748724118539769 55.578493985596303,-155.403197036998051 55.694009079798867,-155.018262354749794 55.808989497924131,-154.61484217310354 55.897759883028513,-154.136257948995535 56.048004191842985,-153.653057867455431 56.175251182439524,-153.308690231447571 56.288042875159995,-153.006612955666327 56.433341342195767,-152.73232884215642 56.565529668918309,-152.432817518349538 56.701039289647056,-152.204591445532373 56.899461119048034,-152.059409812497819 57.069397881893757,-151.889238639587148 57.243130841914862,-151.731315133836688 57.442157336685625,-151.595877410108358 57.755092137537822,-151.478675778535546 57.988690804030298,-151.496415430254672 58.208090778990837,-151.608447320250747 58.336524502317701,-151.769015492243682 58.478316270351051,-151.948125229667454 58.603307759729141,-152.080600036641016 58.714824064149553,-152.270099307832851 58.852201981610968,-152.454288939477863 58.955448059302284,-152.836245309658693 59.089279920449307,-153.230133001155934 59.192258250727861,-153.46942812808723 59.243236954145935,-153.826119965400039 59.344188512142729,-154.176624592167656 59.431388902991849,-154.546058842928971 59.521599984166428,-154.842070238997962 59.603114035225019,-154.723190624861019 59.753039413238049,-154.533187626541178 59.844183949326968,-154.425135842537173 59.891884385024788,-154.48675965558769 59.959292274159424,-154.714639212000861 59.939973764268061,-155.330534677528902 59.905913569272251,-155.691796255191747 59.873838883980483,-155.913275662174556 60.090327781724334,-155.835388990035227 60.17707523934385,-155.631992158217031 60.308822682600834,-155.702482155181997 60.4394778717907,-155.791274667945942 60.574072331978222,-155.964207048500583 60.570441725854117,-156.072094038487478 60.427393785853539,-156.263091175344869 60.354714057834343,-156.495100725566601 60.353062680831783,-156.605595072866578 60.418275680821218,-156.739294837068854 60.529671532281768,-156.970472597463271 60.578331378316165,-157.139571397749478 60.479190158563306,-157.254309468926294 60.368823334684677,-157.468589347317646 60.36153881904302,-157.725575571576201 60.352274050654962,-158.07489674182753 60.381445477124103,-158.070590528594238 60.544770477740364,-158.207055501610284 60.684577420656673,-158.4057786541197 60.723323634489091,-158.490217350610294 60.852367632394511,-158.725065611912498 60.79489303678708,-159.013713706983026 60.880007019581051,-158.828834518145896 61.060084719345234,-158.401210391959523 61.091722105045307,-158.31378948167216 61.198215546293966,-158.181420374855549 61.306469185043305,-157.825649241338965 61.42301354334306,-157.757675215699948 61.502675795770848,-158.102993091843018 61.579814696965698,-158.428058313814063 61.682679444482822,-158.740975402226553 61.617711250504463,-158.994909321970596 61.623405737745472,-159.228202302314855 61.573666024189599,-159.420846519766229 61.465289613064222,-159.598553088582548 61.45624022846269,-159.714634114181337 61.609382457420161,-160.016711139923871 61.662077116051229,-160.30119984850765 61.568562796651939,-160.672428416329979 61.469063179716862,-160.859361151396143 61.328241974462991,-161.074328887889948 61.262852466541467,-161.236994703259541 61.299664446159383,-161.215120067058393 61.538404714972891,-160.940672151012222 61.625017016710402,-160.705414979716153 61.626592550629312,-160.594025470081135 61.719566172409593,-160.389169597845154 61.735908968221459,-160.262568025938094 61.846658563603448,-160.130092633138389 62.048206059029596,-160.624754904366682 61.937857685550462,-161.340103703918146 61.750502935097401,-161.900408703532491 61.617092859854544,-162.34867797977742 61.515185881120686,-162.525852420481357 61.692405936406388,-162.987156029194864 61.86046069800507,-163.521436658510908 61.886351047975261,-163.741452558645165 62.146440371298524,-163.56328070305392 62.191957975627901,-163.309680599226766 62.286869727851979,-163.155019315620109 62.42558238110206,-163.196135325510227 62.561742188584049,-163.259511634187788 62.83148072187717,-163.040682799351572 62.96203399941691,-162.795968650605943 63.159494375066707,-162.533469997759994 63.344548714904853,-162.28914509191182 63.340075571141256,-161.929262483681185 63.308096767843416,-161.644759182518669 63.296406753185721,-161.543223553827033 63.281198473413468,-161.373963736405784 63.29628831390427,-161.216239981442385 63.445272678370614,-161.08121066212675 63.38387534935746,-160.84583431934368 63.541294585112134,-160.835256744341621 63.672400740052119,-160.976910320260401 63.78603924822584,-160.848910009620141 63.919740221630079,-160.865400387824707 64.075636004666094,-160.931341351070699 64.228812454606995,-161.033757664442135 64.366896937043947,-160.952069840231673 64.528737668084119,-160.723047587602792 64.781700106015819,-160.592305643115537 64.998477929327578,-160.629628235161761 65.158265448859936,-160.92568508871048 65.273534765203223,-161.044157107727074 65.218787816092629,-161.293909477866606 65.121321800134922,-161.476394383122482 65.014209277651617,-161.361197870633418 64.915969937349843,-161.491419078902084 64.84254154255089,-161.68581445727412 64.839442855624682,-162.124052887796751 64.798497235598262,-162.521933842458708 64.679825256317855,-162.638016238048323 64.55337850033068,-162.896118798047013 64.324549334044178,-162.856470890312664 64.511635038667478,-162.939416974525159 64.725210257740201,-163.180039826262345 64.786888469379036,-163.771757413784968 64.891940941447899,-163.836233135118789 65.041226268175222,-163.714912901066413 65.147575226286008,-163.253376830496933 65.12031865463895,-162.889349394144773 64.992428164278138,-162.544058548550822 64.87578473771336,-162.301897734146763 64.975434532077927,-162.220491405805348 65.178312034473706,-162.024604032855478 65.243561720998315,-161.658807276183438 65.305694375898,-161.232939530266719 65.317604127160607,-161.113249629474495 65.433953516094775,-161.103910850873177 65.535300693921698,-161.064593567404074 65.642727705432804,-161.144456748840213 65.756747583772196,-161.024211634719165 65.780935036418711,-160.611800420505602 65.794105242054883,-160.291544296822423 65.757714661327284,-160.105971230551717 65.854344445549501,-160.075831091172688 65.974060452840149,-159.764580230489088 65.896533538240178,-159.366881553457063 65.721576817827994,-159.242023122142626 65.774941541524072,-159.100465381236148 65.981895219829767,-159.04447133200722 66.15037873958569,-159.344882073585495 66.352710310069043,-159.301478170341369 66.481583235370962,-158.882891945674572 66.428070879049457,-158.535631615825338 66.48904835726465,-158.04116573045016 66.536432712854705,-157.78599064121849 66.579388206149062,-157.325937691277915 66.58820217547445,-157.234692140402956 66.699942508679968,-157.380639959837453 66.840393731848863,-157.731137506361421 66.81294001186707,-157.969979421561789 66.840700152307704,-158.001336070558807 66.940458095068962,-157.524437672950938 66.95898374747506,-157.03627434791062 66.910578741408088,-157.017567366164542 67.002928893285372,-157.349847712264733 67.04695231557595,-157.732934385811546 67.172044102482516,-157.975640269479555 67.199832223730709,-158.274614089953587 67.067526441550655,-158.604224436767254 67.034334488233426,-159.074166116015704 66.937967849594642,-159.744420964373745 66.932412555390329,-160.214789007638046 66.968406760138706,-160.581244014054846 66.884861485865741,-160.934306113343865 66.902254204446223,-161.08015125433468 67.066498353118149,-161.531445560342519 67.156894969511868,-162.127428751340091 67.140375299541574,-162.137517886711635 67.223781216645975,-162.475504567968272 67.296284255618914,-162.22184242631181 67.378022492333457,-161.79776456418071 67.530859900426293,-161.449685264937017 67.589788615099977,-161.157866860843939 67.583091445291743,-160.913751659236112 67.613179798363205,-160.78519952546273 67.575428156281362,-160.539378922225779 67.459457264993674,-160.274945392608032 67.568812798073438,-160.256973051849656 67.327327421251567,-160.087764785076445 67.220599356430569,-159.895362068941466 67.339166883100887,-159.874814432157706 67.502928685786912,-159.833755071998183 67.716099838702831,-159.747055330829284 67.777036120153738,-159.510370111770186 67.597442883973997,-158.930349969046091 67.492361859039548,-158.550995085146297 67.488287164460033,-158.376335523058344 67.577624717844145,-157.651210904805879 67.45500170352598,-156.761104746862117 67.385496714687207,-155.984891385258777 67.265137943396894,-154.994060243474223 67.165195189603153,-154.668614852996569 67.181390948292446,-154.096041743578212 67.237520765304055,-153.56586527374597 67.289214533566096,-152.523534950054426 67.325826330318563,-151.211261760219571 67.298837588876992,-150.194235378306615 67.280080239942677,-149.594563911592132 67.405973898592848,-148.953183233208051 67.475773144499087,-148.287974973407529 67.480633763674973,-147.884460307348519 67.580444611732815,-147.528613198266612 67.703228260800543,-147.108521862214872 67.752203655405935,-146.664343535874508 67.759328858901966,-146.536453748057284 67.868222807902612,-146.371174055149879 68.015115098537947,-146.160369875471474 68.08029288603862,-145.854169089105255 68.109594957244326,-145.522569703980793 68.01309999967404,-145.269297672367514 68.150255308586352,-144.910830981337909 68.272555184317113,-144.357199344664963 68.223006848222767,-143.928171650649801 68.192478908709944,-143.745287514685828 68.252159575735661,-143.931603643468094 68.423979215087456,-143.650421809434988 68.482094929241541,-143.190585891461524 68.479024737732431,-142.656000107325099 68.478316222751062,-142.208126124811372 68.450792716174206,-141.698561845492691 68.641372563159436,-141.569663652437896 68.779665375687401,-141.370681952765239 68.822790290420897,-140.9593769645777 68.803922524855338,-140.933788763183315 68.379119738466116,-141.035317587605562 67.678355968963814,-141.128159668047715 67.229387720651957,-141.017766415807273 66.692350794493308,-141.042653691255026 66.261522407974525,-141.056758673193713 65.728048079602786,-141.092326326100505 65.153209879005061,-141.119221120222079 64.930599523967942,-140.531866275706818 64.776987242672675,-140.081873956611673 64.629780111451552,-139.713548887047779 64.547141585185443,-139.42560660439014 64.54331112388833,-139.123043128306705 64.546178456531521,-138.828854545948076 64.500096298793224,-138.435157868886364 64.414892125479909,-138.135837702201684 64.429173083129498,-137.841791862223403 64.353611924750282,-137.567867505055688 64.455097000221826,-137.2334451890857 64.440606153267609,-137.069435507179094 64.374807405285495,-136.690462361206158 64.380193351774878,-136.455533892319636 64.417203959579751,-136.397659003835628 64.513658233698337,-136.223968537122175 64.535908977873333,-135.96852061409956 64.510630940941169,-135.747818127291566 64.566819729785351,-135.636204839902348 64.560553379459549,-135.459216019865579 64.458614829554804,-135.157831463463253 64.42510315515301,-134.967842882570608 64.452562591378552,-134.809899697769424 64.384011910298369,-134.620265468659454 64.383603693739119,-134.401018721556227 64.300710951597239,-134.150442588124093 64.258302108808806,-133.852070506318938 64.249201191911311,-133.523321418516247 64.225407065911767,-133.212357336905399 64.180512370463617,-132.889762966495283 64.100494859570858,-132.646398052979123 64.027964223406656,-132.519128006841726 63.895721428648223,-132.441454159516155 63.743894290678938,-132.405745412777549 63.64073904218079,-132.136053110220075 63.580392335902033,-132.223616809135876 63.479920325908928,-132.468669219061184 63.47135150719707,-132.734198613612278 63.401293669614859,-132.713525808236938 63.29182665999955,-132.483556033680031 63.164788143750272,-132.222990353098339 63.063934978647062,-131.904753792797294 62.961134525784018,-131.639735933941012 62.927074674027203,-131.304393063440017 62.97218189763683,-131.015837904501296 62.997465773958851,-130.966654258677551 62.927702542725605,-130.939956951075942 62.810948295894029,-130.956719064254884 62.702467327377803,-130.873640350374444 62.570327253348111,-130.656778035738654 62.54248578363292,-130.602628414405842 62.424814040658198,-130.74382406786907 62.368513457822701,-130.566984363683389 62.198974608981914,-130.33397725595259 62.115483818734624,-130.006690415838676 62.156970964602188,-129.719216496720833 62.175522006230402,-129.593935980784437 62.074710314252293,-129.519462392474821 61.942046862725,-129.349001013461958 61.859355774197986,-129.361497019336809 61.730684794712857,-129.201460057390364 61.607464956044019,-129.019024209057505 61.333400039823822,-129.012951032356654 61.102224768810402,-128.803798578244653 61.159321437753938,-128.593784237128631 61.216061752705293,-128.417757674506277 61.186004587158649,-128.427876293433286 61.084635282797223,-128.382746550565201 60.980212954993725,-128.213036074834633 61.045263499011284,-127.971599066082149 61.112678381672126,-127.888431370912386 60.890114785330063,-127.778590822291619 60.883384580094713,-127.535238952796348 60.854496233958749,-127.268066489442774 60.762274838062275,-126.932641388580919 60.623815808795591,-126.63464892169695 60.555019699859784,-126.403518339702217 60.49719111549912,-126.22321064275998 60.27935296498427,-126.173173034556157 60.132626510798637,-126.302924825053708 59.931916299827996,-126.360045460551618 59.698689825547071,-126.230970224291752 59.59370537541983,-126.031586662747614 59.503283049693657,-125.739258188646588 59.540546891225929,-125.48325868918711 59.505453920820983,-125.301321362346783 59.489794712583318,-125.032800012145557 59.609034293505026,-124.81648129336493 59.385292735730786,-124.563660120766258 59.198441415421406,-124.256949745704631 58.951177405962078,-123.868977846470997 58.738112662768536,-123.787936564943195 58.60728875714647,-123.842380672103644 58.463302010897422,-123.742224963245718 58.282975496334309,-123.515201981588262 58.068636999206902,-123.231321616782907 57.942513374436849,-123.121729783971787 57.767229104583919,-123.005365237672493 57.516398685087985,-122.840248358813412 57.361617775502424,-122.92754206239934 57.141215213934522,-122.860542620651628 56.964028466392108,-122.680614664383768 56.793703780762144,-122.484413956115489 56.607451714786265,-122.204428088462862 56.362823408035936,-122.041987384953003 56.166204231959092,-121.870120315835919 56.171064092047835,-121.575503089325593 56.20683206392858,-121.185944743759777 56.317216427198794,-120.984464731292832 56.493587645365253,-120.897297397045392 56.631383054559706,-120.727448720651992 56.785089904415997,-120.458673790497329 56.959086741490069,-120.412412167173883 57.082536446622704,-120.147007648858377 57.188498118176113,-119.903446680578355 57.297300170384055,-119.6516672351745 57.418393791076959,-119.339022299568953 57.406019578974487,-119.055332682166863 57.459269566021256,-118.716389253091407 57.517086582171579,-118.568925985327809 57.410758277873597,-118.362147305205468 57.066268819861342,-118.407053644864732 56.91465286472981,-118.125236384764804 56.944359394143518,-117.700577195859367 57.067112257083487,-117.411657470884904 57.191379509555993,-117.593139003434658 57.542257135558472,-117.736086130323713 57.809766850619816,-117.596293818974758 57.870086186775374,-117.243452242053763 57.978077173909099,-116.867602711777621 58.101021106257463,-116.717162715053689 58.23612424242112,-116.38185243436719 58.198158505726092,-116.181579929914818 58.260836647382504,-115.946960706400617 58.394652849653532,-115.668416814552145 58.30839406993617,-115.140784096777978 58.117342519981349,-113.66262526809281 58.501343984988196,-113.388575930249729 58.574019044486938,-113.101199956415215 58.679490940857391,-112.887770471233253 58.829156905088865,-112.715788121891364 58.958846531371876,-112.398300332266359 59.057592489638402,-112.108562961112369 59.067552027519127,-111.842457769981735 59.031086352819933,-111.567113336559899 58.955345891068433,-111.433239831631283 59.063853947012433,-111.349101685041248 59.212894514310499,-111.009949319015121 59.077457338646454,-110.711268059292394 59.125885936227263,-110.510609709244108 59.336485733113342,-110.242442123520149 59.458020772190459,-110.067920123875723 59.60162978670693,-109.861209438235775 59.730441333200112,-109.562555794432342 59.844863490681561,-109.169780259381866 59.884104215775544,-108.887564477660987 59.792517103963554,-108.606961414230568 59.670275986770676,-108.256876260165953 59.70926296483406,-107.882194359630503 59.741059093378425,-107.580230669292391 59.700180990524316,-107.29026812477133 59.676621848198529,-106.806823022174214 59.622698664195148,-106.219845420565903 59.552711407122693,-105.83770993131867 59.52955581154184,-105.464225896385031 59.484314886839201,-105.346224040863589 59.373121618519058,-105.062910025065591 59.382963447141471,-104.81057557940936 59.378094013203544,-104.504423950828524 59.379787900090776,-104.270215484584838 59.371330640638632,-103.982278476568197 59.291170546542745,-103.641583656733459 59.256043390663898,-103.648524761761806 59.07016100979348,-103.673593104291896 58.843245685274916,-103.574576689416276 58.671066106459584,-103.293320178777918 58.667235971645816,-103.083311360530558 58.66378467229822,-102.716105735066179 58.717253949036717,-102.495673672712542 58.636507529264932,-102.562319655136676 58.532099182690786,-102.724104785281014 58.435756254917202,-102.608649744271631 58.294790493100727,-102.434132489141803 58.228346182144406,-102.026072647888682 58.303881019527985,-101.699599086904357 58.311084617167538,-101.358713318004092 58.184271127583692,-101.382772886792367 58.008842047626267,-101.268112072197468 57.944269197727216,-100.952637736454719 57.919699345089946,-100.535495878074855 57.961792929496283,-100.353308018085627 57.90312679799527,-100.190934313051514 57.7945734426104,-100.122855079698212 57.591083634155318,-100.001283873476282 57.545448411906179,-99.916108606768702 57.610693443860981,-99.718445682253943 57.71483987835353,-99.579918828332751 57.727441990545493,-99.435616000529549 57.60702198435856,-99.329665728895591 57.492705645873571,-99.162542017807681 57.288748997402159,-98.91931239717681 57.357174082944375,-98.656681170211726 57.360130739308737,-98.200033656598322 57.358761873761352,-97.804472391895118 57.388802330691163,-97.709955118858389 57.291625332290316,-97.517481201467589 57.362322098294513,-97.298027210294222 57.396655878152394,-97.032900143364131 57.38628265443711,-96.770869652236215 57.308935666722704,-96.551809747586759 57.181207225550267,-96.455723678636019 56.970308227471307,-96.351565439595831 56.882500369269543,-96.116014175648345 56.821290551493902,-95.800115670345022 56.782940995599773,-95.398670479386524 56.738769690299684,-95.059640583025214 56.755817935241247,-94.55043626242248 56.77932383457199,-94.170357942215247 56.74833644164822,-94.224470734049021 56.643020698231915,-94.284540308885212 56.584322697948082,-93.933864117639928 56.495203469663231,-93.708705227641886 56.307041054994428,-93.489852802573708 56.305343450399015,-93.430543604911989 56.223216839582044,-93.366635198678495 56.094556925782072,-93.022629616370565 56.130495312994604,-92.639055764402457 56.141086312670659,-92.401258921229683 56.090942576251294,-92.2421739332366 55.963987429973322,-92.246400526212284 55.786845311639496,-92.205128715538578 55.666706772774347,-92.215211602910983 55.573428732544762,-92.59296872611705 55.573747973909676,-92.664245770295878 55.441646284069897,-92.493866754383205 55.353039565388954,-92.25086611247275 55.377362593546941,-92.054101474532587 55.362987904012016,-91.895055828984255 55.152525553525905,-91.678399155270085 55.03579182696464,-91.553695559787059 55.130573009219859,-91.376461459492589 55.151726542867308,-90.972391773922126 55.184304679262269,-90.74372961561923 55.112051199341551,-90.612579947964889 55.020217947580676,-90.224685135372354 54.919907897857371,-89.90324309197203 54.836752086137601,-89.678181876053898 54.882586039084352,-89.276558280491159 54.880473799937256,-89.006000482446993 54.79477935855148,-88.883146301534509 54.636117450579128,-88.825581738875499 54.459738068781839,-88.542160336267401 54.40972779454475,-88.357616793075579 54.295934480880639,-88.07893145003726 54.198502799166207,-87.742846583557835 54.043608192949399,-87.392847472976513 53.905686278777807,-87.158966519240494 53.714713751860558,-86.873650971456357 53.438787888059167,-86.748451437809891 53.296608098943423,-86.560592687557104 53.179676642744568,-86.467798512514932 52.891499892149021,-86.446850285130253 52.652216894300118,-86.405730225176626 52.320950565605386,-86.355713744415567 52.227534241658951,-86.193570687648489 52.211904276038055,-86.150239371299449 52.063839999435118,-86.139642698627128 51.889848369866662,-86.099918420541016 51.714798994086664,-86.228419392549853 51.610749879433136,-86.189537086350867 51.426961316504048,-86.002102327136669 51.409858221361141,-86.01018707913893 51.337384081922082,-85.927507333251754 51.169975151413198,-85.714558419856047 51.014731823905215,-85.467697344051331 51.029995317850442,-85.467000698260932 50.920901931335081,-85.602167891966147 50.755068391184004,-85.741378860070085 50.544137885042169,-85.55224188822838 50.462474147266931,-85.306513460024021 50.386515267587889,-85.047768406741952 50.309143013980623,-84.88041522250299 50.191026758415468,-84.749400319418214 50.219614992602921,-84.530739522271332 50.360524173591173,-84.356691320544172 50.385973831492237,-84.183834539383739 50.402106682226268,-84.128425084842405 50.217065184377063,-83.901296849922275 50.138314717081641,-83.720068253041305 50.125681485489807,-83.492426344979066 50.136493828360756,-83.303179419957317 50.167794228790541,-83.040159803868235 50.138479120327425,-82.716633020187217 50.130665407013403,-82.517640859661597 50.205013015184811,-82.251228580452576 50.191245447936367,-81.996969440654695 50.186869020309842,-81.645529242899997 50.17265144429647,-81.229313603362598 50.132385453606815,-81.243138242996963 50.252357784531753,-81.136787263462637 50.397048230073445,-80.911970559559279 50.438348971937202,-80.698089572477045 50.434532590668482,-80.52378110522217 50.388659979788599,-80.333944573032824 50.294954522683618,-80.238720072892235 50.330290345157472,-80.091141455038326 50.420203797220935,-79.918287905602952 50.474112473811374,-79.69548025980211 50.448539495996812,-79.507475493693107 50.353055176259168,-79.475188055111502 50.266624149625379,-79.366281100474566 50.198526562470498,-79.129104684377396 50.178787774295678,-78.991662624960782 50.207652503265066,-79.034338212131928 50.350813608991949,-78.874383543237812 50.45044037225211,-78.696868382802535 50.556932544548481,-78.401830939066826 50.574194974155461,-78.203199903391194 50.649575829112045,-78.018539783833603 50.680313151323823,-77.872360234628232 50.725230839336334,-77.686259916832825 50.884897380665372,-77.724531321349161 51.02923660783204,-77.523605116393398 51.140689577296889,-77.282300612861334 51.236934005079121,-77.099133805298521 51.210783209102729,-76.984357414680261 51.240752319631639,-77.030974007734116 51.275441714351224,-77.188733642125555 51.372569437322881,-77.204852302409506 51.533251129655099,-76.931560488989987 51.624759243358859,-76.624975934774838 51.7201491987922,-76.224425914076221 51.856836950986448,-75.956864256755949 51.99420578015738,-75.956849579594504 52.06938232882294,-75.89555281862846 52.219809290661011,-75.787234806770982 52.259514755327032,-75.58922186981367 52.219082364085168,-75.444843999535451 52.233886579054619,-75.231451344769297 52.265666551990527,-74.896037248455499 52.258004761686571,-74.558324989807346 52.22031554481967,-74.357993435869105 52.186083764818903,-74.090737564312832 52.063783652970699,-73.968818134692413 52.061246148184111,-73.748719609833955 52.135947412799503,-73.539345079352458 52.2503431761454,-73.357044597203839 52.274239116105356,-73.160244028944419 52.295138037443124,-72.988518976849818 52.35857570342371,-72.848083369479951 52.38950030273201,-72.650342161365742 52.409338408655302,-72.563175884473168 52.335193054376887,-72.433827727757617 52.252743181934115,-72.468188168579914 52.125438434741433,-72.47932923969087 52.01285829452388,-72.314923768906937 51.971094436885764,-72.199573188953792 52.044021844757623,-72.211243997023033 52.170852337627018,-72.085447944961103 52.232242773448924,-71.832316925132929 52.325697148363027,-71.549500727158559 52.383843581833645,-71.28517440561393 52.377649095035032,-71.011235414096504 52.387984875703019,-70.578138528858545 52.508702017314242,-70.178897604578694 52.538359012484541,-70.035369758196566 52.458056175779937,-69.909245634663847 52.322970615947419,-69.838959473627753 52.122469744662268,-70.040262473844649 52.128871279247811,-70.296421227816083 52.17599973328057,-70.43003453313635 52.108475321924573,-70.685251548059952 52.018957340847365,-70.980973518083019 51.937705517306114,-71.005872597727787 51.83703803290399,-70.857939279648988 51.795712591430224,-70.695101854039351 51.808719638928565,-70.517445248959902 51.847195588275689,-70.352281914860356 51.917202580979151,-70.218634627513978 51.877898134370604,-70.245647518494494 51.777479296477878,-70.153597399387635 51.640837271837071,-70.240418934560793 51.544334346646082,-70.17519843021914 51.442758336943598,-69.964220917857446 51.327267409855409,-69.810404835576449 51.379026720228772,-69.502969899340513 51.37548940134613,-69.275918107859923 51.263786254093311,-69.13499141150659 51.113713585916592,-69.020209011918269 51.124926005805037,-68.824710323392011 51.116376769358055,-68.676442451850448 51.031421662143806,-68.507524481715379 50.940961680992764,-68.385810829426816 51.086011496386753,-68.23616866902502 51.126604697268462,-68.059048527779012 51.257900132759424,-68.020915655601868 51.365721784524865,-68.050030416416647 51.4906049957292,-68.03062468613517 51.593542403454535,-67.849936453339268 51.773809008428444,-67.650438281084192 51.811724264982949,-67.433409507663598 51.756083669734657,-67.202974281860094 51.81475122189979,-66.996443100081933 51.790312949591005,-66.767118191719746 51.729559475425511,-66.448825789346586 51.614214631523751,-66.27292553665562 51.705349134961864,-66.152372974727939 51.672321715469486,-65.804020115904962 51.555750826540937,-65.447006597288279 51.474782237768466,-65.346638119262508 51.546065988824651,-65.206081670026578 51.605837236218512,-65.026903755997253 51.544028720906901,-64.900231624590234 51.477015510773356,-64.843759998008167 51.530753759864005,-64.774677727174051 51.600926989723789,-64.948373631835537 51.691825277957285,-65.050230340942306 51.771525916378351,-64.934908934390464 51.838640111301075,-64.770601505679664 51.841159221356982,-64.571447652312585 51.782731548291011,-64.326473485975882 51.699937530941348,-64.135620658648605 51.65275885618874,-64.045322549026963 51.726645535502726,-63.954946784772488 51.820833459698221,-63.970297945389774 51.967407182718688,-63.812079398783773 51.980412634279432,-63.587278998895755 51.891409174018698,-63.488582703350517 51.932260679376064,-63.310341156826667 52.009628554094192,-63.198478258891136 51.944199031224294,-63.113649167149489 51.846171786064517,-62.956776091403114 51.77627144695203,-62.786012080294064 51.783372035362582,-62.640802281712595 51.818884973758841,-62.645743082431245 51.892245225392216,-62.661583190554722 52.071732146242844,-62.646619542539064 52.149112576726644,-62.590539147894695 52.275154524765213,-62.421225392959329 52.375584746440481,-62.211214178408142 52.462990365332118,-61.983264604829152 52.472004694990595,-61.757161341234074 52.439611620839251,-61.576310377462683 52.317667119276486,-61.603956971678336 52.171183655005976,-61.462842900947301 52.082588104709615,-61.198262130468336 52.076598033146389,-60.979770847977434 52.075164098329488,-60.770064937999194 52.044894016676011,-60.585770937988308 51.949635290820147,-60.380662226493932 51.877820587920681,-60.176385009930215 51.805583594750843,-59.944933118857811 51.817519183258334,-59.846093553211027 52.013758907334633,-59.636484649236024 52.054440014287366,-59.437331709137958 51.939836515441229,-59.20937721403984 51.856180618789168,-58.856113547492718 51.884283288685943,-58.560256449869996 51.922293574864135,-58.269226522076124 52.057904674238429,-57.936690590990928 52.145298917048514,-57.5887675247385 52.193756825727881,-57.337797324252563 52.062755474213937,-57.152942394933874 52.054499233367387,-56.771565161901776 52.064762969770577,-56.443337581624412 52.073400513656452,-56.365445361631494 52.129128292095515,-56.262528628329562 52.240483958429046,-56.035252626733673 52.300859595979368,-55.783511964873881 52.284586323845822,-55.662662646263335 52.344613513218832,-55.462139298573533 52.426630154092962,-55.276770960831207 52.526184591247556,-55.180490009889184 52.67477434684055,-55.076122035730911 52.909697742860857,-54.93193351158174 53.152161094145399,-54.840676369339477 53.405534579207476,-54.820288196144006 53.678192558299578,-54.888040651423857 53.909132788898404,-54.928274023313946 54.196237014305432,-54.965316561311553 54.470901324767951,-54.974080212152053 54.802075450224855,-54.936765063707561 55.0586055130549,-54.925508771891081 55.326145456252021,-54.919502932928609 55.573502376134506,-54.857810452698899 55.833314453795879,-54.827957217548224 56.083574723867557,-54.74512107109009 56.359262435915142,-54.56807802728887 56.610415626637504,-54.406038687071387 56.880087350290601,-54.203132375953601 57.146513897925381,-53.962202296354022 57.422557492443616,-53.751841829588614 57.6888255873247,-53.428212228973024 57.970432883163888,-52.984149616139824 58.253224906571837,-52.621921974535965 58.535005546395155,-52.192043878199044 58.779540096027191,-51.905281030565966 58.939296195624962,-51.460627127371723 59.168146370488842,-50.967696424876827 59.451536972116422,-50.588598411483467 59.612498370918487,-50.075106853707837 59.791671165133572,-49.569664707941712 59.974800573930722,-49.044457663480863 60.061967307263146,-48.386218560266173 60.076596870292306,-47.69672090220174 60.047811681780523,-47.398062631740615 60.014112615433902,-46.812455039683364 59.883789574927633,-46.366370510670158 59.775875132200959,-45.988763671818013 59.632189948840484,-45.560902746538531 59.420627699290755,-45.256962792806611 59.240925779104742,-44.760919460518416 59.187421987404434,-44.187884153812327 59.157955524088152,-43.742734888966908 59.207373729567564,-43.307247780700628 59.288680332556126,-42.931615767406619 59.416398393157088,-42.660374098613921 59.518376837805867,-42.388997256756284 59.747358633906529,-42.277731338347991 59.939616828146285,-42.092856435045654 60.164451999345438,-41.893215446109124 60.50954866998341,-41.664254797146818 60.82711719916545,-41.52215725179849 61.07978634340931,-41.132289399003149 61.372255145790469,-40.950038971926681 61.650904197153977,-40.707033992304623 62.015922222898176,-40.434632648897342 62.427823496351209,-40.110455201686278 62.831301029398098,-39.893274343612838 63.102638432197502,-39.818508213301513 63.346636583684791,-39.775633204559469 63.42757596719958,-39.57233692749567 63.698454286426404,-39.217806860431935 64.251574973172978,-38.800795805793577 64.573600890987095,-37.768964343361404 65.028354887970764,-35.031894291665878 65.758372244652534,-33.482175233527904 66.277410705814376,-32.467321736992972 66.643555720302885,-25.909460581757163 66.64355391314642,-25.364811887285249 65.985355296616689,-25.196858223418801 65.431907851022913,-24.843365453167298 64.707327774604124,-24.200718062357904 64.125766841543495,-23.269693622057542 63.633196307137489,-22.300226744308944 63.316948190636253,-21.137809648502284 63.153587376686325,-20.351222016206822 63.059151813276763,-18.785650975072336 63.08615723613088,-17.035356386313435 63.172409798799166,-15.5348252492121 63.380718229846664,-15.053515459211486 63.263111527467167,-14.851998665266166 63.341011747504957,-14.848904755820927 63.340822784358622,-14.105841051488445 63.280806690652987,-12.789218598925956 63.124783232851129,-10.843552561023603 62.767901919114259,-9.203200508284505 62.325566494471765,-8.59615536544106 62.121084894921388,-8.21894234216068 61.838933453207048,-7.908713231763155 61.723355984264821,-7.726838508720232 61.420340367927004,-7.254262574523019 61.148022160313104,-6.504252933134244 61.053826180513944,-5.765815747247299 61.346385746523723,-5.702449031840263 61.502855251462726,-5.697537951500443 61.784386590111772,-5.42817834823059 62.162115160009904,-5.251280690719618 62.44173668583479,-5.09772824530751 66.438415646646376,-5.236947447703358 66.643554279351477,-2.451402091724135 66.643554283555133,2.25784015919935 66.643553386475816,7.328930656518478 66.643554109698769,9.864476238098458 66.643553035187665,12.138172316538077 66.643554630668774,14.673717972830405 66.64355428273474,15.544725200261018 66.640129598021232,15.389369731285109 66.485161123746366,15.424853130480603 66.388009013942053,15.136255887399384 66.295742508451951,14.627917177935712 66.235241934092073,14.556460588897544 66.053958525005072,14.501642179647018 65.682636696461856,14.43617959427354 65.394227200092288,14.270525528837245 65.207011721323184,13.667438798419314 64.697126816938024,14.020577427546014 64.587627955257133,14.134391727123536 64.294324247855016,14.058580310438877 64.055693216359856,14.939522569329515 63.928772340957622,15.360033887867633 63.984424553724345,16.403233590319665 64.348717859230874,16.86194720022592 65.480946356171643,17.30105145122744 65.66884114964418,18.116962348028416 65.707798379651067,18.622991416988036 65.709278675206491,19.344479548892103 65.89108318044525,19.524249983370595 66.028119458494885,19.601760969815533 66.179755229880641,19.763577711059607 66.477294280328294,19.894810078560592 66.643554479804394,22.418504754983111 66.643554103799644,28.00144524098998 66.643552869311137,31.898839965765546 66.643553572033753,33.160686763729593 66.643554826015091,34.684385910479847 66.643554087528187,36.708081795136707 66.643554130119867,38.731777917397714 66.643553756492523,41.267323359147227 66.643553928942325,43.802868377941053 66.643554096117612,46.838412160806136 66.643554456809198,49.885808711481374 66.643554659417646,52.159505215217557 66.643554301882034,53.633200332643433 66.643553735943897,54.893125931947196 66.608818248023908,56.22408863297828 66.59135538380994,57.260351138183744 66.695135611757891,57.957137634140821 66.682739474279472,58.653924129333994 66.670343336685747,59.640817352532942 66.740805041402496,60.243195585759693 66.624421197480032,60.975788762180599 66.362934120291058,61.834222225956566 66.195719157896249,62.615285854007119 66.080632358302509,62.972785610360013 66.097023336536864,63.701192705481709 65.969368059286239,64.693258216957233 65.900650187682857,66.298379913988441 65.860530897573426,67.540774664966023 65.751161281875085,69.085355019041828 65.422266520643021,70.93773467121521 65.236859325074619,73.482560669541485 65.276190593227369,75.729929264484014 65.476732016607031,78.119521195539761 65.851755167376041,79.61897774932126 65.952957470355571,81.084201296035218 65.947288013776316,82.000225475716022 65.917418074726683,82.919393929194285 65.958703246348108,83.838562380300701 65.999988417923376,85.259772577521588 65.887913753206007,86.717140269726144 65.931581021001264,88.048929072131955 65.838594115946378,89.440070262361388 65.581718794989882,90.015970326964464 65.379969751745193,90.012350168788331 65.135044492883381,90.255491707090215 64.853069097286365,91.098045382678137 64.477659827213543,91.406985524830702 64.373279980797648,92.033380287441332 64.297558493472891,92.332640243740428 64.20906977192594,92.832141795282723 64.256543876773094,93.026589493782325 64.291261722478112,93.947187850111035 64.084289634869478,94.580911100852219 64.096582911952709,95.015843136440239 64.015174671967088,95.388753109833672 63.915265113974691,95.586863275244397 63.972029388163222,96.057810607192764 63.834784049520074,96.556288016091131 63.77592947645816,96.784569393884212 63.741516352350928,97.310689449817488 63.769784428425922,97.844903497672675 63.719366279567161,98.105768313085221 63.872895092273914,98.172783093064467 64.077296806134555,98.667162782148552 64.134919852400415,99.691994378977299 64.086353501754942,100.382589801416245 64.263737198595123,101.057143920388455 64.113043371520476,101.78209029615617 64.170846770629524,102.253292889215032 64.117530061782304,103.106604146373513 64.043280400087426,103.71526209250365 63.801678279028351,103.945667303374762 63.588120176517208,104.197795469504655 63.615668815530206,105.195787088785025 63.541256986466763,105.311607938516701 63.745226695134939,106.106478384883985 63.966402939155024,106.781441264689519 64.027894915644524,107.388820170733723 64.024416038067173,108.621161923257361 64.120158231486329,109.186853487674895 64.099308298579317,109.552435970295619 63.812189034438958,110.214350918696937 63.517053996076847,111.009966008943763 63.30253073697574,112.338395911997495 63.168741926543284,112.764465992025407 63.063475948657427,113.067243635916327 63.145865917647583,113.3989820439281 62.973697324210647,113.465830945502063 63.029391883863326,113.412902495128677 63.169648609498495,113.771911200236147 63.333832351243046,114.013430018359898 63.303404265329803,114.714092258369732 63.279304231611839,114.69912648617877 63.169434234210996,114.876429171962627 63.116432324210329,115.078247926940207 63.157333007625105,115.30210074613295 63.124267557467697,115.296521672540436 63.00029487033953,115.419187862443522 62.915538107202195,115.397771673221868 62.806119353263377,115.467995959932907 62.712547796956805,115.729868414471269 62.705232054861511,115.783294041341577 62.61308787433704,115.937360325978005 62.531705738183057,115.92415608708373 62.425959335783155,116.129318159436579 62.399363988861673,116.227960641560315 62.210519161397315,116.413281988245089 62.156525436892267,116.602964925847857 62.11946450954661,116.790290175718894 62.082352504748691,116.985754863619377 62.098248477980029,117.178189798364869 62.067426876074407,117.402137382994738 62.112207442883019,117.5126651330839 62.216231263849153,117.726106407614338 62.253477573018642,117.691802912681823 62.364566740276366,117.576515942818133 62.444929011095859,117.436490895177201 62.754797562161912,117.574142851460479 62.880276813919686,117.536099692142926 63.074063920218109,117.736799638470998 63.264528773202599,117.924554596953612 63.343891502119035,118.515036687788083 63.395370931520802,118.820473107970386 63.467079344938128,119.024194769215768 63.576550305029606,119.522836015898179 63.633298722425288,120.017107565162732 63.675883123176817,120.445208410562614 63.589197294651285,120.515316044738157 63.692676753370819,120.683890694349017 63.741923507379248,120.839583523115778 63.817560927402567,121.059753762281929 63.830877518577644,121.256239210621658 63.909175913416213,121.478558486020233 63.888282588250682,121.862124118368314 63.970859939539636,122.453576194404747 63.99992651784531,122.978401275788926 64.030235641257988,123.36717230979977 64.075240656682638,123.618853336790579 64.174808754867129,124.00434315819048 64.168791697031324,124.214776843928291 64.171737576271539,124.416223310339419 64.175161050965286,124.642350439944863 64.080543308353924,125.346384748787699 63.982383994412125,125.666114579064583 64.012781132955482,126.067779920476838 64.124100218061173,126.392079493610481 64.2842414540997,126.356817138850772 64.39201798080569,126.74564833382918 64.38247996642302,127.015299269503814 64.275356216305795,127.196819836499031 64.203478300705015,127.331980238392248 64.073552622250261,127.59832682243831 63.971858420756647,128.109791247430621 63.821188595963648,128.730424957592305 63.639978197664767,128.974545728766998 63.651666009268688,129.280004743164966 63.665625792904507,129.669825821525365 63.572763256664004,130.236589822774278 63.499268307872732,130.720797205203695 63.441176484894534,131.117762200259705 63.440190079519333,131.430187862107346 63.497107803323885,131.704354810378931 63.504455490824803,132.013932878852216 63.471084664597939,132.477438266959865 63.412830352764523,132.882683294352887 63.481573718310699,133.142248360007898 63.478780137753049,133.241166762295876 63.371078921098956,133.280627359905395 63.235313935888854,133.465024963120698 63.183180160521758,133.792720978344022 63.268461468153227,133.991134943442518 63.222509033238666,134.116532983970188 63.087266596795118,134.254985769746213 62.972470486397874,134.555601425251098 62.878663204972682,134.943176231549188 62.757059499704923,135.150526369926325 62.716202691132715,135.418296532937376 62.797159160801108,135.653849894100063 62.71458075743665,136.039754779913039 62.739151343726341,136.519248284425288 62.829440414845941,136.913558068015391 62.932904115899319,137.631556044039371 63.090194734145591,138.235824098258263 63.232990697288983,138.637237298790751 63.290362953766255,138.963488503329813 63.197362118476121,139.694697130956826 63.224190413275728,140.370419300311539 63.312505795662155,141.542653605609303 63.410339753809062,143.023724609086202 63.470898238180119,143.576654857795234 63.492215482456459,143.771251409984046 63.314712944969763,144.59117769049567 63.218495927414899,145.118986327717494 63.219331665943841,145.54365512388182 63.235287063224121,145.83731663554309 63.107237576590606,146.361295048413865 62.956085799037325,146.779217453376333 62.747097161372615,147.358670188955443 62.591221833962422,147.817124068574856 62.355650272130333,148.362765642093279 62.15338318736665,148.620073475377154 61.856486669968277,148.881738024504671 61.719020883614512,149.313097205891353 61.723532360990092,149.755124486121389 62.017770273190088,150.188613460303628 62.123822671078734,150.65802461535452 62.241383934929218,150.726957957841961 62.545872837465275,150.77793376757603 62.709341626741249,150.881683162897616 62.683862502106912,150.902258471046451 62.772057133560608,151.382413772804654 62.558918699725886,151.832565681643302 62.451434906720827,152.217883442732244 62.542486305977576,152.627904643194938 62.82520101658735,153.348762042590181 62.80315908122757,154.884266149829216 62.819415704679983,155.387823656262327 62.593835440224183,156.101497008623454 62.194059053031545,156.779099771036016 61.653001550164731,157.571381999586805 61.156820566365582,158.323619632660666 60.894189770068856,159.620140431307618 60.56679748082481,161.4301462743299 60.202281271051511,162.883270977175016 59.83621457065653,164.67124367977172 59.196192171399609,165.907639656098894 58.504666304776912,165.867097847165638 57.54307954765062,165.724528485143821 56.94814371889354,165.581959122075489 56.353207889734669,165.069846709013603 55.488001528060984,164.910963742210157 55.147593280104829,165.375285268330231 54.606541178263505,165.949129777410604 54.344963723935265,166.53440355531319 54.20794332273762,168.408262435453679 53.786641354275709,169.400942405004628 53.544910602669596,170.01553304434276 53.328304589633774,170.9868130155279 53.007593609455029,171.485293032380355 52.831524181541667,171.691737758676084 52.609501346537314,171.979907887402277 52.348499142352573,172.208394672610495 52.202056183568942,172.540258059593612 51.980995585985639,172.782145787241916 51.890012267088281,173.077139440665661 51.74753833184031,173.403226920630914 51.661599769584676,173.75833150953315 51.567500639194741,174.033152358520965 51.503553172824866,174.369128721954155 51.415275750853105,174.748057565262542 51.319282700657752,175.139346284043768 51.222553210143552,175.456698514021411 51.120648312913417,175.944225159536131 51.02556030710344,176.308286036032086 50.986619978298002,176.874336967003359 50.92624060939297,177.221344886426522 50.892213513888095,177.707747232753064 50.905834011250299,178.298128958595612 50.846378849541928,178.727954005293185 50.826278190103068,179.014229185979531 50.811745655072343,179.285633734761433 50.81429697072722))");
   }
 
+  @Test
+  public void testSharedGeometry() {
+    String wkt = "POLYGON ((30 10, 10 20, 20 40, 40 40, 30 10))";
+    WithinPredicate p1 = new WithinPredicate(wkt);
+    WithinPredicate p2 = new WithinPredicate(new String(wkt));
+    assertEquals(p1, p2);
+    assertSame(p1.getPreparedGeometry(), p2.getPreparedGeometry());
+    assertEquals(new Envelope(10, 40, 10, 40), p1.getEnvelope());
+  }
+
+  @Test
+  public void testMultiPolygon() {
+    WithinPredicate p = new WithinPredicate("MULTIPOLYGON (((0 0, 10 0, 10 10, 0 10, 0 0)), ((20 20, 30 20, 30 30, 20 20)))");
+    assertEquals(new Envelope(0, 30, 0, 30), p.getEnvelope());
+  }
+
 }
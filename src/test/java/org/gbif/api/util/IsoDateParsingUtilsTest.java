@@ -1,8 +1,11 @@
 package org.gbif.api.util;
 
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
+import com.google.common.collect.Range;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -124,4 +127,42 @@ public class IsoDateParsingUtilsTest {
     assertEquals(11, lastDayOfMonthCal.get(Calendar.MONTH)); // December is 11, months start at index 0
     assertEquals(31, lastDayOfMonthCal.get(Calendar.DAY_OF_MONTH));
   }
+
+  /**
+   * Plain dates must parse to the very same dates as the non lenient date formats.
+   */
+  @Test
+  public void parseDateAsDateFormatTest() throws Exception {
+    String[] values = {"2000", "1500", "0001", "2000-1", "2000-12", "2000-01-01", "2000-1-1", "1500-02-29",
+      "1600-02-29", "2004-02-29", "1999-12-31", "1582-10-04", "1582-10-15", "2000-01-1"};
+    for (String value : values) {
+      IsoDateParsingUtils.IsoDateFormat format = IsoDateParsingUtils.getFirstDateFormatMatch(value);
+      DateFormat df = new SimpleDateFormat(format == IsoDateParsingUtils.IsoDateFormat.FULL ? "yyyy-MM-dd"
+        : format == IsoDateParsingUtils.IsoDateFormat.YEAR_MONTH ? "yyyy-MM" : "yyyy");
+      df.setLenient(false);
+      assertEquals(value, df.parse(value), IsoDateParsingUtils.parseDate(value));
+      assertEquals(value, df.parse(value), format.parseDate(value));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void isParseNonExistingJulianDateTest() {
+    IsoDateParsingUtils.parseDate("1500-02-30");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void isParseNonExistingMonthTest() {
+    IsoDateParsingUtils.parseDate("2000-13");
+  }
+
+  @Test
+  public void parseCachedDateRangeTest() {
+    Range<Date> range = IsoDateParsingUtils.parseDateRange("1900,2000-02");
+    assertEquals(IsoDateParsingUtils.parseDate("1900"), range.lowerEndpoint());
+    assertEquals(IsoDateParsingUtils.toLastDayOfMonth(IsoDateParsingUtils.parseDate("2000-02")), range.upperEndpoint());
+    // cached ranges hand out new date instances
+    range.lowerEndpoint().setTime(0);
+    assertEquals(IsoDateParsingUtils.parseDate("1900"), IsoDateParsingUtils.parseDateRange("1900,2000-02").lowerEndpoint());
+    assertEquals(Range.atLeast(IsoDateParsingUtils.parseDate("1900")), IsoDateParsingUtils.parseDateRange("1900,*"));
+  }
 }
@@ -64,10 +64,15 @@ public class SearchTypeValidatorTest {
       {ELEVATION, " , ", false, false},
       {ELEVATION, "[1 TO 2]", false, false},
       {ELEVATION, "{1,2}", false, false},
+      {ELEVATION, "1e3", true, false},
+      {ELEVATION, "-.5", true, false},
+      {ELEVATION, "1.", true, false},
       {DATASET_KEY, UUID.randomUUID().toString(), true, false},
       {DATASET_KEY, "f81d4fae-7dec-11d0-a765-00a0c91e6bf6", true, false},
       {DATASET_KEY, "F81D4FAE-7DEC-11D0-A765-00A0C91E6BF6", true, false},
       {DATASET_KEY, "F81D4FAE7DEC11D0A76500A0C91E6BF6", false, false},
+      {DATASET_KEY, "F81D4FAE-7DEC-11D0-A765-00A0C91E6BFG", false, false},
+      {DATASET_KEY, " * ", true, false},
       {IS_EXTINCT, "true", true, false},
       {IS_EXTINCT, "FALSE", true, false},
       {IS_EXTINCT, "True", true, false},
@@ -109,6 +114,8 @@ public class SearchTypeValidatorTest {
       {YEAR, "1", true, false},
       {YEAR, "-10", true, false},
       {YEAR, "3018", true, false},
+      {YEAR, "+1991", true, false},
+      {YEAR, "99999999999", false, false},
       {MONTH, "1991", false, false},
       {MONTH, "00", false, false},
       {MONTH, "13", false, false},
@@ -118,6 +125,10 @@ public class SearchTypeValidatorTest {
       {MONTH, "1", true, false},
       {MONTH, "-11", false, false},
       {MONTH, "1267", false, false},
+      {MONTH, "12", true, false},
+      {MONTH, "+12", true, false},
+      {MONTH, "3,4", true, true},
+      {MONTH, "3,14", false, true},
       {EVENT_DATE, "1900-06", true, false},
       {EVENT_DATE, "01-01", false, false},
       {EVENT_DATE, "1900-01-01", true, false},
@@ -143,6 +154,9 @@ public class SearchTypeValidatorTest {
       {DECIMAL_LATITUDE, "180.0", false, false},
       {DECIMAL_LATITUDE, "50.0,92.2", false, true},
       {DECIMAL_LATITUDE, "50.5,89.9", true, true},
+      {DECIMAL_LATITUDE, "-90", true, false},
+      {DECIMAL_LATITUDE, "-90.01", false, false},
+      {DECIMAL_LATITUDE, "1e1", true, false},
       {DECIMAL_LONGITUDE, "180.0", true, false},
       {DECIMAL_LONGITUDE, "180.01", false, false},
       {DECIMAL_LONGITUDE, "-190.0,92.2", false, true},
@@ -19,12 +19,14 @@ import org.gbif.api.vocabulary.ContactType;
 import org.gbif.api.vocabulary.EndpointType;
 import org.gbif.api.vocabulary.IdentifierType;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import com.google.common.base.Optional;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class VocabularyUtilsTest {
@@ -58,6 +60,37 @@ public class VocabularyUtilsTest {
     VocabularyUtils.parseTechnicalInstallationType("bad");
   }
 
+  @Test
+  public void testLookupEnum() {
+    assertEquals(ContactType.ADMINISTRATIVE_POINT_OF_CONTACT,
+      VocabularyUtils.lookupEnum("administrative-point.of contact", ContactType.class));
+    assertEquals(Kingdom.ANIMALIA, VocabularyUtils.lookupEnum("Animalia", Kingdom.class));
+    assertEquals(Kingdom.ANIMALIA, VocabularyUtils.lookupEnum("_ANIMALIA_", Kingdom.class));
+    assertNull(VocabularyUtils.lookupEnum("", Kingdom.class));
+    assertNull(VocabularyUtils.lookupEnum(null, Kingdom.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLookupEnumNonAscii() {
+    VocabularyUtils.lookupEnum("animalià", Kingdom.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLookupEnumPrefix() {
+    VocabularyUtils.lookupEnum("animal", Kingdom.class);
+  }
+
+  @Test
+  public void testLookupAll() {
+    assertEquals(Arrays.asList(Kingdom.PLANTAE, null, Kingdom.FUNGI),
+      VocabularyUtils.lookupAll(Arrays.asList("plantae", "", "Fungi"), Kingdom.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLookupAllInvalid() {
+    VocabularyUtils.lookupAll(Arrays.asList("plantae", "bad"), Kingdom.class);
+  }
+
   @Test
   public void testReflectionLookup() {
     assertEquals(Country.class, VocabularyUtils.lookupVocabulary(Country.class.getName()));
@@ -0,0 +1,80 @@
+package org.gbif.api.util;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.WKTReader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WktParserTest {
+
+  private static void assertSameAsReader(String wkt) throws Exception {
+    Geometry expected = new WKTReader().read(wkt);
+    Geometry parsed = WktParser.parse(wkt);
+    assertTrue(wkt, expected.equalsExact(parsed));
+  }
+
+  private static void assertInvalid(String wkt) {
+    try {
+      WktParser.parse(wkt);
+      fail("Expected invalid WKT: " + wkt);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testParse() throws Exception {
+    assertSameAsReader("POINT (30 10)");
+    assertSameAsReader("point(-30.5 10.25)");
+    assertSameAsReader("LINESTRING (30 10, 10 30, 40 40)");
+    assertSameAsReader("LINEARRING (30 10, 10 30, 40 40, 30 10)");
+    assertSameAsReader("POLYGON ((30 10, 40 40, 20 40, 10 20, 30 10))");
+    assertSameAsReader("POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10), (20 30, 35 35, 30 20, 20 30))");
+    assertSameAsReader("MULTIPOLYGON (((30 20, 45 40, 10 40, 30 20)), ((15 5, 40 10, 10 20, 5 10, 15 5)))");
+    assertSameAsReader("  POLYGON\n((30 10,40 40 ,20 40,\t10 20 , 30 10) ) ");
+
+    assertTrue(WktParser.parse("POINT (1 2)") instanceof Point);
+    assertTrue(WktParser.parse("POLYGON ((0 0, 1 0, 1 1, 0 0))") instanceof Polygon);
+    assertTrue(WktParser.parse("MULTIPOLYGON (((0 0, 1 0, 1 1, 0 0)))") instanceof MultiPolygon);
+  }
+
+  @Test
+  public void testNumbers() {
+    Point p = (Point) WktParser.parse("POINT (-179.985731034706419 50.826168623278733)");
+    assertEquals(-179.985731034706419, p.getX(), 0);
+    assertEquals(50.826168623278733, p.getY(), 0);
+
+    p = (Point) WktParser.parse("POINT (0.1 -0.000000000000000000000000001)");
+    assertEquals(0.1, p.getX(), 0);
+    assertEquals(-0.000000000000000000000000001, p.getY(), 0);
+
+    p = (Point) WktParser.parse("POINT (12345678901234567890 007)");
+    assertEquals(12345678901234567890d, p.getX(), 0);
+    assertEquals(7, p.getY(), 0);
+  }
+
+  @Test
+  public void testInvalid() {
+    assertInvalid(null);
+    assertInvalid("");
+    assertInvalid("POLYGON");
+    assertInvalid("POLYGON ()");
+    assertInvalid("POLYGON ((30 10, 40 40, 20 40, 10 20, 30 10)");
+    assertInvalid("POLYGON ((30 10, 40 40, 20 40, 10 20, 30 10))x");
+    assertInvalid("POLYGONS ((30 10, 40 40, 20 40, 10 20, 30 10))");
+    assertInvalid("POINT (30)");
+    assertInvalid("POINT (3010)");
+    assertInvalid("POINT (30 10 5)");
+    assertInvalid("POINT (30. 10)");
+    assertInvalid("POINT (.5 10)");
+    assertInvalid("POINT (1e5 10)");
+    assertInvalid("POINT (30,10)");
+    assertInvalid("MULTIPOINT ((30 10))");
+  }
+}
@@ -0,0 +1,147 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.exception.UnparsableException;
+import org.gbif.api.model.checklistbank.ParsedName;
+import org.gbif.api.service.checklistbank.NameParser;
+import org.gbif.api.vocabulary.NameType;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BulkNameParserTest {
+
+  /**
+   * Parses binomials only, treating names starting with virus as unparsable.
+   */
+  private static class SimpleParser implements NameParser {
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public ParsedName parse(String scientificName, @Nullable Rank rank) throws UnparsableException {
+      if (scientificName.startsWith("virus")) {
+        throw new UnparsableException(NameType.VIRUS, scientificName);
+      }
+      String[] parts = scientificName.split(" ");
+      ParsedName pn = new ParsedName();
+      pn.setScientificName(scientificName);
+      pn.setType(NameType.SCIENTIFIC);
+      pn.setGenusOrAbove(parts[0]);
+      pn.setSpecificEpithet(parts.length > 1 ? parts[1] : null);
+      pn.setRank(rank);
+      return pn;
+    }
+
+    @Override
+    public ParsedName parse(String scientificName) throws UnparsableException {
+      return parse(scientificName, null);
+    }
+
+    @Override
+    public ParsedName parseQuietly(String scientificName, @Nullable Rank rank) {
+      calls.incrementAndGet();
+      try {
+        return parse(scientificName, rank);
+      } catch (UnparsableException e) {
+        ParsedName pn = new ParsedName();
+        pn.setScientificName(scientificName);
+        pn.setType(e.type);
+        pn.setParsed(false);
+        return pn;
+      }
+    }
+
+    @Override
+    public ParsedName parseQuietly(String scientificName) {
+      return parseQuietly(scientificName, null);
+    }
+
+    @Override
+    public String parseToCanonical(String scientificName, @Nullable Rank rank) {
+      return parseQuietly(scientificName, rank).canonicalName();
+    }
+
+    @Override
+    public String parseToCanonical(String scientificName) {
+      return parseToCanonical(scientificName, null);
+    }
+  }
+
+  @Test
+  public void testParseAll() {
+    SimpleParser parser = new SimpleParser();
+    BulkNameParser bulk = new BulkNameParser(parser, 1000, new ForkJoinPool(4));
+    List<String> names = Lists.newArrayList();
+    for (int i = 0; i < 10000; i++) {
+      names.add(i % 10 == 0 ? "virus " + (i % 100) : "Abies alba" + (i % 100));
+    }
+    names.add(null);
+
+    List<ParsedName> parsed = bulk.parseAll(names);
+    assertEquals(names.size(), parsed.size());
+    for (int i = 0; i < names.size() - 1; i++) {
+      assertEquals(names.get(i), parsed.get(i).getScientificName());
+    }
+    assertNull(parsed.get(names.size() - 1));
+    assertSame(parsed.get(1), parsed.get(101));
+    assertEquals("Abies", parsed.get(1).getGenusOrAbove());
+    assertEquals(NameType.VIRUS, parsed.get(0).getType());
+
+    // each of the 100 distinct names is parsed once only
+    assertEquals(100, parser.calls.get());
+
+    BulkNameParser.Stats stats = bulk.stats();
+    assertEquals(10000, stats.getNames());
+    assertEquals(1000, stats.getUnparsable());
+    assertEquals(0.1, stats.getUnparsableRate(), 0.0001);
+    assertTrue(stats.getHitRate() > 0.9);
+    assertTrue(stats.getNamesPerSecond() > 0);
+  }
+
+  @Test
+  public void testRank() {
+    SimpleParser parser = new SimpleParser();
+    BulkNameParser bulk = new BulkNameParser(parser, 1000);
+    ParsedName pn = bulk.parse("Abies alba", Rank.SPECIES);
+    assertEquals(Rank.SPECIES, pn.getRank());
+    assertSame(pn, bulk.parse("Abies alba", Rank.SPECIES));
+    assertNull(bulk.parse("Abies alba", null).getRank());
+    assertEquals(2, parser.calls.get());
+
+    List<ParsedName> parsed = bulk.parseAll(Stream.of("Abies alba", "Picea abies"), Rank.SPECIES);
+    assertSame(pn, parsed.get(0));
+    assertEquals(Rank.SPECIES, parsed.get(1).getRank());
+    assertEquals(3, parser.calls.get());
+
+    bulk.invalidateAll();
+    bulk.parseAll(Arrays.asList("Abies alba"), Rank.SPECIES);
+    assertEquals(4, parser.calls.get());
+  }
+
+  @Test
+  public void testImmutable() {
+    ParsedName pn = new BulkNameParser(new SimpleParser(), 10).parse("Abies alba", null);
+    assertTrue(pn.isParsed());
+    assertEquals("Abies alba", pn.canonicalName());
+    try {
+      pn.setSpecificEpithet("nigra");
+      throw new AssertionError("Shared parsed name modified");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    assertFalse(pn.getSpecificEpithet().equals("nigra"));
+  }
+}
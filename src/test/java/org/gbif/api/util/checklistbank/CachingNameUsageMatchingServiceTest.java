@@ -0,0 +1,184 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsageMatch;
+import org.gbif.api.model.checklistbank.NameUsageMatchRequest;
+import org.gbif.api.model.common.LinneanClassification;
+import org.gbif.api.service.checklistbank.NameUsageMatchingService;
+import org.gbif.api.vocabulary.Rank;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CachingNameUsageMatchingServiceTest {
+
+  private CountingService delegate;
+  private CachingNameUsageMatchingService service;
+
+  /**
+   * Matches any name to a usage with the name as its scientific name, except for "none" which is not matched.
+   */
+  private static class CountingService implements NameUsageMatchingService {
+    final AtomicInteger matches = new AtomicInteger();
+    final List<Integer> batches = Lists.newArrayList();
+    volatile long delay;
+
+    @Override
+    public NameUsageMatch match(String scientificName, @Nullable Rank rank,
+                                @Nullable LinneanClassification classification, boolean strict, boolean verbose) {
+      matches.incrementAndGet();
+      if ("error".equals(scientificName)) {
+        throw new IllegalStateException("Lookup failed");
+      }
+      if ("none".equals(scientificName)) {
+        return null;
+      }
+      if (delay > 0) {
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      NameUsageMatch m = new NameUsageMatch();
+      m.setScientificName(scientificName);
+      m.setKingdom(classification == null ? null : classification.getKingdom());
+      return m;
+    }
+
+    @Override
+    public List<NameUsageMatch> matchAll(List<NameUsageMatchRequest> requests) {
+      batches.add(requests.size());
+      return NameUsageMatchingService.super.matchAll(requests);
+    }
+  }
+
+  private static NameUsageMatchRequest request(String name, String kingdom) {
+    NameUsageMatchRequest r = new NameUsageMatchRequest();
+    r.setScientificName(name);
+    r.setKingdom(kingdom);
+    return r;
+  }
+
+  @Before
+  public void setup() {
+    delegate = new CountingService();
+    service = new CachingNameUsageMatchingService(delegate, 1000, 1, TimeUnit.HOURS);
+  }
+
+  @Test
+  public void testMatch() {
+    NameUsageMatch m = service.match("Abies alba", Rank.SPECIES, request(null, "Plantae"), false, false);
+    assertEquals("Abies alba", m.getScientificName());
+    assertEquals("Plantae", m.getKingdom());
+    assertSame(m, service.match(" Abies  alba", Rank.SPECIES, request(null, "Plantae "), false, false));
+    assertEquals(1, delegate.matches.get());
+
+    // different parameters are matched again
+    service.match("Abies alba", Rank.SPECIES, request(null, "Plantae"), true, false);
+    service.match("Abies alba", Rank.GENUS, request(null, "Plantae"), false, false);
+    service.match("Abies alba", Rank.SPECIES, null, false, false);
+    assertEquals(4, delegate.matches.get());
+    // blank names are ignored
+    service.match("Abies alba", Rank.SPECIES, request(null, " "), false, false);
+    assertEquals(4, delegate.matches.get());
+
+    assertEquals(2, service.stats().hitCount());
+    assertEquals(4, service.stats().missCount());
+    assertEquals(4, service.size());
+
+    service.invalidateAll();
+    service.match("Abies alba", Rank.SPECIES, null, false, false);
+    assertEquals(5, delegate.matches.get());
+  }
+
+  @Test
+  public void testMatchAll() {
+    service.match("Abies", null, null, false, false);
+    List<NameUsageMatch> matches = service.matchAll(Arrays.asList(request("Picea", null), request("Abies", null),
+                                                                  request("Pinus", "Plantae"),
+                                                                  request("Picea ", null)));
+    assertEquals(4, matches.size());
+    assertEquals("Picea", matches.get(0).getScientificName());
+    assertEquals("Abies", matches.get(1).getScientificName());
+    assertEquals("Pinus", matches.get(2).getScientificName());
+    assertSame(matches.get(0), matches.get(3));
+    // only the two distinct, uncached names are matched in a single batch
+    assertEquals(Arrays.asList(2), delegate.batches);
+    assertEquals(3, delegate.matches.get());
+
+    service.matchAll(Arrays.asList(request("Picea", null), request("Pinus", "Plantae")));
+    assertEquals(Arrays.asList(2), delegate.batches);
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    delegate.delay = 200;
+    ExecutorService exec = Executors.newFixedThreadPool(8);
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Future<NameUsageMatch>> futures = Lists.newArrayList();
+    for (int i = 0; i < 8; i++) {
+      futures.add(exec.submit(new Callable<NameUsageMatch>() {
+        @Override
+        public NameUsageMatch call() throws Exception {
+          start.await();
+          return service.match("Abies alba", null, null, false, false);
+        }
+      }));
+    }
+    start.countDown();
+    for (Future<NameUsageMatch> f : futures) {
+      assertSame(futures.get(0).get(), f.get());
+    }
+    exec.shutdown();
+    assertEquals(1, delegate.matches.get());
+  }
+
+  @Test
+  public void testNullMatches() {
+    assertNull(service.match("none", null, null, false, false));
+    // null matches are not cached
+    assertNull(service.match("none", null, null, false, false));
+    assertEquals(2, delegate.matches.get());
+    assertEquals(0, service.size());
+
+    List<NameUsageMatch> matches = service.matchAll(Arrays.asList(request("Picea", null), request("none", null),
+                                                                  request("Abies", null), request("none", null)));
+    assertEquals(4, matches.size());
+    assertEquals("Picea", matches.get(0).getScientificName());
+    assertNull(matches.get(1));
+    assertEquals("Abies", matches.get(2).getScientificName());
+    assertNull(matches.get(3));
+    assertEquals(Arrays.asList(3), delegate.batches);
+    assertEquals(2, service.size());
+
+    // only the null match is requested again
+    service.matchAll(Arrays.asList(request("Abies", null), request("none", null)));
+    assertEquals(Arrays.asList(3, 1), delegate.batches);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testError() {
+    service.match("error", null, null, false, false);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    new CachingNameUsageMatchingService(delegate, 0, 1, TimeUnit.HOURS);
+  }
+}
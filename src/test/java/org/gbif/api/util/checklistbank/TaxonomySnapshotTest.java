@@ -0,0 +1,209 @@
+package org.gbif.api.util.checklistbank;
+
+import org.gbif.api.model.checklistbank.NameUsage;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.api.vocabulary.TaxonomicStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaxonomySnapshotTest {
+
+  private static final UUID DATASET = UUID.randomUUID();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static NameUsage usage(int key, Integer parentKey, String name, Rank rank) {
+    NameUsage u = new NameUsage();
+    u.setKey(key);
+    u.setParentKey(parentKey);
+    u.setDatasetKey(DATASET);
+    u.setScientificName(name + " L.");
+    u.setCanonicalName(name);
+    u.setRank(rank);
+    u.setTaxonomicStatus(TaxonomicStatus.ACCEPTED);
+    return u;
+  }
+
+  private static NameUsage synonym(int key, int acceptedKey, String name) {
+    NameUsage u = usage(key, null, name, Rank.SPECIES);
+    u.setAcceptedKey(acceptedKey);
+    u.setTaxonomicStatus(TaxonomicStatus.HETEROTYPIC_SYNONYM);
+    return u;
+  }
+
+  private static TaxonomySnapshot taxonomy() {
+    // given in random order with a parent missing from the snapshot
+    return TaxonomySnapshot.build(Arrays.asList(
+      usage(100, 10, "Pinaceae", Rank.FAMILY),
+      usage(1000, 100, "Abies", Rank.GENUS),
+      usage(1, null, "Plantae", Rank.KINGDOM),
+      usage(10, 1, "Pinales", Rank.ORDER),
+      usage(1002, 1000, "Abies nordmanniana", Rank.SPECIES),
+      usage(1001, 1000, "Abies alba", Rank.SPECIES),
+      synonym(2001, 1001, "Abies pectinata"),
+      synonym(2000, 1001, "Picea pectinata"),
+      usage(1003, 1000, "Abies grandis", Rank.SPECIES),
+      usage(5, null, "Animalia", Rank.KINGDOM),
+      usage(7, 99999, "Incertae sedis", Rank.PHYLUM)
+    ));
+  }
+
+  @Test
+  public void testParents() {
+    TaxonomySnapshot tax = taxonomy();
+    assertEquals(11, tax.size());
+    assertTrue(tax.contains(1001));
+    assertFalse(tax.contains(99999));
+    assertEquals(DATASET, tax.getDatasetKey());
+    assertArrayEquals(new int[] {1, 10, 100, 1000}, tax.parentKeys(1001));
+    assertArrayEquals(new int[0], tax.parentKeys(1));
+    assertNull(tax.parentKeys(99999));
+    assertEquals(Rank.GENUS, tax.getRank(1000));
+    assertEquals("Abies", tax.getCanonicalName(1000));
+
+    List<NameUsage> parents = tax.listParents(1001, Locale.ENGLISH);
+    assertEquals(4, parents.size());
+    assertEquals("Plantae", parents.get(0).getCanonicalName());
+    assertEquals("Abies", parents.get(3).getCanonicalName());
+    assertTrue(tax.listParents(99999, Locale.ENGLISH).isEmpty());
+  }
+
+  @Test
+  public void testGet() {
+    TaxonomySnapshot tax = taxonomy();
+    NameUsage u = tax.get(1001, Locale.ENGLISH);
+    assertEquals((Integer) 1001, u.getKey());
+    assertEquals(DATASET, u.getDatasetKey());
+    assertEquals("Abies alba L.", u.getScientificName());
+    assertEquals((Integer) 1000, u.getParentKey());
+    assertEquals("Abies L.", u.getParent());
+    assertEquals(Rank.SPECIES, u.getRank());
+    assertEquals("Plantae", u.getKingdom());
+    assertEquals((Integer) 1, u.getKingdomKey());
+    assertEquals("Pinales", u.getOrder());
+    assertEquals("Pinaceae", u.getFamily());
+    assertEquals("Abies", u.getGenus());
+    assertEquals("Abies alba", u.getSpecies());
+    assertEquals((Integer) 1001, u.getSpeciesKey());
+
+    // synonyms take the classification of their accepted usage
+    NameUsage syn = tax.get(2000, Locale.ENGLISH);
+    assertTrue(syn.isSynonym());
+    assertEquals((Integer) 1001, syn.getAcceptedKey());
+    assertEquals("Abies alba L.", syn.getAccepted());
+    assertEquals("Abies alba", syn.getSpecies());
+    assertEquals("Pinaceae", syn.getFamily());
+
+    // unknown parents are dropped
+    assertNull(tax.get(7, Locale.ENGLISH).getParentKey());
+    assertNull(tax.get(99999, Locale.ENGLISH));
+  }
+
+  @Test
+  public void testChildren() {
+    TaxonomySnapshot tax = taxonomy();
+    PagingResponse<NameUsage> children = tax.listChildren(1000, Locale.ENGLISH, new PagingRequest(0, 2));
+    assertEquals((Long) 3L, children.getCount());
+    assertEquals(2, children.getResults().size());
+    assertEquals((Integer) 1001, children.getResults().get(0).getKey());
+    assertEquals((Integer) 1002, children.getResults().get(1).getKey());
+    assertFalse(children.isEndOfRecords());
+
+    children = tax.listChildren(1000, Locale.ENGLISH, new PagingRequest(2, 2));
+    assertEquals(1, children.getResults().size());
+    assertEquals((Integer) 1003, children.getResults().get(0).getKey());
+    assertTrue(children.isEndOfRecords());
+
+    // synonyms are no children
+    assertEquals((Long) 0L, tax.listChildren(1001, Locale.ENGLISH, null).getCount());
+    assertTrue(tax.listChildren(99999, Locale.ENGLISH, null).getResults().isEmpty());
+  }
+
+  @Test
+  public void testSynonymsAndRoots() {
+    TaxonomySnapshot tax = taxonomy();
+    PagingResponse<NameUsage> synonyms = tax.listSynonyms(1001, Locale.ENGLISH, null);
+    assertEquals((Long) 2L, synonyms.getCount());
+    assertEquals((Integer) 2000, synonyms.getResults().get(0).getKey());
+    assertEquals((Integer) 2001, synonyms.getResults().get(1).getKey());
+    assertTrue(tax.listSynonyms(1000, Locale.ENGLISH, null).getResults().isEmpty());
+
+    List<Integer> roots = Lists.newArrayList();
+    for (NameUsage u : tax.listRoot(DATASET, Locale.ENGLISH, null).getResults()) {
+      roots.add(u.getKey());
+    }
+    assertEquals(Arrays.asList(1, 5, 7), roots);
+    assertTrue(tax.listRoot(UUID.randomUUID(), Locale.ENGLISH, null).getResults().isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateKey() {
+    TaxonomySnapshot.build(Arrays.asList(usage(1, null, "Plantae", Rank.KINGDOM),
+                                         usage(1, null, "Animalia", Rank.KINGDOM)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCycle() {
+    TaxonomySnapshot.build(Arrays.asList(usage(1, 3, "Plantae", Rank.KINGDOM), usage(2, 1, "Pinales", Rank.ORDER),
+                                         usage(3, 2, "Pinaceae", Rank.FAMILY)));
+  }
+
+  @Test
+  public void testLarge() {
+    List<NameUsage> usages = Lists.newArrayList();
+    usages.add(usage(0, null, "Root", Rank.KINGDOM));
+    for (int i = 1; i < 5000; i++) {
+      usages.add(usage(i, (i - 1) / 2, "Taxon " + i, null));
+    }
+    TaxonomySnapshot tax = TaxonomySnapshot.build(usages);
+    assertEquals(5000, tax.size());
+    assertEquals(12, tax.parentKeys(4999).length);
+    assertEquals((Long) 2L, tax.listChildren(100, Locale.ENGLISH, null).getCount());
+  }
+
+  @Test
+  public void testSnapshot() throws IOException {
+    TaxonomySnapshot tax = taxonomy();
+    File file = folder.newFile();
+    tax.snapshot(file);
+    TaxonomySnapshot restored = TaxonomySnapshot.restore(file);
+
+    assertEquals(tax.size(), restored.size());
+    assertEquals(DATASET, restored.getDatasetKey());
+    assertArrayEquals(tax.parentKeys(2000), restored.parentKeys(2000));
+    for (int key : new int[] {1, 7, 1000, 1001, 2000}) {
+      assertEquals(tax.get(key, null), restored.get(key, null));
+    }
+    assertEquals(tax.listSynonyms(1001, null, null).getResults(),
+                 restored.listSynonyms(1001, null, null).getResults());
+  }
+
+  @Test(expected = IOException.class)
+  public void testRestoreCorrupt() throws IOException {
+    File file = folder.newFile();
+    taxonomy().snapshot(file);
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 10));
+    TaxonomySnapshot.restore(file);
+  }
+}
@@ -0,0 +1,192 @@
+package org.gbif.api.util.codec;
+
+import org.gbif.api.model.common.Identifier;
+import org.gbif.api.model.common.MediaObject;
+import org.gbif.api.model.occurrence.FactOrMeasurment;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.OccurrenceRelation;
+import org.gbif.api.model.occurrence.VerbatimOccurrence;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.EndpointType;
+import org.gbif.api.vocabulary.Extension;
+import org.gbif.api.vocabulary.IdentifierType;
+import org.gbif.api.vocabulary.License;
+import org.gbif.api.vocabulary.MediaType;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.api.vocabulary.Rank;
+import org.gbif.dwc.terms.DcTerm;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OccurrenceCodecTest {
+
+  private static Occurrence occurrence(int key) {
+    Occurrence o = new Occurrence();
+    o.setKey(key);
+    o.setDatasetKey(UUID.fromString("7ddf754f-d193-4cc9-b351-99906754a03b"));
+    o.setPublishingCountry(Country.DENMARK);
+    o.setProtocol(EndpointType.DWC_ARCHIVE);
+    o.setLastCrawled(new Date(1400000000000L));
+    o.setBasisOfRecord(BasisOfRecord.PRESERVED_SPECIMEN);
+    o.setIndividualCount(-3);
+    o.setTaxonKey(212);
+    o.setKingdomKey(1);
+    o.setScientificName("Abies alba Mill.");
+    o.setTaxonRank(Rank.SPECIES);
+    o.setDecimalLatitude(55.678);
+    o.setDecimalLongitude(-12.5);
+    o.setCountry(Country.DENMARK);
+    o.setYear(1880);
+    o.setEventDate(new Date(-3000000000000L));
+    o.setReferences(URI.create("http://www.gbif.org/occurrence/" + key));
+    o.setLicense(License.CC_BY_4_0);
+    o.setIssues(Sets.newHashSet(OccurrenceIssue.ZERO_COORDINATE, OccurrenceIssue.COUNTRY_INVALID,
+                                OccurrenceIssue.values()[OccurrenceIssue.values().length - 1]));
+    o.getVerbatimFields().put(DwcTerm.scientificName, "Abies alba");
+    o.getVerbatimFields().put(DwcTerm.country, "Dänemark");
+    o.getVerbatimFields().put(DcTerm.modified, null);
+
+    Identifier id = new Identifier();
+    id.setIdentifier("urn:lsid:test:" + key);
+    id.setType(IdentifierType.LSID);
+    o.setIdentifiers(Lists.newArrayList(id));
+
+    MediaObject m = new MediaObject();
+    m.setType(MediaType.StillImage);
+    m.setIdentifier(URI.create("http://www.gbif.org/image.jpg"));
+    m.setCreated(new Date(1300000000000L));
+    m.setTitle("Abies");
+    o.setMedia(Lists.newArrayList(m));
+
+    FactOrMeasurment f = new FactOrMeasurment();
+    f.setType("height");
+    f.setValue("12");
+    f.setUnit("m");
+    o.setFacts(Lists.newArrayList(f));
+
+    OccurrenceRelation r = new OccurrenceRelation();
+    r.setOccurrenceId(key);
+    r.setRelatedOccurrenceId(key + 1);
+    r.setType("sibling");
+    o.setRelations(Lists.newArrayList(r));
+
+    Map<Term, String> row = Maps.newHashMap();
+    row.put(DcTerm.identifier, "http://www.gbif.org/image.jpg");
+    row.put(DwcTerm.scientificName, "Abies alba");
+    List<Map<Term, String>> rows = Lists.newArrayList();
+    rows.add(row);
+    o.getExtensions().put(Extension.MULTIMEDIA, rows);
+    return o;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Occurrence o = occurrence(1);
+    assertEquals(o, OccurrenceCodec.decode(OccurrenceCodec.encode(o)));
+
+    VerbatimOccurrence v = new VerbatimOccurrence();
+    v.setKey(2);
+    v.getVerbatimFields().put(DwcTerm.occurrenceID, "occ2");
+    VerbatimOccurrence decoded = OccurrenceCodec.decode(OccurrenceCodec.encode(v));
+    assertEquals(VerbatimOccurrence.class, decoded.getClass());
+    assertEquals(v, decoded);
+
+    Occurrence empty = new Occurrence();
+    assertEquals(empty, OccurrenceCodec.decode(OccurrenceCodec.encode(empty)));
+  }
+
+  @Test
+  public void testBatch() throws IOException {
+    List<Occurrence> records = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      records.add(occurrence(i));
+    }
+    byte[] batch = OccurrenceCodec.encodeAll(records);
+    assertEquals(records, OccurrenceCodec.decodeAll(batch));
+    // terms are only written once per stream
+    assertTrue(batch.length < 100 * OccurrenceCodec.encode(records.get(0)).length);
+  }
+
+  @Test
+  public void testStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OccurrenceCodec.Writer writer = new OccurrenceCodec.Writer(out)) {
+      writer.write(occurrence(1));
+      writer.write(occurrence(2));
+    }
+    try (OccurrenceCodec.Reader reader = new OccurrenceCodec.Reader(new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals(occurrence(1), reader.read());
+      assertEquals(occurrence(2), reader.read());
+      assertNull(reader.read());
+      assertNull(reader.read());
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    byte[] valid = OccurrenceCodec.encode(occurrence(1));
+    List<byte[]> invalid = Arrays.asList(new byte[0],
+                                         new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 0},
+                                         Arrays.copyOf(valid, valid.length / 2),
+                                         Arrays.copyOf(valid, valid.length - 1));
+    for (byte[] bytes : invalid) {
+      try {
+        OccurrenceCodec.decode(bytes);
+        throw new AssertionError("Invalid bytes decoded");
+      } catch (IOException e) {
+        // expected
+      }
+    }
+
+    // unsupported version
+    byte[] future = valid.clone();
+    future[7]++;
+    try {
+      OccurrenceCodec.decode(future);
+      throw new AssertionError("Unsupported version decoded");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("version"));
+    }
+  }
+
+  @Test
+  public void testStringLength() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      sb.append("Abies alba ");
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BinaryOutput(out).writeString(sb.toString());
+    assertEquals(sb.toString(), new BinaryInput(new ByteArrayInputStream(out.toByteArray())).readString());
+
+    // a corrupt length of Integer.MAX_VALUE followed by a few bytes only
+    byte[] corrupt = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'a', 'b'};
+    try {
+      new BinaryInput(new ByteArrayInputStream(corrupt)).readString();
+      throw new AssertionError("Truncated string read");
+    } catch (EOFException e) {
+      // expected
+    }
+  }
+}
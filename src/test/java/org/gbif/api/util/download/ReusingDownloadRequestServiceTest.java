@@ -0,0 +1,133 @@
+package org.gbif.api.util.download;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.occurrence.Download;
+import org.gbif.api.model.occurrence.DownloadFormat;
+import org.gbif.api.model.occurrence.DownloadRequest;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.service.occurrence.DownloadRequestService;
+import org.gbif.api.service.registry.OccurrenceDownloadService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReusingDownloadRequestServiceTest {
+
+  private DownloadRequestService delegate;
+  private OccurrenceDownloadService downloads;
+  private ReusingDownloadRequestService service;
+
+  @Before
+  public void setup() {
+    delegate = mock(DownloadRequestService.class);
+    downloads = mock(OccurrenceDownloadService.class);
+    when(downloads.list(any(Pageable.class), any(Set.class))).thenReturn(
+      new PagingResponse<Download>(0, 100, 0L, Collections.<Download>emptyList()));
+    service = new ReusingDownloadRequestService(delegate, downloads, 1, TimeUnit.DAYS, 500);
+  }
+
+  private static DownloadRequest request(String... countries) {
+    return new DownloadRequest(new InPredicate(OccurrenceSearchParameter.COUNTRY, Arrays.asList(countries)),
+                               "tim", null, false, DownloadFormat.DWCA);
+  }
+
+  private static Download download(String key, DownloadRequest request, Download.Status status, Date created) {
+    Download d = new Download();
+    d.setKey(key);
+    d.setRequest(request);
+    d.setStatus(status);
+    d.setCreated(created);
+    return d;
+  }
+
+  @Test
+  public void testReuseCreated() {
+    DownloadRequest r1 = request("DK", "DE");
+    DownloadRequest r2 = request("DE", "DK");
+    when(delegate.create(r1)).thenReturn("1");
+    when(downloads.get("1")).thenReturn(download("1", r1, Download.Status.RUNNING, new Date()));
+
+    assertEquals("1", service.create(r1));
+    assertEquals("1", service.create(r2));
+    verify(delegate, times(1)).create(any(DownloadRequest.class));
+  }
+
+  @Test
+  public void testReuseListed() {
+    DownloadRequest r1 = request("DK");
+    DownloadRequest r2 = new DownloadRequest(new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "dk"),
+                                             "markus", null, false, DownloadFormat.DWCA);
+    when(downloads.list(any(Pageable.class), any(Set.class))).thenReturn(
+      new PagingResponse<Download>(0, 100, 2L, Arrays.asList(
+        download("0", request("FR"), Download.Status.SUCCEEDED, new Date()),
+        download("1", r1, Download.Status.SUCCEEDED, new Date()))));
+
+    assertEquals("1", service.create(r2));
+    verify(delegate, never()).create(any(DownloadRequest.class));
+  }
+
+  @Test
+  public void testExpiredOrFailed() {
+    DownloadRequest r1 = request("DK");
+    Date old = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+    when(downloads.list(any(Pageable.class), any(Set.class))).thenReturn(
+      new PagingResponse<Download>(0, 100, 1L, Collections.singletonList(
+        download("1", r1, Download.Status.SUCCEEDED, old))));
+    when(delegate.create(r1)).thenReturn("2", "3");
+
+    assertEquals("2", service.create(r1));
+    // the new download failed meanwhile
+    when(downloads.get("2")).thenReturn(download("2", r1, Download.Status.FAILED, new Date()));
+    assertEquals("3", service.create(r1));
+    verify(delegate, times(2)).create(r1);
+  }
+
+  @Test
+  public void testFormat() {
+    DownloadRequest r1 = request("DK");
+    DownloadRequest r2 = request("DK");
+    r2.setFormat(DownloadFormat.SIMPLE_CSV);
+    when(delegate.create(r1)).thenReturn("1");
+    when(delegate.create(r2)).thenReturn("2");
+    when(downloads.get("1")).thenReturn(download("1", r1, Download.Status.SUCCEEDED, new Date()));
+
+    assertEquals("1", service.create(r1));
+    assertEquals("2", service.create(r2));
+  }
+
+  @Test
+  public void testInvalidListedRequest() {
+    DownloadRequest r1 = request("DK");
+    // an unknown predicate type cannot be fingerprinted
+    DownloadRequest invalid = new DownloadRequest(mock(Predicate.class), "tim", null, false, DownloadFormat.DWCA);
+    DownloadRequest noFormat = request("DK");
+    noFormat.setFormat(null);
+    when(downloads.list(any(Pageable.class), any(Set.class))).thenReturn(
+      new PagingResponse<Download>(0, 100, 4L, Arrays.asList(
+        download("0", invalid, Download.Status.SUCCEEDED, new Date()),
+        download("1", noFormat, Download.Status.SUCCEEDED, new Date()),
+        download("2", r1, Download.Status.SUCCEEDED, new Date()))));
+
+    assertEquals("2", service.create(request("DK")));
+    when(delegate.create(any(DownloadRequest.class))).thenReturn("3");
+    assertEquals("3", service.create(request("FR")));
+  }
+}
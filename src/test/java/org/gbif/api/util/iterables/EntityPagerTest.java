@@ -0,0 +1,222 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EntityPagerTest {
+
+  private ExecutorService exec;
+
+  /**
+   * Pages through a fixed list of nodes, recording the requested offsets.
+   */
+  static class NodeListPager extends EntityPager<Node> {
+    final List<Node> nodes;
+    final List<Long> requests = Collections.synchronizedList(new ArrayList<Long>());
+    volatile long failAt = -1;
+    volatile int maxDelay;
+    private final Random rnd = new Random(17);
+
+    NodeListPager(List<Node> nodes, int pageSize) {
+      super(pageSize);
+      this.nodes = nodes;
+    }
+
+    @Override
+    PagingResponse<Node> nextPage(PagingRequest page) {
+      requests.add(page.getOffset());
+      if (page.getOffset() == failAt) {
+        throw new IllegalStateException("Registry unavailable");
+      }
+      if (maxDelay > 0) {
+        try {
+          Thread.sleep(rnd.nextInt(maxDelay));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return page(nodes, page);
+    }
+  }
+
+  static <T> PagingResponse<T> page(List<T> entities, Pageable page) {
+    int from = (int) Math.min(page.getOffset(), entities.size());
+    int to = (int) Math.min(page.getOffset() + page.getLimit(), entities.size());
+    return new PagingResponse<T>(page, (long) entities.size(), new ArrayList<T>(entities.subList(from, to)));
+  }
+
+  /**
+   * @return nodes titled by their position, every tenth node deleted if requested
+   */
+  static List<Node> nodes(int count, boolean withDeleted) {
+    List<Node> nodes = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      Node n = new Node();
+      n.setKey(UUID.randomUUID());
+      n.setTitle(String.valueOf(i));
+      if (withDeleted && i % 10 == 3) {
+        n.setDeleted(new Date());
+      }
+      nodes.add(n);
+    }
+    return nodes;
+  }
+
+  static List<String> titles(Iterable<Node> nodes) {
+    List<String> titles = Lists.newArrayList();
+    for (Node n : nodes) {
+      titles.add(n.getTitle());
+    }
+    return titles;
+  }
+
+  @Before
+  public void setup() {
+    exec = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void shutdown() {
+    exec.shutdownNow();
+  }
+
+  @Test
+  public void testSyncPaging() {
+    List<Node> nodes = nodes(25, true);
+    NodeListPager pager = new NodeListPager(nodes, 10);
+    List<String> expected = Lists.newArrayList();
+    for (Node n : nodes) {
+      if (n.getDeleted() == null) {
+        expected.add(n.getTitle());
+      }
+    }
+    assertEquals(expected, titles(pager));
+    assertEquals(Lists.newArrayList(0L, 10L, 20L), pager.requests);
+  }
+
+  @Test
+  public void testPrefetchInOrder() {
+    List<Node> nodes = nodes(95, true);
+    NodeListPager pager = new NodeListPager(nodes, 10);
+    List<String> expected = titles(pager);
+    pager.requests.clear();
+
+    // pages complete in random order
+    pager.maxDelay = 20;
+    pager.prefetch(exec, 4);
+    assertEquals(expected, titles(pager));
+    assertEquals(85, expected.size());
+  }
+
+  @Test
+  public void testPrefetchStopsAtEnd() {
+    NodeListPager pager = new NodeListPager(nodes(25, false), 10);
+    // runs the first three page requests at once and holds back all others
+    final List<Runnable> deferred = Lists.newArrayList();
+    pager.prefetch(new Executor() {
+      private int submitted;
+
+      @Override
+      public void execute(Runnable command) {
+        if (submitted++ < 3) {
+          command.run();
+        } else {
+          deferred.add(command);
+        }
+      }
+    }, 5);
+
+    assertEquals(25, titles(pager).size());
+    // pages beyond the end were requested ahead, but cancelled before they were loaded
+    assertEquals(4, deferred.size());
+    for (Runnable r : deferred) {
+      r.run();
+    }
+    assertEquals(Lists.newArrayList(0L, 10L, 20L), pager.requests);
+  }
+
+  @Test
+  public void testPrefetchError() {
+    NodeListPager pager = new NodeListPager(nodes(95, false), 10);
+    pager.failAt = 40;
+    pager.prefetch(exec, 3);
+    List<String> titles = Lists.newArrayList();
+    try {
+      for (Node n : pager) {
+        titles.add(n.getTitle());
+      }
+      fail("Page error not propagated");
+    } catch (IllegalStateException e) {
+      assertEquals("Registry unavailable", e.getMessage());
+    }
+    // the iterator looks one entity ahead, so the failing page is loaded when the last entity before it is returned
+    assertEquals(39, titles.size());
+  }
+
+  @Test
+  public void testPrefetchEmpty() {
+    NodeListPager pager = new NodeListPager(nodes(0, false), 10);
+    pager.prefetch(exec, 3);
+    assertFalse(pager.iterator().hasNext());
+    assertTrue(pager.requests.contains(0L));
+  }
+
+  @Test
+  public void testEmptyPages() {
+    // the registry returns empty pages that are not the end of records, e.g. pages of deleted entities only
+    NodeListPager pager = new NodeListPager(nodes(35, false), 10) {
+      @Override
+      PagingResponse<Node> nextPage(PagingRequest page) {
+        PagingResponse<Node> resp = super.nextPage(page);
+        if (page.getOffset() == 0 || page.getOffset() == 10) {
+          resp.setResults(new ArrayList<Node>());
+          resp.setEndOfRecords(false);
+        }
+        return resp;
+      }
+    };
+    // empty pages are skipped instead of ending the iteration
+    List<String> titles = titles(pager);
+    assertEquals(15, titles.size());
+    assertEquals("20", titles.get(0));
+    assertEquals(Lists.newArrayList(0L, 10L, 20L, 30L), pager.requests);
+  }
+
+  @Test
+  public void testIterablesPrefetch() {
+    NodeListPager pager = new NodeListPager(nodes(95, true), 10);
+    List<String> expected = titles(pager);
+    pager.requests.clear();
+
+    pager.maxDelay = 5;
+    assertSame(pager, Iterables.prefetch(pager, exec, 3));
+    assertEquals(expected, titles(pager));
+
+    // other iterables are returned unchanged
+    List<Node> single = nodes(1, false);
+    assertSame(single, Iterables.prefetch(single, exec, 3));
+  }
+}
@@ -0,0 +1,142 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.common.paging.PagingRequest;
+import org.gbif.api.model.common.paging.PagingResponse;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Node;
+import org.gbif.api.model.registry.Organization;
+import org.gbif.api.service.registry.DatasetService;
+import org.gbif.api.service.registry.NodeService;
+import org.gbif.api.service.registry.OrganizationService;
+import org.gbif.api.vocabulary.DatasetType;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import static org.gbif.api.util.iterables.EntityPagerTest.nodes;
+import static org.gbif.api.util.iterables.EntityPagerTest.page;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PagingSpliteratorTest {
+
+  private static List<String> titles(Spliterator<Node> split) {
+    List<String> titles = Lists.newArrayList();
+    split.forEachRemaining(n -> titles.add(n.getTitle()));
+    return titles;
+  }
+
+  private static void assertAllOnce(int count, int pageSize) {
+    EntityPagerTest.NodeListPager pager = new EntityPagerTest.NodeListPager(nodes(count, false), pageSize);
+    List<String> titles = pager.stream(true).map(Node::getTitle).collect(Collectors.toList());
+    assertEquals(count, titles.size());
+    assertEquals(count, new HashSet<String>(titles).size());
+    // no page is loaded twice
+    assertEquals(pager.requests.size(), new HashSet<Long>(pager.requests).size());
+  }
+
+  @Test
+  public void testParallelStream() {
+    assertAllOnce(100, 10);
+    assertAllOnce(100, 7);
+    assertAllOnce(1, 10);
+    assertAllOnce(0, 10);
+  }
+
+  @Test
+  public void testSequentialStreamInOrder() {
+    EntityPagerTest.NodeListPager pager = new EntityPagerTest.NodeListPager(nodes(95, true), 10);
+    assertEquals(EntityPagerTest.titles(pager), pager.stream(false).map(Node::getTitle).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testSplit() {
+    EntityPagerTest.NodeListPager pager = new EntityPagerTest.NodeListPager(nodes(100, false), 10);
+    Spliterator<Node> suffix = new PagingSpliterator<Node>(pager, 10);
+    Spliterator<Node> prefix = suffix.trySplit();
+    assertNotNull(prefix);
+    // the first page is loaded to get the count
+    assertEquals(Lists.newArrayList(0L), pager.requests);
+    assertEquals(50, suffix.estimateSize());
+
+    // the prefix keeps the loaded first page and ends at a page boundary
+    List<String> titles = titles(prefix);
+    assertEquals(50, titles.size());
+    assertEquals("0", titles.get(0));
+    assertEquals("49", titles.get(49));
+    assertEquals(Lists.newArrayList(0L, 10L, 20L, 30L, 40L), pager.requests);
+
+    titles = titles(suffix);
+    assertEquals(50, titles.size());
+    assertEquals("50", titles.get(0));
+    assertEquals("99", titles.get(49));
+    assertEquals(10, pager.requests.size());
+  }
+
+  @Test
+  public void testNoSplitWithoutCount() {
+    EntityPagerTest.NodeListPager pager = new EntityPagerTest.NodeListPager(nodes(100, false), 10) {
+      @Override
+      PagingResponse<Node> nextPage(PagingRequest page) {
+        PagingResponse<Node> resp = super.nextPage(page);
+        resp.setCount(null);
+        return resp;
+      }
+    };
+    Spliterator<Node> split = new PagingSpliterator<Node>(pager, 10);
+    assertNull(split.trySplit());
+    assertEquals(100, titles(split).size());
+  }
+
+  @Test
+  public void testSinglePageNoSplit() {
+    EntityPagerTest.NodeListPager pager = new EntityPagerTest.NodeListPager(nodes(8, false), 10);
+    Spliterator<Node> split = new PagingSpliterator<Node>(pager, 10);
+    assertNull(split.trySplit());
+    assertEquals(8, titles(split).size());
+  }
+
+  @Test
+  public void testIterablesStreams() {
+    final List<Dataset> datasets = Lists.newArrayList();
+    final List<Organization> orgs = Lists.newArrayList();
+    for (int i = 0; i < 45; i++) {
+      Dataset d = new Dataset();
+      d.setKey(UUID.randomUUID());
+      d.setTitle("d" + i);
+      datasets.add(d);
+      Organization o = new Organization();
+      o.setKey(UUID.randomUUID());
+      o.setTitle("o" + i);
+      orgs.add(o);
+    }
+    DatasetService ds = mock(DatasetService.class);
+    when(ds.listByType(eq(DatasetType.CHECKLIST), any(Pageable.class)))
+      .thenAnswer(invocation -> page(datasets, (Pageable) invocation.getArguments()[1]));
+    OrganizationService os = mock(OrganizationService.class);
+    when(os.list(any(Pageable.class))).thenAnswer(invocation -> page(orgs, (Pageable) invocation.getArguments()[0]));
+    NodeService ns = mock(NodeService.class);
+    final List<Node> nodes = nodes(45, true);
+    when(ns.list(any(Pageable.class))).thenAnswer(invocation -> page(nodes, (Pageable) invocation.getArguments()[0]));
+
+    assertEquals(datasets, Iterables.datasetStream(DatasetType.CHECKLIST, ds, true).collect(Collectors.toList()));
+    assertEquals(orgs, Iterables.organizationStream(null, os, true).collect(Collectors.toList()));
+    List<Node> streamed = Iterables.nodeStream(ns, true).collect(Collectors.toList());
+    // deleted nodes are filtered
+    assertEquals(40, streamed.size());
+    assertTrue(nodes.containsAll(streamed));
+  }
+}
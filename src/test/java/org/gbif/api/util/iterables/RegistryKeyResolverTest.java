@@ -0,0 +1,120 @@
+package org.gbif.api.util.iterables;
+
+import org.gbif.api.model.common.paging.Pageable;
+import org.gbif.api.model.registry.Dataset;
+import org.gbif.api.model.registry.Network;
+import org.gbif.api.model.registry.Node;
+import org.gbif.api.model.registry.Organization;
+import org.gbif.api.service.registry.DatasetService;
+import org.gbif.api.service.registry.InstallationService;
+import org.gbif.api.service.registry.NetworkService;
+import org.gbif.api.service.registry.NodeService;
+import org.gbif.api.service.registry.OrganizationService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RegistryKeyResolverTest {
+
+  private static final UUID ORG_KEY = UUID.randomUUID();
+
+  private DatasetService ds;
+  private OrganizationService os;
+  private InstallationService is;
+  private NetworkService ns;
+  private NodeService nos;
+
+  @Before
+  public void setup() {
+    ds = mock(DatasetService.class);
+    os = mock(OrganizationService.class);
+    is = mock(InstallationService.class);
+    ns = mock(NetworkService.class);
+    nos = mock(NodeService.class);
+    when(os.get(ORG_KEY)).thenReturn(new Organization());
+  }
+
+  @Test
+  public void testResolveCached() {
+    RegistryKeyResolver resolver = new RegistryKeyResolver(ds, os, is, ns, nos, 10, 1, TimeUnit.HOURS, null);
+    assertEquals(RegistryKeyResolver.EntityType.ORGANIZATION, resolver.resolve(ORG_KEY));
+    assertEquals(RegistryKeyResolver.EntityType.ORGANIZATION, resolver.resolve(ORG_KEY));
+    verify(ds, times(1)).get(ORG_KEY);
+    verify(os, times(1)).get(ORG_KEY);
+  }
+
+  @Test
+  public void testResolveUnknown() {
+    RegistryKeyResolver resolver = new RegistryKeyResolver(ds, os, is, ns, nos, 10, 1, TimeUnit.HOURS, null);
+    UUID key = UUID.randomUUID();
+    assertNull(resolver.resolve(key));
+    // unknown keys are not cached
+    assertNull(resolver.resolve(key));
+    verify(nos, times(2)).get(key);
+  }
+
+  @Test
+  public void testResolveConcurrently() {
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      RegistryKeyResolver resolver = new RegistryKeyResolver(ds, os, is, ns, nos, 10, 1, TimeUnit.HOURS, executor);
+      assertEquals(RegistryKeyResolver.EntityType.ORGANIZATION, resolver.resolve(ORG_KEY));
+      assertNull(resolver.resolve(UUID.randomUUID()));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDatasetLoadedOnce() {
+    UUID key = UUID.randomUUID();
+    Dataset dataset = new Dataset();
+    dataset.setKey(key);
+    when(ds.get(key)).thenReturn(dataset);
+
+    RegistryKeyResolver resolver = new RegistryKeyResolver(ds, os, is, ns, nos, 10, 1, TimeUnit.HOURS, null);
+    assertEquals(Lists.newArrayList(dataset), Lists.newArrayList(Iterables.datasets(key, null, resolver, 10)));
+    verify(ds, times(1)).get(key);
+    // cached keys load the dataset on their own
+    assertEquals(Lists.newArrayList(dataset), Lists.newArrayList(Iterables.datasets(key, null, resolver, 10)));
+    verify(ds, times(2)).get(key);
+  }
+
+  @Test
+  public void testNodeAndNetworkDatasets() {
+    UUID nodeKey = UUID.randomUUID();
+    UUID networkKey = UUID.randomUUID();
+    List<Dataset> endorsed = Lists.newArrayList(new Dataset(), new Dataset());
+    List<Dataset> constituents = Lists.newArrayList(new Dataset());
+    when(nos.get(nodeKey)).thenReturn(new Node());
+    when(ns.get(networkKey)).thenReturn(new Network());
+    when(nos.endorsedDatasets(eq(nodeKey), any(Pageable.class)))
+      .thenAnswer(invocation -> EntityPagerTest.page(endorsed, (Pageable) invocation.getArguments()[1]));
+    when(ns.listConstituents(eq(networkKey), any(Pageable.class)))
+      .thenAnswer(invocation -> EntityPagerTest.page(constituents, (Pageable) invocation.getArguments()[1]));
+
+    RegistryKeyResolver resolver = new RegistryKeyResolver(ds, os, is, ns, nos);
+    // node keys iterate the endorsed datasets, network keys the constituents
+    assertEquals(endorsed, Lists.newArrayList(Iterables.datasets(nodeKey, null, resolver, 10)));
+    assertEquals(constituents, Lists.newArrayList(Iterables.datasets(networkKey, null, resolver, 10)));
+    verify(ns, never()).listConstituents(eq(nodeKey), any(Pageable.class));
+    verify(nos, never()).endorsedDatasets(eq(networkKey), any(Pageable.class));
+  }
+}
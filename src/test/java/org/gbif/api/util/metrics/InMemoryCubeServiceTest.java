@@ -0,0 +1,201 @@
+package org.gbif.api.util.metrics;
+
+import org.gbif.api.model.metrics.cube.CubeAddress;
+import org.gbif.api.model.metrics.cube.OccurrenceCube;
+import org.gbif.api.model.metrics.cube.ReadBuilder;
+import org.gbif.api.model.metrics.cube.Rollup;
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.service.metrics.CubeService;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import com.google.common.collect.Sets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class InMemoryCubeServiceTest {
+
+  private static final UUID DATASET_KEY = UUID.fromString("7ddf754f-d193-4cc9-b351-99906754a03b");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static Occurrence occurrence(Country country, BasisOfRecord bor, Integer year, boolean coordinates) {
+    Occurrence o = new Occurrence();
+    o.setDatasetKey(DATASET_KEY);
+    o.setCountry(country);
+    o.setPublishingCountry(Country.DENMARK);
+    o.setBasisOfRecord(bor);
+    o.setYear(year);
+    o.setKingdomKey(1);
+    o.setClassKey(212);
+    o.setTaxonKey(212);
+    if (coordinates) {
+      o.setDecimalLatitude(55.7);
+      o.setDecimalLongitude(12.6);
+    }
+    return o;
+  }
+
+  private static InMemoryCubeService cube() {
+    InMemoryCubeService cube = new InMemoryCubeService();
+    cube.addAll(Arrays.asList(occurrence(Country.DENMARK, BasisOfRecord.OBSERVATION, 2000, true),
+                              occurrence(Country.DENMARK, BasisOfRecord.OBSERVATION, 2001, false),
+                              occurrence(Country.DENMARK, BasisOfRecord.PRESERVED_SPECIMEN, 2001, true),
+                              occurrence(Country.GERMANY, BasisOfRecord.OBSERVATION, null, true)));
+    return cube;
+  }
+
+  @Test
+  public void testGet() {
+    InMemoryCubeService cube = cube();
+    assertEquals(4, cube.get(new ReadBuilder()));
+    assertEquals(3, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)));
+    assertEquals(2, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)
+      .at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.OBSERVATION)));
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)
+      .at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.OBSERVATION).at(OccurrenceCube.IS_GEOREFERENCED, true)));
+    assertEquals(0, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.FRANCE)));
+    // records without a year are not counted
+    assertEquals(2, cube.get(new ReadBuilder().at(OccurrenceCube.YEAR, 2001)));
+    assertEquals(0, cube.get(new ReadBuilder().at(OccurrenceCube.YEAR, 1900)));
+    // all taxa of the classification are counted
+    assertEquals(4, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 1)));
+    assertEquals(4, cube.get(new ReadBuilder().at(OccurrenceCube.TAXON_KEY, 212)));
+    assertEquals(4, cube.get(new ReadBuilder().at(OccurrenceCube.DATASET_KEY, DATASET_KEY)));
+  }
+
+  @Test
+  public void testGetTyped() {
+    InMemoryCubeService cube = cube();
+    CubeAddress a = new CubeAddress(OccurrenceCube.ROLLUP_RESOLVER);
+    assertEquals(4, cube.get(a));
+    assertEquals(3, cube.get(a.at(OccurrenceCube.COUNTRY, Country.DENMARK)));
+    assertEquals(1, cube.get(a.at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.PRESERVED_SPECIMEN)));
+    assertEquals(2, cube.get(a.reset().at(OccurrenceCube.YEAR, 2001)));
+    assertEquals(0, cube.get(a.reset().at(OccurrenceCube.YEAR, 1900)));
+    assertEquals(4, cube.get(a.reset().at(OccurrenceCube.DATASET_KEY, DATASET_KEY)));
+    assertEquals(0, cube.get(a.reset().at(OccurrenceCube.DATASET_KEY, UUID.randomUUID())));
+    assertEquals(4, cube.get(a.reset().at(OccurrenceCube.TAXON_KEY, 212)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetNoRollup() {
+    cube().get(new ReadBuilder().at(OccurrenceCube.YEAR, 2001).at(OccurrenceCube.COUNTRY, Country.DENMARK));
+  }
+
+  @Test
+  public void testGetAllAndSlice() {
+    InMemoryCubeService cube = cube();
+    assertArrayEquals(new long[] {3, 1, 4},
+                      cube.getAll(Arrays.asList(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK),
+                                                new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.GERMANY),
+                                                new ReadBuilder())));
+
+    long[] slice = cube.getSlice(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK),
+                                 OccurrenceCube.BASIS_OF_RECORD);
+    assertEquals(BasisOfRecord.values().length, slice.length);
+    assertEquals(2, slice[BasisOfRecord.OBSERVATION.ordinal()]);
+    assertEquals(1, slice[BasisOfRecord.PRESERVED_SPECIMEN.ordinal()]);
+    assertEquals(0, slice[BasisOfRecord.FOSSIL_SPECIMEN.ordinal()]);
+
+    assertArrayEquals(new long[] {1, 3}, cube.getSlice(new ReadBuilder(), OccurrenceCube.IS_GEOREFERENCED));
+  }
+
+  @Test
+  public void testDefaultGetAllAndSlice() {
+    final InMemoryCubeService cube = cube();
+    // a service implementing the single lookup only
+    CubeService simple = new CubeService() {
+      @Override
+      public long get(ReadBuilder addressBuilder) {
+        return cube.get(addressBuilder);
+      }
+
+      @Override
+      public List<Rollup> getSchema() {
+        return cube.getSchema();
+      }
+    };
+    List<ReadBuilder> addresses = Arrays.asList(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK),
+                                                new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.GERMANY),
+                                                new ReadBuilder());
+    assertArrayEquals(cube.getAll(addresses), simple.getAll(addresses));
+    ReadBuilder denmark = new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK);
+    assertArrayEquals(cube.getSlice(denmark, OccurrenceCube.BASIS_OF_RECORD),
+                      simple.getSlice(denmark, OccurrenceCube.BASIS_OF_RECORD));
+  }
+
+  @Test
+  public void testIssues() {
+    InMemoryCubeService cube = new InMemoryCubeService();
+    Occurrence o = occurrence(Country.DENMARK, BasisOfRecord.OBSERVATION, 2000, true);
+    o.setIssues(Sets.newHashSet(OccurrenceIssue.ZERO_COORDINATE, OccurrenceIssue.COUNTRY_INVALID));
+    cube.add(o);
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.ISSUE, OccurrenceIssue.ZERO_COORDINATE)));
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.ISSUE, OccurrenceIssue.COUNTRY_INVALID)));
+    // spatial issues exclude records from being georeferenced
+    assertEquals(0, cube.get(new ReadBuilder().at(OccurrenceCube.IS_GEOREFERENCED, true)));
+  }
+
+  @Test
+  public void testRemove() {
+    InMemoryCubeService cube = cube();
+    cube.remove(occurrence(Country.DENMARK, BasisOfRecord.OBSERVATION, 2001, false));
+    assertEquals(3, cube.get(new ReadBuilder()));
+    assertEquals(2, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)));
+    assertEquals(1, cube.get(new ReadBuilder().at(OccurrenceCube.YEAR, 2001)));
+  }
+
+  @Test
+  public void testAddAllAtomic() {
+    InMemoryCubeService cube = cube();
+    try {
+      cube.addAll(Arrays.asList(occurrence(Country.FRANCE, BasisOfRecord.OBSERVATION, 2001, true), null));
+      throw new AssertionError("Null occurrence added");
+    } catch (NullPointerException e) {
+      // expected
+    }
+    // nothing of the failed batch is counted
+    assertEquals(4, cube.get(new ReadBuilder()));
+    assertEquals(0, cube.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.FRANCE)));
+    assertEquals(2, cube.get(new ReadBuilder().at(OccurrenceCube.YEAR, 2001)));
+  }
+
+  @Test
+  public void testSnapshot() throws IOException {
+    InMemoryCubeService cube = cube();
+    File file = folder.newFile();
+    cube.snapshot(file);
+
+    InMemoryCubeService restored = InMemoryCubeService.restore(file);
+    assertEquals(4, restored.get(new ReadBuilder()));
+    assertEquals(2, restored.get(new ReadBuilder().at(OccurrenceCube.COUNTRY, Country.DENMARK)
+      .at(OccurrenceCube.BASIS_OF_RECORD, BasisOfRecord.OBSERVATION)));
+    assertEquals(2, restored.get(new ReadBuilder().at(OccurrenceCube.YEAR, 2001)));
+    assertEquals(4, restored.get(new ReadBuilder().at(OccurrenceCube.DATASET_KEY, DATASET_KEY)));
+
+    // restored cubes continue counting
+    restored.add(occurrence(Country.GERMANY, BasisOfRecord.OBSERVATION, 2001, true));
+    assertEquals(3, restored.get(new ReadBuilder().at(OccurrenceCube.YEAR, 2001)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testRestoreInvalid() throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    InMemoryCubeService.restore(file);
+  }
+}
@@ -0,0 +1,87 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeometryIndexTest {
+
+  private static final WithinPredicate SQUARE = new WithinPredicate("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))");
+  private static final WithinPredicate TRIANGLE = new WithinPredicate("POLYGON ((5 5, 20 5, 5 20, 5 5))");
+
+  @Test
+  public void testCovers() {
+    GeometryIndex index = new GeometryIndex(Arrays.asList(SQUARE, TRIANGLE, SQUARE));
+    assertEquals(2, index.size());
+
+    // latitude first
+    assertTrue(index.covers(2, 1));
+    assertTrue(index.covers(15, 5));
+    assertFalse(index.covers(15, 15));
+    assertFalse(index.covers(-1, 5));
+    // boundary is included
+    assertTrue(index.covers(10, 0));
+
+    assertEquals(Collections.singletonList(SQUARE), index.coveringGeometries(1, 1));
+    assertEquals(2, index.coveringGeometries(7, 7).size());
+    assertTrue(index.coveringGeometries(15, 15).isEmpty());
+  }
+
+  @Test
+  public void testEmpty() {
+    GeometryIndex index = new GeometryIndex(Collections.<WithinPredicate>emptyList());
+    assertEquals(0, index.size());
+    assertFalse(index.covers(0, 0));
+    assertTrue(index.coveringGeometries(0, 0).isEmpty());
+  }
+
+  @Test
+  public void testOf() {
+    Predicate dk = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DK");
+    Predicate p = new ConjunctionPredicate(Arrays.asList(
+      dk,
+      new DisjunctionPredicate(Arrays.asList(SQUARE, new NotPredicate(TRIANGLE))),
+      new EqualsPredicate(OccurrenceSearchParameter.GEOMETRY, "POLYGON ((30 30, 40 30, 40 40, 30 30))"),
+      new InPredicate(OccurrenceSearchParameter.GEOMETRY, Arrays.asList("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))",
+                                                                        "POLYGON ((50 50, 60 50, 60 60, 50 50))"))));
+    GeometryIndex index = GeometryIndex.of(p);
+    assertEquals(4, index.size());
+    assertTrue(index.covers(31, 39));
+    assertTrue(index.covers(51, 59));
+    assertFalse(index.covers(59, 51));
+  }
+
+  @Test
+  public void testManyGeometries() {
+    List<WithinPredicate> squares = new ArrayList<WithinPredicate>();
+    for (int x = -180; x < 180; x += 2) {
+      for (int y = -90; y < 90; y += 10) {
+        squares.add(new WithinPredicate("POLYGON ((" + x + ' ' + y + ", " + (x + 1) + ' ' + y + ", " + (x + 1) + ' '
+                                        + (y + 1) + ", " + x + ' ' + (y + 1) + ", " + x + ' ' + y + "))"));
+      }
+    }
+    GeometryIndex index = new GeometryIndex(squares);
+    assertEquals(squares.size(), index.size());
+    assertTrue(index.covers(0.5, 0.5));
+    assertFalse(index.covers(-89.5, 179.5));
+    assertTrue(index.covers(-89.5, 178.5));
+    assertFalse(index.covers(0.5, 1.5));
+    assertFalse(index.covers(5, 0.5));
+  }
+}
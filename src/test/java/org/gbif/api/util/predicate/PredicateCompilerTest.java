@@ -0,0 +1,258 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.Occurrence;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.LikePredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+import org.gbif.api.vocabulary.BasisOfRecord;
+import org.gbif.api.vocabulary.Country;
+import org.gbif.api.vocabulary.OccurrenceIssue;
+import org.gbif.dwc.terms.DwcTerm;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PredicateCompilerTest {
+
+  private static final UUID DATASET_KEY = UUID.fromString("7ddf754f-d193-4cc9-b351-99906754a03b");
+
+  private static Occurrence occurrence() {
+    Occurrence o = new Occurrence();
+    o.setKey(1);
+    o.setDatasetKey(DATASET_KEY);
+    o.setBasisOfRecord(BasisOfRecord.PRESERVED_SPECIMEN);
+    o.setCountry(Country.DENMARK);
+    o.setPublishingCountry(Country.GERMANY);
+    o.setTaxonKey(5231190);
+    o.setKingdomKey(1);
+    o.setClassKey(212);
+    o.setScientificName("Passer domesticus (Linnaeus, 1758)");
+    o.setYear(1998);
+    o.setMonth(7);
+    o.setDecimalLatitude(15d);
+    o.setDecimalLongitude(25d);
+    Calendar cal = Calendar.getInstance();
+    cal.clear();
+    cal.set(1998, Calendar.JULY, 31, 18, 30);
+    o.setEventDate(cal.getTime());
+    o.setVerbatimField(DwcTerm.catalogNumber, "ZMUC-1234");
+    return o;
+  }
+
+  private static boolean matches(Predicate p, Occurrence o) {
+    return PredicateCompiler.compile(p).test(o);
+  }
+
+  @Test
+  public void testEquals() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DK"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DE"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.PUBLISHING_COUNTRY, "DE"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.BASIS_OF_RECORD, "preserved specimen"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.DATASET_KEY, DATASET_KEY.toString()), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "ZMUC-1234"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.REPATRIATED, "true"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.HAS_COORDINATE, "true"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.HAS_GEOSPATIAL_ISSUE, "true"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.STATE_PROVINCE, "Hovedstaden"), o));
+
+    o.addIssue(OccurrenceIssue.ZERO_COORDINATE);
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.HAS_GEOSPATIAL_ISSUE, "true"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.ISSUE, "ZERO_COORDINATE"), o));
+  }
+
+  @Test
+  public void testTaxonKey() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, "5231190"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, "212"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, "44"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.CLASS_KEY, "1"), o));
+  }
+
+  @Test
+  public void testRanges() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "1990,2000"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "*,1998"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "1999,*"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.DECIMAL_LATITUDE, "10,20.5"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.DECIMAL_LATITUDE, "15"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.YEAR, "*"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.ELEVATION, "*"), o));
+  }
+
+  @Test
+  public void testDates() {
+    Occurrence o = occurrence();
+    // single dates cover their whole period, including the time of day
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-07"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-07-31"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-08"), o));
+    assertTrue(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1990,1998-07"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1990,1998-06"), o));
+    assertTrue(matches(new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-07-31"), o));
+    assertFalse(matches(new LessThanPredicate(OccurrenceSearchParameter.EVENT_DATE, "1998-07-31"), o));
+    assertFalse(matches(new EqualsPredicate(OccurrenceSearchParameter.LAST_INTERPRETED, "1998"), o));
+  }
+
+  private static boolean matchesDate(Predicate p, int year, int month, int day) {
+    Occurrence o = occurrence();
+    Calendar cal = Calendar.getInstance();
+    cal.clear();
+    cal.set(year, month, day, 12, 0);
+    o.setEventDate(cal.getTime());
+    return matches(p, o);
+  }
+
+  @Test
+  public void testDateComparisons() {
+    // comparisons with a year or month compare with the whole period
+    Predicate p = new LessThanOrEqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "2010");
+    assertTrue(matchesDate(p, 2010, Calendar.JUNE, 15));
+    assertTrue(matchesDate(p, 2010, Calendar.DECEMBER, 31));
+    assertFalse(matchesDate(p, 2011, Calendar.JANUARY, 1));
+
+    p = new GreaterThanPredicate(OccurrenceSearchParameter.EVENT_DATE, "2010");
+    assertFalse(matchesDate(p, 2010, Calendar.DECEMBER, 31));
+    assertTrue(matchesDate(p, 2011, Calendar.JANUARY, 1));
+
+    p = new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "2010");
+    assertFalse(matchesDate(p, 2009, Calendar.DECEMBER, 31));
+    assertTrue(matchesDate(p, 2010, Calendar.JANUARY, 1));
+
+    p = new LessThanPredicate(OccurrenceSearchParameter.EVENT_DATE, "2010");
+    assertTrue(matchesDate(p, 2009, Calendar.DECEMBER, 31));
+    assertFalse(matchesDate(p, 2010, Calendar.JANUARY, 1));
+
+    p = new LessThanOrEqualsPredicate(OccurrenceSearchParameter.EVENT_DATE, "2010-02");
+    assertTrue(matchesDate(p, 2010, Calendar.FEBRUARY, 28));
+    assertFalse(matchesDate(p, 2010, Calendar.MARCH, 1));
+
+    p = new GreaterThanPredicate(OccurrenceSearchParameter.EVENT_DATE, "2010-02");
+    assertFalse(matchesDate(p, 2010, Calendar.FEBRUARY, 28));
+    assertTrue(matchesDate(p, 2010, Calendar.MARCH, 1));
+
+    p = new LessThanPredicate(OccurrenceSearchParameter.EVENT_DATE, "2010-02");
+    assertTrue(matchesDate(p, 2010, Calendar.JANUARY, 31));
+    assertFalse(matchesDate(p, 2010, Calendar.FEBRUARY, 1));
+  }
+
+  @Test
+  public void testComparisons() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new GreaterThanOrEqualsPredicate(OccurrenceSearchParameter.YEAR, "1998"), o));
+    assertFalse(matches(new LessThanPredicate(OccurrenceSearchParameter.YEAR, "1998"), o));
+    assertTrue(matches(new LessThanPredicate(OccurrenceSearchParameter.DECIMAL_LONGITUDE, "25.1"), o));
+    assertFalse(matches(new LessThanPredicate(OccurrenceSearchParameter.DEPTH, "10"), o));
+  }
+
+  @Test
+  public void testIn() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new InPredicate(OccurrenceSearchParameter.COUNTRY, Arrays.asList("DE", "DK")), o));
+    assertFalse(matches(new InPredicate(OccurrenceSearchParameter.COUNTRY, Arrays.asList("DE", "FR")), o));
+    assertTrue(matches(new InPredicate(OccurrenceSearchParameter.TAXON_KEY, Arrays.asList("44", "212")), o));
+    assertTrue(matches(new InPredicate(OccurrenceSearchParameter.YEAR, Arrays.asList("1800", "1990,2000")), o));
+    assertFalse(matches(new InPredicate(OccurrenceSearchParameter.MONTH, Arrays.asList("1", "2,6")), o));
+    assertTrue(matches(new InPredicate(OccurrenceSearchParameter.GEOMETRY,
+      Arrays.asList("POLYGON ((0 0, 1 0, 1 1, 0 1, 0 0))", "POLYGON ((20 10, 30 10, 30 20, 20 20, 20 10))")), o));
+  }
+
+  @Test
+  public void testLike() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.SCIENTIFIC_NAME, "Passer%"), o));
+    assertFalse(matches(new LikePredicate(OccurrenceSearchParameter.SCIENTIFIC_NAME, "Passer"), o));
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.SCIENTIFIC_NAME, "%domesticus%"), o));
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.SCIENTIFIC_NAME, "P_sser % (Linnaeus, 1758)"), o));
+    assertFalse(matches(new LikePredicate(OccurrenceSearchParameter.SCIENTIFIC_NAME, "P_ser%"), o));
+    // regex characters are literals
+    assertTrue(matches(new LikePredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "ZMUC-____"), o));
+    assertFalse(matches(new LikePredicate(OccurrenceSearchParameter.CATALOG_NUMBER, "ZMUC.%"), o));
+  }
+
+  @Test
+  public void testWithin() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new WithinPredicate("POLYGON ((10 10, 30 10, 30 20, 10 20, 10 10))"), o));
+    // boundary is included
+    assertTrue(matches(new WithinPredicate("POLYGON ((25 10, 30 10, 30 20, 25 20, 25 10))"), o));
+    assertFalse(matches(new WithinPredicate("POLYGON ((0 0, 1 0, 1 1, 0 1, 0 0))"), o));
+
+    o.setDecimalLatitude(null);
+    assertFalse(matches(new WithinPredicate("POLYGON ((10 10, 30 10, 30 20, 10 20, 10 10))"), o));
+  }
+
+  @Test
+  public void testManyWithin() {
+    Occurrence o = occurrence();
+    Predicate fr = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "FR");
+    Predicate[] squares = new Predicate[6];
+    for (int i = 0; i < squares.length; i++) {
+      squares[i] = new WithinPredicate(square(i * 10, 0, 5));
+    }
+    // disjunctions of many geometries are evaluated with an index
+    assertFalse(matches(new DisjunctionPredicate(Arrays.asList(squares)), o));
+    assertTrue(matches(new DisjunctionPredicate(Arrays.asList(fr, squares[0], squares[1], squares[2], squares[3],
+                                                              new WithinPredicate(square(20, 10, 5)))), o));
+    o.setDecimalLatitude(5d);
+    assertTrue(matches(new DisjunctionPredicate(Arrays.asList(squares)), o));
+    o.setDecimalLongitude(null);
+    assertFalse(matches(new DisjunctionPredicate(Arrays.asList(squares)), o));
+  }
+
+  private static String square(int x, int y, int size) {
+    return "POLYGON ((" + x + ' ' + y + ", " + (x + size) + ' ' + y + ", " + (x + size) + ' ' + (y + size) + ", "
+           + x + ' ' + (y + size) + ", " + x + ' ' + y + "))";
+  }
+
+  @Test
+  public void testCompound() {
+    Occurrence o = occurrence();
+    Predicate dk = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DK");
+    Predicate fr = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "FR");
+    Predicate within = new WithinPredicate("POLYGON ((10 10, 30 10, 30 20, 10 20, 10 10))");
+
+    assertTrue(matches(new ConjunctionPredicate(Arrays.asList(within, dk)), o));
+    assertFalse(matches(new ConjunctionPredicate(Arrays.asList(within, fr)), o));
+    assertTrue(matches(new DisjunctionPredicate(Arrays.asList(fr, within)), o));
+    assertFalse(matches(new DisjunctionPredicate(Arrays.asList(fr, new NotPredicate(within))), o));
+    assertTrue(matches(new NotPredicate(fr), o));
+    // negation includes missing values
+    assertTrue(matches(new NotPredicate(new EqualsPredicate(OccurrenceSearchParameter.CONTINENT, "EUROPE")), o));
+  }
+
+  @Test
+  public void testIsNotNull() {
+    Occurrence o = occurrence();
+    assertTrue(matches(new IsNotNullPredicate(OccurrenceSearchParameter.CATALOG_NUMBER), o));
+    assertTrue(matches(new IsNotNullPredicate(OccurrenceSearchParameter.TAXON_KEY), o));
+    assertFalse(matches(new IsNotNullPredicate(OccurrenceSearchParameter.MEDIA_TYPE), o));
+    assertFalse(matches(new IsNotNullPredicate(OccurrenceSearchParameter.RECORDED_BY), o));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedParameter() {
+    PredicateCompiler.compile(new EqualsPredicate(OccurrenceSearchParameter.CRAWL_ID, DATASET_KEY.toString()));
+  }
+}
@@ -0,0 +1,88 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.DownloadFormat;
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class PredicateFingerprintTest {
+
+  private static Predicate and(Predicate... predicates) {
+    return new ConjunctionPredicate(Arrays.asList(predicates));
+  }
+
+  private static Predicate or(Predicate... predicates) {
+    return new DisjunctionPredicate(Arrays.asList(predicates));
+  }
+
+  private static Predicate eq(OccurrenceSearchParameter key, String value) {
+    return new EqualsPredicate(key, value);
+  }
+
+  @Test
+  public void testEquivalentPredicates() {
+    Predicate p1 = and(eq(OccurrenceSearchParameter.TAXON_KEY, "212"),
+                       new InPredicate(OccurrenceSearchParameter.COUNTRY, Arrays.asList("DK", "DE")),
+                       new WithinPredicate("POLYGON ((0 0, 1 0, 1 1, 0 1, 0 0))"));
+    Predicate p2 = and(and(new WithinPredicate("POLYGON((0 0,1 0,1 1,0 1,0 0))"),
+                           or(eq(OccurrenceSearchParameter.COUNTRY, "de"), eq(OccurrenceSearchParameter.COUNTRY, "DK"))),
+                       eq(OccurrenceSearchParameter.TAXON_KEY, "212"));
+    assertEquals(PredicateFingerprint.canonical(p1), PredicateFingerprint.canonical(p2));
+    assertEquals(PredicateFingerprint.fingerprint(p1, DownloadFormat.DWCA),
+                 PredicateFingerprint.fingerprint(p2, DownloadFormat.DWCA));
+    assertNotEquals(PredicateFingerprint.fingerprint(p1, DownloadFormat.DWCA),
+                    PredicateFingerprint.fingerprint(p1, DownloadFormat.SIMPLE_CSV));
+  }
+
+  @Test
+  public void testCanonicalValues() {
+    assertEquals(PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.BASIS_OF_RECORD, "PRESERVED_SPECIMEN")),
+                 PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.BASIS_OF_RECORD, "preserved specimen")));
+    assertEquals(PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.YEAR, "1990,2000")),
+                 PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.YEAR, "1990 , 2000")));
+    assertEquals(
+      PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.DATASET_KEY, "7DDF754F-D193-4CC9-B351-99906754A03B")),
+      PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.DATASET_KEY, "7ddf754f-d193-4cc9-b351-99906754a03b")));
+    // strings are case sensitive
+    assertNotEquals(PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.CATALOG_NUMBER, "ab")),
+                    PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.CATALOG_NUMBER, "AB")));
+  }
+
+  @Test
+  public void testDifferentPredicates() {
+    assertNotEquals(PredicateFingerprint.canonical(and(eq(OccurrenceSearchParameter.COUNTRY, "DK"),
+                                                       eq(OccurrenceSearchParameter.YEAR, "2000"))),
+                    PredicateFingerprint.canonical(or(eq(OccurrenceSearchParameter.COUNTRY, "DK"),
+                                                      eq(OccurrenceSearchParameter.YEAR, "2000"))));
+    assertNotEquals(PredicateFingerprint.canonical(null),
+                    PredicateFingerprint.canonical(eq(OccurrenceSearchParameter.COUNTRY, "DK")));
+  }
+
+  @Test
+  public void testDelimitersInValues() {
+    Predicate in1 = new InPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, Arrays.asList("a,b", "c"));
+    Predicate in2 = new InPredicate(OccurrenceSearchParameter.CATALOG_NUMBER, Arrays.asList("a", "b,c"));
+    assertNotEquals(PredicateFingerprint.fingerprint(in1, DownloadFormat.DWCA),
+                    PredicateFingerprint.fingerprint(in2, DownloadFormat.DWCA));
+
+    // a single value resembling two children
+    Predicate and1 = and(eq(OccurrenceSearchParameter.CATALOG_NUMBER, "1),Equals(RECORD_NUMBER=2"),
+                         eq(OccurrenceSearchParameter.YEAR, "2000"));
+    Predicate and2 = and(eq(OccurrenceSearchParameter.CATALOG_NUMBER, "1"),
+                         eq(OccurrenceSearchParameter.RECORD_NUMBER, "2"),
+                         eq(OccurrenceSearchParameter.YEAR, "2000"));
+    assertNotEquals(PredicateFingerprint.fingerprint(and1, DownloadFormat.DWCA),
+                    PredicateFingerprint.fingerprint(and2, DownloadFormat.DWCA));
+  }
+}
@@ -0,0 +1,162 @@
+package org.gbif.api.util.predicate;
+
+import org.gbif.api.model.occurrence.predicate.ConjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.DisjunctionPredicate;
+import org.gbif.api.model.occurrence.predicate.EqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.GreaterThanPredicate;
+import org.gbif.api.model.occurrence.predicate.InPredicate;
+import org.gbif.api.model.occurrence.predicate.IsNotNullPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanOrEqualsPredicate;
+import org.gbif.api.model.occurrence.predicate.LessThanPredicate;
+import org.gbif.api.model.occurrence.predicate.NotPredicate;
+import org.gbif.api.model.occurrence.predicate.Predicate;
+import org.gbif.api.model.occurrence.predicate.WithinPredicate;
+import org.gbif.api.model.occurrence.search.OccurrenceSearchParameter;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PredicateNormalizerTest {
+
+  private static final Predicate DK = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DK");
+  private static final Predicate DE = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "DE");
+  private static final Predicate FR = new EqualsPredicate(OccurrenceSearchParameter.COUNTRY, "FR");
+  private static final Predicate AVES = new EqualsPredicate(OccurrenceSearchParameter.TAXON_KEY, "212");
+  private static final Predicate COORDS = new IsNotNullPredicate(OccurrenceSearchParameter.DECIMAL_LATITUDE);
+
+  private static Predicate and(Predicate... predicates) {
+    return new ConjunctionPredicate(Arrays.asList(predicates));
+  }
+
+  private static Predicate or(Predicate... predicates) {
+    return new DisjunctionPredicate(Arrays.asList(predicates));
+  }
+
+  private static Predicate not(Predicate predicate) {
+    return new NotPredicate(predicate);
+  }
+
+  private static Predicate in(OccurrenceSearchParameter key, String... values) {
+    return new InPredicate(key, Arrays.asList(values));
+  }
+
+  @Test
+  public void testFlatten() {
+    assertEquals(and(AVES, COORDS, DK), PredicateNormalizer.normalize(and(and(AVES, and(COORDS)), DK)));
+    assertEquals(or(AVES, COORDS), PredicateNormalizer.normalize(or(or(AVES), or(COORDS))));
+    assertEquals(AVES, PredicateNormalizer.normalize(and(or(AVES))));
+  }
+
+  @Test
+  public void testDuplicates() {
+    assertEquals(and(AVES, COORDS), PredicateNormalizer.normalize(and(AVES, COORDS, AVES, and(COORDS))));
+    assertEquals(in(OccurrenceSearchParameter.COUNTRY, "DK", "DE"),
+                 PredicateNormalizer.normalize(in(OccurrenceSearchParameter.COUNTRY, "DK", "DE", "DK")));
+    assertEquals(DK, PredicateNormalizer.normalize(in(OccurrenceSearchParameter.COUNTRY, "DK", "DK")));
+  }
+
+  @Test
+  public void testMergeEquals() {
+    assertEquals(in(OccurrenceSearchParameter.COUNTRY, "DK", "DE", "FR"),
+                 PredicateNormalizer.normalize(or(DK, or(DE, DK), in(OccurrenceSearchParameter.COUNTRY, "FR", "DE"))));
+    assertEquals(or(in(OccurrenceSearchParameter.COUNTRY, "DK", "FR"), AVES),
+                 PredicateNormalizer.normalize(or(DK, AVES, FR)));
+    // only within disjunctions
+    assertEquals(and(DK, DE), PredicateNormalizer.normalize(and(DK, DE)));
+    // geometries are kept
+    Predicate g1 = new EqualsPredicate(OccurrenceSearchParameter.GEOMETRY, "POLYGON ((0 0, 1 0, 1 1, 0 1, 0 0))");
+    Predicate g2 = new EqualsPredicate(OccurrenceSearchParameter.GEOMETRY, "POLYGON ((2 2, 3 2, 3 3, 2 3, 2 2))");
+    assertEquals(or(g1, g2), PredicateNormalizer.normalize(or(g1, g2)));
+  }
+
+  @Test
+  public void testPushNot() {
+    assertEquals(DK, PredicateNormalizer.normalize(not(not(DK))));
+    assertEquals(or(not(AVES), not(COORDS)), PredicateNormalizer.normalize(not(and(AVES, COORDS))));
+    assertEquals(and(not(AVES), COORDS), PredicateNormalizer.normalize(not(or(AVES, not(COORDS)))));
+    assertEquals(and(not(DK), not(DE)), PredicateNormalizer.normalize(not(or(DK, DE))));
+    assertEquals(not(in(OccurrenceSearchParameter.COUNTRY, "DK", "DE")),
+                 PredicateNormalizer.normalize(not(in(OccurrenceSearchParameter.COUNTRY, "DK", "DE", "DK"))));
+  }
+
+  @Test
+  public void testMergeBounds() {
+    OccurrenceSearchParameter year = OccurrenceSearchParameter.YEAR;
+    assertEquals(and(new EqualsPredicate(year, "1990,1999"), DK),
+                 PredicateNormalizer.normalize(and(new GreaterThanOrEqualsPredicate(year, "1990"), DK,
+                                                   new LessThanPredicate(year, "2000"))));
+    assertEquals(new EqualsPredicate(year, "1991,2000"),
+                 PredicateNormalizer.normalize(and(new GreaterThanPredicate(year, "1990"),
+                                                   new GreaterThanOrEqualsPredicate(year, "1980"),
+                                                   new LessThanOrEqualsPredicate(year, "2000"))));
+
+    // tightest bounds only
+    OccurrenceSearchParameter lat = OccurrenceSearchParameter.DECIMAL_LATITUDE;
+    assertEquals(new GreaterThanPredicate(lat, "10.5"),
+                 PredicateNormalizer.normalize(and(new GreaterThanPredicate(lat, "10.5"),
+                                                   new GreaterThanOrEqualsPredicate(lat, "10.5"),
+                                                   new GreaterThanPredicate(lat, "-3"))));
+    assertEquals(new EqualsPredicate(lat, "-3,10.5"),
+                 PredicateNormalizer.normalize(and(new LessThanOrEqualsPredicate(lat, "10.5"),
+                                                   new GreaterThanOrEqualsPredicate(lat, "-3"))));
+    // exclusive decimal bounds cannot be expressed as a range
+    assertEquals(and(new GreaterThanPredicate(lat, "-3"), new LessThanOrEqualsPredicate(lat, "10.5")),
+                 PredicateNormalizer.normalize(and(new LessThanOrEqualsPredicate(lat, "10.5"),
+                                                   new GreaterThanPredicate(lat, "-3"))));
+
+    // dates keep their bounds, as range limits cover whole periods
+    OccurrenceSearchParameter date = OccurrenceSearchParameter.EVENT_DATE;
+    assertEquals(and(new GreaterThanOrEqualsPredicate(date, "2000-02"), new LessThanPredicate(date, "2001")),
+                 PredicateNormalizer.normalize(and(new GreaterThanOrEqualsPredicate(date, "2000"),
+                                                   new GreaterThanOrEqualsPredicate(date, "2000-02"),
+                                                   new LessThanPredicate(date, "2001"))));
+    // upper date bounds include their whole period
+    assertEquals(new LessThanOrEqualsPredicate(date, "2010-06"),
+                 PredicateNormalizer.normalize(and(new LessThanOrEqualsPredicate(date, "2010"),
+                                                   new LessThanOrEqualsPredicate(date, "2010-06"))));
+    assertEquals(new GreaterThanPredicate(date, "2010"),
+                 PredicateNormalizer.normalize(and(new GreaterThanOrEqualsPredicate(date, "2010-06"),
+                                                   new GreaterThanPredicate(date, "2010"))));
+
+    // empty ranges are kept as they are
+    assertEquals(and(new GreaterThanPredicate(year, "2000"), new LessThanPredicate(year, "1990")),
+                 PredicateNormalizer.normalize(and(new GreaterThanPredicate(year, "2000"),
+                                                   new LessThanPredicate(year, "1990"))));
+  }
+
+  @Test
+  public void testMultiValuedBounds() {
+    // different taxon keys of a record might meet the lower and the upper bound
+    OccurrenceSearchParameter taxon = OccurrenceSearchParameter.TAXON_KEY;
+    assertEquals(and(new GreaterThanOrEqualsPredicate(taxon, "10"), new LessThanOrEqualsPredicate(taxon, "20")),
+                 PredicateNormalizer.normalize(and(new GreaterThanOrEqualsPredicate(taxon, "10"),
+                                                   new LessThanOrEqualsPredicate(taxon, "20"))));
+    assertEquals(new GreaterThanOrEqualsPredicate(taxon, "10"),
+                 PredicateNormalizer.normalize(and(new GreaterThanOrEqualsPredicate(taxon, "5"),
+                                                   new GreaterThanOrEqualsPredicate(taxon, "10"))));
+  }
+
+  @Test
+  public void testIntegerLimits() {
+    OccurrenceSearchParameter year = OccurrenceSearchParameter.YEAR;
+    String max = String.valueOf(Integer.MAX_VALUE);
+    String min = String.valueOf(Integer.MIN_VALUE);
+    assertEquals(and(new GreaterThanPredicate(year, max), new LessThanOrEqualsPredicate(year, "2000")),
+                 PredicateNormalizer.normalize(and(new GreaterThanPredicate(year, max),
+                                                   new LessThanOrEqualsPredicate(year, "2000"))));
+    assertEquals(and(new GreaterThanOrEqualsPredicate(year, "1990"), new LessThanPredicate(year, min)),
+                 PredicateNormalizer.normalize(and(new GreaterThanOrEqualsPredicate(year, "1990"),
+                                                   new LessThanPredicate(year, min))));
+  }
+
+  @Test
+  public void testUnchanged() {
+    Predicate within = new WithinPredicate("POLYGON ((0 0, 1 0, 1 1, 0 1, 0 0))");
+    Predicate p = and(or(DK, AVES), within, not(COORDS));
+    assertEquals(p, PredicateNormalizer.normalize(p));
+  }
+}
@@ -23,6 +23,7 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -32,6 +33,27 @@ public class CountryTest {
   public void testFromIsoCode() throws Exception {
     assertEquals(Country.ARGENTINA, Country.fromIsoCode("ar"));
     assertEquals(Country.ARGENTINA, Country.fromIsoCode("AR"));
+    assertEquals(Country.ARGENTINA, Country.fromIsoCode(" arg "));
+    assertEquals(Country.GERMANY, Country.fromIsoCode("DEU"));
+    assertNull(Country.fromIsoCode(null));
+    assertNull(Country.fromIsoCode(""));
+    assertNull(Country.fromIsoCode("A"));
+    assertNull(Country.fromIsoCode("ARGE"));
+    assertNull(Country.fromIsoCode("A1"));
+    assertNull(Country.fromIsoCode("QQ"));
+    for (Country c : Country.values()) {
+      assertEquals(c, Country.fromIsoCode(c.getIso2LetterCode().toLowerCase()));
+      assertEquals(c, Country.fromIsoCode(c.getIso3LetterCode()));
+    }
+  }
+
+  @Test
+  public void testFromIsoCodeRange() throws Exception {
+    String buffer = "x,de,FRA,a";
+    assertEquals(Country.GERMANY, Country.fromIsoCode(buffer, 2, 4));
+    assertEquals(Country.FRANCE, Country.fromIsoCode(new StringBuilder(buffer), 5, 8));
+    assertNull(Country.fromIsoCode(buffer, 0, 1));
+    assertNull(Country.fromIsoCode(buffer, 0, 4));
   }
 
   @Test
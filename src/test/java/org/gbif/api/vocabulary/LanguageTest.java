@@ -35,6 +35,19 @@ public class LanguageTest {
     assertEquals(Language.GERMAN, Language.fromIsoCode("de"));
     assertEquals(Language.GERMAN, Language.fromIsoCode("DEU"));
     assertEquals(Language.GERMAN, Language.fromIsoCode("Deu"));
+    assertEquals(Language.GERMAN, Language.fromIsoCode(" de "));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode(null));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode("d"));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode("deut"));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode("qq"));
+  }
+
+  @Test
+  public void testFromIsoCodeRange() throws Exception {
+    String buffer = "en|deu";
+    assertEquals(Language.ENGLISH, Language.fromIsoCode(buffer, 0, 2));
+    assertEquals(Language.GERMAN, Language.fromIsoCode(buffer, 3, 6));
+    assertEquals(Language.UNKNOWN, Language.fromIsoCode(buffer, 0, 6));
   }
 
   @Test